@@ -0,0 +1,115 @@
+/*
+ * SonarQube Elixir benchmarks
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.benchmarks;
+
+import eu.arthepsy.sonar.plugins.elixir.checks.MultiPatternMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Line throughput of searching many literal texts, with one automaton
+ * for all texts and with one regular expression per text.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BannedTextBenchmark {
+    static final int LINES = 10000;
+
+    @Param({"3", "300"})
+    public int texts;
+
+    private String[] lines;
+    private MultiPatternMatcher matcher;
+    private Pattern[] patterns;
+    private int found;
+
+    private final MultiPatternMatcher.Listener listener = new MultiPatternMatcher.Listener() {
+        @Override
+        public void match(int pattern, int start, int end) {
+            found++;
+        }
+    };
+
+    @Setup
+    public void setup() {
+        lines = new ElixirCorpus(42L, 5).generate(LINES).split("\n");
+        List<String> literals = new ArrayList<>();
+        literals.add("IO.inspect");
+        literals.add("IEx.pry");
+        literals.add(":debugger");
+        for (int i = literals.size(); i < texts; i++) {
+            literals.add("Banned" + i + ".call");
+        }
+        matcher = new MultiPatternMatcher(literals);
+        patterns = new Pattern[literals.size()];
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = Pattern.compile(Pattern.quote(literals.get(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public int automaton(ThroughputCounters counters) {
+        found = 0;
+        for (String line : lines) {
+            matcher.find(line, 0, line.length(), listener);
+        }
+        counters.lines += LINES;
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public int regexPerText(ThroughputCounters counters) {
+        int count = 0;
+        for (String line : lines) {
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(line).find()) {
+                    count++;
+                }
+            }
+        }
+        counters.lines += LINES;
+        return count;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * SonarQube Elixir benchmarks
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generates synthetic, deterministic Elixir sources: modules with heredoc
+ * documentation, comments, documented and undocumented def/defp functions
+ * with branching bodies.
+ */
+public final class ElixirCorpus {
+    private final Random random;
+    private final int functionsPerModule;
+    private int moduleCount = 0;
+
+    public ElixirCorpus(long seed, int functionsPerModule) {
+        this.random = new Random(seed);
+        this.functionsPerModule = functionsPerModule;
+    }
+
+    /** Generates a source of exactly {@code lines} lines, each terminated by a line feed. */
+    public String generate(int lines) {
+        StringBuilder source = new StringBuilder(lines * 32);
+        int count = 0;
+        while (count < lines) {
+            count += appendModule(source, lines - count);
+        }
+        return source.toString();
+    }
+
+    private int appendModule(StringBuilder out, int budget) {
+        Lines lines = new Lines(out, budget);
+        String name = "Corpus.Module" + (moduleCount++);
+        lines.add("defmodule " + name + " do");
+        lines.add("  @moduledoc \"\"\"");
+        lines.add("  Generated module " + name + ".");
+        lines.add("");
+        lines.add("  Used to benchmark the analysis of Elixir sources.");
+        lines.add("  \"\"\"");
+        lines.add("");
+        lines.add("  alias Corpus.Helper");
+        lines.add("");
+        for (int i = 0; i < functionsPerModule; i++) {
+            appendFunction(lines, i);
+        }
+        lines.add("end");
+        return lines.count;
+    }
+
+    private void appendFunction(Lines lines, int index) {
+        boolean isPrivate = random.nextInt(4) == 0;
+        switch (random.nextInt(4)) {
+            case 0:
+                lines.add("  @doc \"Function number " + index + ".\"");
+                break;
+            case 1:
+                lines.add("  @doc \"\"\"");
+                lines.add("  Function number " + index + ".");
+                lines.add("");
+                lines.add("  ## Examples");
+                lines.add("");
+                lines.add("      iex> fun_" + index + "(1, 2)");
+                lines.add("      :ok");
+                lines.add("  \"\"\"");
+                break;
+            case 2:
+                lines.add("  # function number " + index);
+                lines.add("  # has no documentation");
+                break;
+            default:
+                lines.add("  @doc false");
+                break;
+        }
+        lines.add("  " + (isPrivate ? "defp" : "def") + " fun_" + index + "(value, opts \\\\ []) do");
+        int statements = 1 + random.nextInt(6);
+        for (int i = 0; i < statements; i++) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    lines.add("    case Helper.check(value, opts) do");
+                    lines.add("      {:ok, result} -> result");
+                    lines.add("      {:error, reason} -> raise ArgumentError, \"failed: #{inspect(reason)}\"");
+                    lines.add("    end");
+                    break;
+                case 1:
+                    lines.add("    if value > " + i + " and Keyword.get(opts, :strict, false) do");
+                    lines.add("      value |> Helper.normalize() |> Enum.map(&(&1 * 2))");
+                    lines.add("    end");
+                    break;
+                default:
+                    lines.add("    # step " + i);
+                    lines.add("    value = Map.put(value, :step, " + i + ")");
+                    break;
+            }
+        }
+        lines.add("    :ok");
+        lines.add("  end");
+        lines.add("");
+    }
+
+    private static final class Lines {
+        private final StringBuilder out;
+        private final int budget;
+        private int count = 0;
+
+        private Lines(StringBuilder out, int budget) {
+            this.out = out;
+            this.budget = budget;
+        }
+
+        private void add(String line) {
+            if (count < budget) {
+                out.append(line).append('\n');
+                count++;
+            }
+        }
+    }
+}
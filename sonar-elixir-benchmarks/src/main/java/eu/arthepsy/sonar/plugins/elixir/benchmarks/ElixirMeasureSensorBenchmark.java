@@ -0,0 +1,138 @@
+/*
+ * SonarQube Elixir benchmarks
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.benchmarks;
+
+import eu.arthepsy.sonar.plugins.elixir.ElixirConfiguration;
+import eu.arthepsy.sonar.plugins.elixir.checks.CheckList;
+import eu.arthepsy.sonar.plugins.elixir.language.Elixir;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirMeasureSensor;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.component.ResourcePerspectives;
+import org.sonar.api.config.PropertyDefinitions;
+import org.sonar.api.config.Settings;
+import org.sonar.api.resources.Project;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.utils.AnnotationUtils;
+import org.sonar.check.Rule;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Full sensor throughput (read, parse, run checks, save measures) on a generated
+ * project. The primary score is files per second; run with {@code -prof gc}
+ * to get {@code gc.alloc.rate.norm} in bytes per file.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ElixirMeasureSensorBenchmark {
+    static final int FILES = 200;
+    static final int LINES_PER_FILE = 500;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    /** Whether all rules of the Elixir repository are active, or only metrics are computed. */
+    @Param({"false", "true"})
+    public boolean rules;
+
+    private final Project project = new Project("benchmark");
+    private File baseDir;
+    private long bytes;
+    private ElixirMeasureSensor sensor;
+    private SensorContext context;
+
+    @Setup
+    public void setup() throws IOException {
+        baseDir = Files.createTempDirectory("elixir-benchmark").toFile();
+        DefaultFileSystem fileSystem = new DefaultFileSystem();
+        fileSystem.setBaseDir(baseDir);
+        fileSystem.setEncoding(StandardCharsets.UTF_8);
+        ElixirCorpus corpus = new ElixirCorpus(42L, 10);
+        for (int i = 0; i < FILES; i++) {
+            String fileName = "lib/file_" + i + ".ex";
+            File file = new File(baseDir, fileName);
+            byte[] content = corpus.generate(LINES_PER_FILE).getBytes(StandardCharsets.UTF_8);
+            FileUtils.writeByteArrayToFile(file, content);
+            bytes += content.length;
+            fileSystem.add(new DefaultInputFile(fileName)
+                    .setAbsolutePath(file.getAbsolutePath())
+                    .setLanguage(Elixir.KEY));
+        }
+
+        Settings settings = new Settings(new PropertyDefinitions(ElixirConfiguration.getPropertyDefinitions()));
+        settings.setProperty(ElixirConfiguration.THREADS_KEY, threads);
+        settings.setProperty(ElixirConfiguration.CACHE_KEY, false);
+        ActiveRulesBuilder activeRules = new ActiveRulesBuilder();
+        if (rules) {
+            for (Class check : CheckList.getChecks()) {
+                Rule rule = AnnotationUtils.getAnnotation(check, Rule.class);
+                activeRules.create(RuleKey.of(CheckList.REPOSITORY_KEY, rule.key())).activate();
+            }
+        }
+        sensor = new ElixirMeasureSensor(fileSystem, settings, mock(ResourcePerspectives.class, withSettings().stubOnly()),
+                activeRules.build());
+        context = mock(SensorContext.class, withSettings().stubOnly());
+    }
+
+    @TearDown
+    public void tearDown() {
+        FileUtils.deleteQuietly(baseDir);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILES)
+    public void analyse(ThroughputCounters counters) {
+        sensor.analyse(project, context);
+        counters.lines += FILES * LINES_PER_FILE;
+        counters.bytes += bytes;
+    }
+}
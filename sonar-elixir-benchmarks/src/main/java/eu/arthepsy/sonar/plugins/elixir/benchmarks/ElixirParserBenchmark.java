@@ -0,0 +1,116 @@
+/*
+ * SonarQube Elixir benchmarks
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.benchmarks;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirFileMetrics;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirParser;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirSourceReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parser throughput. The primary score is lines per second; run with
+ * {@code -prof gc} to get {@code gc.alloc.rate.norm} in bytes per line.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ElixirParserBenchmark {
+    static final int LINES = 10000;
+
+    @Param({"5", "50"})
+    public int functionsPerModule;
+
+    private final ElixirParser parser = new ElixirParser();
+    private String content;
+    private List<String> lines;
+    private ByteBuffer encoded;
+    private long bytes;
+
+    @Setup
+    public void setup() {
+        content = new ElixirCorpus(42L, functionsPerModule).generate(LINES);
+        lines = Arrays.asList(content.split("\n", -1)).subList(0, LINES);
+        encoded = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+        bytes = encoded.remaining();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public ElixirFileMetrics parseContent(ThroughputCounters counters) {
+        ElixirFileMetrics metrics = parser.parse(content);
+        counters.lines += LINES;
+        counters.bytes += bytes;
+        return metrics;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public ElixirFileMetrics parseLineList(ThroughputCounters counters) {
+        ElixirFileMetrics metrics = parser.parse(lines);
+        counters.lines += LINES;
+        counters.bytes += bytes;
+        return metrics;
+    }
+
+    /** Decodes the UTF-8 bytes of the file before parsing, as for files with non-ASCII characters. */
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public ElixirFileMetrics decodeAndParse(ThroughputCounters counters) throws IOException {
+        ElixirFileMetrics metrics = parser.parse(ElixirSourceReader.decode(encoded, StandardCharsets.UTF_8));
+        counters.lines += LINES;
+        counters.bytes += bytes;
+        return metrics;
+    }
+
+    /** Parses the bytes of the file directly, as for ASCII files. */
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public ElixirFileMetrics scanBytesAndParse(ThroughputCounters counters) {
+        ElixirFileMetrics metrics = parser.parse(ElixirSourceReader.asciiView(encoded, StandardCharsets.UTF_8));
+        counters.lines += LINES;
+        counters.bytes += bytes;
+        return metrics;
+    }
+}
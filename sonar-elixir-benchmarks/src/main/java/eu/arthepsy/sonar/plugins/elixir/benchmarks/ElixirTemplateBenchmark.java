@@ -0,0 +1,111 @@
+/*
+ * SonarQube Elixir benchmarks
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.benchmarks;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirComplexity;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirFileMetrics;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirHighlighter;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirModuleReferences;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirParser;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirSymbolizer;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTemplateReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of HEEx templates through {@link ElixirTemplateReader}, next to the same
+ * number of lines of Elixir parsed with the token visitors of the measure sensor,
+ * in lines per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ElixirTemplateBenchmark {
+    static final int LINES = 10000;
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private static final String[] TEMPLATE_LINES = {
+            "<div class=\"row\">",
+            "  <%= for item <- @items do %>",
+            "    <li class={item.class}>{item.name}</li>",
+            "  <% end %>",
+            "  <%# a comment %>",
+            "  <p><%= gettext(\"Welcome to %{name}!\", name: @name) %></p>",
+            "<%!-- a",
+            "  multi-line comment --%>",
+            "",
+            "</div>"
+    };
+
+    private final ElixirParser parser = new ElixirParser();
+    private String template;
+    private String elixir;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42L);
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            content.append(TEMPLATE_LINES[random.nextInt(TEMPLATE_LINES.length)]).append('\n');
+        }
+        template = content.toString();
+        elixir = new ElixirCorpus(42L, 5).generate(LINES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public ElixirFileMetrics parseTemplate(ThroughputCounters counters) throws IOException {
+        ElixirFileMetrics metrics = parser.parse(new ElixirTemplateReader(CharBuffer.wrap(template), true), CHUNK_SIZE);
+        counters.lines += LINES;
+        counters.bytes += template.length();
+        return metrics;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public ElixirFileMetrics parseElixir(ThroughputCounters counters) {
+        ElixirFileMetrics metrics = parser.parse(elixir, new ElixirComplexity(), new ElixirHighlighter(),
+                new ElixirSymbolizer(), new ElixirModuleReferences());
+        counters.lines += LINES;
+        counters.bytes += elixir.length();
+        return metrics;
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * SonarQube Elixir command line
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.cli;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirFileMetrics;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirParser;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirSourceReader;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTemplateReader;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prints the line, module, function and documentation metrics of Elixir files,
+ * for pre-commit hooks and quick local checks. Only the parser classes of the
+ * plugin are used, which do not depend on the Sonar API, so the executable jar
+ * starts as fast as the JVM.
+ * <pre>
+ * java -jar elixir-cli.jar [--format table|json] [--threads N] [--encoding UTF-8] [file or directory...]
+ * </pre>
+ * Directories are searched recursively for Elixir files and EEx, HEEx and LEEx templates,
+ * skipping hidden directories, {@code _build} and {@code deps}. Files are parsed in parallel and listed by path.
+ */
+public final class ElixirCli {
+    /** Same as {@code Elixir.FILE_SUFFIXES}, which cannot be loaded without the Sonar API. */
+    static final String[] FILE_SUFFIXES = {"ex", "exs", "eex", "heex", "leex"};
+
+    private static final int TEMPLATE_CHUNK_SIZE = 1 << 16;
+
+    static final int OK = 0;
+    static final int READ_ERRORS = 1;
+    static final int USAGE_ERROR = 2;
+
+    private static final String USAGE = "usage: java -jar elixir-cli.jar [--format table|json] [--threads N] "
+            + "[--encoding CHARSET] [file or directory...]";
+
+    private final ThreadLocal<ElixirParser> parsers = new ThreadLocal<ElixirParser>() {
+        @Override
+        protected ElixirParser initialValue() {
+            return new ElixirParser();
+        }
+    };
+
+    private boolean json;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Charset charset = StandardCharsets.UTF_8;
+    private final List<Path> roots = new ArrayList<>();
+
+    private ElixirCli() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        ElixirCli cli = new ElixirCli();
+        String error = cli.parseArguments(args);
+        if (error != null) {
+            err.println(error);
+            err.println(USAGE);
+            return USAGE_ERROR;
+        }
+        List<Path> files = new ArrayList<>();
+        for (Path root : cli.roots) {
+            if (!Files.exists(root)) {
+                err.println("no such file or directory: " + root);
+                return USAGE_ERROR;
+            }
+            try {
+                collect(root, files);
+            } catch (IOException e) {
+                err.println("could not list " + root + ": " + e.getMessage());
+                return READ_ERRORS;
+            }
+        }
+        Collections.sort(files, new Comparator<Path>() {
+            @Override
+            public int compare(Path a, Path b) {
+                return a.toString().compareTo(b.toString());
+            }
+        });
+        List<ElixirFileMetrics> metrics = cli.parse(files, err);
+
+        ElixirFileMetrics total = ElixirFileMetrics.EMPTY;
+        int count = 0;
+        for (ElixirFileMetrics fileMetrics : metrics) {
+            if (fileMetrics != null) {
+                total = total.plus(fileMetrics);
+                count++;
+            }
+        }
+        if (cli.json) {
+            printJson(files, metrics, total, count, out);
+        } else {
+            printTable(files, metrics, total, count, out);
+        }
+        return count == files.size() ? OK : READ_ERRORS;
+    }
+
+    /** Returns an error message, or {@code null} if the arguments are valid. */
+    private String parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                roots.add(Paths.get(arg));
+                continue;
+            }
+            if (i + 1 == args.length) {
+                return "missing value of " + arg;
+            }
+            String value = args[++i];
+            if ("--format".equals(arg) && ("json".equals(value) || "table".equals(value))) {
+                json = "json".equals(value);
+            } else if ("--threads".equals(arg) && value.matches("[1-9][0-9]{0,3}")) {
+                threads = Integer.parseInt(value);
+            } else if ("--encoding".equals(arg) && Charset.isSupported(value)) {
+                charset = Charset.forName(value);
+            } else {
+                return "invalid option: " + arg + " " + value;
+            }
+        }
+        if (roots.isEmpty()) {
+            roots.add(Paths.get("."));
+        }
+        return null;
+    }
+
+    private static void collect(Path root, final List<Path> files) throws IOException {
+        if (!Files.isDirectory(root)) {
+            files.add(root);
+            return;
+        }
+        final Path start = root;
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                String name = dir.getFileName() == null ? "" : dir.getFileName().toString();
+                if (!dir.equals(start) && (name.startsWith(".") || "_build".equals(name) || "deps".equals(name))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && hasElixirSuffix(file.getFileName().toString())) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    static boolean hasElixirSuffix(String fileName) {
+        for (String suffix : FILE_SUFFIXES) {
+            if (fileName.endsWith("." + suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Parses the files in parallel; the metrics of a file that could not be read are {@code null}. */
+    private List<ElixirFileMetrics> parse(List<Path> files, PrintStream err) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, files.size())));
+        try {
+            List<Future<ElixirFileMetrics>> futures = new ArrayList<>(files.size());
+            for (final Path file : files) {
+                futures.add(executor.submit(new Callable<ElixirFileMetrics>() {
+                    @Override
+                    public ElixirFileMetrics call() throws IOException {
+                        return parse(file);
+                    }
+                }));
+            }
+            List<ElixirFileMetrics> result = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                try {
+                    result.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    err.println("could not read " + files.get(i) + ": " + e.getCause().getMessage());
+                    result.add(null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.add(null);
+                }
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ElixirFileMetrics parse(Path file) throws IOException {
+        ByteBuffer bytes = ElixirSourceReader.readBytes(file);
+        CharSequence content = ElixirSourceReader.asciiView(bytes, charset);
+        String fileName = file.getFileName().toString();
+        if (ElixirTemplateReader.isTemplate(fileName)) {
+            Readable source = content != null ? CharBuffer.wrap(content) : ElixirSourceReader.newReader(bytes, charset);
+            try (Reader reader = ElixirTemplateReader.forFile(source, fileName)) {
+                return parsers.get().parse(reader, TEMPLATE_CHUNK_SIZE);
+            }
+        }
+        if (content == null) {
+            content = ElixirSourceReader.decode(bytes, charset);
+        }
+        return parsers.get().parse(content);
+    }
+
+    private static void printTable(List<Path> files, List<ElixirFileMetrics> metrics, ElixirFileMetrics total,
+                                   int count, PrintStream out) {
+        out.println(String.format(Locale.ROOT, "%8s %8s %8s %8s %9s %10s  %s",
+                "lines", "ncloc", "comments", "modules", "functions", "documented", "file"));
+        for (int i = 0; i < files.size(); i++) {
+            if (metrics.get(i) != null) {
+                out.println(tableRow(metrics.get(i), files.get(i).toString()));
+            }
+        }
+        out.println(tableRow(total, "total (" + count + (count == 1 ? " file)" : " files)")));
+    }
+
+    private static String tableRow(ElixirFileMetrics metrics, String label) {
+        return String.format(Locale.ROOT, "%8d %8d %8d %8d %9d %9.1f%%  %s",
+                metrics.getLineCount(), metrics.getLinesOfCode(), metrics.getCommentLineCount(),
+                metrics.getClassCount(), metrics.getPublicFunctionCount() + metrics.getPrivateFunctionCount(),
+                documentedApiDensity(metrics), label);
+    }
+
+    private static void printJson(List<Path> files, List<ElixirFileMetrics> metrics, ElixirFileMetrics total,
+                                  int count, PrintStream out) {
+        StringBuilder json = new StringBuilder("{\n  \"files\": [");
+        String separator = "\n";
+        for (int i = 0; i < files.size(); i++) {
+            if (metrics.get(i) != null) {
+                json.append(separator).append("    {\"path\": \"").append(escape(files.get(i).toString())).append("\", ");
+                appendJsonFields(json, metrics.get(i));
+                json.append('}');
+                separator = ",\n";
+            }
+        }
+        json.append("\n  ],\n  \"total\": {\"files\": ").append(count).append(", ");
+        appendJsonFields(json, total);
+        json.append("}\n}");
+        out.println(json);
+    }
+
+    private static void appendJsonFields(StringBuilder json, ElixirFileMetrics metrics) {
+        int publicApi = metrics.getPublicFunctionCount() + metrics.getClassCount();
+        int documentedApi = metrics.getDocumentedPublicFunctionCount() + metrics.getDocumentedClassCount();
+        json.append(String.format(Locale.ROOT, "\"lines\": %d, \"ncloc\": %d, \"commentLines\": %d, "
+                        + "\"modules\": %d, \"publicFunctions\": %d, \"privateFunctions\": %d, "
+                        + "\"publicApi\": %d, \"undocumentedApi\": %d, \"documentedApiDensity\": %.1f, "
+                        + "\"specifiedPublicFunctions\": %d, \"specDensity\": %.1f, \"types\": %d, \"callbacks\": %d",
+                metrics.getLineCount(), metrics.getLinesOfCode(), metrics.getCommentLineCount(),
+                metrics.getClassCount(), metrics.getPublicFunctionCount(), metrics.getPrivateFunctionCount(),
+                publicApi, publicApi - documentedApi, documentedApiDensity(metrics),
+                metrics.getSpecifiedPublicFunctionCount(), specDensity(metrics), metrics.getTypeCount(),
+                metrics.getCallbackCount()));
+    }
+
+    /** Documented share of the public API in percent, 100 when there is none, as for the Sonar measure. */
+    private static double documentedApiDensity(ElixirFileMetrics metrics) {
+        int publicApi = metrics.getPublicFunctionCount() + metrics.getClassCount();
+        int documentedApi = metrics.getDocumentedPublicFunctionCount() + metrics.getDocumentedClassCount();
+        return publicApi == 0 ? 100.0 : documentedApi * 100.0 / publicApi;
+    }
+
+    /** Share of public functions with a {@code @spec} in percent, 100 when there are none. */
+    private static double specDensity(ElixirFileMetrics metrics) {
+        int publicFunctions = metrics.getPublicFunctionCount();
+        return publicFunctions == 0 ? 100.0 : metrics.getSpecifiedPublicFunctionCount() * 100.0 / publicFunctions;
+    }
+
+    private static String escape(String value) {
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                result.append('\\').append(c);
+            } else if (c < ' ') {
+                result.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
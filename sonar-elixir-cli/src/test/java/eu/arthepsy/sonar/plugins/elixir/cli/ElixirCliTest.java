@@ -0,0 +1,156 @@
+/*
+ * SonarQube Elixir command line
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.cli;
+
+import eu.arthepsy.sonar.plugins.elixir.language.Elixir;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirCliTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private ByteArrayOutputStream out;
+    private ByteArrayOutputStream err;
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        out = new ByteArrayOutputStream();
+        err = new ByteArrayOutputStream();
+        root = temp.newFolder("project");
+        write("lib/a.ex", "defmodule A do\n  @moduledoc \"A\"\n\n  # comment\n  def a, do: 1\n  defp b, do: 2\nend\n");
+        write("lib/b.exs", "defmodule B do\n  @type t :: term\n  @doc \"b\"\n  @spec b :: 1\n  def b, do: 1\nend\n");
+        write("lib/readme.md", "defmodule C do\nend\n");
+        write("deps/dep/lib/dep.ex", "defmodule Dep do\nend\n");
+        write("_build/dev/lib/build.ex", "defmodule Build do\nend\n");
+        write(".hidden/hidden.ex", "defmodule Hidden do\nend\n");
+    }
+
+    @Test
+    public void testFileSuffixes() {
+        assertThat(ElixirCli.FILE_SUFFIXES).isEqualTo(Elixir.FILE_SUFFIXES);
+        assertThat(ElixirCli.hasElixirSuffix("a.ex")).isTrue();
+        assertThat(ElixirCli.hasElixirSuffix("a.exs")).isTrue();
+        assertThat(ElixirCli.hasElixirSuffix("a.html.heex")).isTrue();
+        assertThat(ElixirCli.hasElixirSuffix("a.exe")).isFalse();
+        assertThat(ElixirCli.hasElixirSuffix("ex")).isFalse();
+    }
+
+    @Test
+    public void testJson() throws IOException {
+        assertThat(run("--format", "json", "--threads", "2", root.getPath())).isEqualTo(ElixirCli.OK);
+        String a = new File(root, "lib/a.ex").getPath();
+        String b = new File(root, "lib/b.exs").getPath();
+        assertThat(output()).isEqualTo("{\n  \"files\": [\n"
+                + "    {\"path\": \"" + a + "\", \"lines\": 7, \"ncloc\": 4, \"commentLines\": 2, \"modules\": 1, "
+                + "\"publicFunctions\": 1, \"privateFunctions\": 1, \"publicApi\": 2, \"undocumentedApi\": 1, "
+                + "\"documentedApiDensity\": 50.0, \"specifiedPublicFunctions\": 0, \"specDensity\": 0.0, "
+                + "\"types\": 0, \"callbacks\": 0},\n"
+                + "    {\"path\": \"" + b + "\", \"lines\": 6, \"ncloc\": 5, \"commentLines\": 1, \"modules\": 1, "
+                + "\"publicFunctions\": 1, \"privateFunctions\": 0, \"publicApi\": 2, \"undocumentedApi\": 1, "
+                + "\"documentedApiDensity\": 50.0, \"specifiedPublicFunctions\": 1, \"specDensity\": 100.0, "
+                + "\"types\": 1, \"callbacks\": 0}\n"
+                + "  ],\n"
+                + "  \"total\": {\"files\": 2, \"lines\": 13, \"ncloc\": 9, \"commentLines\": 3, \"modules\": 2, "
+                + "\"publicFunctions\": 2, \"privateFunctions\": 1, \"publicApi\": 4, \"undocumentedApi\": 2, "
+                + "\"documentedApiDensity\": 50.0, \"specifiedPublicFunctions\": 1, \"specDensity\": 50.0, "
+                + "\"types\": 1, \"callbacks\": 0}\n}\n");
+        assertThat(error()).isEmpty();
+    }
+
+    @Test
+    public void testTable() throws IOException {
+        String file = new File(root, "lib/a.ex").getPath();
+        assertThat(run(file)).isEqualTo(ElixirCli.OK);
+        String[] lines = output().split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).contains("lines").contains("ncloc").contains("documented").endsWith("file");
+        assertThat(lines[1].trim().split(" +")).isEqualTo(new String[] {"7", "4", "2", "1", "2", "50.0%", file});
+        assertThat(lines[2].trim().split(" +", 6)[5]).isEqualTo("50.0%  total (1 file)");
+    }
+
+    @Test
+    public void testTemplate() throws IOException {
+        write("templates/page.html.heex", "<%!-- page --%>\n<div>\n\n  <%= @title %>\n</div>\n");
+        assertThat(run("--format", "json", new File(root, "templates").getPath())).isEqualTo(ElixirCli.OK);
+        assertThat(output()).contains("\"total\": {\"files\": 1, \"lines\": 5, \"ncloc\": 3, \"commentLines\": 1,");
+    }
+
+    @Test
+    public void testEmptyDirectory() throws IOException {
+        assertThat(run("--format", "json", temp.newFolder("empty").getPath())).isEqualTo(ElixirCli.OK);
+        assertThat(output()).contains("\"files\": [\n  ]").contains("\"total\": {\"files\": 0, \"lines\": 0");
+    }
+
+    @Test
+    public void testUsageErrors() {
+        assertThat(run("--format", "xml")).isEqualTo(ElixirCli.USAGE_ERROR);
+        assertThat(run("--threads", "0")).isEqualTo(ElixirCli.USAGE_ERROR);
+        assertThat(run("--encoding", "no-such-charset")).isEqualTo(ElixirCli.USAGE_ERROR);
+        assertThat(run("--format")).isEqualTo(ElixirCli.USAGE_ERROR);
+        assertThat(error()).contains("invalid option: --format xml").contains("missing value of --format")
+                .contains("usage: ");
+        assertThat(output()).isEmpty();
+    }
+
+    @Test
+    public void testMissingPath() {
+        String missing = new File(root, "missing").getPath();
+        assertThat(run(missing)).isEqualTo(ElixirCli.USAGE_ERROR);
+        assertThat(error()).contains("no such file or directory: " + missing);
+    }
+
+    private int run(String... args) {
+        return ElixirCli.run(args, new PrintStream(out, true), new PrintStream(err, true));
+    }
+
+    private String output() {
+        return new String(out.toByteArray(), StandardCharsets.UTF_8).replace(System.lineSeparator(), "\n");
+    }
+
+    private String error() {
+        return new String(err.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = root.toPath().resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, Arrays.asList(content.split("\n")), StandardCharsets.UTF_8);
+    }
+}
@@ -24,15 +24,153 @@
 package eu.arthepsy.sonar.plugins.elixir;
 
 import com.google.common.collect.ImmutableList;
+import org.sonar.api.PropertyType;
 import org.sonar.api.config.PropertyDefinition;
+import org.sonar.api.config.Settings;
+import org.sonar.api.resources.Qualifiers;
 
 import java.util.List;
 
 public final class ElixirConfiguration {
     public static final String LOG_PREFIX = "[elixir] ";
+    public static final String CATEGORY = "Elixir";
+
+    public static final String THREADS_KEY = "sonar.elixir.analysis.threads";
+    public static final int THREADS_DEFAULT = 1;
+
+    public static final String CACHE_KEY = "sonar.elixir.cache.enabled";
+    public static final boolean CACHE_DEFAULT = true;
+
+    public static final String MAX_FILE_SIZE_KEY = "sonar.elixir.analysis.maxFileSize";
+    public static final int MAX_FILE_SIZE_DEFAULT = 10240;
+
+    public static final String STREAMING_KEY = "sonar.elixir.analysis.streaming";
+    public static final boolean STREAMING_DEFAULT = true;
+
+    public static final String PREFETCH_BUFFER_KEY = "sonar.elixir.analysis.prefetchBuffer";
+    public static final int PREFETCH_BUFFER_DEFAULT = 65536;
+
+    public static final String BYTE_SCAN_KEY = "sonar.elixir.analysis.byteScan";
+    public static final boolean BYTE_SCAN_DEFAULT = true;
+
+    public static final String PROFILING_KEY = "sonar.elixir.analysis.profiling";
+    public static final boolean PROFILING_DEFAULT = false;
+
+    public static final String PROFILING_REPORT_KEY = "sonar.elixir.analysis.profiling.report";
+    public static final boolean PROFILING_REPORT_DEFAULT = false;
+
+    public static final String CREDO_REPORT_PATH_KEY = "sonar.elixir.credo.reportPath";
+
+    public static final String COVERAGE_REPORT_PATHS_KEY = "sonar.elixir.coverage.reportPaths";
+
+    public static final String TESTS_REPORT_PATH_KEY = "sonar.elixir.tests.reportPath";
 
     public static List<PropertyDefinition> getPropertyDefinitions() {
         ImmutableList.Builder<PropertyDefinition> properties = ImmutableList.builder();
+        properties.add(PropertyDefinition.builder(THREADS_KEY)
+                .name("Analysis threads")
+                .description("Number of threads reading and parsing Elixir files. "
+                        + "1 analyses files sequentially, 0 uses one thread per available processor.")
+                .defaultValue(String.valueOf(THREADS_DEFAULT))
+                .type(PropertyType.INTEGER)
+                .category(CATEGORY)
+                .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
+                .build());
+        properties.add(PropertyDefinition.builder(CACHE_KEY)
+                .name("Measure cache")
+                .description("Reuse measures of files whose content did not change since the previous analysis. "
+                        + "The cache is kept in the working directory.")
+                .defaultValue(String.valueOf(CACHE_DEFAULT))
+                .type(PropertyType.BOOLEAN)
+                .category(CATEGORY)
+                .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
+                .build());
+        properties.add(PropertyDefinition.builder(MAX_FILE_SIZE_KEY)
+                .name("Maximum file size")
+                .description("Size in KB above which a file is not loaded into memory as a whole. "
+                        + "0 disables the limit.")
+                .defaultValue(String.valueOf(MAX_FILE_SIZE_DEFAULT))
+                .type(PropertyType.INTEGER)
+                .category(CATEGORY)
+                .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
+                .build());
+        properties.add(PropertyDefinition.builder(STREAMING_KEY)
+                .name("Stream large files")
+                .description("Compute line metrics of files over the maximum size by reading them in chunks. "
+                        + "Complexity, highlighting and issues are not computed for such files. "
+                        + "When disabled, these files are skipped.")
+                .defaultValue(String.valueOf(STREAMING_DEFAULT))
+                .type(PropertyType.BOOLEAN)
+                .category(CATEGORY)
+                .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
+                .build());
+        properties.add(PropertyDefinition.builder(PREFETCH_BUFFER_KEY)
+                .name("Prefetch buffer")
+                .description("Size in KB of file contents read ahead of their analysis, "
+                        + "so that reading files overlaps with parsing them. 0 reads each file when it is analysed.")
+                .defaultValue(String.valueOf(PREFETCH_BUFFER_DEFAULT))
+                .type(PropertyType.INTEGER)
+                .category(CATEGORY)
+                .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
+                .build());
+        properties.add(PropertyDefinition.builder(BYTE_SCAN_KEY)
+                .name("Scan ASCII files as bytes")
+                .description("Parse files containing only ASCII characters directly from their bytes, "
+                        + "without decoding them, when the source encoding is ASCII-compatible such as UTF-8. "
+                        + "Other files are decoded as usual.")
+                .defaultValue(String.valueOf(BYTE_SCAN_DEFAULT))
+                .type(PropertyType.BOOLEAN)
+                .category(CATEGORY)
+                .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
+                .build());
+        properties.add(PropertyDefinition.builder(PROFILING_KEY)
+                .name("Analysis profiling")
+                .description("Record read, parse and save times of each file, and log a summary "
+                        + "with the slowest files at the end of the analysis.")
+                .defaultValue(String.valueOf(PROFILING_DEFAULT))
+                .type(PropertyType.BOOLEAN)
+                .category(CATEGORY)
+                .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
+                .build());
+        properties.add(PropertyDefinition.builder(PROFILING_REPORT_KEY)
+                .name("Analysis profiling report")
+                .description("When profiling is enabled, also write the summary as JSON "
+                        + "to the working directory.")
+                .defaultValue(String.valueOf(PROFILING_REPORT_DEFAULT))
+                .type(PropertyType.BOOLEAN)
+                .category(CATEGORY)
+                .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
+                .build());
+        properties.add(PropertyDefinition.builder(CREDO_REPORT_PATH_KEY)
+                .name("Credo report")
+                .description("Path to the report of \"mix credo --format json\", "
+                        + "absolute or relative to the project base directory.")
+                .category(CATEGORY)
+                .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
+                .build());
+        properties.add(PropertyDefinition.builder(COVERAGE_REPORT_PATHS_KEY)
+                .name("Coverage reports")
+                .description("Comma-separated paths to excoveralls JSON reports (\"mix coveralls.json\") "
+                        + "or Cobertura XML reports (*.xml), absolute or relative to the project base directory.")
+                .category(CATEGORY)
+                .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
+                .build());
+        properties.add(PropertyDefinition.builder(TESTS_REPORT_PATH_KEY)
+                .name("ExUnit reports")
+                .description("Path to a JUnit XML report of ExUnit (junit_formatter), or to a directory "
+                        + "of such *.xml reports, absolute or relative to the project base directory.")
+                .category(CATEGORY)
+                .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
+                .build());
         return properties.build();
     }
+
+    /** Number of analysis threads, one per available processor when not positive. */
+    public static int getThreadCount(Settings settings) {
+        int threads = settings.getInt(THREADS_KEY);
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        return threads;
+    }
 }
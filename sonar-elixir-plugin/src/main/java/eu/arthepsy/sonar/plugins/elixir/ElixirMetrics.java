@@ -0,0 +1,147 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir;
+
+import com.google.common.collect.ImmutableList;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Formula;
+import org.sonar.api.measures.FormulaContext;
+import org.sonar.api.measures.FormulaData;
+import org.sonar.api.measures.Measure;
+import org.sonar.api.measures.MeasureUtils;
+import org.sonar.api.measures.Metric;
+import org.sonar.api.measures.Metrics;
+import org.sonar.api.measures.SumChildValuesFormula;
+import org.sonar.api.utils.ParsingUtils;
+
+import java.util.List;
+
+/**
+ * Measures of the plugin, in addition to the core metrics. Typespec counts are saved on
+ * files and summed up to directories and the project; the others are project-level.
+ */
+public class ElixirMetrics implements Metrics {
+
+    public static final Metric<String> FUNCTION_SIZE_DISTRIBUTION = new Metric.Builder(
+            "elixir_function_size_distribution", "Function size distribution", Metric.ValueType.DISTRIB)
+            .setDescription("Number of functions by number of lines")
+            .setDomain(CoreMetrics.DOMAIN_SIZE)
+            .setQualitative(false)
+            .create();
+
+    public static final Metric<String> LARGEST_FUNCTIONS = new Metric.Builder(
+            "elixir_largest_functions", "Largest functions", Metric.ValueType.DATA)
+            .setDescription("Functions with the most lines, as file:line name/arity=lines")
+            .setDomain(CoreMetrics.DOMAIN_SIZE)
+            .setQualitative(false)
+            .create();
+
+    public static final Metric<String> MOST_COMPLEX_FUNCTIONS = new Metric.Builder(
+            "elixir_most_complex_functions", "Most complex functions", Metric.ValueType.DATA)
+            .setDescription("Functions with the highest complexity, as file:line name/arity=complexity")
+            .setDomain(CoreMetrics.DOMAIN_COMPLEXITY)
+            .setQualitative(false)
+            .create();
+
+    public static final Metric<Integer> MODULE_CYCLES = new Metric.Builder(
+            "elixir_module_cycles", "Module dependency cycles", Metric.ValueType.INT)
+            .setDescription("Number of groups of modules depending on each other")
+            .setDirection(Metric.DIRECTION_WORST)
+            .setDomain(CoreMetrics.DOMAIN_DESIGN)
+            .setQualitative(true)
+            .setBestValue(0.0)
+            .create();
+
+    public static final Metric<Integer> SPECIFIED_PUBLIC_FUNCTIONS = new Metric.Builder(
+            "elixir_specified_public_functions", "Public functions with @spec", Metric.ValueType.INT)
+            .setDescription("Public functions preceded by a @spec")
+            .setDirection(Metric.DIRECTION_BETTER)
+            .setDomain(CoreMetrics.DOMAIN_DOCUMENTATION)
+            .setQualitative(false)
+            .setFormula(new SumChildValuesFormula(false))
+            .create();
+
+    public static final Metric<Integer> UNSPECIFIED_PUBLIC_FUNCTIONS = new Metric.Builder(
+            "elixir_unspecified_public_functions", "Public functions without @spec", Metric.ValueType.INT)
+            .setDescription("Public functions not preceded by a @spec")
+            .setDirection(Metric.DIRECTION_WORST)
+            .setDomain(CoreMetrics.DOMAIN_DOCUMENTATION)
+            .setQualitative(true)
+            .setBestValue(0.0)
+            .setFormula(new SumChildValuesFormula(false))
+            .create();
+
+    public static final Metric<Double> SPEC_DENSITY = new Metric.Builder(
+            "elixir_spec_density", "Public function @spec (%)", Metric.ValueType.PERCENT)
+            .setDescription("Public functions with @spec out of all public functions")
+            .setDirection(Metric.DIRECTION_BETTER)
+            .setDomain(CoreMetrics.DOMAIN_DOCUMENTATION)
+            .setQualitative(true)
+            .setBestValue(100.0)
+            .setWorstValue(0.0)
+            .setFormula(new SpecDensityFormula())
+            .create();
+
+    public static final Metric<Integer> TYPES = new Metric.Builder(
+            "elixir_types", "Types", Metric.ValueType.INT)
+            .setDescription("Declarations of @type, @typep and @opaque")
+            .setDomain(CoreMetrics.DOMAIN_SIZE)
+            .setQualitative(false)
+            .setFormula(new SumChildValuesFormula(false))
+            .create();
+
+    public static final Metric<Integer> CALLBACKS = new Metric.Builder(
+            "elixir_callbacks", "Callbacks", Metric.ValueType.INT)
+            .setDescription("Declarations of @callback and @macrocallback")
+            .setDomain(CoreMetrics.DOMAIN_SIZE)
+            .setQualitative(false)
+            .setFormula(new SumChildValuesFormula(false))
+            .create();
+
+    @Override
+    public List<Metric> getMetrics() {
+        return ImmutableList.<Metric>of(FUNCTION_SIZE_DISTRIBUTION, LARGEST_FUNCTIONS, MOST_COMPLEX_FUNCTIONS,
+                MODULE_CYCLES, SPECIFIED_PUBLIC_FUNCTIONS, UNSPECIFIED_PUBLIC_FUNCTIONS, SPEC_DENSITY, TYPES, CALLBACKS);
+    }
+
+    /** Spec density of a directory or project, from its summed up counts. */
+    static final class SpecDensityFormula implements Formula {
+        @Override
+        public List<Metric> dependsUponMetrics() {
+            return ImmutableList.<Metric>of(SPECIFIED_PUBLIC_FUNCTIONS, UNSPECIFIED_PUBLIC_FUNCTIONS);
+        }
+
+        @Override
+        public Measure calculate(FormulaData data, FormulaContext context) {
+            Measure specified = data.getMeasure(SPECIFIED_PUBLIC_FUNCTIONS);
+            Measure unspecified = data.getMeasure(UNSPECIFIED_PUBLIC_FUNCTIONS);
+            if (!MeasureUtils.haveValues(specified, unspecified)) {
+                return null;
+            }
+            double total = specified.getValue() + unspecified.getValue();
+            double density = total == 0 ? 100.0 : ParsingUtils.scaleValue(specified.getValue() / total * 100, 2);
+            return new Measure(context.getTargetMetric(), density);
+        }
+    }
+}
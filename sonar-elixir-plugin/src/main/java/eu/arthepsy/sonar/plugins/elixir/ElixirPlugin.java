@@ -24,9 +24,16 @@
 package eu.arthepsy.sonar.plugins.elixir;
 
 import com.google.common.collect.ImmutableList;
+import eu.arthepsy.sonar.plugins.elixir.coverage.ElixirCoverageSensor;
+import eu.arthepsy.sonar.plugins.elixir.cpd.ElixirCpdMapping;
+import eu.arthepsy.sonar.plugins.elixir.credo.CredoQualityProfile;
+import eu.arthepsy.sonar.plugins.elixir.credo.CredoRulesDefinition;
+import eu.arthepsy.sonar.plugins.elixir.credo.CredoSensor;
+import eu.arthepsy.sonar.plugins.elixir.exunit.ExUnitSensor;
 import eu.arthepsy.sonar.plugins.elixir.language.Elixir;
 import eu.arthepsy.sonar.plugins.elixir.language.ElixirMeasureSensor;
 import eu.arthepsy.sonar.plugins.elixir.rule.ElixirQualityProfile;
+import eu.arthepsy.sonar.plugins.elixir.rule.ElixirRulesDefinition;
 import org.sonar.api.SonarPlugin;
 
 import java.util.List;
@@ -38,8 +45,16 @@ public class ElixirPlugin extends SonarPlugin {
         ImmutableList.Builder<Object> builder = ImmutableList.builder();
         builder.addAll(ElixirConfiguration.getPropertyDefinitions());
         builder.add(Elixir.class);
+        builder.add(ElixirMetrics.class);
+        builder.add(ElixirRulesDefinition.class);
         builder.add(ElixirQualityProfile.class);
         builder.add(ElixirMeasureSensor.class);
+        builder.add(ElixirCpdMapping.class);
+        builder.add(CredoRulesDefinition.class);
+        builder.add(CredoQualityProfile.class);
+        builder.add(CredoSensor.class);
+        builder.add(ElixirCoverageSensor.class);
+        builder.add(ExUnitSensor.class);
         return builder.build();
     }
 
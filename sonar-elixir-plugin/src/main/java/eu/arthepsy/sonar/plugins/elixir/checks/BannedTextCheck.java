@@ -0,0 +1,101 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import org.sonar.check.Priority;
+import org.sonar.check.Rule;
+import org.sonar.check.RuleProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+@Rule(
+        key = BannedTextCheck.KEY,
+        name = "Banned texts should not be used",
+        description = "<p>Leftover debugging calls, such as <code>IEx.pry</code>, and functions banned in a project "
+                + "should not be committed. This rule reports lines containing any of the configured texts. "
+                + "Texts are matched literally; a text starting or ending with a letter, digit or underscore "
+                + "only matches whole words.</p>",
+        priority = Priority.MAJOR,
+        tags = {"bad-practice"})
+public class BannedTextCheck extends ElixirCheck {
+    public static final String KEY = "BannedText";
+    private static final String DEFAULT_TEXTS = "IEx.pry,:debugger";
+
+    @RuleProperty(
+            key = "texts",
+            description = "Texts to report, separated by commas or new lines.",
+            defaultValue = DEFAULT_TEXTS,
+            type = "TEXT")
+    public String texts = DEFAULT_TEXTS;
+
+    private String compiledTexts;
+    private MultiPatternMatcher matcher;
+    private int[] reportedLines;
+    private int line;
+
+    private final MultiPatternMatcher.Listener listener = new MultiPatternMatcher.Listener() {
+        @Override
+        public void match(int pattern, int start, int end) {
+            if (reportedLines[pattern] != line) {
+                reportedLines[pattern] = line;
+                addIssue(line, "Remove this use of \"" + matcher.getPattern(pattern) + "\".");
+            }
+        }
+    };
+
+    @Override
+    public boolean subscribesToLines() {
+        return true;
+    }
+
+    @Override
+    public void visitFile(CharSequence content) {
+        if (matcher == null || !texts.equals(compiledTexts)) {
+            matcher = new MultiPatternMatcher(new ArrayList<>(split(texts)));
+            compiledTexts = texts;
+            reportedLines = new int[matcher.size()];
+        }
+        Arrays.fill(reportedLines, -1);
+    }
+
+    @Override
+    public void visitLine(CharSequence content, int start, int end, int line) {
+        this.line = line;
+        matcher.find(content, start, end, listener);
+    }
+
+    static Set<String> split(String texts) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String text : texts.split("[,\\n]")) {
+            text = text.trim();
+            if (!text.isEmpty()) {
+                result.add(text);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTokenType;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Base class of the Elixir rules. A check declares the token types it is
+ * interested in, and whether it wants to see lines; {@link ElixirCheckDispatcher}
+ * then calls it from the shared scan of each file. A check instance only
+ * analyses one file at a time and may keep state between {@link #visitFile}
+ * and {@link #leaveFile}.
+ */
+public abstract class ElixirCheck {
+
+    private ElixirCheckDispatcher dispatcher;
+    private String ruleKey;
+
+    public Set<ElixirTokenType> subscribedTokens() {
+        return EnumSet.noneOf(ElixirTokenType.class);
+    }
+
+    public boolean subscribesToLines() {
+        return false;
+    }
+
+    public void visitFile(CharSequence content) {
+    }
+
+    public void visitLine(CharSequence content, int start, int end, int line) {
+    }
+
+    public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+    }
+
+    public void leaveFile(CharSequence content) {
+    }
+
+    protected void addIssue(int line, String message) {
+        dispatcher.addIssue(ruleKey, line, message);
+    }
+
+    void register(ElixirCheckDispatcher dispatcher, String ruleKey) {
+        this.dispatcher = dispatcher;
+        this.ruleKey = ruleKey;
+    }
+
+    protected static boolean is(CharSequence content, int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (content.charAt(start + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static boolean isDefinition(CharSequence content, int start, int end) {
+        return is(content, start, end, "def") || is(content, start, end, "defp")
+                || is(content, start, end, "defmacro") || is(content, start, end, "defmacrop")
+                || is(content, start, end, "defguard") || is(content, start, end, "defguardp");
+    }
+}
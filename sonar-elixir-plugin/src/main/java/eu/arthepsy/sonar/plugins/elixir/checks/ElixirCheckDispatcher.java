@@ -0,0 +1,108 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTokenType;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTokenVisitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs all registered checks from a single token stream. Each token is only
+ * passed to the checks subscribed to its type, so the cost of a token does
+ * not grow with the number of checks that ignore it.
+ */
+public class ElixirCheckDispatcher extends ElixirTokenVisitor {
+    private static final ElixirCheck[] NO_CHECKS = new ElixirCheck[0];
+
+    private ElixirCheck[] checks = NO_CHECKS;
+    private ElixirCheck[] lineSubscribers = NO_CHECKS;
+    private final ElixirCheck[][] tokenSubscribers = new ElixirCheck[ElixirTokenType.values().length][];
+    private List<ElixirIssue> issues = new ArrayList<>();
+
+    public ElixirCheckDispatcher() {
+        Arrays.fill(tokenSubscribers, NO_CHECKS);
+    }
+
+    public void add(ElixirCheck check, String ruleKey) {
+        check.register(this, ruleKey);
+        checks = append(checks, check);
+        if (check.subscribesToLines()) {
+            lineSubscribers = append(lineSubscribers, check);
+        }
+        for (ElixirTokenType type : check.subscribedTokens()) {
+            tokenSubscribers[type.ordinal()] = append(tokenSubscribers[type.ordinal()], check);
+        }
+    }
+
+    public boolean isEmpty() {
+        return checks.length == 0;
+    }
+
+    /** Issues of the last file visited. */
+    public List<ElixirIssue> getIssues() {
+        return issues;
+    }
+
+    @Override
+    public void visitStart(CharSequence content) {
+        issues = new ArrayList<>();
+        for (ElixirCheck check : checks) {
+            check.visitFile(content);
+        }
+    }
+
+    @Override
+    public void visitLine(CharSequence content, int start, int end, int line) {
+        for (ElixirCheck check : lineSubscribers) {
+            check.visitLine(content, start, end, line);
+        }
+    }
+
+    @Override
+    public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+        for (ElixirCheck check : tokenSubscribers[type.ordinal()]) {
+            check.visitToken(type, content, start, end, line);
+        }
+    }
+
+    @Override
+    public void visitEnd(CharSequence content) {
+        for (ElixirCheck check : checks) {
+            check.leaveFile(content);
+        }
+    }
+
+    void addIssue(String ruleKey, int line, String message) {
+        issues.add(new ElixirIssue(ruleKey, line, message));
+    }
+
+    private static ElixirCheck[] append(ElixirCheck[] checks, ElixirCheck check) {
+        ElixirCheck[] result = Arrays.copyOf(checks, checks.length + 1);
+        result[checks.length] = check;
+        return result;
+    }
+}
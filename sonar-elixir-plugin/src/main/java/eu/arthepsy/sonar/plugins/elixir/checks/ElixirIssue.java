@@ -0,0 +1,112 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ElixirIssue {
+    private final String ruleKey;
+    private final int line;
+    private final String message;
+
+    public ElixirIssue(String ruleKey, int line, String message) {
+        this.ruleKey = ruleKey;
+        this.line = line;
+        this.message = message;
+    }
+
+    public String getRuleKey() { return ruleKey; }
+    public int getLine() { return line; }
+    public String getMessage() { return message; }
+
+    /** Encodes issues as {@code line, key length, key chars..., message length, message chars...} runs. */
+    public static int[] toArray(List<ElixirIssue> issues) {
+        int size = 0;
+        for (ElixirIssue issue : issues) {
+            size += 3 + issue.ruleKey.length() + issue.message.length();
+        }
+        int[] result = new int[size];
+        int pos = 0;
+        for (ElixirIssue issue : issues) {
+            result[pos++] = issue.line;
+            pos = putString(result, pos, issue.ruleKey);
+            pos = putString(result, pos, issue.message);
+        }
+        return result;
+    }
+
+    public static List<ElixirIssue> fromArray(int[] data) {
+        List<ElixirIssue> issues = new ArrayList<>();
+        int pos = 0;
+        while (pos < data.length) {
+            int line = data[pos];
+            String ruleKey = getString(data, pos + 1);
+            pos += 2 + ruleKey.length();
+            String message = getString(data, pos);
+            pos += 1 + message.length();
+            issues.add(new ElixirIssue(ruleKey, line, message));
+        }
+        return issues;
+    }
+
+    private static int putString(int[] data, int pos, String value) {
+        data[pos++] = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            data[pos++] = value.charAt(i);
+        }
+        return pos;
+    }
+
+    private static String getString(int[] data, int pos) {
+        char[] chars = new char[data[pos]];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) data[pos + 1 + i];
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ElixirIssue)) {
+            return false;
+        }
+        ElixirIssue other = (ElixirIssue) o;
+        return line == other.line && ruleKey.equals(other.ruleKey) && message.equals(other.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(new Object[] { ruleKey, line, message });
+    }
+
+    @Override
+    public String toString() {
+        return ruleKey + ":" + line + ": " + message;
+    }
+}
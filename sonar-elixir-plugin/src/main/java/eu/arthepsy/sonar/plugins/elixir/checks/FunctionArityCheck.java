@@ -0,0 +1,110 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTokenType;
+import org.sonar.check.Priority;
+import org.sonar.check.Rule;
+import org.sonar.check.RuleProperty;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Rule(
+        key = FunctionArityCheck.KEY,
+        name = "Functions should not have too many parameters",
+        description = "<p>Functions with a long parameter list are hard to call and often do too much.</p>",
+        priority = Priority.MAJOR,
+        tags = {"brain-overload"})
+public class FunctionArityCheck extends ElixirCheck {
+    public static final String KEY = "FunctionArity";
+    private static final int DEFAULT_MAXIMUM = 8;
+
+    @RuleProperty(
+            key = "maximum",
+            description = "Maximum authorized number of parameters.",
+            defaultValue = "" + DEFAULT_MAXIMUM)
+    public int maximum = DEFAULT_MAXIMUM;
+
+    private static final int NONE = 0;
+    private static final int DEF = 1;
+    private static final int NAME = 2;
+    private static final int PARAMETERS = 3;
+
+    private int state;
+    private int nesting;
+    private int parameters;
+    private int definitionLine;
+
+    @Override
+    public Set<ElixirTokenType> subscribedTokens() {
+        return EnumSet.allOf(ElixirTokenType.class);
+    }
+
+    @Override
+    public void visitFile(CharSequence content) {
+        state = NONE;
+    }
+
+    @Override
+    public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+        if (state == PARAMETERS) {
+            visitParameterToken(type, content, start, end);
+        } else if (state == DEF && type == ElixirTokenType.IDENTIFIER) {
+            state = NAME;
+        } else if (state == NAME && type == ElixirTokenType.OPERATOR && is(content, start, end, "(")) {
+            state = PARAMETERS;
+            nesting = 0;
+            parameters = 0;
+        } else {
+            state = type == ElixirTokenType.KEYWORD && isDefinition(content, start, end) ? DEF : NONE;
+            definitionLine = line;
+        }
+    }
+
+    private void visitParameterToken(ElixirTokenType type, CharSequence content, int start, int end) {
+        if (type != ElixirTokenType.OPERATOR) {
+            if (parameters == 0) {
+                parameters = 1;
+            }
+            return;
+        }
+        char c = content.charAt(start);
+        if (end - start == 1 && (c == '(' || c == '[' || c == '{')) {
+            nesting++;
+        } else if (end - start == 1 && (c == ')' || c == ']' || c == '}')) {
+            if (nesting-- == 0) {
+                if (parameters > maximum) {
+                    addIssue(definitionLine, "This function has " + parameters
+                            + " parameters, which is greater than the " + maximum + " authorized.");
+                }
+                state = NONE;
+            }
+        } else if (nesting == 0 && is(content, start, end, ",")) {
+            parameters++;
+        } else if (parameters == 0) {
+            parameters = 1;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTokenType;
+import org.sonar.check.Priority;
+import org.sonar.check.Rule;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Rule(
+        key = FunctionNameCheck.KEY,
+        name = "Function names should be in snake_case",
+        description = "<p>Function and macro names are written in <code>snake_case</code>.</p>",
+        priority = Priority.MINOR,
+        tags = {"convention"})
+public class FunctionNameCheck extends ElixirCheck {
+    public static final String KEY = "FunctionName";
+
+    private boolean definition;
+
+    @Override
+    public Set<ElixirTokenType> subscribedTokens() {
+        return EnumSet.of(ElixirTokenType.KEYWORD, ElixirTokenType.IDENTIFIER);
+    }
+
+    @Override
+    public void visitFile(CharSequence content) {
+        definition = false;
+    }
+
+    @Override
+    public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+        if (definition && type == ElixirTokenType.IDENTIFIER && !isSnakeCase(content, start, end)) {
+            addIssue(line, "Rename function \"" + content.subSequence(start, end) + "\" to snake_case.");
+        }
+        definition = type == ElixirTokenType.KEYWORD && isDefinition(content, start, end);
+    }
+
+    private static boolean isSnakeCase(CharSequence content, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (Character.isUpperCase(content.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
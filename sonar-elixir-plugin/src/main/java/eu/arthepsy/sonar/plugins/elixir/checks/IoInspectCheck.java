@@ -0,0 +1,67 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTokenType;
+import org.sonar.check.Priority;
+import org.sonar.check.Rule;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Rule(
+        key = IoInspectCheck.KEY,
+        name = "IO.inspect calls should be removed",
+        description = "<p><code>IO.inspect</code> is a debugging aid that should not be left in production code.</p>",
+        priority = Priority.MAJOR,
+        tags = {"bad-practice"})
+public class IoInspectCheck extends ElixirCheck {
+    public static final String KEY = "IoInspect";
+
+    private int matched;
+
+    @Override
+    public Set<ElixirTokenType> subscribedTokens() {
+        return EnumSet.of(ElixirTokenType.ALIAS, ElixirTokenType.OPERATOR, ElixirTokenType.IDENTIFIER);
+    }
+
+    @Override
+    public void visitFile(CharSequence content) {
+        matched = 0;
+    }
+
+    @Override
+    public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+        if (type == ElixirTokenType.ALIAS && is(content, start, end, "IO")) {
+            matched = 1;
+        } else if (matched == 1 && type == ElixirTokenType.OPERATOR && is(content, start, end, ".")) {
+            matched = 2;
+        } else {
+            if (matched == 2 && type == ElixirTokenType.IDENTIFIER && is(content, start, end, "inspect")) {
+                addIssue(line, "Remove this call to IO.inspect.");
+            }
+            matched = 0;
+        }
+    }
+}
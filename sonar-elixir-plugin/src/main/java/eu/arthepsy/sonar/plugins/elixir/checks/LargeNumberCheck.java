@@ -0,0 +1,66 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTokenType;
+import org.sonar.check.Priority;
+import org.sonar.check.Rule;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Rule(
+        key = LargeNumberCheck.KEY,
+        name = "Large numbers should use underscores as digit separators",
+        description = "<p>Numbers of 5 digits or more are easier to read with <code>_</code> separators, "
+                + "as in <code>100_000</code>.</p>",
+        priority = Priority.MINOR,
+        tags = {"convention"})
+public class LargeNumberCheck extends ElixirCheck {
+    public static final String KEY = "LargeNumber";
+    private static final int MINIMUM_DIGITS = 5;
+
+    @Override
+    public Set<ElixirTokenType> subscribedTokens() {
+        return EnumSet.of(ElixirTokenType.NUMBER);
+    }
+
+    @Override
+    public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = content.charAt(i);
+            if (c == '.') {
+                break;
+            }
+            if (c < '0' || c > '9') {
+                return;
+            }
+            digits++;
+        }
+        if (digits >= MINIMUM_DIGITS) {
+            addIssue(line, "Add underscores to the number \"" + content.subSequence(start, end) + "\".");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import org.sonar.check.Priority;
+import org.sonar.check.Rule;
+import org.sonar.check.RuleProperty;
+
+@Rule(
+        key = LineLengthCheck.KEY,
+        name = "Lines should not be too long",
+        description = "<p>Long lines are hard to read, especially in side by side diffs.</p>",
+        priority = Priority.MINOR,
+        tags = {"convention"})
+public class LineLengthCheck extends ElixirCheck {
+    public static final String KEY = "LineLength";
+    private static final int DEFAULT_MAXIMUM_LINE_LENGTH = 120;
+
+    @RuleProperty(
+            key = "maximumLineLength",
+            description = "The maximum authorized line length.",
+            defaultValue = "" + DEFAULT_MAXIMUM_LINE_LENGTH)
+    public int maximumLineLength = DEFAULT_MAXIMUM_LINE_LENGTH;
+
+    @Override
+    public boolean subscribesToLines() {
+        return true;
+    }
+
+    @Override
+    public void visitLine(CharSequence content, int start, int end, int line) {
+        int length = end - start;
+        if (length > maximumLineLength) {
+            addIssue(line, "Split this " + length + " characters long line (which is greater than "
+                    + maximumLineLength + " authorized).");
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTokenType;
+import org.sonar.check.Priority;
+import org.sonar.check.Rule;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Rule(
+        key = ModuleDocCheck.KEY,
+        name = "Modules should have a @moduledoc",
+        description = "<p>Every module should be documented with <code>@moduledoc</code>, or explicitly "
+                + "opt out with <code>@moduledoc false</code>. Test modules, whose name ends with "
+                + "<code>Test</code>, are ignored.</p>",
+        priority = Priority.MINOR,
+        tags = {"convention"})
+public class ModuleDocCheck extends ElixirCheck {
+    public static final String KEY = "ModuleDoc";
+
+    private boolean definition;
+    private int moduleLine;
+
+    @Override
+    public Set<ElixirTokenType> subscribedTokens() {
+        return EnumSet.of(ElixirTokenType.KEYWORD, ElixirTokenType.ALIAS, ElixirTokenType.MODULE_ATTRIBUTE);
+    }
+
+    @Override
+    public void visitFile(CharSequence content) {
+        definition = false;
+        moduleLine = 0;
+    }
+
+    @Override
+    public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+        boolean moduleName = definition && type == ElixirTokenType.ALIAS;
+        definition = false;
+        if (moduleName) {
+            if (!endsWith(content, start, end, "Test")) {
+                moduleLine = line;
+            }
+        } else if (type == ElixirTokenType.MODULE_ATTRIBUTE) {
+            if (is(content, start, end, "@moduledoc")) {
+                moduleLine = 0;
+            }
+        } else if (type == ElixirTokenType.KEYWORD) {
+            if (is(content, start, end, "defmodule")) {
+                reportMissingDoc();
+                definition = true;
+            } else if (isDefinition(content, start, end)) {
+                reportMissingDoc();
+            }
+        }
+    }
+
+    @Override
+    public void leaveFile(CharSequence content) {
+        reportMissingDoc();
+    }
+
+    private void reportMissingDoc() {
+        if (moduleLine > 0) {
+            addIssue(moduleLine, "Add a @moduledoc to this module.");
+            moduleLine = 0;
+        }
+    }
+
+    private static boolean endsWith(CharSequence content, int start, int end, String suffix) {
+        return end - start >= suffix.length() && is(content, end - suffix.length(), end, suffix);
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds occurrences of many literal texts in a single pass (Aho-Corasick).
+ * The automaton is compiled into a dense transition table over the
+ * characters used by the patterns, so each scanned character costs one
+ * lookup whatever the number of patterns.
+ * <p>
+ * A pattern starting or ending with a word character (letter, digit or
+ * underscore) only matches where the text is not preceded or followed by
+ * another word character, so that {@code TODO} does not match {@code TODOS}.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class MultiPatternMatcher {
+
+    /** Receives the matches of {@link #find}, in order of their end offset. */
+    public interface Listener {
+        void match(int pattern, int start, int end);
+    }
+
+    private static final int[] NO_MATCHES = new int[0];
+
+    private final String[] patterns;
+    private final boolean[] wordStart;
+    private final boolean[] wordEnd;
+    private final int[] asciiClasses = new int[128];
+    private final char[] otherChars;
+    private final int[] otherClasses;
+    private final int width;
+    private final int[] transitions;
+    private final int[][] matches;
+
+    public MultiPatternMatcher(List<String> patterns) {
+        this.patterns = patterns.toArray(new String[patterns.size()]);
+        this.wordStart = new boolean[this.patterns.length];
+        this.wordEnd = new boolean[this.patterns.length];
+
+        StringBuilder others = new StringBuilder();
+        int classes = 1;
+        for (int p = 0; p < this.patterns.length; p++) {
+            String pattern = this.patterns[p];
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Empty pattern at index " + p);
+            }
+            wordStart[p] = isWordChar(pattern.charAt(0));
+            wordEnd[p] = isWordChar(pattern.charAt(pattern.length() - 1));
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c < 128) {
+                    if (asciiClasses[c] == 0) {
+                        asciiClasses[c] = classes++;
+                    }
+                } else if (others.indexOf(String.valueOf(c)) < 0) {
+                    others.append(c);
+                }
+            }
+        }
+        otherChars = others.toString().toCharArray();
+        Arrays.sort(otherChars);
+        otherClasses = new int[otherChars.length];
+        for (int i = 0; i < otherChars.length; i++) {
+            otherClasses[i] = classes++;
+        }
+        width = classes;
+
+        // trie, state 0 being the root; 0 also marks a missing child as the root is nobody's child
+        int[] table = new int[width * 16];
+        int states = 1;
+        List<int[]> ends = new ArrayList<>();
+        ends.add(NO_MATCHES);
+        for (int p = 0; p < this.patterns.length; p++) {
+            String pattern = this.patterns[p];
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int index = state * width + classOf(pattern.charAt(i));
+                if (table[index] == 0) {
+                    if ((states + 1) * width > table.length) {
+                        table = Arrays.copyOf(table, table.length * 2);
+                    }
+                    table[index] = states++;
+                    ends.add(NO_MATCHES);
+                }
+                state = table[index];
+            }
+            ends.set(state, append(ends.get(state), p));
+        }
+
+        // breadth first, so that the failure state of a state is complete before the state itself
+        transitions = Arrays.copyOf(table, states * width);
+        matches = new int[states][];
+        int[] failure = new int[states];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        matches[0] = NO_MATCHES;
+        while (head < tail) {
+            int state = queue[head++];
+            for (int c = 0; c < width; c++) {
+                int index = state * width + c;
+                int child = transitions[index];
+                int fallback = state == 0 ? 0 : transitions[failure[state] * width + c];
+                if (child == 0) {
+                    transitions[index] = fallback;
+                } else {
+                    failure[child] = fallback;
+                    matches[child] = concat(ends.get(child), matches[fallback]);
+                    queue[tail++] = child;
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return patterns.length;
+    }
+
+    public String getPattern(int pattern) {
+        return patterns[pattern];
+    }
+
+    /** Reports the matches lying entirely within {@code [start, end)} of {@code content}. */
+    public void find(CharSequence content, int start, int end, Listener listener) {
+        int state = 0;
+        for (int i = start; i < end; i++) {
+            state = transitions[state * width + classOf(content.charAt(i))];
+            int[] found = matches[state];
+            for (int p : found) {
+                int matchStart = i + 1 - patterns[p].length();
+                if ((!wordStart[p] || matchStart == start || !isWordChar(content.charAt(matchStart - 1)))
+                        && (!wordEnd[p] || i + 1 == end || !isWordChar(content.charAt(i + 1)))) {
+                    listener.match(p, matchStart, i + 1);
+                }
+            }
+        }
+    }
+
+    private int classOf(char c) {
+        if (c < 128) {
+            return asciiClasses[c];
+        }
+        int index = Arrays.binarySearch(otherChars, c);
+        return index < 0 ? 0 : otherClasses[index];
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    private static int[] append(int[] values, int value) {
+        int[] result = Arrays.copyOf(values, values.length + 1);
+        result[values.length] = value;
+        return result;
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        if (second.length == 0) {
+            return first;
+        }
+        if (first.length == 0) {
+            return second;
+        }
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
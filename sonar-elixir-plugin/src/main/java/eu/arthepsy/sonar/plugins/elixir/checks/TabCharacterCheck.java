@@ -0,0 +1,56 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import org.sonar.check.Priority;
+import org.sonar.check.Rule;
+
+@Rule(
+        key = TabCharacterCheck.KEY,
+        name = "Tabulation characters should not be used for indentation",
+        description = "<p>Elixir code is indented with spaces, as done by <code>mix format</code>.</p>",
+        priority = Priority.MINOR,
+        tags = {"convention"})
+public class TabCharacterCheck extends ElixirCheck {
+    public static final String KEY = "TabCharacter";
+
+    @Override
+    public boolean subscribesToLines() {
+        return true;
+    }
+
+    @Override
+    public void visitLine(CharSequence content, int start, int end, int line) {
+        for (int i = start; i < end; i++) {
+            char c = content.charAt(i);
+            if (c == '\t') {
+                addIssue(line, "Replace the tabulation characters of this line indentation by spaces.");
+                return;
+            }
+            if (c != ' ') {
+                return;
+            }
+        }
+    }
+}
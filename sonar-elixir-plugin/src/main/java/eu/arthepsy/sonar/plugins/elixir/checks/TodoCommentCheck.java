@@ -0,0 +1,64 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTokenType;
+import org.sonar.check.Priority;
+import org.sonar.check.Rule;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Rule(
+        key = TodoCommentCheck.KEY,
+        name = "TODO and FIXME comments should be handled",
+        description = "<p>TODO and FIXME tags mark code that is known to be incomplete or wrong.</p>",
+        priority = Priority.INFO,
+        tags = {"pitfall"})
+public class TodoCommentCheck extends ElixirCheck {
+    public static final String KEY = "TodoComment";
+
+    @Override
+    public Set<ElixirTokenType> subscribedTokens() {
+        return EnumSet.of(ElixirTokenType.COMMENT);
+    }
+
+    @Override
+    public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+        if (containsTag(content, start, end, "TODO") || containsTag(content, start, end, "FIXME")) {
+            addIssue(line, "Complete the task associated to this TODO or FIXME comment.");
+        }
+    }
+
+    private static boolean containsTag(CharSequence content, int start, int end, String tag) {
+        for (int i = start; i + tag.length() <= end; i++) {
+            if (is(content, i, i + tag.length(), tag)
+                    && (i == start || !Character.isLetterOrDigit(content.charAt(i - 1)))
+                    && (i + tag.length() == end || !Character.isLetterOrDigit(content.charAt(i + tag.length())))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTokenType;
+import org.sonar.check.Priority;
+import org.sonar.check.Rule;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Rule(
+        key = UnlessWithElseCheck.KEY,
+        name = "\"unless\" should not have an \"else\" clause",
+        description = "<p>An <code>unless</code> with an <code>else</code> branch is easier to read as an "
+                + "<code>if</code> with the branches swapped.</p>",
+        priority = Priority.MAJOR,
+        tags = {"confusing"})
+public class UnlessWithElseCheck extends ElixirCheck {
+    public static final String KEY = "UnlessWithElse";
+
+    /** For each open do/fn block, whether it belongs to an unless. */
+    private boolean[] blocks = new boolean[16];
+    private int depth;
+    private int unlessLine;
+
+    @Override
+    public Set<ElixirTokenType> subscribedTokens() {
+        return EnumSet.of(ElixirTokenType.KEYWORD, ElixirTokenType.ATOM);
+    }
+
+    @Override
+    public void visitFile(CharSequence content) {
+        depth = 0;
+        unlessLine = 0;
+    }
+
+    @Override
+    public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+        if (type == ElixirTokenType.ATOM) {
+            if (unlessLine > 0 && is(content, start, end, "else:")) {
+                addIssue(unlessLine, "Convert this \"unless\" with an \"else\" clause to \"if\".");
+                unlessLine = 0;
+            }
+        } else if (is(content, start, end, "unless")) {
+            unlessLine = line;
+        } else if (is(content, start, end, "do") || is(content, start, end, "fn")) {
+            if (depth == blocks.length) {
+                blocks = Arrays.copyOf(blocks, depth * 2);
+            }
+            blocks[depth++] = unlessLine > 0 && is(content, start, end, "do");
+            unlessLine = 0;
+        } else if (is(content, start, end, "end")) {
+            if (depth > 0) {
+                depth--;
+            }
+        } else if (is(content, start, end, "else")) {
+            if (depth > 0 && blocks[depth - 1]) {
+                addIssue(line, "Convert this \"unless\" with an \"else\" clause to \"if\".");
+            }
+        } else if (isConstruct(content, start, end)) {
+            unlessLine = 0;
+        }
+    }
+
+    private static boolean isConstruct(CharSequence content, int start, int end) {
+        return is(content, start, end, "if") || is(content, start, end, "case") || is(content, start, end, "cond")
+                || is(content, start, end, "with") || isDefinition(content, start, end);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import org.sonar.check.Priority;
+import org.sonar.check.Rule;
+import org.sonar.check.RuleProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Declares the rule and its entry points. Unused functions are only known once
+ * all files are analysed, so the issues are raised by the measure sensor from a
+ * project-wide symbol index rather than by this check.
+ */
+@Rule(
+        key = UnusedPublicFunctionCheck.KEY,
+        name = "Unused public functions should be removed",
+        description = "<p>A public function that no module of the project calls, and that implements no callback, "
+                + "is likely dead code. Calls are matched by module, name and arity; calls the analysis cannot see, "
+                + "such as <code>apply/3</code> or calls from other applications, should be declared as entry points. "
+                + "No issues are raised in projects with templates or files over the maximum file size, "
+                + "whose calls are not collected.</p>",
+        priority = Priority.MINOR,
+        tags = {"unused"})
+public class UnusedPublicFunctionCheck extends ElixirCheck {
+    public static final String KEY = "UnusedPublicFunction";
+    public static final String DEFAULT_ENTRY_POINTS = "*.__*__/*,*.start_link/*,*.child_spec/1,*.init/1,"
+            + "*.start/2,*.stop/1,*.main/1,*.run/1,*.handle_call/3,*.handle_cast/2,*.handle_info/2,"
+            + "*.handle_continue/2,*.terminate/2,*.code_change/3";
+
+    @RuleProperty(
+            key = "entryPoints",
+            description = "Comma-separated Module.function/arity patterns of functions called from outside "
+                    + "of the project, where * matches any text.",
+            defaultValue = DEFAULT_ENTRY_POINTS)
+    public String entryPoints = DEFAULT_ENTRY_POINTS;
+
+    /** Splits the value of the {@code entryPoints} parameter; {@code null} gives the default entry points. */
+    public static List<String> parseEntryPoints(String value) {
+        List<String> result = new ArrayList<>();
+        for (String entryPoint : (value == null ? DEFAULT_ENTRY_POINTS : value).split(",")) {
+            entryPoint = entryPoint.trim();
+            if (!entryPoint.isEmpty()) {
+                result.add(entryPoint);
+            }
+        }
+        return result;
+    }
+}
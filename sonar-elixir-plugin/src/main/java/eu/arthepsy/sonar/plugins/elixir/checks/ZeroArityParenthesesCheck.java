@@ -0,0 +1,72 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTokenType;
+import org.sonar.check.Priority;
+import org.sonar.check.Rule;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Rule(
+        key = ZeroArityParenthesesCheck.KEY,
+        name = "Functions without parameters should be defined without parentheses",
+        description = "<p><code>def name do</code> is preferred over <code>def name() do</code>.</p>",
+        priority = Priority.INFO,
+        tags = {"convention"})
+public class ZeroArityParenthesesCheck extends ElixirCheck {
+    public static final String KEY = "ZeroArityParentheses";
+
+    private static final int NONE = 0;
+    private static final int DEF = 1;
+    private static final int NAME = 2;
+    private static final int OPEN = 3;
+
+    private int state;
+
+    @Override
+    public Set<ElixirTokenType> subscribedTokens() {
+        return EnumSet.of(ElixirTokenType.KEYWORD, ElixirTokenType.IDENTIFIER, ElixirTokenType.OPERATOR);
+    }
+
+    @Override
+    public void visitFile(CharSequence content) {
+        state = NONE;
+    }
+
+    @Override
+    public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+        if (state == DEF && type == ElixirTokenType.IDENTIFIER) {
+            state = NAME;
+        } else if (state == NAME && type == ElixirTokenType.OPERATOR && is(content, start, end, "(")) {
+            state = OPEN;
+        } else if (state == OPEN && type == ElixirTokenType.OPERATOR && is(content, start, end, ")")) {
+            addIssue(line, "Remove the parentheses of this function definition without parameters.");
+            state = NONE;
+        } else {
+            state = type == ElixirTokenType.KEYWORD && isDefinition(content, start, end) ? DEF : NONE;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.coverage;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a Cobertura XML report with a StAX cursor. Each {@code class} element
+ * is reported separately; file names are resolved against the first
+ * {@code source} element, if any.
+ */
+public final class CoberturaReportParser {
+
+    private CoberturaReportParser() { }
+
+    public static void parse(InputStream input, CoverageHandler handler) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            XMLStreamReader xml = factory.createXMLStreamReader(input);
+            try {
+                parse(xml, handler);
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("Malformed Cobertura report: " + e.getMessage(), e);
+        }
+    }
+
+    private static void parse(XMLStreamReader xml, CoverageHandler handler) throws XMLStreamException {
+        String source = null;
+        String fileName = null;
+        FileCoverage coverage = null;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = xml.getLocalName();
+                if ("source".equals(name) && source == null) {
+                    source = xml.getElementText().trim();
+                } else if ("class".equals(name)) {
+                    fileName = xml.getAttributeValue(null, "filename");
+                    coverage = new FileCoverage();
+                } else if ("line".equals(name) && coverage != null) {
+                    coverage.addHits(Integer.parseInt(xml.getAttributeValue(null, "number")),
+                            parseHits(xml.getAttributeValue(null, "hits")));
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "class".equals(xml.getLocalName())) {
+                if (fileName != null) {
+                    handler.handle(resolve(source, fileName), coverage);
+                }
+                fileName = null;
+                coverage = null;
+            }
+        }
+    }
+
+    /** Hits may exceed the int range on long-running test suites. */
+    private static int parseHits(String hits) {
+        return (int) Math.min(Long.parseLong(hits), Integer.MAX_VALUE);
+    }
+
+    private static String resolve(String source, String fileName) {
+        if (source == null || source.isEmpty() || new File(fileName).isAbsolute()) {
+            return fileName;
+        }
+        return new File(source, fileName).getPath();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.coverage;
+
+import eu.arthepsy.sonar.plugins.elixir.ElixirConfiguration;
+import eu.arthepsy.sonar.plugins.elixir.language.Elixir;
+import eu.arthepsy.sonar.plugins.elixir.util.InputFileIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.Sensor;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.fs.FilePredicate;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.config.Settings;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Measure;
+import org.sonar.api.measures.PersistenceMode;
+import org.sonar.api.resources.Project;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Imports line coverage of excoveralls JSON and Cobertura XML reports,
+ * see {@link ElixirConfiguration#COVERAGE_REPORT_PATHS_KEY}. Coverage of a file
+ * found in several reports is summed.
+ */
+public class ElixirCoverageSensor implements Sensor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ElixirCoverageSensor.class);
+    private static final String LOG_PREFIX = ElixirConfiguration.LOG_PREFIX;
+
+    private final FileSystem fileSystem;
+    private final Settings settings;
+    private final FilePredicate mainFilePredicate;
+
+    public ElixirCoverageSensor(FileSystem fileSystem, Settings settings) {
+        this.fileSystem = fileSystem;
+        this.settings = settings;
+        this.mainFilePredicate = fileSystem.predicates().and(
+                fileSystem.predicates().hasType(InputFile.Type.MAIN),
+                fileSystem.predicates().hasLanguage(Elixir.KEY));
+    }
+
+    @Override
+    public boolean shouldExecuteOnProject(Project project) {
+        return settings.hasKey(ElixirConfiguration.COVERAGE_REPORT_PATHS_KEY) && fileSystem.hasFiles(mainFilePredicate);
+    }
+
+    @Override
+    public void analyse(Project project, SensorContext context) {
+        CoverageCollector collector = new CoverageCollector(new InputFileIndex(fileSystem, mainFilePredicate));
+        for (String path : settings.getStringArray(ElixirConfiguration.COVERAGE_REPORT_PATHS_KEY)) {
+            File report = new File(path);
+            if (!report.isAbsolute()) {
+                report = new File(fileSystem.baseDir(), path);
+            }
+            if (!report.isFile()) {
+                LOG.warn(LOG_PREFIX + "coverage report not found: " + report);
+                continue;
+            }
+            LOG.info(LOG_PREFIX + "importing coverage report " + report);
+            try {
+                parseReport(report, collector);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to read coverage report " + report, e);
+            }
+        }
+        for (Map.Entry<InputFile, FileCoverage> entry : collector.files.entrySet()) {
+            saveCoverage(entry.getKey(), entry.getValue(), context);
+        }
+        LOG.info(LOG_PREFIX + "coverage imported for " + collector.files.size() + " files, "
+                + collector.unknownFiles + " report entries on unknown files");
+    }
+
+    private static void parseReport(File report, CoverageHandler handler) throws IOException {
+        if (report.getName().endsWith(".xml")) {
+            try (InputStream input = new BufferedInputStream(Files.newInputStream(report.toPath()))) {
+                CoberturaReportParser.parse(input, handler);
+            }
+        } else {
+            try (Reader reader = new InputStreamReader(Files.newInputStream(report.toPath()), StandardCharsets.UTF_8)) {
+                ExcoverallsReportParser.parse(reader, handler);
+            }
+        }
+    }
+
+    private static void saveCoverage(InputFile inputFile, FileCoverage coverage, SensorContext context) {
+        context.saveMeasure(inputFile, CoreMetrics.LINES_TO_COVER, (double) coverage.getLinesToCover());
+        context.saveMeasure(inputFile, CoreMetrics.UNCOVERED_LINES, (double) coverage.getUncoveredLines());
+        context.saveMeasure(inputFile, new Measure(CoreMetrics.COVERAGE_LINE_HITS_DATA, coverage.getLineHitsData())
+                .setPersistenceMode(PersistenceMode.DATABASE));
+    }
+
+    private static final class CoverageCollector implements CoverageHandler {
+        private final InputFileIndex index;
+        private final Map<InputFile, FileCoverage> files = new LinkedHashMap<>();
+        private int unknownFiles;
+
+        private CoverageCollector(InputFileIndex index) {
+            this.index = index;
+        }
+
+        @Override
+        public void handle(String fileName, FileCoverage coverage) {
+            InputFile inputFile = index.get(fileName);
+            if (inputFile == null) {
+                LOG.debug(LOG_PREFIX + "coverage of unknown file: " + fileName);
+                unknownFiles++;
+                return;
+            }
+            FileCoverage existing = files.get(inputFile);
+            if (existing == null) {
+                files.put(inputFile, coverage);
+            } else {
+                existing.merge(coverage);
+            }
+        }
+    }
+}
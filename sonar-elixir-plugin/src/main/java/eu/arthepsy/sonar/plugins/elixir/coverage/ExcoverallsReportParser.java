@@ -0,0 +1,97 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.coverage;
+
+import eu.arthepsy.sonar.plugins.elixir.util.JsonReader;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads the report of {@code mix coveralls.json}. The {@code coverage} array
+ * of a source file holds the hits of each line, or {@code null} for lines
+ * that are not executable. Embedded sources are skipped without being buffered.
+ */
+public final class ExcoverallsReportParser {
+
+    private ExcoverallsReportParser() { }
+
+    public static void parse(Reader reader, CoverageHandler handler) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        json.beginObject();
+        while (json.hasNext()) {
+            if ("source_files".equals(json.nextName())) {
+                json.beginArray();
+                while (json.hasNext()) {
+                    parseSourceFile(json, handler);
+                }
+                json.endArray();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+    }
+
+    private static void parseSourceFile(JsonReader json, CoverageHandler handler) throws IOException {
+        String name = null;
+        FileCoverage coverage = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            String key = json.nextName();
+            if ("name".equals(key) && json.peek() == JsonReader.Token.STRING) {
+                name = json.nextString();
+            } else if ("coverage".equals(key) && json.peek() == JsonReader.Token.BEGIN_ARRAY) {
+                coverage = parseCoverage(json);
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        if (name != null && coverage != null) {
+            handler.handle(name, coverage);
+        }
+    }
+
+    private static FileCoverage parseCoverage(JsonReader json) throws IOException {
+        FileCoverage coverage = new FileCoverage();
+        int line = 0;
+        json.beginArray();
+        while (json.hasNext()) {
+            line++;
+            if (json.peek() == JsonReader.Token.NUMBER) {
+                coverage.addHits(line, parseHits(json.nextString()));
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endArray();
+        return coverage;
+    }
+
+    /** Hits may exceed the int range on long-running test suites. */
+    private static int parseHits(String hits) {
+        return (int) Math.min(Long.parseLong(hits), Integer.MAX_VALUE);
+    }
+}
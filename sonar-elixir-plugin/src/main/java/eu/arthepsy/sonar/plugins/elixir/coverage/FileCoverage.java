@@ -0,0 +1,105 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.coverage;
+
+import java.util.Arrays;
+
+/**
+ * Line hits of one file, indexed by line number. A slot holds the number of
+ * hits plus one, so that 0 marks a line that is not executable. Hits saturate
+ * at {@code Integer.MAX_VALUE - 1}.
+ */
+public class FileCoverage {
+    private int[] hits;
+    private int maxLine;
+
+    public FileCoverage() {
+        this(64);
+    }
+
+    public FileCoverage(int lines) {
+        this.hits = new int[lines + 1];
+    }
+
+    /** Adds hits of an executable line; hits of the same line are summed. */
+    public void addHits(int line, int count) {
+        if (line <= 0) {
+            return;
+        }
+        if (line >= hits.length) {
+            hits = Arrays.copyOf(hits, Math.max(line + 1, hits.length * 2));
+        }
+        int previous = hits[line] == 0 ? 0 : hits[line] - 1;
+        long sum = (long) previous + Math.max(count, 0);
+        hits[line] = (int) Math.min(sum + 1, Integer.MAX_VALUE);
+        maxLine = Math.max(maxLine, line);
+    }
+
+    public void merge(FileCoverage other) {
+        for (int line = 1; line <= other.maxLine; line++) {
+            if (other.hits[line] != 0) {
+                addHits(line, other.hits[line] - 1);
+            }
+        }
+    }
+
+    /** Hits of a line, or -1 if the line is not executable. */
+    public int getHits(int line) {
+        return line > 0 && line <= maxLine ? hits[line] - 1 : -1;
+    }
+
+    public int getLinesToCover() {
+        int count = 0;
+        for (int line = 1; line <= maxLine; line++) {
+            if (hits[line] != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getUncoveredLines() {
+        int count = 0;
+        for (int line = 1; line <= maxLine; line++) {
+            if (hits[line] == 1) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Line hits in the {@code line=hits;line=hits} format of {@code coverage_line_hits_data}. */
+    public String getLineHitsData() {
+        StringBuilder data = new StringBuilder(maxLine * 4);
+        for (int line = 1; line <= maxLine; line++) {
+            if (hits[line] != 0) {
+                if (data.length() > 0) {
+                    data.append(';');
+                }
+                data.append(line).append('=').append(hits[line] - 1);
+            }
+        }
+        return data.toString();
+    }
+}
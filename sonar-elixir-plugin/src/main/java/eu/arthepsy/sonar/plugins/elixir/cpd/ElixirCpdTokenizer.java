@@ -0,0 +1,79 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.cpd;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirParser;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTemplateReader;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTokenType;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTokenVisitor;
+import net.sourceforge.pmd.cpd.SourceCode;
+import net.sourceforge.pmd.cpd.TokenEntry;
+import net.sourceforge.pmd.cpd.Tokenizer;
+import net.sourceforge.pmd.cpd.Tokens;
+
+/**
+ * Feeds the Elixir token stream to the duplication engine. Comments and
+ * documentation are dropped, and identifiers, strings, sigils and numbers
+ * are replaced by a placeholder, so that copies differing only by names or
+ * literal values are still reported.
+ */
+public class ElixirCpdTokenizer implements Tokenizer {
+    static final String IDENTIFIER = "$id";
+    static final String LITERAL = "$lit";
+
+    @Override
+    public void tokenize(SourceCode source, final Tokens tokens) {
+        final String fileName = source.getFileName();
+        if (ElixirTemplateReader.isTemplate(fileName)) {
+            tokens.add(TokenEntry.getEOF());
+            return;
+        }
+        new ElixirParser().parse(source.getCodeBuffer().toString(), new ElixirTokenVisitor() {
+            @Override
+            public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+                String image = imageOf(type, content, start, end);
+                if (image != null) {
+                    tokens.add(new TokenEntry(image, fileName, line));
+                }
+            }
+        });
+        tokens.add(TokenEntry.getEOF());
+    }
+
+    private static String imageOf(ElixirTokenType type, CharSequence content, int start, int end) {
+        switch (type) {
+            case COMMENT:
+            case DOC_STRING:
+                return null;
+            case IDENTIFIER:
+                return IDENTIFIER;
+            case STRING:
+            case SIGIL:
+            case NUMBER:
+                return LITERAL;
+            default:
+                return content.subSequence(start, end).toString();
+        }
+    }
+}
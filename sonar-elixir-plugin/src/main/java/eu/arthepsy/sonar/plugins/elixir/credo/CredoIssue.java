@@ -0,0 +1,49 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.credo;
+
+/** One issue of a Credo report. The line is 0 when the issue is not on a line. */
+public class CredoIssue {
+    private final String check;
+    private final String fileName;
+    private final int line;
+    private final String message;
+
+    public CredoIssue(String check, String fileName, int line, String message) {
+        this.check = check;
+        this.fileName = fileName;
+        this.line = line;
+        this.message = message;
+    }
+
+    public String getCheck() { return check; }
+    public String getFileName() { return fileName; }
+    public int getLine() { return line; }
+    public String getMessage() { return message; }
+
+    @Override
+    public String toString() {
+        return check + ":" + fileName + ":" + line + ": " + message;
+    }
+}
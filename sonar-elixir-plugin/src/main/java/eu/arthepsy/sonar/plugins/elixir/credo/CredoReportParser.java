@@ -0,0 +1,85 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.credo;
+
+import eu.arthepsy.sonar.plugins.elixir.util.JsonReader;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads the issues of a {@code mix credo --format json} report one at a time,
+ * without keeping the report or earlier issues in memory.
+ */
+public final class CredoReportParser {
+
+    public interface IssueHandler {
+        void handle(CredoIssue issue);
+    }
+
+    private CredoReportParser() { }
+
+    public static void parse(Reader reader, IssueHandler handler) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        json.beginObject();
+        while (json.hasNext()) {
+            if ("issues".equals(json.nextName())) {
+                json.beginArray();
+                while (json.hasNext()) {
+                    handler.handle(parseIssue(json));
+                }
+                json.endArray();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+    }
+
+    private static CredoIssue parseIssue(JsonReader json) throws IOException {
+        String check = null;
+        String fileName = null;
+        int line = 0;
+        String message = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (json.peek() == JsonReader.Token.NULL) {
+                json.nextNull();
+            } else if ("check".equals(name)) {
+                check = json.nextString();
+            } else if ("filename".equals(name)) {
+                fileName = json.nextString();
+            } else if ("line_no".equals(name)) {
+                line = json.nextInt();
+            } else if ("message".equals(name)) {
+                message = json.nextString();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        return new CredoIssue(check, fileName, line, message);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.credo;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+public final class CredoRuleList {
+    public static final String REPOSITORY_KEY = "credo";
+    public static final String REPOSITORY_NAME = "Credo";
+
+    private CredoRuleList() { }
+
+    /** Names of the checks bundled with Credo, used as rule keys. */
+    public static List<String> getChecks() {
+        return ImmutableList.of(
+                "Credo.Check.Consistency.ExceptionNames",
+                "Credo.Check.Consistency.LineEndings",
+                "Credo.Check.Consistency.MultiAliasImportRequireUse",
+                "Credo.Check.Consistency.ParameterPatternMatching",
+                "Credo.Check.Consistency.SpaceAroundOperators",
+                "Credo.Check.Consistency.SpaceInParentheses",
+                "Credo.Check.Consistency.TabsOrSpaces",
+                "Credo.Check.Consistency.UnusedVariableNames",
+                "Credo.Check.Design.AliasUsage",
+                "Credo.Check.Design.DuplicatedCode",
+                "Credo.Check.Design.SkipTestWithoutComment",
+                "Credo.Check.Design.TagFIXME",
+                "Credo.Check.Design.TagTODO",
+                "Credo.Check.Readability.AliasOrder",
+                "Credo.Check.Readability.FunctionNames",
+                "Credo.Check.Readability.LargeNumbers",
+                "Credo.Check.Readability.MaxLineLength",
+                "Credo.Check.Readability.ModuleAttributeNames",
+                "Credo.Check.Readability.ModuleDoc",
+                "Credo.Check.Readability.ModuleNames",
+                "Credo.Check.Readability.ParenthesesInCondition",
+                "Credo.Check.Readability.ParenthesesOnZeroArityDefs",
+                "Credo.Check.Readability.PipeIntoAnonymousFunctions",
+                "Credo.Check.Readability.PredicateFunctionNames",
+                "Credo.Check.Readability.PreferImplicitTry",
+                "Credo.Check.Readability.RedundantBlankLines",
+                "Credo.Check.Readability.Semicolons",
+                "Credo.Check.Readability.SpaceAfterCommas",
+                "Credo.Check.Readability.StringSigils",
+                "Credo.Check.Readability.TrailingBlankLine",
+                "Credo.Check.Readability.TrailingWhiteSpace",
+                "Credo.Check.Readability.UnnecessaryAliasExpansion",
+                "Credo.Check.Readability.VariableNames",
+                "Credo.Check.Readability.WithSingleClause",
+                "Credo.Check.Refactor.Apply",
+                "Credo.Check.Refactor.CondStatements",
+                "Credo.Check.Refactor.CyclomaticComplexity",
+                "Credo.Check.Refactor.FilterCount",
+                "Credo.Check.Refactor.FilterFilter",
+                "Credo.Check.Refactor.FunctionArity",
+                "Credo.Check.Refactor.LongQuoteBlocks",
+                "Credo.Check.Refactor.MapJoin",
+                "Credo.Check.Refactor.MatchInCondition",
+                "Credo.Check.Refactor.NegatedConditionsInUnless",
+                "Credo.Check.Refactor.NegatedConditionsWithElse",
+                "Credo.Check.Refactor.Nesting",
+                "Credo.Check.Refactor.RedundantWithClauseResult",
+                "Credo.Check.Refactor.RejectReject",
+                "Credo.Check.Refactor.UnlessWithElse",
+                "Credo.Check.Refactor.WithClauses",
+                "Credo.Check.Warning.ApplicationConfigInModuleAttribute",
+                "Credo.Check.Warning.BoolOperationOnSameValues",
+                "Credo.Check.Warning.Dbg",
+                "Credo.Check.Warning.ExpensiveEmptyEnumCheck",
+                "Credo.Check.Warning.IExPry",
+                "Credo.Check.Warning.IoInspect",
+                "Credo.Check.Warning.MissedMetadataKeyInLoggerConfig",
+                "Credo.Check.Warning.OperationOnSameValues",
+                "Credo.Check.Warning.OperationWithConstantResult",
+                "Credo.Check.Warning.RaiseInsideRescue",
+                "Credo.Check.Warning.SpecWithStruct",
+                "Credo.Check.Warning.UnsafeExec",
+                "Credo.Check.Warning.UnusedEnumOperation",
+                "Credo.Check.Warning.UnusedFileOperation",
+                "Credo.Check.Warning.UnusedKeywordOperation",
+                "Credo.Check.Warning.UnusedListOperation",
+                "Credo.Check.Warning.UnusedPathOperation",
+                "Credo.Check.Warning.UnusedRegexOperation",
+                "Credo.Check.Warning.UnusedStringOperation",
+                "Credo.Check.Warning.UnusedTupleOperation",
+                "Credo.Check.Warning.WrongTestFileExtension"
+        );
+    }
+
+    /** Category of a check, e.g. {@code readability} for {@code Credo.Check.Readability.ModuleDoc}. */
+    public static String getCategory(String check) {
+        String[] parts = check.split("\\.");
+        return parts.length == 4 ? parts[2].toLowerCase() : "custom";
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.credo;
+
+import eu.arthepsy.sonar.plugins.elixir.language.Elixir;
+import org.sonar.api.rule.Severity;
+import org.sonar.api.server.rule.RulesDefinition;
+
+public class CredoRulesDefinition implements RulesDefinition {
+
+    @Override
+    public void define(Context context) {
+        NewRepository repository = context
+                .createRepository(CredoRuleList.REPOSITORY_KEY, Elixir.KEY)
+                .setName(CredoRuleList.REPOSITORY_NAME);
+        for (String check : CredoRuleList.getChecks()) {
+            String category = CredoRuleList.getCategory(check);
+            repository.createRule(check)
+                    .setName(getName(check))
+                    .setSeverity(getSeverity(category))
+                    .setHtmlDescription("<p>Issue reported by the Credo check <code>" + check + "</code>.</p>")
+                    .setTags("credo", category);
+        }
+        repository.done();
+    }
+
+    /** {@code Credo.Check.Readability.ModuleDoc} is named {@code Module doc}, {@code Design.TagTODO} {@code Tag TODO}. */
+    static String getName(String check) {
+        String name = check.substring(check.lastIndexOf('.') + 1);
+        StringBuilder result = new StringBuilder(name.length() + 8);
+        boolean lowerCaseWord = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (i > 0 && Character.isUpperCase(c) && Character.isLowerCase(name.charAt(i - 1))) {
+                result.append(' ');
+                lowerCaseWord = i + 1 < name.length() && Character.isLowerCase(name.charAt(i + 1));
+            }
+            result.append(lowerCaseWord ? Character.toLowerCase(c) : c);
+        }
+        return result.toString();
+    }
+
+    private static String getSeverity(String category) {
+        switch (category) {
+            case "warning":
+                return Severity.CRITICAL;
+            case "design":
+            case "refactor":
+                return Severity.MAJOR;
+            case "readability":
+                return Severity.MINOR;
+            default:
+                return Severity.INFO;
+        }
+    }
+}
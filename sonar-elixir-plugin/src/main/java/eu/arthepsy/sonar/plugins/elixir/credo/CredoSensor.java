@@ -0,0 +1,152 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.credo;
+
+import eu.arthepsy.sonar.plugins.elixir.ElixirConfiguration;
+import eu.arthepsy.sonar.plugins.elixir.language.Elixir;
+import eu.arthepsy.sonar.plugins.elixir.util.InputFileIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.Sensor;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.component.ResourcePerspectives;
+import org.sonar.api.config.Settings;
+import org.sonar.api.issue.Issuable;
+import org.sonar.api.resources.Project;
+import org.sonar.api.resources.Resource;
+import org.sonar.api.rule.RuleKey;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Imports issues of a Credo JSON report, see {@link ElixirConfiguration#CREDO_REPORT_PATH_KEY}. */
+public class CredoSensor implements Sensor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CredoSensor.class);
+    private static final String LOG_PREFIX = ElixirConfiguration.LOG_PREFIX;
+
+    private final FileSystem fileSystem;
+    private final Settings settings;
+    private final ResourcePerspectives perspectives;
+
+    public CredoSensor(FileSystem fileSystem, Settings settings, ResourcePerspectives perspectives) {
+        this.fileSystem = fileSystem;
+        this.settings = settings;
+        this.perspectives = perspectives;
+    }
+
+    @Override
+    public boolean shouldExecuteOnProject(Project project) {
+        return settings.hasKey(ElixirConfiguration.CREDO_REPORT_PATH_KEY)
+                && fileSystem.hasFiles(fileSystem.predicates().hasLanguage(Elixir.KEY));
+    }
+
+    @Override
+    public void analyse(Project project, SensorContext context) {
+        File report = getReportFile();
+        if (!report.isFile()) {
+            LOG.warn(LOG_PREFIX + "Credo report not found: " + report);
+            return;
+        }
+        LOG.info(LOG_PREFIX + "importing Credo report " + report);
+        IssueSaver saver = new IssueSaver(context);
+        try (Reader reader = new InputStreamReader(Files.newInputStream(report.toPath()), StandardCharsets.UTF_8)) {
+            CredoReportParser.parse(reader, saver);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read Credo report " + report, e);
+        }
+        LOG.info(LOG_PREFIX + "Credo issues: " + saver.saved + " saved, " + saver.unknownFiles + " on unknown files, "
+                + saver.unknownRules + " without a check, " + saver.inactiveRules + " of inactive or unknown checks");
+    }
+
+    private File getReportFile() {
+        File report = new File(settings.getString(ElixirConfiguration.CREDO_REPORT_PATH_KEY));
+        return report.isAbsolute() ? report : new File(fileSystem.baseDir(), report.getPath());
+    }
+
+    private final class IssueSaver implements CredoReportParser.IssueHandler {
+        private final SensorContext context;
+        private final InputFileIndex files;
+        private final Map<String, Issuable> issuables = new HashMap<>();
+        private int saved;
+        private int unknownFiles;
+        private int unknownRules;
+        private int inactiveRules;
+
+        private IssueSaver(SensorContext context) {
+            this.context = context;
+            this.files = new InputFileIndex(fileSystem, fileSystem.predicates().hasLanguage(Elixir.KEY));
+        }
+
+        @Override
+        public void handle(CredoIssue issue) {
+            if (issue.getCheck() == null) {
+                unknownRules++;
+                return;
+            }
+            Issuable issuable = issue.getFileName() == null ? null : getIssuable(issue.getFileName());
+            if (issuable == null) {
+                unknownFiles++;
+                return;
+            }
+            Issuable.IssueBuilder builder = issuable.newIssueBuilder()
+                    .ruleKey(RuleKey.of(CredoRuleList.REPOSITORY_KEY, issue.getCheck()))
+                    .message(issue.getMessage());
+            if (issue.getLine() > 0) {
+                builder.line(issue.getLine());
+            }
+            if (issuable.addIssue(builder.build())) {
+                saved++;
+            } else {
+                inactiveRules++;
+            }
+        }
+
+        private Issuable getIssuable(String fileName) {
+            InputFile file = files.get(fileName);
+            if (file == null) {
+                LOG.debug(LOG_PREFIX + "Credo issues on unknown file: " + fileName);
+                return null;
+            }
+            if (issuables.containsKey(file.relativePath())) {
+                return issuables.get(file.relativePath());
+            }
+            Issuable issuable = null;
+            Resource resource = context.getResource(org.sonar.api.resources.File.create(file.relativePath()));
+            if (resource != null) {
+                issuable = perspectives.as(Issuable.class, resource);
+            }
+            issuables.put(file.relativePath(), issuable);
+            return issuable;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.exunit;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import eu.arthepsy.sonar.plugins.elixir.ElixirConfiguration;
+import eu.arthepsy.sonar.plugins.elixir.language.Elixir;
+import eu.arthepsy.sonar.plugins.elixir.util.InputFileIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.Sensor;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.fs.FilePredicate;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.config.Settings;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.resources.Project;
+import org.sonar.api.utils.ParsingUtils;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Imports ExUnit results from JUnit XML reports, see
+ * {@link ElixirConfiguration#TESTS_REPORT_PATH_KEY}. Reports of a directory are
+ * parsed concurrently; modules are resolved to test files by the file name in
+ * the report, or else by a {@link TestModuleIndex}.
+ */
+public class ExUnitSensor implements Sensor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExUnitSensor.class);
+    private static final String LOG_PREFIX = ElixirConfiguration.LOG_PREFIX;
+
+    private final FileSystem fileSystem;
+    private final Settings settings;
+    private final FilePredicate testFilePredicate;
+
+    public ExUnitSensor(FileSystem fileSystem, Settings settings) {
+        this.fileSystem = fileSystem;
+        this.settings = settings;
+        this.testFilePredicate = fileSystem.predicates().and(
+                fileSystem.predicates().hasType(InputFile.Type.TEST),
+                fileSystem.predicates().hasLanguage(Elixir.KEY));
+    }
+
+    @Override
+    public boolean shouldExecuteOnProject(Project project) {
+        return settings.hasKey(ElixirConfiguration.TESTS_REPORT_PATH_KEY) && fileSystem.hasFiles(testFilePredicate);
+    }
+
+    @Override
+    public void analyse(Project project, SensorContext context) {
+        List<File> reports = getReports();
+        if (reports.isEmpty()) {
+            LOG.warn(LOG_PREFIX + "no test report found in " + getReportPath());
+            return;
+        }
+        LOG.info(LOG_PREFIX + "importing " + reports.size() + " test reports from " + getReportPath());
+        Map<InputFile, UnitTestResults> files = resolve(parseReports(reports));
+        for (Map.Entry<InputFile, UnitTestResults> entry : files.entrySet()) {
+            saveResults(entry.getKey(), entry.getValue(), context);
+        }
+    }
+
+    private File getReportPath() {
+        File path = new File(settings.getString(ElixirConfiguration.TESTS_REPORT_PATH_KEY));
+        return path.isAbsolute() ? path : new File(fileSystem.baseDir(), path.getPath());
+    }
+
+    private List<File> getReports() {
+        File path = getReportPath();
+        if (path.isFile()) {
+            return Collections.singletonList(path);
+        }
+        File[] reports = path.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.isFile() && file.getName().endsWith(".xml");
+            }
+        });
+        if (reports == null) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(reports);
+        return Arrays.asList(reports);
+    }
+
+    private Map<String, UnitTestResults> parseReports(List<File> reports) {
+        int threads = Math.min(ElixirConfiguration.getThreadCount(settings), reports.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("elixir-tests-%d").setDaemon(true).build());
+        try {
+            List<Future<Map<String, UnitTestResults>>> results = Lists.newArrayListWithCapacity(reports.size());
+            for (final File report : reports) {
+                results.add(executor.submit(new Callable<Map<String, UnitTestResults>>() {
+                    @Override
+                    public Map<String, UnitTestResults> call() throws IOException {
+                        try (InputStream input = new BufferedInputStream(Files.newInputStream(report.toPath()))) {
+                            return JUnitReportParser.parse(input);
+                        }
+                    }
+                }));
+            }
+            Map<String, UnitTestResults> modules = new LinkedHashMap<>();
+            for (int i = 0; i < reports.size(); i++) {
+                for (Map.Entry<String, UnitTestResults> entry : getResult(results.get(i), reports.get(i)).entrySet()) {
+                    UnitTestResults existing = modules.get(entry.getKey());
+                    if (existing == null) {
+                        modules.put(entry.getKey(), entry.getValue());
+                    } else {
+                        existing.add(entry.getValue());
+                    }
+                }
+            }
+            return modules;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T getResult(Future<T> result, File report) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading test report " + report, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to read test report " + report, e.getCause());
+        }
+    }
+
+    private Map<InputFile, UnitTestResults> resolve(Map<String, UnitTestResults> modules) {
+        InputFileIndex fileIndex = new InputFileIndex(fileSystem, testFilePredicate);
+        TestModuleIndex moduleIndex = null;
+        Map<InputFile, UnitTestResults> files = new LinkedHashMap<>();
+        int unknownModules = 0;
+        for (Map.Entry<String, UnitTestResults> entry : modules.entrySet()) {
+            UnitTestResults results = entry.getValue();
+            InputFile file = results.getFileName() == null ? null : fileIndex.get(results.getFileName());
+            if (file == null) {
+                if (moduleIndex == null) {
+                    moduleIndex = new TestModuleIndex(fileSystem.inputFiles(testFilePredicate), fileSystem.encoding());
+                    LOG.debug(LOG_PREFIX + "indexed " + moduleIndex.size() + " test modules");
+                }
+                file = moduleIndex.get(entry.getKey());
+            }
+            if (file == null) {
+                LOG.debug(LOG_PREFIX + "test module without file: " + entry.getKey());
+                unknownModules++;
+                continue;
+            }
+            UnitTestResults existing = files.get(file);
+            if (existing == null) {
+                files.put(file, results);
+            } else {
+                existing.add(results);
+            }
+        }
+        LOG.info(LOG_PREFIX + "test results imported for " + files.size() + " files, "
+                + unknownModules + " modules without file");
+        return files;
+    }
+
+    private static void saveResults(InputFile inputFile, UnitTestResults results, SensorContext context) {
+        int executed = results.getTests() - results.getSkipped();
+        context.saveMeasure(inputFile, CoreMetrics.SKIPPED_TESTS, (double) results.getSkipped());
+        context.saveMeasure(inputFile, CoreMetrics.TESTS, (double) executed);
+        context.saveMeasure(inputFile, CoreMetrics.TEST_ERRORS, (double) results.getErrors());
+        context.saveMeasure(inputFile, CoreMetrics.TEST_FAILURES, (double) results.getFailures());
+        context.saveMeasure(inputFile, CoreMetrics.TEST_EXECUTION_TIME, (double) results.getDurationMillis());
+        if (executed > 0) {
+            double passed = executed - results.getErrors() - results.getFailures();
+            context.saveMeasure(inputFile, CoreMetrics.TEST_SUCCESS_DENSITY,
+                    ParsingUtils.scaleValue(passed * 100 / executed, 2));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.exunit;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads a JUnit XML report, as written by {@code junit_formatter} for ExUnit,
+ * with a StAX cursor. Results are grouped by test module; the {@code Elixir.}
+ * prefix of module names is removed.
+ */
+public final class JUnitReportParser {
+    private static final String ELIXIR_PREFIX = "Elixir.";
+
+    private JUnitReportParser() { }
+
+    public static Map<String, UnitTestResults> parse(InputStream input) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            XMLStreamReader xml = factory.createXMLStreamReader(input);
+            try {
+                return parse(xml);
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("Malformed JUnit report: " + e.getMessage(), e);
+        }
+    }
+
+    private static Map<String, UnitTestResults> parse(XMLStreamReader xml) throws XMLStreamException {
+        Map<String, UnitTestResults> modules = new LinkedHashMap<>();
+        String suite = null;
+        String module = null;
+        String file = null;
+        double time = 0;
+        boolean failure = false;
+        boolean error = false;
+        boolean skipped = false;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = xml.getLocalName();
+                if ("testsuite".equals(name)) {
+                    suite = xml.getAttributeValue(null, "name");
+                } else if ("testcase".equals(name)) {
+                    String className = xml.getAttributeValue(null, "classname");
+                    module = moduleName(className != null ? className : suite);
+                    file = xml.getAttributeValue(null, "file");
+                    String seconds = xml.getAttributeValue(null, "time");
+                    time = seconds == null || seconds.isEmpty() ? 0 : Double.parseDouble(seconds);
+                    failure = false;
+                    error = false;
+                    skipped = false;
+                } else if ("failure".equals(name)) {
+                    failure = true;
+                } else if ("error".equals(name)) {
+                    error = true;
+                } else if ("skipped".equals(name)) {
+                    skipped = true;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "testcase".equals(xml.getLocalName())) {
+                if (module != null) {
+                    UnitTestResults results = modules.get(module);
+                    if (results == null) {
+                        results = new UnitTestResults();
+                        modules.put(module, results);
+                    }
+                    results.addTestCase(file, time, failure, error, skipped);
+                }
+                module = null;
+            }
+        }
+        return modules;
+    }
+
+    private static String moduleName(String name) {
+        if (name == null) {
+            return null;
+        }
+        return name.startsWith(ELIXIR_PREFIX) ? name.substring(ELIXIR_PREFIX.length()) : name;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.exunit;
+
+import eu.arthepsy.sonar.plugins.elixir.ElixirConfiguration;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirSourceReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps module names to the test files declaring them with {@code defmodule},
+ * so that report entries are resolved without searching the file system.
+ */
+public class TestModuleIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(TestModuleIndex.class);
+
+    private final Map<String, InputFile> modules = new HashMap<>();
+
+    public TestModuleIndex(Iterable<InputFile> testFiles, Charset charset) {
+        for (InputFile file : testFiles) {
+            try {
+                index(file, ElixirSourceReader.read(Paths.get(file.absolutePath()), charset));
+            } catch (IOException e) {
+                LOG.warn(ElixirConfiguration.LOG_PREFIX + "could not read test file: " + file, e);
+            }
+        }
+    }
+
+    /** Returns {@code null} for unknown modules. */
+    public InputFile get(String module) {
+        return modules.get(module);
+    }
+
+    public int size() {
+        return modules.size();
+    }
+
+    private void index(InputFile file, CharSequence content) {
+        int length = content.length();
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && content.charAt(end) != '\n') {
+                end++;
+            }
+            String module = declaredModule(content, start, end);
+            if (module != null && !modules.containsKey(module)) {
+                modules.put(module, file);
+            }
+            start = end + 1;
+        }
+    }
+
+    /** Name declared by a {@code defmodule Name do} line, or {@code null}. */
+    static String declaredModule(CharSequence s, int start, int end) {
+        int pos = start;
+        while (pos < end && Character.isWhitespace(s.charAt(pos))) {
+            pos++;
+        }
+        String keyword = "defmodule";
+        if (end - pos <= keyword.length() || !keyword.contentEquals(s.subSequence(pos, pos + keyword.length()))
+                || !Character.isWhitespace(s.charAt(pos + keyword.length()))) {
+            return null;
+        }
+        pos += keyword.length();
+        while (pos < end && Character.isWhitespace(s.charAt(pos))) {
+            pos++;
+        }
+        int nameStart = pos;
+        while (pos < end && (Character.isLetterOrDigit(s.charAt(pos)) || s.charAt(pos) == '_' || s.charAt(pos) == '.')) {
+            pos++;
+        }
+        return pos > nameStart && Character.isUpperCase(s.charAt(nameStart)) ? s.subSequence(nameStart, pos).toString() : null;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.exunit;
+
+/** Test counts and duration of one test module, summed over its test cases. */
+public class UnitTestResults {
+    private int tests;
+    private int failures;
+    private int errors;
+    private int skipped;
+    private double seconds;
+    private String fileName;
+
+    public int getTests() { return tests; }
+    public int getFailures() { return failures; }
+    public int getErrors() { return errors; }
+    public int getSkipped() { return skipped; }
+    /** File named by the test cases, if the formatter reports it. */
+    public String getFileName() { return fileName; }
+
+    public long getDurationMillis() {
+        return Math.round(seconds * 1000);
+    }
+
+    void addTestCase(String file, double time, boolean failure, boolean error, boolean skip) {
+        tests++;
+        if (error) {
+            errors++;
+        } else if (failure) {
+            failures++;
+        } else if (skip) {
+            skipped++;
+        }
+        seconds += time;
+        if (fileName == null) {
+            fileName = file;
+        }
+    }
+
+    public void add(UnitTestResults other) {
+        tests += other.tests;
+        failures += other.failures;
+        errors += other.errors;
+        skipped += other.skipped;
+        seconds += other.seconds;
+        if (fileName == null) {
+            fileName = other.fileName;
+        }
+    }
+}
@@ -29,7 +29,8 @@ public class Elixir extends AbstractLanguage {
 
     public static final String KEY = "elixir";
     public static final String NAME = "Elixir";
-    public static final String[] FILE_SUFFIXES = {"ex", "exs"};
+    /** Elixir sources, and the templates of {@link ElixirTemplateReader#FILE_SUFFIXES}. */
+    public static final String[] FILE_SUFFIXES = {"ex", "exs", "eex", "heex", "leex"};
 
     public Elixir() {
         super(KEY, NAME);
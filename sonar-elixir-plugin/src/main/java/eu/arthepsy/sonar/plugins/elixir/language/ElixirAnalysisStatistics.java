@@ -0,0 +1,214 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import eu.arthepsy.sonar.plugins.elixir.ElixirConfiguration;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Read, parse and save times of the files of one analysis. Only used when
+ * profiling is enabled; all methods are called from the sensor thread.
+ */
+public class ElixirAnalysisStatistics {
+    public static final String FILE_NAME = "elixir-analysis-profile.json";
+    static final int SLOWEST_FILES = 10;
+
+    private static final String LOG_PREFIX = ElixirConfiguration.LOG_PREFIX;
+
+    private final long startNanos;
+    private long wallNanos;
+
+    private final List<String> paths = new ArrayList<>();
+    private long[] bytes = new long[64];
+    private int[] lines = new int[64];
+    private long[] readNanos = new long[64];
+    private long[] parseNanos = new long[64];
+    private long[] saveNanos = new long[64];
+    private int size;
+
+    public ElixirAnalysisStatistics() {
+        this.startNanos = System.nanoTime();
+    }
+
+    public void record(String path, long fileBytes, int fileLines, long read, long parse, long save) {
+        if (size == bytes.length) {
+            int capacity = size * 2;
+            bytes = Arrays.copyOf(bytes, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            readNanos = Arrays.copyOf(readNanos, capacity);
+            parseNanos = Arrays.copyOf(parseNanos, capacity);
+            saveNanos = Arrays.copyOf(saveNanos, capacity);
+        }
+        paths.add(path);
+        bytes[size] = fileBytes;
+        lines[size] = fileLines;
+        readNanos[size] = read;
+        parseNanos[size] = parse;
+        saveNanos[size] = save;
+        size++;
+    }
+
+    /** Stops the wall clock of the analysis. */
+    public void finish() {
+        wallNanos = System.nanoTime() - startNanos;
+    }
+
+    public int getFileCount() {
+        return size;
+    }
+
+    public long getTotalBytes() {
+        return sum(bytes);
+    }
+
+    public long getTotalLines() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += lines[i];
+        }
+        return total;
+    }
+
+    public double getLinesPerSecond() {
+        return wallNanos == 0 ? 0 : getTotalLines() * 1e9 / wallNanos;
+    }
+
+    /** Nearest-rank percentile of the parse times, in nanoseconds. */
+    public long getParsePercentile(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(parseNanos, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * size);
+        return sorted[Math.max(0, Math.min(size, rank) - 1)];
+    }
+
+    /** Paths of the files with the highest total time, slowest first. */
+    public List<String> getSlowestFiles() {
+        List<String> result = new ArrayList<>();
+        for (int i : slowest()) {
+            result.add(paths.get(i));
+        }
+        return result;
+    }
+
+    public void log(Logger log) {
+        log.info(String.format(Locale.ROOT,
+                "%sanalysed %d files, %d bytes, %d lines in %.0f ms (%.0f lines/s)",
+                LOG_PREFIX, size, getTotalBytes(), getTotalLines(), millis(wallNanos), getLinesPerSecond()));
+        log.info(String.format(Locale.ROOT,
+                "%stotal read %.0f ms, parse %.0f ms, save %.0f ms; parse p50 %.3f ms, p95 %.3f ms, max %.3f ms",
+                LOG_PREFIX, millis(sum(readNanos)), millis(sum(parseNanos)), millis(sum(saveNanos)),
+                millis(getParsePercentile(50)), millis(getParsePercentile(95)), millis(getParsePercentile(100))));
+        for (int i : slowest()) {
+            log.info(String.format(Locale.ROOT, "%sslow file: %s (%d lines, read %.3f ms, parse %.3f ms, save %.3f ms)",
+                    LOG_PREFIX, paths.get(i), lines[i], millis(readNanos[i]), millis(parseNanos[i]), millis(saveNanos[i])));
+        }
+    }
+
+    public void writeJson(File file) throws IOException {
+        try (Writer out = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            out.write(String.format(Locale.ROOT,
+                    "{\n  \"files\": %d,\n  \"bytes\": %d,\n  \"lines\": %d,\n  \"wallTimeMs\": %.3f,\n"
+                            + "  \"linesPerSecond\": %.1f,\n  \"readTimeMs\": %.3f,\n  \"parseTimeMs\": %.3f,\n"
+                            + "  \"saveTimeMs\": %.3f,\n  \"parseP50Ms\": %.3f,\n  \"parseP95Ms\": %.3f,\n"
+                            + "  \"parseMaxMs\": %.3f,\n  \"slowest\": [",
+                    size, getTotalBytes(), getTotalLines(), millis(wallNanos), getLinesPerSecond(),
+                    millis(sum(readNanos)), millis(sum(parseNanos)), millis(sum(saveNanos)),
+                    millis(getParsePercentile(50)), millis(getParsePercentile(95)), millis(getParsePercentile(100))));
+            String separator = "\n";
+            for (int i : slowest()) {
+                out.write(separator);
+                out.write(String.format(Locale.ROOT,
+                        "    {\"path\": \"%s\", \"bytes\": %d, \"lines\": %d, \"readMs\": %.3f, \"parseMs\": %.3f, \"saveMs\": %.3f}",
+                        escape(paths.get(i)), bytes[i], lines[i], millis(readNanos[i]), millis(parseNanos[i]),
+                        millis(saveNanos[i])));
+                separator = ",\n";
+            }
+            out.write("\n  ]\n}\n");
+        }
+    }
+
+    private int[] slowest() {
+        Integer[] indexes = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        Arrays.sort(indexes, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Long.compare(total(b), total(a));
+            }
+        });
+        int[] result = new int[Math.min(SLOWEST_FILES, size)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = indexes[i];
+        }
+        return result;
+    }
+
+    private long total(int i) {
+        return readNanos[i] + parseNanos[i] + saveNanos[i];
+    }
+
+    private long sum(long[] values) {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += values[i];
+        }
+        return total;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String escape(String value) {
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                result.append('\\').append(c);
+            } else if (c < ' ') {
+                result.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Content of a pure ASCII file, read directly from its bytes. As every byte is
+ * one character, offsets are the same as in decoded content.
+ */
+final class ElixirAsciiContent implements CharSequence {
+    private final ByteBuffer bytes;
+    private final int offset;
+    private final int length;
+
+    ElixirAsciiContent(ByteBuffer bytes) {
+        this(bytes, bytes.position(), bytes.remaining());
+    }
+
+    private ElixirAsciiContent(ByteBuffer bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", length: " + length);
+        }
+        return (char) bytes.get(offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Range: [" + start + ", " + end + "), length: " + length);
+        }
+        return new ElixirAsciiContent(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        if (bytes.hasArray()) {
+            return new String(bytes.array(), bytes.arrayOffset() + offset, length, StandardCharsets.US_ASCII);
+        }
+        byte[] copy = new byte[length];
+        ByteBuffer view = bytes.duplicate();
+        view.position(offset);
+        view.get(copy);
+        return new String(copy, StandardCharsets.US_ASCII);
+    }
+
+    /** Whether all bytes of {@code [position, limit)} are below 0x80, checked eight at a time. */
+    static boolean isAscii(ByteBuffer bytes) {
+        int pos = bytes.position();
+        int limit = bytes.limit();
+        for (; pos + 8 <= limit; pos += 8) {
+            if ((bytes.getLong(pos) & 0x8080808080808080L) != 0) {
+                return false;
+            }
+        }
+        for (; pos < limit; pos++) {
+            if (bytes.get(pos) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
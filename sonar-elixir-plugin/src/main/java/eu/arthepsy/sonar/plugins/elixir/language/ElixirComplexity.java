@@ -0,0 +1,363 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import java.util.Arrays;
+
+/**
+ * Computes cyclomatic complexity from the token stream. Each function starts
+ * at 1 and each further clause of a multi-clause function adds 1, as do
+ * {@code if}, {@code unless}, guards ({@code when}), boolean operators
+ * ({@code &&}, {@code ||}, {@code and}, {@code or}), {@code with} clauses
+ * and every clause after the first in a {@code case}, {@code cond},
+ * {@code receive}, {@code try} or {@code fn} block.
+ * <p>
+ * Decision points outside of any function clause only count toward the file.
+ * <p>
+ * Functions are also recorded in an {@link ElixirFunctionTable} with their
+ * lines, arity, clauses and whether they have a {@code @doc}. A clause ends
+ * with the {@code end} of its {@code do} block; a {@code do:} clause ends at
+ * the first line break outside of brackets that does not follow an operator.
+ */
+public class ElixirComplexity extends ElixirTokenVisitor {
+    private static final String[] DEFINITIONS = {
+            "def", "defp", "defmacro", "defmacrop", "defguard", "defguardp"
+    };
+
+    /** Number of clauses seen so far in each open {@code do}/{@code fn} block. */
+    private int[] blocks = new int[16];
+    private int depth;
+
+    private ElixirFunctionTable functions = new ElixirFunctionTable();
+    private int fileComplexity;
+
+    private int function = -1;
+    private int functionDepth;
+    private int functionNameStart;
+    private int functionNameEnd;
+    private boolean expectName;
+    private boolean clause;
+    private boolean withHead;
+
+    private boolean docPending;
+    private boolean expectDocValue;
+
+    /** Arguments of a clause head: -1 before the head, the bracket depth while in it, 0 after it. */
+    private int argumentDepth;
+    private int arity;
+    private boolean hasArgument;
+    private boolean firstClause;
+
+    private boolean clauseOpen;
+    private int clauseStart;
+    private int clauseEnd;
+    private boolean blockBody;
+    private boolean keywordBody;
+    private int brackets;
+    private boolean continuation;
+    private boolean lineStart;
+
+    public ElixirComplexity() {
+    }
+
+    ElixirComplexity(int[] complexity) {
+        this.fileComplexity = complexity[0];
+        this.functions = new ElixirFunctionTable(complexity, 1);
+    }
+
+    @Override
+    public void visitStart(CharSequence content) {
+        depth = 0;
+        functions = new ElixirFunctionTable();
+        fileComplexity = 0;
+        function = -1;
+        expectName = false;
+        clause = false;
+        withHead = false;
+        docPending = false;
+        expectDocValue = false;
+        argumentDepth = 0;
+        clauseOpen = false;
+    }
+
+    @Override
+    public void visitLine(CharSequence content, int start, int end, int line) {
+        lineStart = true;
+        if (clauseOpen && keywordBody && depth == functionDepth && brackets == 0 && !continuation) {
+            closeClause(clauseEnd);
+        }
+    }
+
+    @Override
+    public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+        if (type == ElixirTokenType.COMMENT) {
+            return;
+        }
+        boolean firstOfLine = lineStart;
+        lineStart = false;
+        if (expectName) {
+            expectName = false;
+            startClause(content, start, type == ElixirTokenType.IDENTIFIER ? end : start, line);
+            if (type == ElixirTokenType.IDENTIFIER) {
+                clauseEnd = line;
+                return;
+            }
+        }
+        if (expectDocValue) {
+            expectDocValue = false;
+            docPending = !(type == ElixirTokenType.CONSTANT || type == ElixirTokenType.ALIAS)
+                    || !(equalsIgnoreCase(content, start, end, "false") || equalsIgnoreCase(content, start, end, "nil"));
+        }
+        if (clauseOpen && (type == ElixirTokenType.KEYWORD && isOneOf(content, start, end, DEFINITIONS)
+                || type == ElixirTokenType.MODULE_ATTRIBUTE && firstOfLine && depth == functionDepth && brackets == 0)) {
+            closeClause(clauseEnd);
+        }
+        if (clauseOpen) {
+            visitClauseToken(type, content, start, end, line);
+        }
+        if (type == ElixirTokenType.KEYWORD) {
+            visitKeyword(content, start, end, line);
+        } else if (type == ElixirTokenType.OPERATOR) {
+            if (is(content, start, end, "&&") || is(content, start, end, "||")) {
+                increment();
+            } else if (is(content, start, end, "->")) {
+                if (depth == 0 || blocks[depth - 1]++ > 0) {
+                    increment();
+                }
+            } else if (withHead && is(content, start, end, "<-")) {
+                increment();
+            }
+        } else if (type == ElixirTokenType.ATOM && is(content, start, end, "do:")) {
+            withHead = false;
+            if (clauseOpen && depth == functionDepth && brackets == 0) {
+                keywordBody = true;
+            }
+        } else if (type == ElixirTokenType.MODULE_ATTRIBUTE && is(content, start, end, "@doc")) {
+            expectDocValue = true;
+        }
+    }
+
+    @Override
+    public void visitEnd(CharSequence content) {
+        if (clauseOpen) {
+            closeClause(clauseEnd);
+        }
+    }
+
+    /** Tracks the arguments and the extent of the open clause. */
+    private void visitClauseToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+        boolean opening = type == ElixirTokenType.OPERATOR && (is(content, start, end, "(")
+                || is(content, start, end, "[") || is(content, start, end, "{") || is(content, start, end, "<<"));
+        boolean closing = type == ElixirTokenType.OPERATOR && (is(content, start, end, ")")
+                || is(content, start, end, "]") || is(content, start, end, "}") || is(content, start, end, ">>"));
+        if (argumentDepth < 0) {
+            if (opening && is(content, start, end, "(")) {
+                argumentDepth = 1;
+                clauseEnd = line;
+                brackets++;
+                continuation = true;
+                return;
+            }
+            argumentDepth = 0;
+        } else if (argumentDepth > 0) {
+            if (opening) {
+                argumentDepth++;
+            } else if (closing) {
+                argumentDepth--;
+            } else if (argumentDepth == 1 && type == ElixirTokenType.OPERATOR && is(content, start, end, ",")) {
+                arity++;
+            }
+            if (argumentDepth > 0) {
+                hasArgument = true;
+            } else if (firstClause) {
+                functions.set(function, ElixirFunctionTable.ARITY, hasArgument ? arity + 1 : 0);
+            }
+        }
+        if (opening) {
+            brackets++;
+        } else if (closing && brackets > 0) {
+            brackets--;
+        }
+        if (type == ElixirTokenType.KEYWORD && is(content, start, end, "do") && depth == functionDepth) {
+            blockBody = true;
+        }
+        if (type != ElixirTokenType.KEYWORD || !is(content, start, end, "end") || depth > functionDepth) {
+            clauseEnd = line;
+        }
+        continuation = (type == ElixirTokenType.OPERATOR && !closing)
+                || (type == ElixirTokenType.ATOM && content.charAt(end - 1) == ':');
+    }
+
+    private void visitKeyword(CharSequence content, int start, int end, int line) {
+        if (isOneOf(content, start, end, DEFINITIONS)) {
+            if (function >= 0 && depth <= functionDepth) {
+                clause = true;
+            }
+            expectName = true;
+            clauseStart = line;
+        } else if (is(content, start, end, "do")) {
+            withHead = false;
+            if (depth == blocks.length) {
+                blocks = Arrays.copyOf(blocks, depth * 2);
+            }
+            blocks[depth++] = 0;
+        } else if (is(content, start, end, "fn")) {
+            if (depth == blocks.length) {
+                blocks = Arrays.copyOf(blocks, depth * 2);
+            }
+            blocks[depth++] = 0;
+        } else if (is(content, start, end, "end")) {
+            if (depth > 0) {
+                depth--;
+            }
+            if (clauseOpen && (depth < functionDepth || blockBody && depth == functionDepth)) {
+                closeClause(clauseEnd);
+            }
+            if (depth < functionDepth) {
+                function = -1;
+            }
+        } else if (is(content, start, end, "with")) {
+            withHead = true;
+        } else if (is(content, start, end, "if") || is(content, start, end, "unless")
+                || is(content, start, end, "when") || is(content, start, end, "and") || is(content, start, end, "or")) {
+            increment();
+        }
+    }
+
+    /** A {@code def} clause: another clause of the current function if it has the same name. */
+    private void startClause(CharSequence content, int start, int end, int line) {
+        boolean sameFunction = clause && function >= 0
+                && regionEquals(content, functionNameStart, functionNameEnd, start, end);
+        clause = false;
+        boolean documented = docPending;
+        docPending = false;
+        clauseOpen = true;
+        blockBody = false;
+        keywordBody = false;
+        brackets = 0;
+        continuation = false;
+        argumentDepth = -1;
+        arity = 0;
+        hasArgument = false;
+        firstClause = !sameFunction;
+        if (sameFunction) {
+            functions.increment(function, ElixirFunctionTable.CLAUSES);
+            increment();
+            return;
+        }
+        function = functions.add(content, start, end, clauseStart, documented);
+        functionDepth = depth;
+        functionNameStart = start;
+        functionNameEnd = end;
+        functions.set(function, ElixirFunctionTable.CLAUSES, 1);
+        increment();
+    }
+
+    private void closeClause(int endLine) {
+        clauseOpen = false;
+        if (function >= 0) {
+            functions.set(function, ElixirFunctionTable.END_LINE, endLine);
+            functions.set(function, ElixirFunctionTable.LINES,
+                    functions.get(function, ElixirFunctionTable.LINES) + endLine - clauseStart + 1);
+        }
+    }
+
+    /** Counts a decision point toward the file, and toward the function while one of its clauses is open. */
+    private void increment() {
+        fileComplexity++;
+        if (function >= 0 && clauseOpen) {
+            functions.increment(function, ElixirFunctionTable.COMPLEXITY);
+        }
+    }
+
+    public int getFileComplexity() {
+        return fileComplexity;
+    }
+
+    public int getFunctionCount() {
+        return functions.size();
+    }
+
+    public int getFunctionComplexity(int function) {
+        return functions.getComplexity(function);
+    }
+
+    public ElixirFunctionTable getFunctions() {
+        return functions;
+    }
+
+    /** File complexity followed by the encoded function table. */
+    int[] toArray() {
+        int[] table = functions.toArray();
+        int[] result = new int[table.length + 1];
+        result[0] = fileComplexity;
+        System.arraycopy(table, 0, result, 1, table.length);
+        return result;
+    }
+
+    private static boolean isOneOf(CharSequence s, int start, int end, String[] words) {
+        for (String word : words) {
+            if (is(s, start, end, word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean is(CharSequence s, int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (s.charAt(start + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalsIgnoreCase(CharSequence s, int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toLowerCase(s.charAt(start + i)) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionEquals(CharSequence s, int start1, int end1, int start2, int end2) {
+        if (end1 - start1 != end2 - start2) {
+            return false;
+        }
+        for (int i = 0; i < end1 - start1; i++) {
+            if (s.charAt(start1 + i) != s.charAt(start2 + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import java.util.Arrays;
+
+/**
+ * Line, module and function counts of one file, as returned by {@link ElixirParser}.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class ElixirFileMetrics {
+    public static final ElixirFileMetrics EMPTY = new ElixirFileMetrics(new int[12]);
+
+    private static final int LINES = 0;
+    private static final int EMPTY_LINES = 1;
+    private static final int COMMENT_LINES = 2;
+    private static final int CLASSES = 3;
+    private static final int PUBLIC_FUNCTIONS = 4;
+    private static final int PRIVATE_FUNCTIONS = 5;
+    private static final int DOCUMENTED_CLASSES = 6;
+    private static final int DOCUMENTED_PUBLIC_FUNCTIONS = 7;
+    private static final int DOCUMENTED_PRIVATE_FUNCTIONS = 8;
+    private static final int SPECIFIED_PUBLIC_FUNCTIONS = 9;
+    private static final int TYPES = 10;
+    private static final int CALLBACKS = 11;
+
+    private final int[] counts;
+
+    private ElixirFileMetrics(int[] counts) {
+        this.counts = counts;
+    }
+
+    ElixirFileMetrics(int lineCount, int emptyLineCount, int commentLineCount,
+                      int classCount, int publicFunctionCount, int privateFunctionCount,
+                      int documentedClassCount, int documentedPublicFunctionCount,
+                      int documentedPrivateFunctionCount, int specifiedPublicFunctionCount,
+                      int typeCount, int callbackCount) {
+        this(new int[] {
+                lineCount, emptyLineCount, commentLineCount,
+                classCount, publicFunctionCount, privateFunctionCount,
+                documentedClassCount, documentedPublicFunctionCount, documentedPrivateFunctionCount,
+                specifiedPublicFunctionCount, typeCount, callbackCount
+        });
+    }
+
+    public int getLineCount() { return counts[LINES]; }
+    public int getEmptyLineCount() { return counts[EMPTY_LINES]; }
+    public int getCommentLineCount() { return counts[COMMENT_LINES]; }
+    public int getClassCount() { return counts[CLASSES]; }
+    public int getPublicFunctionCount() { return counts[PUBLIC_FUNCTIONS]; }
+    public int getPrivateFunctionCount() { return counts[PRIVATE_FUNCTIONS]; }
+    public int getDocumentedClassCount() { return counts[DOCUMENTED_CLASSES]; }
+    public int getDocumentedPublicFunctionCount() { return counts[DOCUMENTED_PUBLIC_FUNCTIONS]; }
+    public int getDocumentedPrivateFunctionCount() { return counts[DOCUMENTED_PRIVATE_FUNCTIONS]; }
+    /** Public function clauses covered by a {@code @spec}, which covers the clauses of the same name after it. */
+    public int getSpecifiedPublicFunctionCount() { return counts[SPECIFIED_PUBLIC_FUNCTIONS]; }
+    /** Declarations of {@code @type}, {@code @typep} and {@code @opaque}. */
+    public int getTypeCount() { return counts[TYPES]; }
+    /** Declarations of {@code @callback} and {@code @macrocallback}. */
+    public int getCallbackCount() { return counts[CALLBACKS]; }
+
+    public int getLinesOfCode() {
+        return getLineCount() - getEmptyLineCount() - getCommentLineCount();
+    }
+
+    /** Sum of both metrics, e.g. to aggregate files of a directory. */
+    public ElixirFileMetrics plus(ElixirFileMetrics other) {
+        int[] sum = new int[counts.length];
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] = counts[i] + other.counts[i];
+        }
+        return new ElixirFileMetrics(sum);
+    }
+
+    /** Difference of both metrics, e.g. to remove the contribution of a part of a file. */
+    public ElixirFileMetrics minus(ElixirFileMetrics other) {
+        int[] difference = new int[counts.length];
+        for (int i = 0; i < difference.length; i++) {
+            difference[i] = counts[i] - other.counts[i];
+        }
+        return new ElixirFileMetrics(difference);
+    }
+
+    int[] toArray() {
+        return counts.clone();
+    }
+
+    static ElixirFileMetrics fromArray(int[] counts) {
+        if (counts.length != EMPTY.counts.length) {
+            throw new IllegalArgumentException("Expected " + EMPTY.counts.length + " counts, got " + counts.length);
+        }
+        return new ElixirFileMetrics(counts.clone());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ElixirFileMetrics && Arrays.equals(counts, ((ElixirFileMetrics) o).counts));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+
+    @Override
+    public String toString() {
+        return "ElixirFileMetrics" + Arrays.toString(counts);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.sonar.api.batch.fs.InputFile;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads files ahead of their analysis on a few reader threads, so that I/O
+ * latency overlaps with parsing. Files are read in input order and the bytes
+ * read but not yet {@linkplain #release released} are capped by a budget; a
+ * file larger than the budget is only read when nothing else is in flight.
+ * Files over the maximum size are not read, as they are streamed instead.
+ * <p>
+ * The consumer must {@link #take} and then {@link #release} every file.
+ */
+final class ElixirFilePrefetcher implements Closeable {
+    private static final Object SKIPPED = new Object();
+
+    private final List<InputFile> files;
+    private final long maxFileSize;
+    private final long budget;
+    private final ExecutorService readers;
+
+    private final Object lock = new Object();
+    private final Object[] results;
+    private final long[] costs;
+    private int nextClaim;
+    private int nextAcquire;
+    private long inFlight;
+    private long peakInFlight;
+    private boolean closed;
+
+    /**
+     * @param maxFileSize size above which files are skipped, or 0 for no limit
+     * @param budget maximum number of bytes read ahead
+     */
+    ElixirFilePrefetcher(List<InputFile> files, long maxFileSize, long budget, int threads) {
+        this.files = files;
+        this.maxFileSize = maxFileSize;
+        this.budget = budget;
+        this.results = new Object[files.size()];
+        this.costs = new long[files.size()];
+        this.readers = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("elixir-prefetch-%d").setDaemon(true).build());
+        for (int i = 0; i < threads; i++) {
+            readers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    readFiles();
+                }
+            });
+        }
+    }
+
+    /**
+     * Waits for the content of a file, or returns {@code null} if the file is
+     * over the maximum size. Throws the exception that reading the file raised.
+     */
+    ByteBuffer take(int index) throws IOException {
+        Object result;
+        synchronized (lock) {
+            while (results[index] == null) {
+                if (closed) {
+                    throw new IOException("Prefetching stopped");
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while reading " + files.get(index));
+                }
+            }
+            result = results[index];
+            results[index] = SKIPPED;
+        }
+        if (result instanceof IOException) {
+            throw (IOException) result;
+        }
+        return result == SKIPPED ? null : (ByteBuffer) result;
+    }
+
+    /** Returns the budget of a file once its content is no longer used. */
+    void release(int index) {
+        synchronized (lock) {
+            inFlight -= costs[index];
+            costs[index] = 0;
+            lock.notifyAll();
+        }
+    }
+
+    long getPeakBytesInFlight() {
+        synchronized (lock) {
+            return peakInFlight;
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        readers.shutdownNow();
+    }
+
+    private void readFiles() {
+        while (true) {
+            int index;
+            synchronized (lock) {
+                if (closed || nextClaim == files.size()) {
+                    return;
+                }
+                index = nextClaim++;
+            }
+            InputFile file = files.get(index);
+            long size = new File(file.absolutePath()).length();
+            boolean skipped = maxFileSize > 0 && size > maxFileSize;
+            if (!acquire(index, skipped ? 0 : Math.min(size, budget))) {
+                return;
+            }
+            Object result;
+            if (skipped) {
+                result = SKIPPED;
+            } else {
+                try {
+                    result = ElixirSourceReader.readFully(Paths.get(file.absolutePath()));
+                } catch (IOException e) {
+                    result = e;
+                }
+            }
+            synchronized (lock) {
+                results[index] = result;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Takes budget for a file, in input order, so that the file the consumer
+     * waits for never waits for budget held by files after it.
+     */
+    private boolean acquire(int index, long cost) {
+        synchronized (lock) {
+            while (!closed && (nextAcquire != index || (inFlight > 0 && inFlight + cost > budget))) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            if (closed) {
+                return false;
+            }
+            nextAcquire++;
+            costs[index] = cost;
+            inFlight += cost;
+            peakInFlight = Math.max(peakInFlight, inFlight);
+            lock.notifyAll();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Keeps the {@code capacity} highest values offered and their labels in a
+ * bounded min-heap, so that ranking all functions of a project only holds
+ * {@code capacity} entries. Callers check {@link #accepts(int)} first to
+ * avoid building labels of values that would be dropped.
+ */
+public class ElixirFunctionRanking {
+    private final int[] values;
+    private final String[] labels;
+    private int size;
+
+    public ElixirFunctionRanking(int capacity) {
+        this.values = new int[capacity];
+        this.labels = new String[capacity];
+    }
+
+    public boolean accepts(int value) {
+        return size < values.length || (size > 0 && value > values[0]);
+    }
+
+    public void offer(int value, String label) {
+        if (!accepts(value)) {
+            return;
+        }
+        if (size < values.length) {
+            int i = size++;
+            while (i > 0 && values[(i - 1) / 2] > value) {
+                values[i] = values[(i - 1) / 2];
+                labels[i] = labels[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            values[i] = value;
+            labels[i] = label;
+            return;
+        }
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && values[child + 1] < values[child]) {
+                child++;
+            }
+            if (values[child] >= value) {
+                break;
+            }
+            values[i] = values[child];
+            labels[i] = labels[child];
+            i = child;
+        }
+        values[i] = value;
+        labels[i] = label;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Entries as {@code label=value;...}, highest value first and then by label. */
+    public String toData() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int byValue = Integer.compare(values[b], values[a]);
+                return byValue != 0 ? byValue : labels[a].compareTo(labels[b]);
+            }
+        });
+        StringBuilder data = new StringBuilder();
+        for (int i : order) {
+            if (data.length() > 0) {
+                data.append(';');
+            }
+            data.append(labels[i]).append('=').append(values[i]);
+        }
+        return data.toString();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import java.util.Arrays;
+
+/**
+ * Functions of a file, stored as rows of a single int array plus a shared
+ * array of name characters, so that no object is allocated per function.
+ * Consecutive clauses of a function form a single row.
+ */
+public final class ElixirFunctionTable {
+    static final int COMPLEXITY = 0;
+    static final int START_LINE = 1;
+    static final int END_LINE = 2;
+    static final int LINES = 3;
+    static final int ARITY = 4;
+    static final int CLAUSES = 5;
+    static final int DOCUMENTED = 6;
+    static final int NAME_OFFSET = 7;
+    static final int NAME_LENGTH = 8;
+    static final int FIELDS = 9;
+
+    private int[] rows;
+    private int size;
+    private char[] names;
+    private int namesLength;
+
+    ElixirFunctionTable() {
+        this.rows = new int[16 * FIELDS];
+        this.names = new char[256];
+    }
+
+    /** Decodes a table encoded by {@link #toArray()}, starting at {@code offset}. */
+    ElixirFunctionTable(int[] data, int offset) {
+        this.size = data[offset];
+        this.namesLength = data[offset + 1];
+        int start = offset + 2;
+        this.rows = Arrays.copyOfRange(data, start, start + size * FIELDS);
+        this.names = new char[namesLength];
+        start += size * FIELDS;
+        for (int i = 0; i < namesLength; i++) {
+            names[i] = (char) data[start + i];
+        }
+    }
+
+    /** Adds a function whose name is {@code [nameStart, nameEnd)} of {@code content}, and returns its index. */
+    int add(CharSequence content, int nameStart, int nameEnd, int line, boolean documented) {
+        if ((size + 1) * FIELDS > rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+        }
+        int length = nameEnd - nameStart;
+        if (namesLength + length > names.length) {
+            names = Arrays.copyOf(names, Math.max(names.length * 2, namesLength + length));
+        }
+        for (int i = 0; i < length; i++) {
+            names[namesLength + i] = content.charAt(nameStart + i);
+        }
+        int row = size * FIELDS;
+        Arrays.fill(rows, row, row + FIELDS, 0);
+        rows[row + START_LINE] = line;
+        rows[row + END_LINE] = line;
+        rows[row + DOCUMENTED] = documented ? 1 : 0;
+        rows[row + NAME_OFFSET] = namesLength;
+        rows[row + NAME_LENGTH] = length;
+        namesLength += length;
+        return size++;
+    }
+
+    void increment(int function, int field) {
+        rows[function * FIELDS + field]++;
+    }
+
+    void set(int function, int field, int value) {
+        rows[function * FIELDS + field] = value;
+    }
+
+    int get(int function, int field) {
+        return rows[function * FIELDS + field];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getName(int function) {
+        return new String(names, get(function, NAME_OFFSET), get(function, NAME_LENGTH));
+    }
+
+    public int getComplexity(int function) {
+        return get(function, COMPLEXITY);
+    }
+
+    public int getStartLine(int function) {
+        return get(function, START_LINE);
+    }
+
+    public int getEndLine(int function) {
+        return get(function, END_LINE);
+    }
+
+    /** Number of lines of all clauses, not counting lines between clauses. */
+    public int getLineCount(int function) {
+        return get(function, LINES);
+    }
+
+    /** Arity of the first clause. */
+    public int getArity(int function) {
+        return get(function, ARITY);
+    }
+
+    public int getClauseCount(int function) {
+        return get(function, CLAUSES);
+    }
+
+    public boolean isDocumented(int function) {
+        return get(function, DOCUMENTED) != 0;
+    }
+
+    /** Encodes the table as {@code size, name length, rows..., name characters...}. */
+    int[] toArray() {
+        int[] data = new int[2 + size * FIELDS + namesLength];
+        data[0] = size;
+        data[1] = namesLength;
+        System.arraycopy(rows, 0, data, 2, size * FIELDS);
+        for (int i = 0; i < namesLength; i++) {
+            data[2 + size * FIELDS + i] = names[i];
+        }
+        return data;
+    }
+}
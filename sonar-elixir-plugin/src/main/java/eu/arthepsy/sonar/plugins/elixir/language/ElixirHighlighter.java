@@ -0,0 +1,101 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+import org.sonar.api.source.Highlightable;
+
+import java.util.Arrays;
+
+/**
+ * Collects syntax highlighting rules from the token stream. Rules are kept as
+ * {@code (start, end, type)} integer triples until saved.
+ */
+public class ElixirHighlighter extends ElixirTokenVisitor {
+    private static final TypeOfText[] TYPES = TypeOfText.values();
+
+    private int[] rules;
+    private int size;
+
+    public ElixirHighlighter() {
+        this.rules = new int[3 * 64];
+    }
+
+    ElixirHighlighter(int[] rules) {
+        this.rules = rules;
+        this.size = rules.length;
+    }
+
+    @Override
+    public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+        TypeOfText text = typeOf(type);
+        if (text == null) {
+            return;
+        }
+        if (size + 3 > rules.length) {
+            rules = Arrays.copyOf(rules, rules.length * 2);
+        }
+        rules[size++] = start;
+        rules[size++] = end;
+        rules[size++] = text.ordinal();
+    }
+
+    public int getRuleCount() {
+        return size / 3;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(rules, size);
+    }
+
+    public void save(Highlightable highlightable) {
+        Highlightable.HighlightingBuilder builder = highlightable.newHighlighting();
+        for (int i = 0; i < size; i += 3) {
+            builder.highlight(rules[i], rules[i + 1], TYPES[rules[i + 2]].cssClass());
+        }
+        builder.done();
+    }
+
+    private static TypeOfText typeOf(ElixirTokenType type) {
+        switch (type) {
+            case COMMENT:
+                return TypeOfText.COMMENT;
+            case DOC_STRING:
+                return TypeOfText.STRUCTURED_COMMENT;
+            case STRING:
+            case SIGIL:
+                return TypeOfText.STRING;
+            case ATOM:
+            case NUMBER:
+            case CONSTANT:
+                return TypeOfText.CONSTANT;
+            case KEYWORD:
+                return TypeOfText.KEYWORD;
+            case MODULE_ATTRIBUTE:
+                return TypeOfText.ANNOTATION;
+            default:
+                return null;
+        }
+    }
+}
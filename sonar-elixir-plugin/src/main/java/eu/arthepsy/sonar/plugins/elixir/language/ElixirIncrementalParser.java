@@ -0,0 +1,189 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the metrics of a file up to date across edits without parsing it again
+ * as a whole. The file is split into regions of about {@code interval} lines,
+ * each with the {@link ElixirParser.Checkpoint} at its start and the metrics of
+ * its lines. After an edit, parsing resumes from the region containing the
+ * first changed line and stops at the first following region boundary where
+ * the parser state is the same as before the edit; the regions from there on
+ * are reused as they are.
+ * <p>
+ * Not thread-safe.
+ */
+public class ElixirIncrementalParser {
+    private final ElixirParser parser = new ElixirParser();
+    private final int interval;
+
+    private int[] starts = new int[0];
+    private ElixirParser.Checkpoint[] checkpoints = new ElixirParser.Checkpoint[0];
+    private ElixirFileMetrics[] regions = new ElixirFileMetrics[0];
+    private int regionCount;
+    private int lineCount;
+    private ElixirFileMetrics metrics = ElixirFileMetrics.EMPTY;
+    private int reparsedLines;
+
+    public ElixirIncrementalParser(int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Invalid checkpoint interval: " + interval);
+        }
+        this.interval = interval;
+    }
+
+    /** Parses a whole file. */
+    public ElixirFileMetrics parse(List<? extends CharSequence> lines) {
+        regionCount = 0;
+        metrics = ElixirFileMetrics.EMPTY;
+        reparsedLines = 0;
+        lineCount = lines.size();
+        parseRegions(lines, 0, ElixirParser.Checkpoint.START, null);
+        return metrics;
+    }
+
+    /**
+     * Updates the metrics after the lines {@code [from, oldEnd)} of the previously
+     * parsed file were replaced by the lines {@code [from, newEnd)} of {@code lines}.
+     */
+    public ElixirFileMetrics update(List<? extends CharSequence> lines, int from, int oldEnd, int newEnd) {
+        if (from < 0 || oldEnd < from || oldEnd > lineCount || newEnd < from
+                || lines.size() != lineCount - oldEnd + newEnd) {
+            throw new IllegalArgumentException("Invalid edit [" + from + ", " + oldEnd + ") -> ["
+                    + from + ", " + newEnd + ") of " + lineCount + " lines into " + lines.size() + " lines");
+        }
+        reparsedLines = 0;
+        lineCount = lines.size();
+        if (regionCount == 0) {
+            parseRegions(lines, 0, ElixirParser.Checkpoint.START, null);
+            return metrics;
+        }
+        int first = findRegion(from);
+        int[] oldStarts = Arrays.copyOfRange(starts, first, regionCount);
+        ElixirParser.Checkpoint[] oldCheckpoints = Arrays.copyOfRange(checkpoints, first, regionCount);
+        ElixirFileMetrics[] oldRegions = Arrays.copyOfRange(regions, first, regionCount);
+        for (ElixirFileMetrics region : oldRegions) {
+            metrics = metrics.minus(region);
+        }
+        int oldCount = regionCount - first;
+        regionCount = first;
+
+        // Old regions starting after the edit are candidates to resume from, shifted by the edit.
+        int candidate = 1;
+        while (candidate < oldCount && oldStarts[candidate] < oldEnd) {
+            candidate++;
+        }
+        Reuse reuse = new Reuse(oldStarts, oldCheckpoints, oldRegions, oldCount, candidate, newEnd - oldEnd);
+        parseRegions(lines, oldStarts[0], oldCheckpoints[0], reuse);
+        return metrics;
+    }
+
+    public ElixirFileMetrics getMetrics() {
+        return metrics;
+    }
+
+    /** Number of lines parsed by the last call to {@link #parse} or {@link #update}. */
+    public int getReparsedLines() {
+        return reparsedLines;
+    }
+
+    int getRegionCount() {
+        return regionCount;
+    }
+
+    private void parseRegions(List<? extends CharSequence> lines, int pos, ElixirParser.Checkpoint checkpoint,
+                              Reuse reuse) {
+        int end = lines.size();
+        while (pos < end) {
+            int regionEnd = Math.min(pos + interval, end);
+            if (reuse != null) {
+                while (reuse.candidate < reuse.count && reuse.start(reuse.candidate) <= pos) {
+                    reuse.candidate++;
+                }
+                if (reuse.candidate < reuse.count) {
+                    regionEnd = Math.min(regionEnd, reuse.start(reuse.candidate));
+                }
+            }
+            ElixirFileMetrics region = parser.parse(lines, pos, regionEnd, checkpoint);
+            addRegion(pos, checkpoint, region);
+            reparsedLines += regionEnd - pos;
+            pos = regionEnd;
+            checkpoint = parser.checkpoint();
+            if (reuse != null && reuse.candidate < reuse.count && reuse.start(reuse.candidate) == pos
+                    && reuse.checkpoints[reuse.candidate].equals(checkpoint)) {
+                for (int i = reuse.candidate; i < reuse.count; i++) {
+                    addRegion(reuse.start(i), reuse.checkpoints[i], reuse.regions[i]);
+                }
+                return;
+            }
+        }
+    }
+
+    private void addRegion(int start, ElixirParser.Checkpoint checkpoint, ElixirFileMetrics region) {
+        if (regionCount == starts.length) {
+            int capacity = Math.max(16, regionCount * 2);
+            starts = Arrays.copyOf(starts, capacity);
+            checkpoints = Arrays.copyOf(checkpoints, capacity);
+            regions = Arrays.copyOf(regions, capacity);
+        }
+        starts[regionCount] = start;
+        checkpoints[regionCount] = checkpoint;
+        regions[regionCount] = region;
+        regionCount++;
+        metrics = metrics.plus(region);
+    }
+
+    /** Returns the last region starting at or before {@code line}. */
+    private int findRegion(int line) {
+        int index = Arrays.binarySearch(starts, 0, regionCount, line);
+        return index >= 0 ? index : Math.max(0, -index - 2);
+    }
+
+    /** Regions of the previous parse from the first edited one on. */
+    private static final class Reuse {
+        private final int[] starts;
+        private final ElixirParser.Checkpoint[] checkpoints;
+        private final ElixirFileMetrics[] regions;
+        private final int count;
+        private final int shift;
+        private int candidate;
+
+        private Reuse(int[] starts, ElixirParser.Checkpoint[] checkpoints, ElixirFileMetrics[] regions,
+                      int count, int candidate, int shift) {
+            this.starts = starts;
+            this.checkpoints = checkpoints;
+            this.regions = regions;
+            this.count = count;
+            this.candidate = candidate;
+            this.shift = shift;
+        }
+
+        private int start(int region) {
+            return starts[region] + shift;
+        }
+    }
+}
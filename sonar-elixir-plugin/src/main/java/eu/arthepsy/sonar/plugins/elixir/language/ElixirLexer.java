@@ -0,0 +1,488 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+/**
+ * Splits Elixir source into tokens. Lines are fed one at a time by
+ * {@link ElixirParser}; strings, heredocs and sigils may span lines and are
+ * reported once closed (or by {@link #finish(CharSequence, int)} if never closed).
+ * Whitespace is skipped and not reported.
+ */
+public class ElixirLexer {
+
+    private enum Mode { CODE, STRING, HEREDOC }
+
+    private static final String[][] KEYWORDS = byLength(
+            "do", "end", "fn", "case", "cond", "if", "unless", "else", "when",
+            "and", "or", "not", "in", "try", "catch", "rescue", "after", "receive",
+            "with", "for", "quote", "unquote", "unquote_splicing",
+            "import", "alias", "require", "use",
+            "def", "defp", "defmacro", "defmacrop", "defguard", "defguardp", "defdelegate",
+            "defmodule", "defstruct", "defexception", "defprotocol", "defimpl", "defoverridable");
+
+    private static final String[][] CONSTANTS = byLength(
+            "true", "false", "nil",
+            "__MODULE__", "__DIR__", "__ENV__", "__CALLER__", "__STACKTRACE__");
+
+    private static final String[][] DOC_ATTRIBUTES = byLength("doc", "moduledoc", "typedoc");
+
+    private static final String[] OPERATORS = {
+            "===", "!==", "...", "<<<", ">>>", "|||", "&&&", "^^^", "~~~", "<<~", "~>>", "<~>", "<|>",
+            "|>", "->", "<-", "=>", "::", "&&", "||", "==", "!=", "<=", ">=", "<>", "++", "--",
+            "..", "\\\\", "<<", ">>", "~>", "<~", "=~", "**", "//"
+    };
+
+    private final ElixirTokenVisitor[] visitors;
+
+    private Mode mode = Mode.CODE;
+    private ElixirTokenType pendingType;
+    private int pendingStart;
+    private int pendingLine;
+    private char closing;
+    private boolean sigil;
+    private boolean interpolation;
+    private int interpolationDepth;
+    private boolean afterDoc;
+
+    public ElixirLexer(ElixirTokenVisitor... visitors) {
+        this.visitors = visitors;
+    }
+
+    public void reset() {
+        mode = Mode.CODE;
+        pendingType = null;
+        interpolationDepth = 0;
+        afterDoc = false;
+    }
+
+    public void start(CharSequence s) {
+        reset();
+        for (ElixirTokenVisitor visitor : visitors) {
+            visitor.visitStart(s);
+        }
+    }
+
+    /** Scans the line {@code [start, end)} of {@code s}, which excludes the line terminator. */
+    public void scanLine(CharSequence s, int start, int end, int line) {
+        for (ElixirTokenVisitor visitor : visitors) {
+            visitor.visitLine(s, start, end, line);
+        }
+        int pos = start;
+        if (mode == Mode.HEREDOC) {
+            pos = skipSpace(s, start, end);
+            if (!isTriple(s, pos, end, closing)) {
+                return;
+            }
+            pos += 3;
+            if (sigil) {
+                pos = skipModifiers(s, pos, end);
+            }
+            closePending(s, pos);
+        } else if (mode == Mode.STRING) {
+            pos = scanString(s, pos, end);
+        }
+        while (pos < end) {
+            pos = scanToken(s, pos, end, line);
+        }
+    }
+
+    /** Reports a string, heredoc or sigil left open at the end of the content. */
+    public void finish(CharSequence s, int end) {
+        if (mode != Mode.CODE) {
+            closePending(s, end);
+        }
+        for (ElixirTokenVisitor visitor : visitors) {
+            visitor.visitEnd(s);
+        }
+    }
+
+    private int scanToken(CharSequence s, int pos, int end, int line) {
+        char c = s.charAt(pos);
+        if (Character.isWhitespace(c)) {
+            return pos + 1;
+        }
+        if (c == '#') {
+            emit(ElixirTokenType.COMMENT, s, pos, end, line);
+            return end;
+        }
+        if (c == '"' || c == '\'') {
+            return openString(stringType(ElixirTokenType.STRING), s, pos, pos, end, line, c, false, true);
+        }
+        if (c == '~' && pos + 1 < end && isAsciiLetter(s.charAt(pos + 1))) {
+            int next = scanSigil(s, pos, end, line);
+            if (next > 0) {
+                return next;
+            }
+        }
+        if (c == '@' && pos + 1 < end && isIdentifierStart(s.charAt(pos + 1))) {
+            int next = scanIdentifier(s, pos + 1, end);
+            emit(ElixirTokenType.MODULE_ATTRIBUTE, s, pos, next, line);
+            afterDoc = contains(DOC_ATTRIBUTES, s, pos + 1, next);
+            return next;
+        }
+        if (c == ':' && pos + 1 < end) {
+            int next = scanAtom(s, pos, end, line);
+            if (next > 0) {
+                return next;
+            }
+        }
+        if (c == '?' && pos + 1 < end && !Character.isWhitespace(s.charAt(pos + 1))) {
+            int next = s.charAt(pos + 1) == '\\' ? Math.min(pos + 3, end) : pos + 2;
+            emit(ElixirTokenType.NUMBER, s, pos, next, line);
+            return next;
+        }
+        if (c >= '0' && c <= '9') {
+            int next = scanNumber(s, pos, end);
+            emit(ElixirTokenType.NUMBER, s, pos, next, line);
+            return next;
+        }
+        if (isIdentifierStart(c)) {
+            int next = scanIdentifier(s, pos, end);
+            if (isKeywordKey(s, next, end)) {
+                emit(ElixirTokenType.ATOM, s, pos, next + 1, line);
+                return next + 1;
+            }
+            ElixirTokenType type = ElixirTokenType.IDENTIFIER;
+            if (contains(KEYWORDS, s, pos, next)) {
+                type = ElixirTokenType.KEYWORD;
+            } else if (contains(CONSTANTS, s, pos, next)) {
+                type = ElixirTokenType.CONSTANT;
+            }
+            emit(type, s, pos, next, line);
+            return next;
+        }
+        if (isAsciiUpper(c)) {
+            int next = scanAlias(s, pos, end);
+            if (isKeywordKey(s, next, end)) {
+                emit(ElixirTokenType.ATOM, s, pos, next + 1, line);
+                return next + 1;
+            }
+            emit(ElixirTokenType.ALIAS, s, pos, next, line);
+            return next;
+        }
+        int next = scanOperator(s, pos, end);
+        emit(ElixirTokenType.OPERATOR, s, pos, next, line);
+        return next;
+    }
+
+    /** Returns the position after the sigil, or 0 if {@code ~} is an operator here. */
+    private int scanSigil(CharSequence s, int pos, int end, int line) {
+        int p = pos + 1;
+        boolean upper = isAsciiUpper(s.charAt(p));
+        p++;
+        if (upper) {
+            while (p < end && (isAsciiUpper(s.charAt(p)) || isDigit(s.charAt(p)))) {
+                p++;
+            }
+        }
+        if (p >= end) {
+            return 0;
+        }
+        char delimiter = s.charAt(p);
+        char close = closingDelimiter(delimiter);
+        if (close == 0) {
+            return 0;
+        }
+        return openString(stringType(ElixirTokenType.SIGIL), s, pos, p, end, line, close, true, !upper);
+    }
+
+    /** Returns the position after the atom, or 0 if {@code :} is an operator here. */
+    private int scanAtom(CharSequence s, int pos, int end, int line) {
+        char c = s.charAt(pos + 1);
+        int next;
+        if (c == '"' || c == '\'') {
+            afterDoc = false;
+            return openString(ElixirTokenType.ATOM, s, pos, pos + 1, end, line, c, false, true);
+        } else if (isIdentifierStart(c)) {
+            next = scanIdentifier(s, pos + 1, end);
+        } else if (isAsciiUpper(c)) {
+            next = scanAlias(s, pos + 1, end);
+        } else if (c != ':' && !Character.isWhitespace(c) && !isDigit(c) && c != '(' && c != '[' && c != '{') {
+            next = scanOperator(s, pos + 1, end);
+        } else {
+            return 0;
+        }
+        emit(ElixirTokenType.ATOM, s, pos, next, line);
+        return next;
+    }
+
+    /**
+     * Starts a string-like token at {@code start} whose opening delimiter is at {@code delimiter}.
+     * Triple quotes open a heredoc, which owns the remainder of the line.
+     */
+    private int openString(ElixirTokenType type, CharSequence s, int start, int delimiter, int end, int line,
+                           char close, boolean isSigil, boolean interpolates) {
+        afterDoc = false;
+        pendingType = type;
+        pendingStart = start;
+        pendingLine = line;
+        sigil = isSigil;
+        interpolation = interpolates;
+        interpolationDepth = 0;
+        char open = s.charAt(delimiter);
+        if ((open == '"' || open == '\'') && isTriple(s, delimiter, end, open)) {
+            closing = open;
+            mode = Mode.HEREDOC;
+            return end;
+        }
+        closing = close;
+        mode = Mode.STRING;
+        return scanString(s, delimiter + 1, end);
+    }
+
+    private int scanString(CharSequence s, int pos, int end) {
+        while (pos < end) {
+            char c = s.charAt(pos);
+            if (interpolationDepth > 0) {
+                if (c == '{') {
+                    interpolationDepth++;
+                } else if (c == '}') {
+                    interpolationDepth--;
+                } else if (c == '"' || c == '\'') {
+                    pos = skipQuoted(s, pos, end);
+                }
+                pos++;
+            } else if (c == '\\') {
+                pos += 2;
+            } else if (interpolation && c == '#' && pos + 1 < end && s.charAt(pos + 1) == '{') {
+                interpolationDepth = 1;
+                pos += 2;
+            } else if (c == closing) {
+                pos++;
+                if (sigil) {
+                    pos = skipModifiers(s, pos, end);
+                }
+                closePending(s, pos);
+                return pos;
+            } else {
+                pos++;
+            }
+        }
+        return end;
+    }
+
+    private void closePending(CharSequence s, int end) {
+        mode = Mode.CODE;
+        emit(pendingType, s, pendingStart, end, pendingLine);
+    }
+
+    private ElixirTokenType stringType(ElixirTokenType type) {
+        return afterDoc ? ElixirTokenType.DOC_STRING : type;
+    }
+
+    private void emit(ElixirTokenType type, CharSequence s, int start, int end, int line) {
+        afterDoc = false;
+        for (ElixirTokenVisitor visitor : visitors) {
+            visitor.visitToken(type, s, start, end, line);
+        }
+    }
+
+    private static int scanIdentifier(CharSequence s, int pos, int end) {
+        pos++;
+        while (pos < end && isIdentifierPart(s.charAt(pos))) {
+            pos++;
+        }
+        if (pos < end && (s.charAt(pos) == '?' || s.charAt(pos) == '!')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int scanAlias(CharSequence s, int pos, int end) {
+        pos++;
+        while (true) {
+            while (pos < end && isIdentifierPart(s.charAt(pos))) {
+                pos++;
+            }
+            if (pos + 1 < end && s.charAt(pos) == '.' && isAsciiUpper(s.charAt(pos + 1))) {
+                pos += 2;
+            } else {
+                return pos;
+            }
+        }
+    }
+
+    private static int scanNumber(CharSequence s, int pos, int end) {
+        if (s.charAt(pos) == '0' && pos + 1 < end) {
+            char radix = s.charAt(pos + 1);
+            if (radix == 'x' || radix == 'o' || radix == 'b') {
+                pos += 2;
+                while (pos < end && (Character.digit(s.charAt(pos), 16) >= 0 || s.charAt(pos) == '_')) {
+                    pos++;
+                }
+                return pos;
+            }
+        }
+        pos = scanDigits(s, pos, end);
+        if (pos + 1 < end && s.charAt(pos) == '.' && isDigit(s.charAt(pos + 1))) {
+            pos = scanDigits(s, pos + 1, end);
+            if (pos + 1 < end && (s.charAt(pos) == 'e' || s.charAt(pos) == 'E')) {
+                int exponent = pos + 1;
+                if (exponent + 1 < end && (s.charAt(exponent) == '-' || s.charAt(exponent) == '+')) {
+                    exponent++;
+                }
+                if (exponent < end && isDigit(s.charAt(exponent))) {
+                    pos = scanDigits(s, exponent, end);
+                }
+            }
+        }
+        return pos;
+    }
+
+    private static int scanDigits(CharSequence s, int pos, int end) {
+        while (pos < end && (isDigit(s.charAt(pos)) || s.charAt(pos) == '_')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int scanOperator(CharSequence s, int pos, int end) {
+        for (String operator : OPERATORS) {
+            if (regionEquals(s, pos, end, operator)) {
+                return pos + operator.length();
+            }
+        }
+        return pos + 1;
+    }
+
+    /** Skips a simple string nested in an interpolation; returns the position of its closing quote. */
+    private static int skipQuoted(CharSequence s, int pos, int end) {
+        char quote = s.charAt(pos);
+        pos++;
+        while (pos < end && s.charAt(pos) != quote) {
+            pos += s.charAt(pos) == '\\' ? 2 : 1;
+        }
+        return pos;
+    }
+
+    private static int skipModifiers(CharSequence s, int pos, int end) {
+        while (pos < end && isAsciiLetter(s.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipSpace(CharSequence s, int pos, int end) {
+        while (pos < end && Character.isWhitespace(s.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /** {@code key: value} keyword list keys; {@code a::b} is a type operator instead. */
+    private static boolean isKeywordKey(CharSequence s, int pos, int end) {
+        return pos < end && s.charAt(pos) == ':' && (pos + 1 == end || Character.isWhitespace(s.charAt(pos + 1)));
+    }
+
+    private static boolean isTriple(CharSequence s, int pos, int end, char quote) {
+        return end - pos >= 3 && s.charAt(pos) == quote && s.charAt(pos + 1) == quote && s.charAt(pos + 2) == quote;
+    }
+
+    private static char closingDelimiter(char open) {
+        switch (open) {
+            case '(': return ')';
+            case '[': return ']';
+            case '{': return '}';
+            case '<': return '>';
+            case '/':
+            case '|':
+            case '"':
+            case '\'':
+                return open;
+            default:
+                return 0;
+        }
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return c == '_' || (Character.isLetter(c) && !isAsciiUpper(c));
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    private static boolean isAsciiUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || isAsciiUpper(c);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean contains(String[][] words, CharSequence s, int start, int end) {
+        int length = end - start;
+        if (length >= words.length) {
+            return false;
+        }
+        for (String word : words[length]) {
+            if (regionEquals(s, start, end, word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionEquals(CharSequence s, int pos, int end, String word) {
+        int length = word.length();
+        if (end - pos < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (s.charAt(pos + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Groups words by length so that lookups only compare candidates of the right size. */
+    private static String[][] byLength(String... words) {
+        int max = 0;
+        for (String word : words) {
+            max = Math.max(max, word.length());
+        }
+        String[][] table = new String[max + 1][];
+        for (int length = 0; length <= max; length++) {
+            int count = 0;
+            for (String word : words) {
+                if (word.length() == length) {
+                    count++;
+                }
+            }
+            table[length] = new String[count];
+            count = 0;
+            for (String word : words) {
+                if (word.length() == length) {
+                    table[length][count++] = word;
+                }
+            }
+        }
+        return table;
+    }
+}
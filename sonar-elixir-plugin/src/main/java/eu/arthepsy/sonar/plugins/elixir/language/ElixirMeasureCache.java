@@ -0,0 +1,194 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import eu.arthepsy.sonar.plugins.elixir.ElixirConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * On-disk cache of parser results, keyed by file path and content hash.
+ * Each entry holds the integer sections produced for a file (measures,
+ * highlighting rules, symbol table), in the order they were put.
+ * The whole cache is discarded when the format, the parser version, the
+ * source encoding or the active rules change. Only entries of files seen during the current
+ * analysis are written back.
+ */
+public class ElixirMeasureCache {
+    public static final String FILE_NAME = "elixir-measures.cache";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ElixirMeasureCache.class);
+    private static final String LOG_PREFIX = ElixirConfiguration.LOG_PREFIX;
+
+    private static final int MAGIC = 0x45584d43;
+    private static final int FORMAT_VERSION = 6;
+    private static final String HASH_ALGORITHM = "MD5";
+
+    private final File file;
+    private final String encoding;
+    private final String rules;
+    private Map<String, Entry> previous = new HashMap<>();
+    private final ConcurrentMap<String, Entry> current = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public ElixirMeasureCache(File file, Charset encoding, String rules) {
+        this.file = file;
+        this.encoding = encoding.name();
+        this.rules = rules;
+    }
+
+    public int getHits() { return hits.get(); }
+    public int getMisses() { return misses.get(); }
+
+    public void load() {
+        previous = new HashMap<>();
+        if (!file.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                    || in.readInt() != ElixirParser.VERSION
+                    || !encoding.equals(in.readUTF()) || !rules.equals(in.readUTF())) {
+                LOG.info(LOG_PREFIX + "measure cache is outdated, ignoring it");
+                return;
+            }
+            int size = in.readInt();
+            Map<String, Entry> entries = new HashMap<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                String key = in.readUTF();
+                byte[] hash = new byte[in.readUnsignedByte()];
+                in.readFully(hash);
+                int[][] sections = new int[in.readUnsignedByte()][];
+                for (int j = 0; j < sections.length; j++) {
+                    int[] section = new int[in.readInt()];
+                    for (int k = 0; k < section.length; k++) {
+                        section[k] = in.readInt();
+                    }
+                    sections[j] = section;
+                }
+                entries.put(key, new Entry(hash, sections));
+            }
+            previous = entries;
+        } catch (IOException e) {
+            LOG.warn(LOG_PREFIX + "could not read measure cache: " + file, e);
+        }
+    }
+
+    public void save() {
+        File parent = file.getParentFile();
+        File temp = new File(parent, file.getName() + ".tmp");
+        try {
+            if (parent != null) {
+                Files.createDirectories(parent.toPath());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(ElixirParser.VERSION);
+                out.writeUTF(encoding);
+                out.writeUTF(rules);
+                out.writeInt(current.size());
+                for (Map.Entry<String, Entry> entry : current.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    byte[] hash = entry.getValue().hash;
+                    out.writeByte(hash.length);
+                    out.write(hash);
+                    int[][] sections = entry.getValue().sections;
+                    out.writeByte(sections.length);
+                    for (int[] section : sections) {
+                        out.writeInt(section.length);
+                        for (int value : section) {
+                            out.writeInt(value);
+                        }
+                    }
+                }
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.warn(LOG_PREFIX + "could not write measure cache: " + file, e);
+        }
+    }
+
+    /**
+     * Returns the cached sections for the given file content, or {@code null}.
+     * Safe to call from several threads.
+     */
+    public int[][] get(String key, byte[] hash) {
+        Entry entry = previous.get(key);
+        if (entry == null || !Arrays.equals(entry.hash, hash)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        current.put(key, entry);
+        return entry.sections;
+    }
+
+    public void put(String key, byte[] hash, int[]... sections) {
+        current.put(key, new Entry(hash, sections));
+    }
+
+    public static byte[] hash(ByteBuffer content) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(content.duplicate());
+        return digest.digest();
+    }
+
+    private static final class Entry {
+        private final byte[] hash;
+        private final int[][] sections;
+
+        private Entry(byte[] hash, int[][] sections) {
+            this.hash = hash;
+            this.sections = sections;
+        }
+    }
+}
@@ -23,8 +23,16 @@
  */
 package eu.arthepsy.sonar.plugins.elixir.language;
 
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import eu.arthepsy.sonar.plugins.elixir.ElixirConfiguration;
-import org.apache.commons.lang.StringUtils;
+import eu.arthepsy.sonar.plugins.elixir.ElixirMetrics;
+import eu.arthepsy.sonar.plugins.elixir.checks.CheckList;
+import eu.arthepsy.sonar.plugins.elixir.checks.ElixirCheck;
+import eu.arthepsy.sonar.plugins.elixir.checks.ElixirCheckDispatcher;
+import eu.arthepsy.sonar.plugins.elixir.checks.ElixirIssue;
+import eu.arthepsy.sonar.plugins.elixir.checks.UnusedPublicFunctionCheck;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.fs.InputFile;
@@ -32,28 +40,75 @@ import org.sonar.api.batch.fs.FilePredicate;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.Sensor;
 import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.batch.rule.CheckFactory;
+import org.sonar.api.batch.rule.Checks;
+import org.sonar.api.component.ResourcePerspectives;
+import org.sonar.api.config.Settings;
+import org.sonar.api.issue.Issuable;
 import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Measure;
+import org.sonar.api.measures.PersistenceMode;
+import org.sonar.api.measures.RangeDistributionBuilder;
 import org.sonar.api.resources.Project;
+import org.sonar.api.resources.Resource;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.source.Highlightable;
+import org.sonar.api.source.Symbolizable;
 import org.sonar.api.utils.ParsingUtils;
 
+import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ElixirMeasureSensor implements Sensor {
 
     private static final Logger LOG = LoggerFactory.getLogger(ElixirMeasureSensor.class);
     private static final String LOG_PREFIX = ElixirConfiguration.LOG_PREFIX;
 
+    private static final Number[] FUNCTION_DISTRIBUTION_LIMITS = {1, 2, 4, 6, 8, 10, 12};
+    private static final Number[] FILE_DISTRIBUTION_LIMITS = {0, 5, 10, 20, 30, 60, 90};
+    private static final Number[] FUNCTION_SIZE_LIMITS = {1, 5, 10, 20, 50, 100, 200};
+    private static final int TOP_FUNCTIONS = 10;
+    private static final int MAX_LOGGED_CYCLES = 20;
+    private static final int PREFETCH_THREADS = 4;
+    /** Files parsed ahead of the save loop per analysis thread, bounding the results held in memory. */
+    private static final int FILES_IN_FLIGHT_PER_THREAD = 2;
+    private static final int STREAM_CHUNK_SIZE = 1 << 16;
+
     private final FileSystem fileSystem;
+    private final Settings settings;
+    private final ResourcePerspectives perspectives;
+    private final ActiveRules activeRules;
     private final FilePredicate mainFilePredicate;
+    private final ThreadLocal<ElixirParser> parsers = new ThreadLocal<ElixirParser>() {
+        @Override
+        protected ElixirParser initialValue() {
+            return new ElixirParser();
+        }
+    };
 
-
-    public ElixirMeasureSensor(FileSystem fileSystem) {
+    public ElixirMeasureSensor(FileSystem fileSystem, Settings settings, ResourcePerspectives perspectives,
+                               ActiveRules activeRules) {
         this.fileSystem = fileSystem;
+        this.settings = settings;
+        this.perspectives = perspectives;
+        this.activeRules = activeRules;
         this.mainFilePredicate = fileSystem.predicates().and(
                 fileSystem.predicates().hasType(InputFile.Type.MAIN),
                 fileSystem.predicates().hasLanguage(Elixir.KEY));
@@ -62,8 +117,50 @@ public class ElixirMeasureSensor implements Sensor {
     @Override
     public void analyse(Project project, SensorContext context) {
         LOG.info("[elixir] analyse");
-        for (InputFile file : fileSystem.inputFiles(mainFilePredicate )) {
-            processMainFile(file, context);
+        List<InputFile> files = Lists.newArrayList(fileSystem.inputFiles(mainFilePredicate));
+        ElixirMeasureCache cache = createCache();
+        ThreadLocal<ElixirCheckDispatcher> checks = createCheckDispatchers();
+        ElixirAnalysisStatistics statistics = settings.getBoolean(ElixirConfiguration.PROFILING_KEY)
+                ? new ElixirAnalysisStatistics() : null;
+        ActiveRule unusedFunctions = activeRules.find(
+                RuleKey.of(CheckList.REPOSITORY_KEY, UnusedPublicFunctionCheck.KEY));
+        ProjectSummary summary = new ProjectSummary(unusedFunctions != null);
+        long start = System.nanoTime();
+        int threads = ElixirConfiguration.getThreadCount(settings);
+        ElixirFilePrefetcher prefetcher = createPrefetcher(files);
+        try {
+            if (threads > 1 && files.size() > 1) {
+                analyseParallel(files, threads, prefetcher, cache, checks, statistics, summary, context);
+            } else {
+                for (int i = 0; i < files.size(); i++) {
+                    processMainFile(files.get(i), i, prefetcher, cache, checks, statistics, summary, context);
+                }
+            }
+        } finally {
+            if (prefetcher != null) {
+                prefetcher.close();
+                LOG.debug(LOG_PREFIX + "prefetched at most " + prefetcher.getPeakBytesInFlight() / 1024 + " KB");
+            }
+        }
+        saveCouplings(files, summary.graph, context);
+        saveFunctions(summary, context);
+        if (unusedFunctions != null && summary.filesWithoutReferences > 0) {
+            LOG.warn(LOG_PREFIX + "not reporting unused public functions, as the calls of "
+                    + summary.filesWithoutReferences + " templates or files over "
+                    + ElixirConfiguration.MAX_FILE_SIZE_KEY + " are not collected");
+        } else if (unusedFunctions != null) {
+            saveUnusedFunctions(files, summary.symbols,
+                    UnusedPublicFunctionCheck.parseEntryPoints(unusedFunctions.param("entryPoints")), context);
+        }
+        if (cache != null) {
+            cache.save();
+            LOG.info(LOG_PREFIX + "measure cache: " + cache.getHits() + " hits, " + cache.getMisses() + " misses");
+        }
+        LOG.info(LOG_PREFIX + files.size() + " files analysed in " + (System.nanoTime() - start) / 1000000 + " ms");
+        if (statistics != null) {
+            statistics.finish();
+            statistics.log(LOG);
+            writeStatistics(statistics);
         }
     }
 
@@ -72,33 +169,535 @@ public class ElixirMeasureSensor implements Sensor {
         return fileSystem.hasFiles(mainFilePredicate);
     }
 
-    private void processMainFile(InputFile inputFile, SensorContext context) {
-        List<String> lines;
+    private ElixirMeasureCache createCache() {
+        File workDir = fileSystem.workDir();
+        if (!settings.getBoolean(ElixirConfiguration.CACHE_KEY) || workDir == null) {
+            return null;
+        }
+        ElixirMeasureCache cache = new ElixirMeasureCache(new File(workDir, ElixirMeasureCache.FILE_NAME),
+                fileSystem.encoding(), getRulesFingerprint());
+        cache.load();
+        return cache;
+    }
+
+    /** Identifies the active rules and their parameters, as cached issues depend on them. */
+    private String getRulesFingerprint() {
+        Map<String, String> rules = new TreeMap<>();
+        for (ActiveRule rule : activeRules.findByRepository(CheckList.REPOSITORY_KEY)) {
+            rules.put(rule.ruleKey().toString(), new TreeMap<>(rule.params()).toString());
+        }
+        return DigestUtils.md5Hex(rules.toString());
+    }
+
+    /**
+     * Checks keep per-file state, so each analysis thread gets its own instances.
+     * Returns {@code null} when no Elixir rule is active.
+     */
+    private ThreadLocal<ElixirCheckDispatcher> createCheckDispatchers() {
+        if (activeRules.findByRepository(CheckList.REPOSITORY_KEY).isEmpty()) {
+            return null;
+        }
+        return new ThreadLocal<ElixirCheckDispatcher>() {
+            @Override
+            protected ElixirCheckDispatcher initialValue() {
+                Checks<ElixirCheck> checks = new CheckFactory(activeRules)
+                        .<ElixirCheck>create(CheckList.REPOSITORY_KEY)
+                        .addAnnotatedChecks(CheckList.getChecks());
+                ElixirCheckDispatcher dispatcher = new ElixirCheckDispatcher();
+                for (ElixirCheck check : checks.all()) {
+                    dispatcher.add(check, checks.ruleKey(check).rule());
+                }
+                return dispatcher;
+            }
+        };
+    }
+
+    private void writeStatistics(ElixirAnalysisStatistics statistics) {
+        File workDir = fileSystem.workDir();
+        if (!settings.getBoolean(ElixirConfiguration.PROFILING_REPORT_KEY) || workDir == null) {
+            return;
+        }
+        File report = new File(workDir, ElixirAnalysisStatistics.FILE_NAME);
+        try {
+            statistics.writeJson(report);
+            LOG.info(LOG_PREFIX + "analysis profile written to " + report);
+        } catch (IOException e) {
+            LOG.warn(LOG_PREFIX + "could not write analysis profile: " + report, e);
+        }
+    }
+
+    /** Returns {@code null} when prefetching is disabled or pointless. */
+    private ElixirFilePrefetcher createPrefetcher(List<InputFile> files) {
+        long budget = settings.getInt(ElixirConfiguration.PREFETCH_BUFFER_KEY) * 1024L;
+        if (budget <= 0 || files.size() < 2) {
+            return null;
+        }
+        return new ElixirFilePrefetcher(files, getMaxFileSize(), budget, PREFETCH_THREADS);
+    }
+
+    private long getMaxFileSize() {
+        return settings.getInt(ElixirConfiguration.MAX_FILE_SIZE_KEY) * 1024L;
+    }
+
+    /**
+     * Files are read and parsed on a worker pool, while results are saved
+     * from the calling thread in input order, as SensorContext is not thread-safe.
+     * Only a few files per thread are submitted ahead of the one being saved, and
+     * saved results are released, so memory does not grow with the project size.
+     */
+    private void analyseParallel(List<InputFile> files, int threads, final ElixirFilePrefetcher prefetcher,
+                                 final ElixirMeasureCache cache,
+                                 final ThreadLocal<ElixirCheckDispatcher> checks,
+                                 ElixirAnalysisStatistics statistics, ProjectSummary summary,
+                                 SensorContext context) {
+        LOG.debug(LOG_PREFIX + "analysing " + files.size() + " files with " + threads + " threads");
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("elixir-analysis-%d").setDaemon(true).build());
+        try {
+            List<Future<FileResult>> results =
+                    new ArrayList<>(Collections.nCopies(files.size(), (Future<FileResult>) null));
+            int inFlight = threads * FILES_IN_FLIGHT_PER_THREAD;
+            int submitted = 0;
+            for (int i = 0; i < files.size(); i++) {
+                for (; submitted < files.size() && submitted < i + inFlight; submitted++) {
+                    final InputFile file = files.get(submitted);
+                    final int fileIndex = submitted;
+                    results.set(submitted, executor.submit(new Callable<FileResult>() {
+                        @Override
+                        public FileResult call() {
+                            return parseMainFile(file, fileIndex, prefetcher, cache, checks);
+                        }
+                    }));
+                }
+                FileResult result = getResult(results.get(i), files.get(i));
+                results.set(i, null);
+                if (result != null) {
+                    saveResult(files.get(i), i, result, statistics, summary, context);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T getResult(Future<T> result, InputFile inputFile) {
         try {
-            lines = Files.readAllLines(Paths.get(inputFile.absolutePath()), fileSystem.encoding());
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while analysing " + inputFile, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to analyse " + inputFile, e.getCause());
+        }
+    }
+
+    private void processMainFile(InputFile inputFile, int fileIndex, ElixirFilePrefetcher prefetcher,
+                                 ElixirMeasureCache cache, ThreadLocal<ElixirCheckDispatcher> checks,
+                                 ElixirAnalysisStatistics statistics, ProjectSummary summary,
+                                 SensorContext context) {
+        FileResult result = parseMainFile(inputFile, fileIndex, prefetcher, cache, checks);
+        if (result != null) {
+            saveResult(inputFile, fileIndex, result, statistics, summary, context);
+        }
+    }
+
+    /**
+     * Reads a file, from the prefetcher if any, and parses it. With prefetching,
+     * the read time is the time spent waiting for the readers.
+     */
+    private FileResult parseMainFile(InputFile inputFile, int fileIndex, ElixirFilePrefetcher prefetcher,
+                                     ElixirMeasureCache cache, ThreadLocal<ElixirCheckDispatcher> checks) {
+        long start = System.nanoTime();
+        try {
+            ByteBuffer bytes = prefetcher != null ? prefetcher.take(fileIndex) : readMainFile(inputFile);
+            if (ElixirTemplateReader.isTemplate(inputFile.relativePath())) {
+                return parseTemplate(inputFile, bytes, System.nanoTime() - start);
+            }
+            if (bytes == null) {
+                return streamMainFile(inputFile);
+            }
+            return parseMainFile(inputFile, bytes, System.nanoTime() - start, cache, checks);
+        } catch (IOException e) {
+            LOG.warn(LOG_PREFIX + "could not process file: " + inputFile.toString());
+            return null;
+        } finally {
+            if (prefetcher != null) {
+                prefetcher.release(fileIndex);
+            }
+        }
+    }
+
+    /** Reads a file, or returns {@code null} if it is over the maximum size. */
+    private ByteBuffer readMainFile(InputFile inputFile) throws IOException {
+        long maxFileSize = getMaxFileSize();
+        if (maxFileSize > 0 && new File(inputFile.absolutePath()).length() > maxFileSize) {
+            return null;
+        }
+        return ElixirSourceReader.readBytes(Paths.get(inputFile.absolutePath()));
+    }
+
+    /** Computes measures, highlighting, symbols, issues and module references in a single parse of the file. */
+    private FileResult parseMainFile(InputFile inputFile, ByteBuffer bytes, long readNanos,
+                                     ElixirMeasureCache cache, ThreadLocal<ElixirCheckDispatcher> checks)
+            throws IOException {
+        long read = System.nanoTime();
+        byte[] hash = null;
+        if (cache != null) {
+            hash = ElixirMeasureCache.hash(bytes);
+            int[][] cached = cache.get(inputFile.relativePath(), hash);
+            if (cached != null) {
+                return FileResult.fromSections(cached).timed(bytes.remaining(), readNanos, System.nanoTime() - read);
+            }
+        }
+        CharSequence content = decode(bytes);
+        ElixirParser parser = parsers.get();
+        ElixirComplexity complexity = new ElixirComplexity();
+        ElixirHighlighter highlighter = new ElixirHighlighter();
+        ElixirSymbolizer symbolizer = new ElixirSymbolizer();
+        ElixirModuleReferences references = new ElixirModuleReferences();
+        List<ElixirIssue> issues = Collections.emptyList();
+        ElixirFileMetrics metrics;
+        if (checks != null) {
+            ElixirCheckDispatcher dispatcher = checks.get();
+            metrics = parser.parse(content, complexity, highlighter, symbolizer, references, dispatcher);
+            issues = dispatcher.getIssues();
+        } else {
+            metrics = parser.parse(content, complexity, highlighter, symbolizer, references);
+        }
+        FileResult result = new FileResult(metrics, complexity, highlighter, symbolizer, issues, references);
+        if (cache != null) {
+            cache.put(inputFile.relativePath(), hash, result.toSections());
+        }
+        return result.timed(bytes.remaining(), readNanos, System.nanoTime() - read);
+    }
+
+    private CharSequence decode(ByteBuffer bytes) throws IOException {
+        CharSequence content = settings.getBoolean(ElixirConfiguration.BYTE_SCAN_KEY)
+                ? ElixirSourceReader.asciiView(bytes, fileSystem.encoding()) : null;
+        return content != null ? content : ElixirSourceReader.decode(bytes, fileSystem.encoding());
+    }
+
+    /**
+     * Computes line metrics of a template from its embedded Elixir. ASCII content is read
+     * through a view of its bytes and other content is decoded a block at a time. Templates
+     * over the maximum size are streamed from the file, or skipped when streaming is disabled.
+     * Templates are not cached.
+     */
+    private FileResult parseTemplate(InputFile inputFile, ByteBuffer bytes, long readNanos) throws IOException {
+        long size = bytes != null ? bytes.remaining() : new File(inputFile.absolutePath()).length();
+        if (bytes == null && !acceptLargeFile(inputFile, size)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        Readable source;
+        if (bytes == null) {
+            source = ElixirSourceReader.newReader(Paths.get(inputFile.absolutePath()), fileSystem.encoding());
+        } else {
+            CharSequence ascii = settings.getBoolean(ElixirConfiguration.BYTE_SCAN_KEY)
+                    ? ElixirSourceReader.asciiView(bytes, fileSystem.encoding()) : null;
+            source = ascii != null ? CharBuffer.wrap(ascii) : ElixirSourceReader.newReader(bytes, fileSystem.encoding());
+        }
+        ElixirFileMetrics metrics;
+        try (Reader reader = ElixirTemplateReader.forFile(source, inputFile.relativePath())) {
+            metrics = parsers.get().parse(reader, STREAM_CHUNK_SIZE);
+        }
+        return new FileResult(metrics, null, new ElixirHighlighter(), new ElixirSymbolizer(),
+                Collections.<ElixirIssue>emptyList(), null)
+                .timed(size, readNanos, System.nanoTime() - start);
+    }
+
+    /**
+     * Computes line metrics of a file over the maximum size in fixed-size chunks,
+     * or skips it when streaming is disabled. Streamed files are not cached.
+     */
+    private FileResult streamMainFile(InputFile inputFile) {
+        long size = new File(inputFile.absolutePath()).length();
+        if (!acceptLargeFile(inputFile, size)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        ElixirFileMetrics metrics;
+        try (Reader reader = ElixirSourceReader.newReader(Paths.get(inputFile.absolutePath()), fileSystem.encoding())) {
+            metrics = parsers.get().parse(reader, STREAM_CHUNK_SIZE);
         } catch (IOException e) {
             LOG.warn(LOG_PREFIX + "could not process file: " + inputFile.toString());
+            return null;
+        }
+        return new FileResult(metrics, null, new ElixirHighlighter(), new ElixirSymbolizer(),
+                Collections.<ElixirIssue>emptyList(), null)
+                .timed(size, 0, System.nanoTime() - start);
+    }
+
+    /** Logs that a file over the maximum size is streamed, or skipped when streaming is disabled. */
+    private boolean acceptLargeFile(InputFile inputFile, long size) {
+        if (!settings.getBoolean(ElixirConfiguration.STREAMING_KEY)) {
+            LOG.warn(LOG_PREFIX + "skipping file of " + size / 1024 + " KB, larger than "
+                    + ElixirConfiguration.MAX_FILE_SIZE_KEY + ": " + inputFile.toString());
+            return false;
+        }
+        LOG.warn(LOG_PREFIX + "only computing line metrics of file of " + size / 1024 + " KB, larger than "
+                + ElixirConfiguration.MAX_FILE_SIZE_KEY + ": " + inputFile.toString());
+        return true;
+    }
+
+    private void saveResult(InputFile inputFile, int fileIndex, FileResult result,
+                            ElixirAnalysisStatistics statistics, ProjectSummary summary, SensorContext context) {
+        long start = statistics == null ? 0 : System.nanoTime();
+        saveMeasures(inputFile, result.metrics, context);
+        if (result.complexity != null) {
+            saveComplexity(inputFile, result.complexity, context);
+            summary.addFunctions(inputFile, result.complexity.getFunctions());
+        }
+        saveSources(inputFile, result, context);
+        if (result.references == null) {
+            summary.filesWithoutReferences++;
+        } else {
+            summary.graph.add(fileIndex, result.references);
+            if (summary.symbols != null) {
+                summary.symbols.add(fileIndex, result.references);
+            }
+        }
+        if (statistics != null) {
+            statistics.record(inputFile.relativePath(), result.bytes, result.metrics.getLineCount(),
+                    result.readNanos, result.parseNanos, System.nanoTime() - start);
+        }
+    }
+
+    private void saveSources(InputFile inputFile, FileResult result, SensorContext context) {
+        Resource resource = context.getResource(org.sonar.api.resources.File.create(inputFile.relativePath()));
+        if (resource == null) {
             return;
         }
-        ElixirParser parser = new ElixirParser();
-        parser.parse(lines);
+        Highlightable highlightable = perspectives.as(Highlightable.class, resource);
+        if (highlightable != null) {
+            result.highlighter.save(highlightable);
+        }
+        Symbolizable symbolizable = perspectives.as(Symbolizable.class, resource);
+        if (symbolizable != null) {
+            result.symbolizer.save(symbolizable);
+        }
+        if (!result.issues.isEmpty()) {
+            saveIssues(resource, result.issues);
+        }
+    }
+
+    private void saveIssues(Resource resource, Collection<ElixirIssue> issues) {
+        Issuable issuable = perspectives.as(Issuable.class, resource);
+        if (issuable == null) {
+            return;
+        }
+        for (ElixirIssue issue : issues) {
+            issuable.addIssue(issuable.newIssueBuilder()
+                    .ruleKey(RuleKey.of(CheckList.REPOSITORY_KEY, issue.getRuleKey()))
+                    .line(issue.getLine())
+                    .message(issue.getMessage())
+                    .build());
+        }
+    }
 
+    private void saveMeasures(InputFile inputFile, ElixirFileMetrics metrics, SensorContext context) {
         LOG.debug(LOG_PREFIX + "processing file: " + inputFile.toString());
-        double linesOfCode = parser.getLineCount() - parser.getEmptyLineCount() - parser.getCommentLineCount();
-        context.saveMeasure(inputFile, CoreMetrics.LINES, (double)parser.getLineCount());
+        double linesOfCode = metrics.getLinesOfCode();
+        context.saveMeasure(inputFile, CoreMetrics.LINES, (double)metrics.getLineCount());
         context.saveMeasure(inputFile, CoreMetrics.NCLOC, (double)linesOfCode);
-        context.saveMeasure(inputFile, CoreMetrics.COMMENT_LINES, (double)parser.getCommentLineCount());
+        context.saveMeasure(inputFile, CoreMetrics.COMMENT_LINES, (double)metrics.getCommentLineCount());
 
-        double publicApi = parser.getPublicFunctionCount() + parser.getClassCount();
-        double documentedApi = parser.getDocumentedPublicFunctionCount() + parser.getDocumentedClassCount();
+        double publicApi = metrics.getPublicFunctionCount() + metrics.getClassCount();
+        double documentedApi = metrics.getDocumentedPublicFunctionCount() + metrics.getDocumentedClassCount();
         double undocumentedApi = publicApi - documentedApi;
         double documentedApiDensity = (publicApi == 0 ? 100.0 : ParsingUtils.scaleValue(documentedApi / publicApi * 100, 2));
         context.saveMeasure(inputFile, CoreMetrics.PUBLIC_API, publicApi);
         context.saveMeasure(inputFile, CoreMetrics.PUBLIC_UNDOCUMENTED_API, undocumentedApi);
         context.saveMeasure(inputFile, CoreMetrics.PUBLIC_DOCUMENTED_API_DENSITY, documentedApiDensity);
 
-        double functionCount = parser.getPublicFunctionCount() + parser.getPrivateFunctionCount();
-        context.saveMeasure(inputFile, CoreMetrics.CLASSES, (double)parser.getClassCount());
+        double functionCount = metrics.getPublicFunctionCount() + metrics.getPrivateFunctionCount();
+        context.saveMeasure(inputFile, CoreMetrics.CLASSES, (double)metrics.getClassCount());
         context.saveMeasure(inputFile, CoreMetrics.FUNCTIONS, (double)(functionCount));
+
+        double specifiedFunctions = metrics.getSpecifiedPublicFunctionCount();
+        double unspecifiedFunctions = metrics.getPublicFunctionCount() - specifiedFunctions;
+        double specDensity = (metrics.getPublicFunctionCount() == 0 ? 100.0
+                : ParsingUtils.scaleValue(specifiedFunctions / metrics.getPublicFunctionCount() * 100, 2));
+        context.saveMeasure(inputFile, ElixirMetrics.SPECIFIED_PUBLIC_FUNCTIONS, specifiedFunctions);
+        context.saveMeasure(inputFile, ElixirMetrics.UNSPECIFIED_PUBLIC_FUNCTIONS, unspecifiedFunctions);
+        context.saveMeasure(inputFile, ElixirMetrics.SPEC_DENSITY, specDensity);
+        context.saveMeasure(inputFile, ElixirMetrics.TYPES, (double)metrics.getTypeCount());
+        context.saveMeasure(inputFile, ElixirMetrics.CALLBACKS, (double)metrics.getCallbackCount());
+    }
+
+    private void saveComplexity(InputFile inputFile, ElixirComplexity complexity, SensorContext context) {
+        context.saveMeasure(inputFile, CoreMetrics.COMPLEXITY, (double)complexity.getFileComplexity());
+
+        RangeDistributionBuilder functionDistribution =
+                new RangeDistributionBuilder(CoreMetrics.FUNCTION_COMPLEXITY_DISTRIBUTION, FUNCTION_DISTRIBUTION_LIMITS);
+        for (int i = 0; i < complexity.getFunctionCount(); i++) {
+            functionDistribution.add(complexity.getFunctionComplexity(i));
+        }
+        context.saveMeasure(inputFile, functionDistribution.build().setPersistenceMode(PersistenceMode.MEMORY));
+
+        RangeDistributionBuilder fileDistribution =
+                new RangeDistributionBuilder(CoreMetrics.FILE_COMPLEXITY_DISTRIBUTION, FILE_DISTRIBUTION_LIMITS);
+        fileDistribution.add(complexity.getFileComplexity());
+        context.saveMeasure(inputFile, fileDistribution.build().setPersistenceMode(PersistenceMode.MEMORY));
+    }
+
+    /**
+     * Saves afferent and efferent couplings of files declaring modules, once all files are
+     * known, and the number of dependency cycles between modules, which are also logged.
+     */
+    private void saveCouplings(List<InputFile> files, ElixirModuleGraph graph, SensorContext context) {
+        long start = System.nanoTime();
+        graph.build();
+        int[][] couplings = graph.getFileCouplings(files.size());
+        boolean[] declaring = new boolean[files.size()];
+        for (int module = 0; module < graph.getModuleCount(); module++) {
+            if (graph.getFile(module) >= 0) {
+                declaring[graph.getFile(module)] = true;
+            }
+        }
+        for (int i = 0; i < files.size(); i++) {
+            if (declaring[i]) {
+                context.saveMeasure(files.get(i), CoreMetrics.AFFERENT_COUPLINGS, (double)couplings[i][0]);
+                context.saveMeasure(files.get(i), CoreMetrics.EFFERENT_COUPLINGS, (double)couplings[i][1]);
+            }
+        }
+        List<int[]> cycles = graph.getCycles();
+        context.saveMeasure(ElixirMetrics.MODULE_CYCLES, (double)cycles.size());
+        LOG.info(LOG_PREFIX + "module graph: " + graph.getModuleCount() + " modules, " + cycles.size()
+                + " dependency cycles, built in " + (System.nanoTime() - start) / 1000000 + " ms");
+        for (int i = 0; i < cycles.size() && i < MAX_LOGGED_CYCLES; i++) {
+            StringBuilder cycle = new StringBuilder();
+            for (int module : cycles.get(i)) {
+                if (cycle.length() > 0) {
+                    cycle.append(", ");
+                }
+                cycle.append(graph.getName(module));
+            }
+            LOG.warn(LOG_PREFIX + "dependency cycle between modules: " + cycle);
+        }
+    }
+
+    /** Saves the project-wide function size distribution and the largest and most complex functions. */
+    private void saveFunctions(ProjectSummary summary, SensorContext context) {
+        context.saveMeasure(summary.functionSizes.build());
+        String largest = summary.largestFunctions.toData();
+        String mostComplex = summary.mostComplexFunctions.toData();
+        context.saveMeasure(new Measure(ElixirMetrics.LARGEST_FUNCTIONS, largest));
+        context.saveMeasure(new Measure(ElixirMetrics.MOST_COMPLEX_FUNCTIONS, mostComplex));
+        if (summary.largestFunctions.size() > 0) {
+            LOG.info(LOG_PREFIX + "largest functions (lines): " + largest.replace(";", ", "));
+            LOG.info(LOG_PREFIX + "most complex functions: " + mostComplex.replace(";", ", "));
+        }
+    }
+
+    /** Raises issues on the public functions that no module of the project calls. */
+    private void saveUnusedFunctions(List<InputFile> files, ElixirSymbolIndex symbols, List<String> entryPoints,
+                                     SensorContext context) {
+        long start = System.nanoTime();
+        int[] unused = symbols.findUnused(entryPoints);
+        Map<Integer, List<ElixirIssue>> issues = new TreeMap<>();
+        for (int definition : unused) {
+            List<ElixirIssue> fileIssues = issues.get(symbols.getFile(definition));
+            if (fileIssues == null) {
+                fileIssues = new ArrayList<>();
+                issues.put(symbols.getFile(definition), fileIssues);
+            }
+            fileIssues.add(new ElixirIssue(UnusedPublicFunctionCheck.KEY, symbols.getLine(definition),
+                    "Remove this unused public function " + symbols.getLabel(definition) + "."));
+        }
+        for (Map.Entry<Integer, List<ElixirIssue>> fileIssues : issues.entrySet()) {
+            InputFile inputFile = files.get(fileIssues.getKey());
+            Resource resource = context.getResource(org.sonar.api.resources.File.create(inputFile.relativePath()));
+            if (resource != null) {
+                saveIssues(resource, fileIssues.getValue());
+            }
+        }
+        LOG.info(LOG_PREFIX + unused.length + " unused public functions out of " + symbols.getDefinitionCount()
+                + ", found in " + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+
+    /**
+     * Project-wide results accumulated while files are saved. Functions are ranked
+     * as they come, so that only the top entries are kept.
+     */
+    private static final class ProjectSummary {
+        private final ElixirModuleGraph graph = new ElixirModuleGraph();
+        /** {@code null} unless unused functions are reported. */
+        private final ElixirSymbolIndex symbols;
+        private final RangeDistributionBuilder functionSizes =
+                new RangeDistributionBuilder(ElixirMetrics.FUNCTION_SIZE_DISTRIBUTION, FUNCTION_SIZE_LIMITS);
+        private final ElixirFunctionRanking largestFunctions = new ElixirFunctionRanking(TOP_FUNCTIONS);
+        private final ElixirFunctionRanking mostComplexFunctions = new ElixirFunctionRanking(TOP_FUNCTIONS);
+        /** Templates and streamed files, whose calls would be missing from {@link #symbols}. */
+        private int filesWithoutReferences;
+
+        private ProjectSummary(boolean indexSymbols) {
+            symbols = indexSymbols ? new ElixirSymbolIndex() : null;
+        }
+
+        private void addFunctions(InputFile inputFile, ElixirFunctionTable functions) {
+            for (int i = 0; i < functions.size(); i++) {
+                int lines = functions.getLineCount(i);
+                int complexity = functions.getComplexity(i);
+                functionSizes.add(lines);
+                if (largestFunctions.accepts(lines)) {
+                    largestFunctions.offer(lines, label(inputFile, functions, i));
+                }
+                if (mostComplexFunctions.accepts(complexity)) {
+                    mostComplexFunctions.offer(complexity, label(inputFile, functions, i));
+                }
+            }
+        }
+
+        private static String label(InputFile inputFile, ElixirFunctionTable functions, int function) {
+            return inputFile.relativePath() + ":" + functions.getStartLine(function) + " "
+                    + functions.getName(function) + "/" + functions.getArity(function);
+        }
+    }
+
+    private static final class FileResult {
+        private final ElixirFileMetrics metrics;
+        /** {@code null} for files whose line metrics only were computed. */
+        private final ElixirComplexity complexity;
+        private final ElixirHighlighter highlighter;
+        private final ElixirSymbolizer symbolizer;
+        private final List<ElixirIssue> issues;
+        /** {@code null} for templates and streamed files, whose tokens are not reported. */
+        private final ElixirModuleReferences references;
+        private long bytes;
+        private long readNanos;
+        private long parseNanos;
+
+        private FileResult(ElixirFileMetrics metrics, ElixirComplexity complexity,
+                           ElixirHighlighter highlighter, ElixirSymbolizer symbolizer, List<ElixirIssue> issues,
+                           ElixirModuleReferences references) {
+            this.metrics = metrics;
+            this.complexity = complexity;
+            this.highlighter = highlighter;
+            this.symbolizer = symbolizer;
+            this.issues = issues;
+            this.references = references;
+        }
+
+        /** Parse time also covers decoding, hashing and cache lookup. */
+        private FileResult timed(long bytes, long readNanos, long parseNanos) {
+            this.bytes = bytes;
+            this.readNanos = readNanos;
+            this.parseNanos = parseNanos;
+            return this;
+        }
+
+        private int[][] toSections() {
+            return new int[][] {
+                    metrics.toArray(), complexity.toArray(), highlighter.toArray(), symbolizer.toArray(),
+                    ElixirIssue.toArray(issues), references.toArray()
+            };
+        }
+
+        private static FileResult fromSections(int[][] sections) {
+            return new FileResult(ElixirFileMetrics.fromArray(sections[0]), new ElixirComplexity(sections[1]),
+                    new ElixirHighlighter(sections[2]), new ElixirSymbolizer(sections[3]),
+                    ElixirIssue.fromArray(sections[4]), new ElixirModuleReferences(sections[5]));
+        }
     }
 }
@@ -0,0 +1,348 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Module dependency graph of a project. Module names are interned to dense int
+ * ids and, once {@link #build()} is called, dependencies are kept as compact
+ * adjacency arrays, so that graphs of umbrella projects with tens of thousands
+ * of modules take a few MB.
+ * <p>
+ * Only dependencies between declared modules are kept; references to the
+ * standard library or to dependencies of the project are dropped.
+ */
+public class ElixirModuleGraph {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] names = new String[256];
+    private int[] files = new int[256];
+    private int moduleCount;
+
+    private int[] edges = new int[1024];
+    private int edgeCount;
+
+    private boolean built;
+    private int[] offsets;
+    private int[] targets;
+    private int[] reverseOffsets;
+    private int[] sources;
+
+    /** Adds the modules declared in a file and their references. */
+    public void add(int file, ElixirModuleReferences references) {
+        for (String module : references.getModules()) {
+            int from = declare(module, file);
+            for (String reference : references.getReferences(module)) {
+                addDependency(from, intern(reference));
+            }
+        }
+    }
+
+    /**
+     * Declares a module in a file and returns its id. A module declared twice keeps its first file.
+     */
+    public int declare(String module, int file) {
+        if (file < 0) {
+            throw new IllegalArgumentException("Invalid file index: " + file);
+        }
+        checkNotBuilt();
+        int id = intern(module);
+        if (files[id] < 0) {
+            files[id] = file;
+        }
+        return id;
+    }
+
+    /** Records that module {@code from} refers to module {@code to}. */
+    public void addDependency(int from, int to) {
+        checkNotBuilt();
+        if (edgeCount + 2 > edges.length) {
+            edges = Arrays.copyOf(edges, edges.length * 2);
+        }
+        edges[edgeCount++] = from;
+        edges[edgeCount++] = to;
+    }
+
+    /** Interns a module name, without declaring it. */
+    public int intern(String module) {
+        Integer id = ids.get(module);
+        if (id != null) {
+            return id;
+        }
+        checkNotBuilt();
+        if (moduleCount == names.length) {
+            names = Arrays.copyOf(names, moduleCount * 2);
+            files = Arrays.copyOf(files, moduleCount * 2);
+        }
+        names[moduleCount] = module;
+        files[moduleCount] = -1;
+        ids.put(module, moduleCount);
+        return moduleCount++;
+    }
+
+    /** Returns the id of a module, or -1 if it is unknown. */
+    public int getId(String module) {
+        Integer id = ids.get(module);
+        return id == null ? -1 : id;
+    }
+
+    public int getModuleCount() {
+        return moduleCount;
+    }
+
+    public String getName(int module) {
+        return names[module];
+    }
+
+    /** Returns the file a module is declared in, or -1 if the module is not declared. */
+    public int getFile(int module) {
+        return files[module];
+    }
+
+    /**
+     * Builds the adjacency arrays, dropping self-dependencies, duplicates and
+     * dependencies on undeclared modules. No module can be added afterwards.
+     */
+    public void build() {
+        if (built) {
+            return;
+        }
+        built = true;
+        int n = moduleCount;
+        offsets = new int[n + 1];
+        for (int i = 0; i < edgeCount; i += 2) {
+            if (isKept(edges[i], edges[i + 1])) {
+                offsets[edges[i] + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] unsorted = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < edgeCount; i += 2) {
+            if (isKept(edges[i], edges[i + 1])) {
+                unsorted[fill[edges[i]]++] = edges[i + 1];
+            }
+        }
+        edges = null;
+
+        // Drop duplicate targets in place, using a per-source stamp to avoid sorting.
+        int[] stamp = new int[n];
+        Arrays.fill(stamp, -1);
+        targets = unsorted;
+        int count = 0;
+        int start = 0;
+        for (int v = 0; v < n; v++) {
+            int end = offsets[v + 1];
+            offsets[v] = count;
+            for (int i = start; i < end; i++) {
+                int w = unsorted[i];
+                if (stamp[w] != v) {
+                    stamp[w] = v;
+                    targets[count++] = w;
+                }
+            }
+            start = end;
+        }
+        offsets[n] = count;
+        targets = Arrays.copyOf(targets, count);
+
+        reverseOffsets = new int[n + 1];
+        for (int w : targets) {
+            reverseOffsets[w + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            reverseOffsets[i + 1] += reverseOffsets[i];
+        }
+        sources = new int[count];
+        fill = Arrays.copyOf(reverseOffsets, n);
+        for (int v = 0; v < n; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                sources[fill[targets[i]]++] = v;
+            }
+        }
+    }
+
+    private boolean isKept(int from, int to) {
+        return from != to && files[from] >= 0 && files[to] >= 0;
+    }
+
+    /** Modules the given module depends on. */
+    public int[] getDependencies(int module) {
+        checkBuilt();
+        return Arrays.copyOfRange(targets, offsets[module], offsets[module + 1]);
+    }
+
+    /** Number of modules that depend on the given module. */
+    public int getAfferentCouplings(int module) {
+        checkBuilt();
+        return reverseOffsets[module + 1] - reverseOffsets[module];
+    }
+
+    /** Number of modules the given module depends on. */
+    public int getEfferentCouplings(int module) {
+        checkBuilt();
+        return offsets[module + 1] - offsets[module];
+    }
+
+    /**
+     * Couplings of each file, indexed by file: {@code [file][0]} is the number of
+     * modules in other files depending on modules of the file, {@code [file][1]}
+     * the number of modules in other files its modules depend on.
+     */
+    public int[][] getFileCouplings(int fileCount) {
+        checkBuilt();
+        int[][] couplings = new int[fileCount][2];
+        int[] afferentStamp = new int[moduleCount];
+        int[] efferentStamp = new int[moduleCount];
+        Arrays.fill(afferentStamp, -1);
+        Arrays.fill(efferentStamp, -1);
+        int[] fileModules = groupByFile(fileCount);
+        for (int file = 0; file < fileCount; file++) {
+            for (int i = fileModules[file]; i < fileModules[file + 1]; i++) {
+                int v = fileModules[fileCount + 1 + i];
+                for (int j = offsets[v]; j < offsets[v + 1]; j++) {
+                    int w = targets[j];
+                    if (files[w] != file && efferentStamp[w] != file) {
+                        efferentStamp[w] = file;
+                        couplings[file][1]++;
+                    }
+                }
+                for (int j = reverseOffsets[v]; j < reverseOffsets[v + 1]; j++) {
+                    int u = sources[j];
+                    if (files[u] != file && afferentStamp[u] != file) {
+                        afferentStamp[u] = file;
+                        couplings[file][0]++;
+                    }
+                }
+            }
+        }
+        return couplings;
+    }
+
+    /**
+     * Returns offsets of the modules of each file in the first {@code fileCount + 1}
+     * entries, followed by the module ids of all files.
+     */
+    private int[] groupByFile(int fileCount) {
+        int declared = 0;
+        int[] grouped = new int[fileCount + 1];
+        for (int v = 0; v < moduleCount; v++) {
+            if (files[v] >= 0 && files[v] < fileCount) {
+                grouped[files[v] + 1]++;
+                declared++;
+            }
+        }
+        for (int i = 0; i < fileCount; i++) {
+            grouped[i + 1] += grouped[i];
+        }
+        grouped = Arrays.copyOf(grouped, fileCount + 1 + declared);
+        int[] fill = Arrays.copyOf(grouped, fileCount);
+        for (int v = 0; v < moduleCount; v++) {
+            if (files[v] >= 0 && files[v] < fileCount) {
+                grouped[fileCount + 1 + fill[files[v]]++] = v;
+            }
+        }
+        return grouped;
+    }
+
+    /**
+     * Returns the dependency cycles, as the strongly connected components of more than
+     * one module, found with an iterative version of Tarjan's algorithm.
+     */
+    public List<int[]> getCycles() {
+        checkBuilt();
+        int n = moduleCount;
+        List<int[]> cycles = new ArrayList<>();
+        int[] index = new int[n];
+        int[] low = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        int[] nextEdge = new int[n];
+        Arrays.fill(index, -1);
+        int counter = 0;
+        int stackSize = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0 || files[root] < 0) {
+                continue;
+            }
+            int depth = 0;
+            callStack[0] = root;
+            nextEdge[0] = offsets[root];
+            index[root] = low[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            while (depth >= 0) {
+                int v = callStack[depth];
+                if (nextEdge[depth] < offsets[v + 1]) {
+                    int w = targets[nextEdge[depth]++];
+                    if (index[w] < 0) {
+                        index[w] = low[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        depth++;
+                        callStack[depth] = w;
+                        nextEdge[depth] = offsets[w];
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                if (low[v] == index[v]) {
+                    int top = stackSize;
+                    do {
+                        onStack[stack[--stackSize]] = false;
+                    } while (stack[stackSize] != v);
+                    if (top - stackSize > 1) {
+                        cycles.add(Arrays.copyOfRange(stack, stackSize, top));
+                    }
+                }
+                depth--;
+                if (depth >= 0) {
+                    int u = callStack[depth];
+                    low[u] = Math.min(low[u], low[v]);
+                }
+            }
+        }
+        return cycles;
+    }
+
+    private void checkBuilt() {
+        if (!built) {
+            throw new IllegalStateException("Module graph is not built");
+        }
+    }
+
+    private void checkNotBuilt() {
+        if (built) {
+            throw new IllegalStateException("Module graph is already built");
+        }
+    }
+}
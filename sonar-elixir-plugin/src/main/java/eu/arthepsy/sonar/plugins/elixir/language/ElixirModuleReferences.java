@@ -0,0 +1,797 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the modules declared in a file and the module names each of them
+ * refers to. Every alias in a module body counts as a reference, which covers
+ * {@code alias}, {@code import}, {@code use}, {@code require}, remote calls and
+ * structs. Names are expanded through the {@code alias} directives of the file
+ * and the implicit aliases of nested modules; aliases are file-wide rather
+ * than lexically scoped.
+ * <p>
+ * The public functions each module defines and the functions it calls are
+ * collected as well, as {@code name/arity} keys, for {@link ElixirSymbolIndex}.
+ * The arity of a call is counted from its parenthesised arguments, a preceding
+ * pipe and a capture ({@code &fun/2}); calls without parentheses, and names
+ * that may be variables, have an unknown arity of -1. Definitions inside
+ * {@code quote} blocks are skipped, and those following {@code @impl} or inside
+ * {@code defimpl} and {@code defprotocol} are marked as callbacks.
+ */
+public class ElixirModuleReferences extends ElixirTokenVisitor {
+    /** Indexes into the values of {@link #getDefinitions}. */
+    public static final int DEFAULTS = 0;
+    public static final int LINE = 1;
+    public static final int CALLBACK = 2;
+
+    private enum AliasState { NONE, BASE, AFTER_BASE, DOT, MULTI, AS }
+    private enum CallState { NONE, TARGET, TARGET_DOT, NAME, CAPTURE_SLASH }
+    private enum Directive { NONE, IMPORT, BEHAVIOUR, DELEGATE_TO }
+    private enum Kind { CALL, DEFINITION, PRIVATE_DEFINITION, CALLBACK_DECLARATION }
+
+    private final Map<String, Symbols> modules = new LinkedHashMap<>();
+    private final Map<String, String> aliases = new HashMap<>();
+
+    private String[] moduleStack = new String[8];
+    private int[] moduleDepths = new int[8];
+    private int moduleCount;
+    private int depth;
+    private boolean expectModule;
+
+    private AliasState aliasState = AliasState.NONE;
+    private String aliasBase;
+
+    private CallState callState = CallState.NONE;
+    private Kind nameKind;
+    private String nameTarget;
+    private String name;
+    private int nameEnd;
+    private int nameLine;
+    private boolean namePipe;
+    private boolean nameCapture;
+    private boolean nameCallback;
+    private boolean pipe;
+    private boolean capture;
+    private boolean dot;
+
+    /** Kind of the name expected after a definition keyword or attribute, or {@code null}. */
+    private Kind expectName;
+    private boolean expectCallback;
+    private boolean delegate;
+    private boolean implPending;
+    private Directive directive = Directive.NONE;
+    private String delegateName;
+    private int delegateArity;
+    private String delegateTarget;
+    private boolean delegateAs;
+
+    /** Depth of brackets, {@code do} and {@code fn} blocks, for argument counting. */
+    private int nesting;
+    private Frame[] frames = new Frame[8];
+    private int frameCount;
+    private boolean quotePending;
+    private int quoteNesting = -1;
+    private boolean implBlockPending;
+    private int implNesting = -1;
+    /** Nesting of a typespec attribute whose names are not calls, or -1. */
+    private int specNesting = -1;
+
+    public ElixirModuleReferences() {
+    }
+
+    ElixirModuleReferences(int[] data) {
+        int[] pos = new int[1];
+        while (pos[0] < data.length) {
+            String module = getString(data, pos);
+            Symbols symbols = new Symbols();
+            getStrings(data, pos, symbols.references);
+            getStrings(data, pos, symbols.imports);
+            getStrings(data, pos, symbols.behaviours);
+            getStrings(data, pos, symbols.callbacks);
+            int count = data[pos[0]++];
+            for (int i = 0; i < count; i++) {
+                String key = getString(data, pos);
+                symbols.definitions.put(key, Arrays.copyOfRange(data, pos[0], pos[0] + 3));
+                pos[0] += 3;
+            }
+            getStrings(data, pos, symbols.calls);
+            modules.put(module, symbols);
+        }
+    }
+
+    /** Declared modules, in declaration order. */
+    public List<String> getModules() {
+        return new ArrayList<>(modules.keySet());
+    }
+
+    /** Names referred to by a declared module, which may include modules outside of the project. */
+    public Set<String> getReferences(String module) {
+        Symbols symbols = modules.get(module);
+        return symbols == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(symbols.references);
+    }
+
+    /** Modules imported by a declared module, whose functions its local calls may refer to. */
+    public Set<String> getImports(String module) {
+        Symbols symbols = modules.get(module);
+        return symbols == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(symbols.imports);
+    }
+
+    /** Modules named by {@code @behaviour} or {@code use} in a declared module. */
+    public Set<String> getBehaviours(String module) {
+        Symbols symbols = modules.get(module);
+        return symbols == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(symbols.behaviours);
+    }
+
+    /** {@code name/arity} of the {@code @callback} and {@code @macrocallback} declarations of a module. */
+    public Set<String> getCallbacks(String module) {
+        Symbols symbols = modules.get(module);
+        return symbols == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(symbols.callbacks);
+    }
+
+    /**
+     * Public functions and macros of a declared module by {@code name/arity}, with the number of
+     * default arguments, the first line and whether it is a callback (1) or not (0).
+     */
+    public Map<String, int[]> getDefinitions(String module) {
+        Symbols symbols = modules.get(module);
+        return symbols == null ? Collections.<String, int[]>emptyMap() : Collections.unmodifiableMap(symbols.definitions);
+    }
+
+    /**
+     * Functions called from a declared module, as {@code Module.name/arity} for remote calls and
+     * {@code name/arity} for local and imported ones.
+     */
+    public Set<String> getCalls(String module) {
+        Symbols symbols = modules.get(module);
+        return symbols == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(symbols.calls);
+    }
+
+    /**
+     * Encodes modules as runs of a length-prefixed name followed by counted lists of references,
+     * imports, behaviours, callbacks, definitions (key, defaults, line, callback) and calls.
+     */
+    int[] toArray() {
+        int size = 0;
+        for (Map.Entry<String, Symbols> module : modules.entrySet()) {
+            Symbols symbols = module.getValue();
+            size += 1 + module.getKey().length() + size(symbols.references) + size(symbols.imports)
+                    + size(symbols.behaviours) + size(symbols.callbacks) + size(symbols.calls) + 1;
+            for (String key : symbols.definitions.keySet()) {
+                size += 4 + key.length();
+            }
+        }
+        int[] data = new int[size];
+        int pos = 0;
+        for (Map.Entry<String, Symbols> module : modules.entrySet()) {
+            Symbols symbols = module.getValue();
+            pos = putString(data, pos, module.getKey());
+            pos = putStrings(data, pos, symbols.references);
+            pos = putStrings(data, pos, symbols.imports);
+            pos = putStrings(data, pos, symbols.behaviours);
+            pos = putStrings(data, pos, symbols.callbacks);
+            data[pos++] = symbols.definitions.size();
+            for (Map.Entry<String, int[]> definition : symbols.definitions.entrySet()) {
+                pos = putString(data, pos, definition.getKey());
+                System.arraycopy(definition.getValue(), 0, data, pos, 3);
+                pos += 3;
+            }
+            pos = putStrings(data, pos, symbols.calls);
+        }
+        return data;
+    }
+
+    @Override
+    public void visitStart(CharSequence content) {
+        modules.clear();
+        aliases.clear();
+        moduleCount = 0;
+        depth = 0;
+        expectModule = false;
+        aliasState = AliasState.NONE;
+        callState = CallState.NONE;
+        pipe = false;
+        capture = false;
+        dot = false;
+        expectName = null;
+        implPending = false;
+        directive = Directive.NONE;
+        delegateName = null;
+        delegateTarget = null;
+        delegateAs = false;
+        nesting = 0;
+        frameCount = 0;
+        quotePending = false;
+        quoteNesting = -1;
+        implBlockPending = false;
+        implNesting = -1;
+        specNesting = -1;
+    }
+
+    @Override
+    public void visitLine(CharSequence content, int start, int end, int line) {
+        if (aliasState == AliasState.AFTER_BASE) {
+            commitAlias();
+        }
+        if (aliasState != AliasState.MULTI) {
+            aliasState = AliasState.NONE;
+        }
+        finishName();
+        callState = CallState.NONE;
+        finishDelegate();
+        if (specNesting >= 0 && nesting <= specNesting) {
+            specNesting = -1;
+        }
+    }
+
+    @Override
+    public void visitEnd(CharSequence content) {
+        if (aliasState == AliasState.AFTER_BASE) {
+            commitAlias();
+        }
+        finishName();
+        finishDelegate();
+    }
+
+    @Override
+    public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+        visitCallToken(type, content, start, end, line);
+        if (aliasState == AliasState.AFTER_BASE && (type == ElixirTokenType.KEYWORD || type == ElixirTokenType.ALIAS)) {
+            commitAlias();
+            aliasState = AliasState.NONE;
+        }
+        if (type == ElixirTokenType.KEYWORD) {
+            visitKeyword(content, start, end);
+        } else if (type == ElixirTokenType.ALIAS) {
+            visitAlias(content.subSequence(start, end).toString());
+        } else if (aliasState == AliasState.AFTER_BASE) {
+            if (type == ElixirTokenType.OPERATOR && is(content, start, end, ".")) {
+                aliasState = AliasState.DOT;
+            } else if (type == ElixirTokenType.ATOM && is(content, start, end, "as:")) {
+                addReference(aliasBase);
+                aliasState = AliasState.AS;
+            } else if (type != ElixirTokenType.OPERATOR || !is(content, start, end, ",")) {
+                commitAlias();
+                aliasState = AliasState.NONE;
+            }
+        } else if (aliasState == AliasState.DOT) {
+            aliasState = type == ElixirTokenType.OPERATOR && is(content, start, end, "{")
+                    ? AliasState.MULTI : AliasState.NONE;
+        } else if (aliasState == AliasState.MULTI && type == ElixirTokenType.OPERATOR && is(content, start, end, "}")) {
+            aliasState = AliasState.NONE;
+        }
+    }
+
+    private void visitKeyword(CharSequence content, int start, int end) {
+        if (is(content, start, end, "do") || is(content, start, end, "fn")) {
+            depth++;
+        } else if (is(content, start, end, "end")) {
+            depth--;
+            while (moduleCount > 0 && moduleDepths[moduleCount - 1] > depth) {
+                moduleCount--;
+            }
+        } else if (is(content, start, end, "defmodule")) {
+            expectModule = true;
+        } else if (is(content, start, end, "alias")) {
+            aliasState = AliasState.BASE;
+        }
+    }
+
+    private void visitAlias(String name) {
+        if (expectModule) {
+            expectModule = false;
+            declareModule(name);
+            return;
+        }
+        switch (aliasState) {
+            case BASE:
+                aliasBase = resolve(name);
+                aliasState = AliasState.AFTER_BASE;
+                return;
+            case AS:
+                aliases.put(name, aliasBase);
+                aliasState = AliasState.NONE;
+                return;
+            case MULTI:
+                String member = aliasBase + "." + name;
+                aliases.put(lastSegment(member), member);
+                addReference(member);
+                return;
+            default:
+                addReference(resolve(name));
+        }
+    }
+
+    /** Tracks definitions, call sites and their arguments; runs before the alias directives see the token. */
+    private void visitCallToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+        boolean operator = type == ElixirTokenType.OPERATOR;
+        Directive pendingDirective = directive;
+        Kind expected = expectName;
+        directive = Directive.NONE;
+        expectName = null;
+        if (callState == CallState.NAME) {
+            if (operator && start == nameEnd && is(content, start, end, "(")) {
+                callState = CallState.NONE;
+                markArgument();
+                nesting++;
+                pushFrame();
+                endToken(type, content, start, end);
+                return;
+            }
+            if (nameCapture && operator && is(content, start, end, "/")) {
+                callState = CallState.CAPTURE_SLASH;
+                endToken(type, content, start, end);
+                return;
+            }
+            finishName();
+        } else if (callState == CallState.CAPTURE_SLASH) {
+            callState = CallState.NONE;
+            addCall(nameTarget, name, type == ElixirTokenType.NUMBER ? parseArity(content, start, end) : -1);
+        }
+
+        if (operator && isOpening(content, start, end)) {
+            markArgument();
+            nesting++;
+        } else if (operator && isClosing(content, start, end)) {
+            close();
+        } else if (type == ElixirTokenType.KEYWORD && (is(content, start, end, "do") || is(content, start, end, "fn"))) {
+            markArgument();
+            if (is(content, start, end, "do")) {
+                openBlock();
+            }
+            nesting++;
+        } else if (type == ElixirTokenType.KEYWORD && is(content, start, end, "end")) {
+            close();
+        } else if (frameCount > 0 && nesting == frames[frameCount - 1].nesting) {
+            visitArgumentToken(frames[frameCount - 1], type, content, start, end);
+        }
+
+        if (type == ElixirTokenType.KEYWORD) {
+            callState = CallState.NONE;
+            visitDefinitionKeyword(content, start, end);
+        } else if (type == ElixirTokenType.MODULE_ATTRIBUTE) {
+            callState = CallState.NONE;
+            visitAttribute(content, start, end);
+        } else if (type == ElixirTokenType.ALIAS) {
+            String module = resolve(content.subSequence(start, end).toString());
+            if (pendingDirective != Directive.NONE) {
+                callState = CallState.NONE;
+                visitDirective(pendingDirective, module);
+            } else {
+                startTarget(module);
+            }
+        } else if (type == ElixirTokenType.CONSTANT && is(content, start, end, "__MODULE__")) {
+            startTarget(moduleCount > 0 ? moduleStack[moduleCount - 1] : null);
+        } else if (type == ElixirTokenType.IDENTIFIER) {
+            visitIdentifier(expected, content, start, end, line);
+        } else if (callState == CallState.TARGET && operator && is(content, start, end, ".")) {
+            callState = CallState.TARGET_DOT;
+        } else {
+            callState = CallState.NONE;
+            if (type == ElixirTokenType.ATOM) {
+                visitAtom(content, start, end);
+            }
+        }
+        endToken(type, content, start, end);
+    }
+
+    private void visitArgumentToken(Frame frame, ElixirTokenType type, CharSequence content, int start, int end) {
+        if (type == ElixirTokenType.OPERATOR && is(content, start, end, ",")) {
+            if (!frame.keywords) {
+                frame.commas++;
+            }
+        } else if (type == ElixirTokenType.OPERATOR && is(content, start, end, "\\\\")) {
+            frame.defaults++;
+        } else {
+            frame.arguments = true;
+            if (type == ElixirTokenType.ATOM && content.charAt(start) != ':' && content.charAt(end - 1) == ':') {
+                frame.keywords = true;
+            }
+        }
+    }
+
+    private void endToken(ElixirTokenType type, CharSequence content, int start, int end) {
+        boolean operator = type == ElixirTokenType.OPERATOR;
+        pipe = operator && is(content, start, end, "|>");
+        capture = operator && is(content, start, end, "&");
+        dot = operator && is(content, start, end, ".");
+    }
+
+    private void visitDefinitionKeyword(CharSequence content, int start, int end) {
+        if (is(content, start, end, "def") || is(content, start, end, "defmacro")
+                || is(content, start, end, "defguard") || is(content, start, end, "defdelegate")) {
+            finishDelegate();
+            delegateName = null;
+            expectName = Kind.DEFINITION;
+            expectCallback = implPending || (implNesting >= 0 && nesting > implNesting);
+            delegate = is(content, start, end, "defdelegate");
+            implPending = false;
+        } else if (is(content, start, end, "defp") || is(content, start, end, "defmacrop")
+                || is(content, start, end, "defguardp")) {
+            expectName = Kind.PRIVATE_DEFINITION;
+            implPending = false;
+        } else if (is(content, start, end, "import")) {
+            directive = Directive.IMPORT;
+        } else if (is(content, start, end, "use")) {
+            directive = Directive.BEHAVIOUR;
+        } else if (is(content, start, end, "quote")) {
+            quotePending = true;
+        } else if (is(content, start, end, "defimpl") || is(content, start, end, "defprotocol")) {
+            implBlockPending = true;
+        }
+    }
+
+    private void visitAttribute(CharSequence content, int start, int end) {
+        if (is(content, start, end, "@impl")) {
+            implPending = true;
+        } else if (is(content, start, end, "@behaviour")) {
+            directive = Directive.BEHAVIOUR;
+        } else if (is(content, start, end, "@callback") || is(content, start, end, "@macrocallback")) {
+            expectName = Kind.CALLBACK_DECLARATION;
+            specNesting = nesting;
+        } else if (is(content, start, end, "@spec") || is(content, start, end, "@type")
+                || is(content, start, end, "@typep") || is(content, start, end, "@opaque")) {
+            specNesting = nesting;
+        }
+    }
+
+    private void visitDirective(Directive directive, String module) {
+        if (moduleCount > 0) {
+            Symbols symbols = modules.get(moduleStack[moduleCount - 1]);
+            if (directive == Directive.IMPORT) {
+                symbols.imports.add(module);
+            } else if (directive == Directive.BEHAVIOUR) {
+                symbols.behaviours.add(module);
+            } else {
+                delegateTarget = module;
+            }
+        }
+    }
+
+    /** Follows the {@code to:} and {@code as:} options of {@code defdelegate}, and {@code do:} blocks. */
+    private void visitAtom(CharSequence content, int start, int end) {
+        if (is(content, start, end, "do:")) {
+            quotePending = false;
+            implBlockPending = false;
+        } else if (delegateName == null) {
+            return;
+        } else if (is(content, start, end, "to:")) {
+            directive = Directive.DELEGATE_TO;
+        } else if (is(content, start, end, "as:")) {
+            delegateAs = true;
+            return;
+        } else if (delegateAs && content.charAt(start) == ':') {
+            delegateName = content.subSequence(start + 1, end).toString();
+        }
+        delegateAs = false;
+    }
+
+    private void startTarget(String module) {
+        callState = module == null ? CallState.NONE : CallState.TARGET;
+        nameTarget = module;
+        namePipe = pipe;
+        nameCapture = capture;
+    }
+
+    private void visitIdentifier(Kind expected, CharSequence content, int start, int end, int line) {
+        Kind kind = expected;
+        if (kind != null) {
+            nameTarget = null;
+            namePipe = false;
+            nameCapture = false;
+            nameCallback = expectCallback;
+        } else if (callState == CallState.TARGET_DOT) {
+            kind = Kind.CALL;
+        } else if (!dot) {
+            kind = Kind.CALL;
+            nameTarget = null;
+            namePipe = pipe;
+            nameCapture = capture;
+        } else {
+            callState = CallState.NONE;
+            return;
+        }
+        callState = CallState.NAME;
+        nameKind = kind;
+        name = content.subSequence(start, end).toString();
+        nameEnd = end;
+        nameLine = line;
+    }
+
+    /** Records a pending name that is not followed by an argument list. */
+    private void finishName() {
+        if (callState != CallState.NAME) {
+            return;
+        }
+        callState = CallState.NONE;
+        if (nameKind == Kind.CALL) {
+            if (nameTarget != null || frameCount == 0 || frames[frameCount - 1].kind == Kind.CALL) {
+                addCall(nameTarget, name, -1);
+            }
+        } else {
+            addSymbol(nameKind, name, 0, 0, nameLine, nameCallback);
+        }
+    }
+
+    private void finishDelegate() {
+        if (delegateTarget != null) {
+            addCall(delegateTarget, delegateName, delegateArity);
+            delegateTarget = null;
+            delegateName = null;
+        }
+    }
+
+    private void pushFrame() {
+        if (frameCount == frames.length) {
+            frames = Arrays.copyOf(frames, frameCount * 2);
+        }
+        Frame frame = frames[frameCount];
+        if (frame == null) {
+            frame = new Frame();
+            frames[frameCount] = frame;
+        }
+        frameCount++;
+        frame.kind = nameKind;
+        frame.nesting = nesting;
+        frame.target = nameTarget;
+        frame.name = name;
+        frame.line = nameLine;
+        frame.pipe = namePipe;
+        frame.callback = nameCallback;
+        frame.commas = 0;
+        frame.defaults = 0;
+        frame.arguments = false;
+        frame.keywords = false;
+    }
+
+    private void close() {
+        if (frameCount > 0 && frames[frameCount - 1].nesting == nesting) {
+            Frame frame = frames[--frameCount];
+            int arity = (frame.arguments ? frame.commas + 1 : 0) + (frame.pipe ? 1 : 0);
+            if (frame.kind == Kind.CALL) {
+                addCall(frame.target, frame.name, arity);
+            } else {
+                addSymbol(frame.kind, frame.name, arity, frame.defaults, frame.line, frame.callback);
+            }
+        }
+        nesting = Math.max(0, nesting - 1);
+        while (frameCount > 0 && frames[frameCount - 1].nesting > nesting) {
+            frameCount--;
+        }
+        if (quoteNesting >= 0 && nesting <= quoteNesting) {
+            quoteNesting = -1;
+        }
+        if (implNesting >= 0 && nesting <= implNesting) {
+            implNesting = -1;
+        }
+    }
+
+    private void openBlock() {
+        if (quotePending && quoteNesting < 0) {
+            quoteNesting = nesting;
+        }
+        if (implBlockPending && implNesting < 0) {
+            implNesting = nesting;
+        }
+        quotePending = false;
+        implBlockPending = false;
+    }
+
+    private void markArgument() {
+        if (frameCount > 0 && nesting == frames[frameCount - 1].nesting) {
+            frames[frameCount - 1].arguments = true;
+        }
+    }
+
+    private void addSymbol(Kind kind, String name, int arity, int defaults, int line, boolean callback) {
+        if (moduleCount == 0 || kind == Kind.PRIVATE_DEFINITION || (quoteNesting >= 0 && nesting > quoteNesting)) {
+            return;
+        }
+        Symbols symbols = modules.get(moduleStack[moduleCount - 1]);
+        String key = name + "/" + arity;
+        if (kind == Kind.CALLBACK_DECLARATION) {
+            symbols.callbacks.add(key);
+            return;
+        }
+        if (delegate) {
+            delegate = false;
+            delegateName = name;
+            delegateArity = arity;
+        }
+        int[] definition = symbols.definitions.get(key);
+        if (definition == null) {
+            symbols.definitions.put(key, new int[] { defaults, line, callback ? 1 : 0 });
+        } else {
+            definition[DEFAULTS] = Math.max(definition[DEFAULTS], defaults);
+            definition[CALLBACK] |= callback ? 1 : 0;
+        }
+    }
+
+    private void addCall(String target, String name, int arity) {
+        if (moduleCount > 0 && specNesting < 0) {
+            modules.get(moduleStack[moduleCount - 1]).calls.add(
+                    (target == null ? "" : target + ".") + name + "/" + arity);
+        }
+    }
+
+    /** Applies a plain {@code alias}, once it is known not to be {@code as:} or multi-alias. */
+    private void commitAlias() {
+        aliases.put(lastSegment(aliasBase), aliasBase);
+        addReference(aliasBase);
+    }
+
+    private void declareModule(String name) {
+        String module = name;
+        if (moduleCount > 0) {
+            String parent = moduleStack[moduleCount - 1];
+            String first = firstSegment(name);
+            aliases.put(first, parent + "." + first);
+            module = parent + "." + name;
+        } else {
+            module = resolve(name);
+        }
+        if (!modules.containsKey(module)) {
+            modules.put(module, new Symbols());
+        }
+        if (moduleCount == moduleStack.length) {
+            moduleStack = Arrays.copyOf(moduleStack, moduleCount * 2);
+            moduleDepths = Arrays.copyOf(moduleDepths, moduleCount * 2);
+        }
+        moduleStack[moduleCount] = module;
+        moduleDepths[moduleCount] = depth + 1;
+        moduleCount++;
+    }
+
+    private void addReference(String name) {
+        if (moduleCount > 0) {
+            String module = moduleStack[moduleCount - 1];
+            if (!module.equals(name)) {
+                modules.get(module).references.add(name);
+            }
+        }
+    }
+
+    private String resolve(String name) {
+        String first = firstSegment(name);
+        String expansion = aliases.get(first);
+        if (expansion == null) {
+            return name;
+        }
+        return first.length() == name.length() ? expansion : expansion + name.substring(first.length());
+    }
+
+    private static String firstSegment(String name) {
+        int dot = name.indexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    private static String lastSegment(String name) {
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    private static boolean isOpening(CharSequence s, int start, int end) {
+        return is(s, start, end, "(") || is(s, start, end, "[") || is(s, start, end, "{") || is(s, start, end, "<<");
+    }
+
+    private static boolean isClosing(CharSequence s, int start, int end) {
+        return is(s, start, end, ")") || is(s, start, end, "]") || is(s, start, end, "}") || is(s, start, end, ">>");
+    }
+
+    private static int parseArity(CharSequence s, int start, int end) {
+        int arity = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9' || arity > 255) {
+                return -1;
+            }
+            arity = arity * 10 + c - '0';
+        }
+        return arity;
+    }
+
+    private static boolean is(CharSequence s, int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (s.charAt(start + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int size(Set<String> values) {
+        int size = 1;
+        for (String value : values) {
+            size += 1 + value.length();
+        }
+        return size;
+    }
+
+    private static int putStrings(int[] data, int pos, Set<String> values) {
+        data[pos++] = values.size();
+        for (String value : values) {
+            pos = putString(data, pos, value);
+        }
+        return pos;
+    }
+
+    private static int putString(int[] data, int pos, String value) {
+        data[pos++] = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            data[pos++] = value.charAt(i);
+        }
+        return pos;
+    }
+
+    private static void getStrings(int[] data, int[] pos, Set<String> values) {
+        int count = data[pos[0]++];
+        for (int i = 0; i < count; i++) {
+            values.add(getString(data, pos));
+        }
+    }
+
+    private static String getString(int[] data, int[] pos) {
+        char[] chars = new char[data[pos[0]]];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) data[pos[0] + 1 + i];
+        }
+        pos[0] += 1 + chars.length;
+        return new String(chars);
+    }
+
+    private static final class Symbols {
+        private final Set<String> references = new LinkedHashSet<>();
+        private final Set<String> imports = new LinkedHashSet<>();
+        private final Set<String> behaviours = new LinkedHashSet<>();
+        private final Set<String> callbacks = new LinkedHashSet<>();
+        private final Map<String, int[]> definitions = new LinkedHashMap<>();
+        private final Set<String> calls = new LinkedHashSet<>();
+    }
+
+    /** An open argument list of a call or a definition head. */
+    private static final class Frame {
+        private Kind kind;
+        private int nesting;
+        private String target;
+        private String name;
+        private int line;
+        private boolean pipe;
+        private boolean callback;
+        private int commas;
+        private int defaults;
+        private boolean arguments;
+        private boolean keywords;
+    }
+}
@@ -23,13 +23,21 @@
  */
 package eu.arthepsy.sonar.plugins.elixir.language;
 
-import org.apache.commons.lang.StringUtils;
-
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+/**
+ * Computes {@link ElixirFileMetrics} of a file. A parser keeps no state between
+ * files, so one instance can be reused for any number of files, but it must
+ * not be shared by concurrent threads.
+ */
 public class ElixirParser {
+    /** Must be incremented whenever a change to the parser or the lexer alters its results. */
+    public static final int VERSION = 6;
+
     private int lineCount = 0;
     private int emptyLineCount = 0;
     private int commentLineCount = 0;
@@ -39,104 +47,505 @@ public class ElixirParser {
     private int documentedClassCount = 0;
     private int documentedPrivateFunctionCount = 0;
     private int documentedPublicFunctionCount = 0;
+    private int specifiedPublicFunctionCount = 0;
+    private int typeCount = 0;
+    private int callbackCount = 0;
+
+    private enum State { CODE, HEREDOC, DOC_HEREDOC }
+
+    private static final int DOC = 1;
+    private static final int MODULEDOC = 2;
+    private static final int TYPEDOC = 3;
+
+    /**
+     * State carried from one line to the next: whether the line is inside a
+     * heredoc, whether a {@code @doc} or a {@code @spec} is pending for the
+     * next function, the function whose spec covers its next clauses and
+     * whether a module was declared.
+     */
+    public static final class Checkpoint {
+        /** State at the start of a file. */
+        public static final Checkpoint START = new Checkpoint(State.CODE, false, false, null, false);
+
+        private final State state;
+        private final boolean hasDoc;
+        private final boolean hasSpec;
+        private final String specifiedName;
+        private final boolean inClass;
+
+        private Checkpoint(State state, boolean hasDoc, boolean hasSpec, String specifiedName, boolean inClass) {
+            this.state = state;
+            this.hasDoc = hasDoc;
+            this.hasSpec = hasSpec;
+            this.specifiedName = specifiedName;
+            this.inClass = inClass;
+        }
 
-    private final Pattern defPattern = Pattern.compile("^\\s*def(|p|module|struct)\\s(.*)$");
-    private final Matcher defMatcher = defPattern.matcher("");
-    private final Pattern heredocPattern = Pattern.compile("^.*\"\"\"\\s*$");
-    private final Matcher heredocMatcher = heredocPattern.matcher("");
-    private final Pattern docPattern = Pattern.compile("^\\s*@(doc|moduledoc|typedoc)([\"\\s].*)$");
-    private final Matcher docMatcher = docPattern.matcher("");
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Checkpoint)) {
+                return false;
+            }
+            Checkpoint other = (Checkpoint) o;
+            return state == other.state && hasDoc == other.hasDoc && hasSpec == other.hasSpec
+                    && (specifiedName == null ? other.specifiedName == null : specifiedName.equals(other.specifiedName))
+                    && inClass == other.inClass;
+        }
 
+        @Override
+        public int hashCode() {
+            return (state.ordinal() * 8 + (hasDoc ? 4 : 0) + (hasSpec ? 2 : 0) + (inClass ? 1 : 0)) * 31
+                    + (specifiedName == null ? 0 : specifiedName.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return "Checkpoint{" + state + ", hasDoc=" + hasDoc + ", hasSpec=" + hasSpec + ", specifiedName=" + specifiedName
+                    + ", inClass=" + inClass + "}";
+        }
+    }
+
+    private static final ElixirTokenVisitor[] NO_VISITORS = new ElixirTokenVisitor[0];
+
+    private State state = State.CODE;
     private boolean hasDoc = false;
+    private boolean hasSpec = false;
+    /** Name of the last public function with a {@code @spec}, while its clauses follow. */
+    private String specifiedName = null;
     private boolean inClass = false;
 
     public ElixirParser() { }
 
-    public int getLineCount() { return lineCount; }
-    public int getEmptyLineCount() { return emptyLineCount; }
-    public int getCommentLineCount() { return commentLineCount; }
-    public int getClassCount() { return classCount; }
-    public int getPublicFunctionCount() { return publicFunctionCount; }
-    public int getPrivateFunctionCount() { return privateFunctionCount; }
-    public int getDocumentedClassCount() { return documentedClassCount; }
-    public int getDocumentedPublicFunctionCount() { return documentedPublicFunctionCount; }
-    public int getDocumentedPrivateFunctionCount() { return documentedPrivateFunctionCount; }
-
-    public void parse(List<String> lines) {
+    public ElixirFileMetrics parse(List<String> lines) {
         this.parseLines(lines);
+        return this.metrics();
     }
 
-    private void parseLines(List<String> lines) {
-        hasDoc = false;
-        inClass = false;
+    /**
+     * Parses the lines {@code [start, end)} starting from the state of a checkpoint,
+     * and returns the metrics of these lines only. {@link #checkpoint()} then
+     * returns the state after the last line, from which the next lines can be parsed.
+     */
+    public ElixirFileMetrics parse(List<? extends CharSequence> lines, int start, int end, Checkpoint from) {
+        this.reset();
+        state = from.state;
+        hasDoc = from.hasDoc;
+        hasSpec = from.hasSpec;
+        specifiedName = from.specifiedName;
+        inClass = from.inClass;
+        lineCount = end - start;
+        for (int i = start; i < end; i++) {
+            CharSequence line = lines.get(i);
+            parseLine(line, 0, line.length());
+        }
+        return this.metrics();
+    }
+
+    /** Returns the state of the parser after the last parsed line. */
+    public Checkpoint checkpoint() {
+        return new Checkpoint(state, hasDoc, hasSpec, specifiedName, inClass);
+    }
+
+    /**
+     * Parses whole file content, splitting lines on {@code \n}, {@code \r}
+     * and {@code \r\n} the same way as {@link java.io.BufferedReader#readLine()}.
+     */
+    public ElixirFileMetrics parse(CharSequence content) {
+        return this.parse(content, NO_VISITORS);
+    }
+
+    /**
+     * Parses whole file content and reports its tokens to {@code visitors}
+     * in the same pass over the lines.
+     */
+    public ElixirFileMetrics parse(CharSequence content, ElixirTokenVisitor... visitors) {
+        this.reset();
+        ElixirLexer lexer = null;
+        if (visitors.length > 0) {
+            lexer = new ElixirLexer(visitors);
+            lexer.start(content);
+        }
+        int length = content.length();
+        int start = parseLines(content, length, true, lexer);
+        if (start < length) {
+            parseLine(content, start, length, lexer);
+        }
+        if (lexer != null) {
+            lexer.finish(content, length);
+        }
+        return this.metrics();
+    }
+
+    /**
+     * Parses content read in chunks of {@code chunkSize} characters, carrying the
+     * parser state and the incomplete last line of a chunk over to the next one.
+     * Memory use is bounded by the chunk size and the longest line, not by the
+     * size of the file. Tokens are not reported, as their offsets would be
+     * relative to a chunk.
+     */
+    public ElixirFileMetrics parse(Reader reader, int chunkSize) throws IOException {
+        this.reset();
+        char[] buffer = new char[chunkSize];
+        CharSequence chunk = new Chunk(buffer);
+        int length = 0;
+        int read;
+        while ((read = reader.read(buffer, length, buffer.length - length)) >= 0) {
+            length += read;
+            int start = parseLines(chunk, length, false, null);
+            if (start == 0 && length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                chunk = new Chunk(buffer);
+            } else {
+                System.arraycopy(buffer, start, buffer, 0, length - start);
+                length -= start;
+            }
+        }
+        int start = parseLines(chunk, length, true, null);
+        if (start < length) {
+            parseLine(chunk, start, length, null);
+        }
+        return this.metrics();
+    }
 
+    /** Chunk buffer read without the bounds and position arithmetic of a {@link CharBuffer}. */
+    private static final class Chunk implements CharSequence {
+        private final char[] buffer;
+
+        private Chunk(char[] buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int length() {
+            return buffer.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return buffer[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return CharBuffer.wrap(buffer, start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer);
+        }
+    }
+
+    /**
+     * Parses the terminated lines of {@code [0, length)} and returns the start of the
+     * unterminated rest. Unless {@code last}, a trailing {@code \r} is left in the rest,
+     * as it may be followed by {@code \n} in the next chunk.
+     */
+    private int parseLines(CharSequence content, int length, boolean last, ElixirLexer lexer) {
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = content.charAt(i);
+            if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 == length && !last) {
+                    break;
+                }
+                parseLine(content, start, i, lexer);
+                if (c == '\r' && i + 1 < length && content.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                start = i + 1;
+            }
+        }
+        return start;
+    }
+
+    private void parseLine(CharSequence s, int start, int end, ElixirLexer lexer) {
+        lineCount++;
+        parseLine(s, start, end);
+        if (lexer != null) {
+            lexer.scanLine(s, start, end, lineCount);
+        }
+    }
+
+    private void parseLines(List<String> lines) {
+        this.reset();
         lineCount = lines.size();
         for (int i = 0; i < lineCount; i++) {
             String line = lines.get(i);
-            if (StringUtils.isBlank(line)) {
-                emptyLineCount++;
-            }
-            docMatcher.reset(line);
-            boolean inDoc = docMatcher.find();
-            if (inDoc) {
+            parseLine(line, 0, line.length());
+        }
+    }
+
+    private ElixirFileMetrics metrics() {
+        return new ElixirFileMetrics(lineCount, emptyLineCount, commentLineCount,
+                classCount, publicFunctionCount, privateFunctionCount,
+                documentedClassCount, documentedPublicFunctionCount, documentedPrivateFunctionCount,
+                specifiedPublicFunctionCount, typeCount, callbackCount);
+    }
+
+    private void reset() {
+        lineCount = 0;
+        emptyLineCount = 0;
+        commentLineCount = 0;
+        classCount = 0;
+        publicFunctionCount = 0;
+        privateFunctionCount = 0;
+        documentedClassCount = 0;
+        documentedPublicFunctionCount = 0;
+        documentedPrivateFunctionCount = 0;
+        specifiedPublicFunctionCount = 0;
+        typeCount = 0;
+        callbackCount = 0;
+        state = State.CODE;
+        hasDoc = false;
+        hasSpec = false;
+        specifiedName = null;
+        inClass = false;
+    }
+
+    /**
+     * Classifies a single line (without its terminator) in one pass over its characters.
+     * Mirrors the former regular expressions: leading and trailing whitespace
+     * is regex whitespace, blank lines use {@link Character#isWhitespace(char)}
+     * and {@code .*} does not cross a line separator other than a final one.
+     */
+    private void parseLine(CharSequence s, int start, int end) {
+        if (state != State.CODE) {
+            if (state == State.DOC_HEREDOC) {
                 commentLineCount++;
-                String docHead = docMatcher.group(2).trim();
-                if (! (StringUtils.equalsIgnoreCase(docHead, "false") || StringUtils.equalsIgnoreCase(docHead, "nil"))) {
-                    switch (docMatcher.group(1)) {
-                        case "doc":
-                            hasDoc = true;
-                            break;
-                        case "moduledoc":
-                            if (inClass) {
-                                documentedClassCount++;
-                            }
-                            break;
-                        case "typedoc":
-                            break;
-                    }
-                }
             }
-            heredocMatcher.reset(line);
-            if (heredocMatcher.find()) {
-                while (i < lineCount - 1) {
-                    if (inDoc) {
-                        commentLineCount++;
-                    }
-                    i++;
-                    line = lines.get(i);
-                    if (line.matches("^\\s*\"\"\"\\s*$")) {
-                        break;
+            if (isHeredocEnd(s, start, end)) {
+                state = State.CODE;
+            }
+            return;
+        }
+
+        boolean blank = true;
+        int separator = end;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (blank && !Character.isWhitespace(c)) {
+                blank = false;
+            }
+            if (separator == end && isLineSeparator(c)) {
+                separator = i;
+            }
+        }
+        if (blank) {
+            emptyLineCount++;
+        }
+        int tail = (end > start && isLineSeparator(s.charAt(end - 1))) ? end - 1 : end;
+        boolean toTail = separator >= tail;
+
+        int pos = skipSpace(s, start, end);
+        boolean inDoc = false;
+        if (toTail && pos < tail && s.charAt(pos) == '@') {
+            inDoc = parseDoc(s, pos + 1, tail);
+            if (!inDoc) {
+                parseTypespec(s, pos + 1, tail);
+            }
+        }
+
+        if (toTail && isHeredocStart(s, start, tail)) {
+            state = inDoc ? State.DOC_HEREDOC : State.HEREDOC;
+            return;
+        }
+
+        if (toTail && pos < tail && s.charAt(pos) == 'd') {
+            parseDef(s, pos + 1, tail);
+        }
+        if (separator == end && pos < end && s.charAt(pos) == '#') {
+            commentLineCount++;
+        }
+    }
+
+    private boolean parseDoc(CharSequence s, int pos, int tail) {
+        int kind;
+        int next;
+        if (matches(s, pos, tail, "doc")) {
+            kind = DOC;
+            next = pos + 3;
+        } else if (matches(s, pos, tail, "moduledoc")) {
+            kind = MODULEDOC;
+            next = pos + 9;
+        } else if (matches(s, pos, tail, "typedoc")) {
+            kind = TYPEDOC;
+            next = pos + 7;
+        } else {
+            return false;
+        }
+        if (next >= tail || !(s.charAt(next) == '"' || isSpace(s.charAt(next)))) {
+            return false;
+        }
+        commentLineCount++;
+
+        int headStart = next;
+        int headEnd = tail;
+        while (headStart < headEnd && s.charAt(headStart) <= ' ') {
+            headStart++;
+        }
+        while (headEnd > headStart && s.charAt(headEnd - 1) <= ' ') {
+            headEnd--;
+        }
+        if (!(equalsIgnoreCase(s, headStart, headEnd, "false") || equalsIgnoreCase(s, headStart, headEnd, "nil"))) {
+            switch (kind) {
+                case DOC:
+                    hasDoc = true;
+                    break;
+                case MODULEDOC:
+                    if (inClass) {
+                        documentedClassCount++;
                     }
-                }
-                continue;
+                    break;
+                case TYPEDOC:
+                    break;
             }
+        }
+        return true;
+    }
 
-            defMatcher.reset(line);
-            if (defMatcher.find()) {
-                switch (defMatcher.group(1)) {
-                    case "module":
-                        classCount++;
-                        inClass = true;
-                        break;
-                    case "":
-                        publicFunctionCount++;
-                        if (hasDoc) {
-                            documentedPublicFunctionCount++;
-                        }
-                        break;
-                    case "p":
-                        privateFunctionCount++;
-                        if (hasDoc) {
-                            documentedPrivateFunctionCount++;
-                        }
-                        break;
-                }
-                hasDoc = false;
+    /** Counts typespec attributes; a {@code @spec} applies to the next public function. */
+    private void parseTypespec(CharSequence s, int pos, int tail) {
+        if (isAttribute(s, pos, tail, "spec")) {
+            hasSpec = true;
+        } else if (isAttribute(s, pos, tail, "type") || isAttribute(s, pos, tail, "typep")
+                || isAttribute(s, pos, tail, "opaque")) {
+            typeCount++;
+        } else if (isAttribute(s, pos, tail, "callback") || isAttribute(s, pos, tail, "macrocallback")) {
+            callbackCount++;
+        }
+    }
+
+    private static boolean isAttribute(CharSequence s, int pos, int tail, String name) {
+        int next = pos + name.length();
+        return next < tail && matches(s, pos, tail, name) && (isSpace(s.charAt(next)) || s.charAt(next) == '(');
+    }
+
+    private void parseDef(CharSequence s, int pos, int tail) {
+        if (!matches(s, pos, tail, "ef")) {
+            return;
+        }
+        pos += 2;
+        if (pos < tail && isSpace(s.charAt(pos))) {
+            publicFunctionCount++;
+            if (hasDoc) {
+                documentedPublicFunctionCount++;
             }
-            if (line.matches("^\\s*#.*$")) {
-                commentLineCount++;
+            parseSpecifiedClause(s, skipSpace(s, pos, tail), tail);
+        } else if (isDefSuffix(s, pos, tail, "p")) {
+            specifiedName = null;
+            privateFunctionCount++;
+            if (hasDoc) {
+                documentedPrivateFunctionCount++;
             }
+        } else if (isDefSuffix(s, pos, tail, "module")) {
+            specifiedName = null;
+            classCount++;
+            inClass = true;
+        } else if (!isDefSuffix(s, pos, tail, "struct")) {
+            return;
         }
+        hasDoc = false;
+        hasSpec = false;
+    }
+
+    /**
+     * Counts a public function clause covered by a {@code @spec}: the clause following it,
+     * and the next clauses of the same function, which share its spec.
+     */
+    private void parseSpecifiedClause(CharSequence s, int nameStart, int tail) {
+        int nameEnd = nameStart;
+        while (nameEnd < tail && isNameChar(s.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        if (hasSpec) {
+            specifiedName = s.subSequence(nameStart, nameEnd).toString();
+        } else if (specifiedName == null || nameEnd - nameStart != specifiedName.length()
+                || !matches(s, nameStart, nameEnd, specifiedName)) {
+            specifiedName = null;
+            return;
+        }
+        specifiedPublicFunctionCount++;
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '_' || c == '?' || c == '!';
+    }
+
+    private static boolean isDefSuffix(CharSequence s, int pos, int tail, String suffix) {
+        int next = pos + suffix.length();
+        return next < tail && matches(s, pos, tail, suffix) && isSpace(s.charAt(next));
+    }
+
+    private static boolean isHeredocStart(CharSequence s, int start, int tail) {
+        int i = tail;
+        while (i > start && isSpace(s.charAt(i - 1))) {
+            i--;
+        }
+        return i - start >= 3 && isQuotes(s, i - 3);
+    }
+
+    private static boolean isHeredocEnd(CharSequence s, int start, int end) {
+        int pos = skipSpace(s, start, end);
+        if (end - pos < 3 || !isQuotes(s, pos)) {
+            return false;
+        }
+        return skipSpace(s, pos + 3, end) == end;
+    }
+
+    private static boolean isQuotes(CharSequence s, int pos) {
+        return s.charAt(pos) == '"' && s.charAt(pos + 1) == '"' && s.charAt(pos + 2) == '"';
+    }
+
+    private static int skipSpace(CharSequence s, int pos, int end) {
+        while (pos < end && isSpace(s.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean matches(CharSequence s, int pos, int end, String keyword) {
+        int length = keyword.length();
+        if (end - pos < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (s.charAt(pos + i) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalsIgnoreCase(CharSequence s, int start, int end, String keyword) {
+        int length = keyword.length();
+        if (end - start != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(start + i);
+            char k = keyword.charAt(i);
+            if (c == k) {
+                continue;
+            }
+            char cu = Character.toUpperCase(c);
+            char ku = Character.toUpperCase(k);
+            if (cu != ku && Character.toLowerCase(cu) != Character.toLowerCase(ku)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Regular expression whitespace class {@code \s}. */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    /** Characters not matched by the regular expression {@code .} */
+    private static boolean isLineSeparator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
     }
 
 }
@@ -0,0 +1,185 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class ElixirSourceReader {
+    static final long MAP_THRESHOLD = 1L << 20;
+
+    private static final ConcurrentMap<Charset, Boolean> ASCII_COMPATIBLE = new ConcurrentHashMap<>();
+
+    private ElixirSourceReader() { }
+
+    /**
+     * Decodes a file into a single buffer without splitting it into lines.
+     * Malformed input is reported as an {@link IOException}, as with
+     * {@link Files#readAllLines(Path, Charset)}.
+     */
+    public static CharBuffer read(Path path, Charset charset) throws IOException {
+        return decode(readBytes(path), charset);
+    }
+
+    /**
+     * Reads the raw content of a file. Large files are memory-mapped
+     * instead of being copied to the heap.
+     */
+    public static ByteBuffer readBytes(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            return read(channel, size);
+        }
+    }
+
+    /**
+     * Reads the raw content of a file into the heap, whatever its size, e.g. to
+     * read it ahead of its analysis, which a lazily loaded mapping would not do.
+     */
+    public static ByteBuffer readFully(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to be read into memory: " + path);
+            }
+            return read(channel, size);
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long size) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate((int) size);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes) < 0) {
+                break;
+            }
+        }
+        bytes.flip();
+        return bytes;
+    }
+
+    public static CharBuffer decode(ByteBuffer bytes, Charset charset) throws IOException {
+        return newDecoder(charset).decode(bytes.duplicate());
+    }
+
+    /**
+     * Returns the content of a pure ASCII file as a view of its bytes, which
+     * skips decoding. Returns {@code null} when the content has other bytes or
+     * the charset does not encode ASCII as single bytes (as UTF-16 does), in which
+     * case the content has to be {@linkplain #decode decoded}.
+     */
+    public static CharSequence asciiView(ByteBuffer bytes, Charset charset) {
+        if (!isAsciiCompatible(charset) || !ElixirAsciiContent.isAscii(bytes)) {
+            return null;
+        }
+        return new ElixirAsciiContent(bytes);
+    }
+
+    static boolean isAsciiCompatible(Charset charset) {
+        Boolean compatible = ASCII_COMPATIBLE.get(charset);
+        if (compatible == null) {
+            byte[] ascii = new byte[128];
+            for (int i = 0; i < ascii.length; i++) {
+                ascii[i] = (byte) i;
+            }
+            String decoded = new String(ascii, StandardCharsets.US_ASCII);
+            compatible = charset.canEncode() && Arrays.equals(decoded.getBytes(charset), ascii)
+                    && new String(ascii, charset).equals(decoded);
+            ASCII_COMPATIBLE.put(charset, compatible);
+        }
+        return compatible;
+    }
+
+    /**
+     * Opens a file for reading without loading it as a whole, for files too large
+     * to be decoded into a single buffer. Malformed input is reported as an
+     * {@link IOException} by the reader.
+     */
+    public static Reader newReader(Path path, Charset charset) throws IOException {
+        return Channels.newReader(FileChannel.open(path, StandardOpenOption.READ), newDecoder(charset), -1);
+    }
+
+    /**
+     * Decodes content already in memory a block at a time, without decoding it into
+     * a single buffer. Malformed input is reported as an {@link IOException} by the reader.
+     */
+    public static Reader newReader(ByteBuffer bytes, Charset charset) {
+        return Channels.newReader(new ByteBufferChannel(bytes.duplicate()), newDecoder(charset), -1);
+    }
+
+    private static final class ByteBufferChannel implements ReadableByteChannel {
+        private final ByteBuffer bytes;
+        private boolean open = true;
+
+        private ByteBufferChannel(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read(ByteBuffer target) {
+            if (!bytes.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(bytes.remaining(), target.remaining());
+            ByteBuffer block = bytes.duplicate();
+            block.limit(block.position() + count);
+            target.put(block);
+            bytes.position(bytes.position() + count);
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+
+    private static CharsetDecoder newDecoder(Charset charset) {
+        return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+    }
+}
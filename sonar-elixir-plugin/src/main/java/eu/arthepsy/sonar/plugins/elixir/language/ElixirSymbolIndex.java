@@ -0,0 +1,307 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Project-wide index of the public functions of declared modules and of the
+ * calls made to them, to find public functions that nothing calls. Module and
+ * function names are interned to dense int ids, and definitions are looked up
+ * by their module and name packed into a {@code long} key of an open-addressing
+ * table, so that indexing and {@link #findUnused} take linear time in the number
+ * of definitions and calls of the project.
+ * <p>
+ * A call of unknown arity uses every arity of its function, and a local call
+ * also counts as a call to the functions of the modules its module imports.
+ * Functions implementing a {@code @callback} of a behaviour of their module,
+ * or marked as callbacks by {@link ElixirModuleReferences}, are never unused.
+ */
+public class ElixirSymbolIndex {
+    private static final int MODULE = 0;
+    private static final int NAME = 1;
+    private static final int ARITY = 2;
+    private static final int DEFAULTS = 3;
+    private static final int FILE = 4;
+    private static final int LINE = 5;
+    private static final int CALLBACK = 6;
+    private static final int NEXT = 7;
+    private static final int FIELDS = 8;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] names = new String[256];
+    private int nameCount;
+
+    private int[] definitions = new int[256 * FIELDS];
+    private int definitionCount;
+
+    private long[] keys = new long[512];
+    private int[] heads = new int[512];
+    private int keyCount;
+
+    /** Module, name and arity of each call. */
+    private int[] calls = new int[1024];
+    private int callCount;
+
+    /** Module and behaviour pairs. */
+    private int[] behaviours = new int[64];
+    private int behaviourCount;
+
+    /** Module, name and arity of each {@code @callback} declaration. */
+    private int[] callbacks = new int[64];
+    private int callbackCount;
+
+    public ElixirSymbolIndex() {
+        Arrays.fill(heads, -1);
+    }
+
+    /** Adds the definitions, calls, behaviours and callbacks of the modules declared in a file. */
+    public void add(int file, ElixirModuleReferences references) {
+        for (String module : references.getModules()) {
+            int moduleId = intern(module);
+            for (Map.Entry<String, int[]> definition : references.getDefinitions(module).entrySet()) {
+                String key = definition.getKey();
+                int slash = key.lastIndexOf('/');
+                int[] values = definition.getValue();
+                addDefinition(moduleId, intern(key.substring(0, slash)), Integer.parseInt(key.substring(slash + 1)),
+                        values[ElixirModuleReferences.DEFAULTS], file, values[ElixirModuleReferences.LINE],
+                        values[ElixirModuleReferences.CALLBACK] != 0);
+            }
+            Set<String> imports = references.getImports(module);
+            int[] importIds = new int[imports.size()];
+            int i = 0;
+            for (String imported : imports) {
+                importIds[i++] = intern(imported);
+            }
+            for (String call : references.getCalls(module)) {
+                int slash = call.lastIndexOf('/');
+                int dot = call.lastIndexOf('.', slash);
+                int arity = Integer.parseInt(call.substring(slash + 1));
+                int name = intern(call.substring(dot + 1, slash));
+                if (dot < 0) {
+                    addCall(moduleId, name, arity);
+                    for (int imported : importIds) {
+                        addCall(imported, name, arity);
+                    }
+                } else {
+                    addCall(intern(call.substring(0, dot)), name, arity);
+                }
+            }
+            for (String behaviour : references.getBehaviours(module)) {
+                behaviours = ensure(behaviours, behaviourCount + 2);
+                behaviours[behaviourCount++] = moduleId;
+                behaviours[behaviourCount++] = intern(behaviour);
+            }
+            for (String callback : references.getCallbacks(module)) {
+                int slash = callback.lastIndexOf('/');
+                callbacks = ensure(callbacks, callbackCount + 3);
+                callbacks[callbackCount++] = moduleId;
+                callbacks[callbackCount++] = intern(callback.substring(0, slash));
+                callbacks[callbackCount++] = Integer.parseInt(callback.substring(slash + 1));
+            }
+        }
+    }
+
+    public int getDefinitionCount() {
+        return definitionCount;
+    }
+
+    public int getFile(int definition) {
+        return definitions[definition * FIELDS + FILE];
+    }
+
+    public int getLine(int definition) {
+        return definitions[definition * FIELDS + LINE];
+    }
+
+    /** Returns {@code Module.name/arity} of a definition. */
+    public String getLabel(int definition) {
+        int base = definition * FIELDS;
+        return names[definitions[base + MODULE]] + "." + names[definitions[base + NAME]] + "/" + definitions[base + ARITY];
+    }
+
+    /**
+     * Returns the public functions that are neither called, nor callbacks, nor matched by one of
+     * the {@code Module.name/arity} entry point patterns, where {@code *} matches any text.
+     * Definitions are returned in the order they were added.
+     */
+    public int[] findUnused(List<String> entryPoints) {
+        boolean[] used = new boolean[definitionCount];
+        for (int i = 0; i < callCount; i += 3) {
+            markUsed(used, calls[i], calls[i + 1], calls[i + 2]);
+        }
+        markCallbacks(used);
+
+        List<Pattern> patterns = new ArrayList<>();
+        for (String entryPoint : entryPoints) {
+            patterns.add(toPattern(entryPoint));
+        }
+        int[] unused = new int[definitionCount];
+        int count = 0;
+        for (int d = 0; d < definitionCount; d++) {
+            if (!used[d] && definitions[d * FIELDS + CALLBACK] == 0 && !matches(patterns, getLabel(d))) {
+                unused[count++] = d;
+            }
+        }
+        return Arrays.copyOf(unused, count);
+    }
+
+    /** Marks the implementations of the callbacks of each behaviour used by a module. */
+    private void markCallbacks(boolean[] used) {
+        if (behaviourCount == 0 || callbackCount == 0) {
+            return;
+        }
+        int[] first = new int[nameCount];
+        Arrays.fill(first, -1);
+        int[] next = new int[callbackCount / 3];
+        for (int c = next.length - 1; c >= 0; c--) {
+            int module = callbacks[c * 3];
+            next[c] = first[module];
+            first[module] = c;
+        }
+        for (int i = 0; i < behaviourCount; i += 2) {
+            for (int c = first[behaviours[i + 1]]; c >= 0; c = next[c]) {
+                markUsed(used, behaviours[i], callbacks[c * 3 + 1], callbacks[c * 3 + 2]);
+            }
+        }
+    }
+
+    private void markUsed(boolean[] used, int module, int name, int arity) {
+        for (int d = find(module, name); d >= 0; d = definitions[d * FIELDS + NEXT]) {
+            int definitionArity = definitions[d * FIELDS + ARITY];
+            if (arity < 0 || (arity <= definitionArity && arity >= definitionArity - definitions[d * FIELDS + DEFAULTS])) {
+                used[d] = true;
+            }
+        }
+    }
+
+    private void addDefinition(int module, int name, int arity, int defaults, int file, int line, boolean callback) {
+        definitions = ensure(definitions, (definitionCount + 1) * FIELDS);
+        int base = definitionCount * FIELDS;
+        definitions[base + MODULE] = module;
+        definitions[base + NAME] = name;
+        definitions[base + ARITY] = arity;
+        definitions[base + DEFAULTS] = defaults;
+        definitions[base + FILE] = file;
+        definitions[base + LINE] = line;
+        definitions[base + CALLBACK] = callback ? 1 : 0;
+        definitions[base + NEXT] = -1;
+
+        long key = key(module, name);
+        int slot = slot(key);
+        if (heads[slot] < 0) {
+            keys[slot] = key;
+            keyCount++;
+        } else {
+            definitions[base + NEXT] = heads[slot];
+        }
+        heads[slot] = definitionCount++;
+        if (keyCount * 2 > keys.length) {
+            rehash();
+        }
+    }
+
+    private void addCall(int module, int name, int arity) {
+        calls = ensure(calls, callCount + 3);
+        calls[callCount++] = module;
+        calls[callCount++] = name;
+        calls[callCount++] = arity;
+    }
+
+    /** Returns the last definition of a function of a module, whatever its arity, or -1. */
+    private int find(int module, int name) {
+        return heads[slot(key(module, name))];
+    }
+
+    /** Returns the slot of the key, or the empty slot where it belongs. */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (heads[slot] >= 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldHeads = heads;
+        keys = new long[oldKeys.length * 2];
+        heads = new int[oldKeys.length * 2];
+        Arrays.fill(heads, -1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHeads[i] >= 0) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                heads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    private int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        if (nameCount == names.length) {
+            names = Arrays.copyOf(names, nameCount * 2);
+        }
+        names[nameCount] = name;
+        ids.put(name, nameCount);
+        return nameCount++;
+    }
+
+    private static long key(int module, int name) {
+        return (long) module << 32 | name;
+    }
+
+    private static int[] ensure(int[] values, int size) {
+        return size <= values.length ? values : Arrays.copyOf(values, Math.max(size, values.length * 2));
+    }
+
+    private static Pattern toPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        for (int star = glob.indexOf('*'); star >= 0; star = glob.indexOf('*', start)) {
+            regex.append(Pattern.quote(glob.substring(start, star))).append(".*");
+            start = star + 1;
+        }
+        return Pattern.compile(regex.append(Pattern.quote(glob.substring(start))).toString());
+    }
+
+    private static boolean matches(List<Pattern> patterns, String label) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(label).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
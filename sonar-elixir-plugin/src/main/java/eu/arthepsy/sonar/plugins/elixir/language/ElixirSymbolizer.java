@@ -0,0 +1,246 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.sonar.api.source.Symbol;
+import org.sonar.api.source.Symbolizable;
+
+import java.util.Arrays;
+
+/**
+ * Builds the symbol table of a file from the token stream: functions declared with
+ * {@code def} and friends, and module attributes other than the built-in ones.
+ * A function is declared by its first {@code def} clause and an attribute by its
+ * first occurrence; any other occurrence of the same name is a reference.
+ * <p>
+ * Names are interned by content region, so no strings are created per token.
+ * The table is kept as {@code declarationStart, declarationEnd, referenceCount, references...}
+ * integer runs.
+ */
+public class ElixirSymbolizer extends ElixirTokenVisitor {
+    private static final String[] DEFINITIONS = {
+            "def", "defp", "defmacro", "defmacrop", "defguard", "defguardp", "defdelegate"
+    };
+    private static final String[] BUILTIN_ATTRIBUTES = {
+            "doc", "moduledoc", "typedoc", "spec", "type", "typep", "opaque", "callback", "macrocallback",
+            "impl", "behaviour", "derive", "enforce_keys", "optional_callbacks", "compile", "deprecated",
+            "since", "dialyzer", "external_resource", "on_definition", "before_compile", "after_compile",
+            "file", "vsn", "on_load"
+    };
+
+    private int[] slots = new int[64];
+    private int[] nameStart = new int[32];
+    private int[] nameEnd = new int[32];
+    private int[] declaration = new int[32];
+    private int nameCount;
+
+    private int[] occurrences = new int[2 * 64];
+    private int occurrenceCount;
+
+    private boolean definition;
+    private int[] table = new int[0];
+
+    public ElixirSymbolizer() {
+    }
+
+    ElixirSymbolizer(int[] table) {
+        this.table = table;
+    }
+
+    @Override
+    public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+        boolean declaring = definition;
+        definition = false;
+        switch (type) {
+            case KEYWORD:
+                definition = isOneOf(content, start, end, DEFINITIONS);
+                break;
+            case IDENTIFIER:
+                addOccurrence(content, start, end, declaring);
+                break;
+            case MODULE_ATTRIBUTE:
+                if (!isOneOf(content, start + 1, end, BUILTIN_ATTRIBUTES)) {
+                    addOccurrence(content, start, end, true);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void visitEnd(CharSequence content) {
+        int[] references = new int[nameCount];
+        int symbols = 0;
+        int size = 0;
+        for (int i = 0; i < occurrenceCount; i++) {
+            int name = occurrences[2 * i];
+            if (declaration[name] >= 0 && declaration[name] != i) {
+                references[name]++;
+                size++;
+            }
+        }
+        for (int name = 0; name < nameCount; name++) {
+            if (declaration[name] >= 0) {
+                symbols++;
+            }
+        }
+        int[] offsets = new int[nameCount];
+        int[] result = new int[size + 3 * symbols];
+        int pos = 0;
+        for (int name = 0; name < nameCount; name++) {
+            if (declaration[name] >= 0) {
+                int start = occurrences[2 * declaration[name] + 1];
+                result[pos] = start;
+                result[pos + 1] = start + nameEnd[name] - nameStart[name];
+                result[pos + 2] = references[name];
+                offsets[name] = pos + 3;
+                pos += 3 + references[name];
+            }
+        }
+        for (int i = 0; i < occurrenceCount; i++) {
+            int name = occurrences[2 * i];
+            if (declaration[name] >= 0 && declaration[name] != i) {
+                result[offsets[name]++] = occurrences[2 * i + 1];
+            }
+        }
+        table = result;
+    }
+
+    public int getSymbolCount() {
+        int count = 0;
+        for (int i = 0; i < table.length; i += 3 + table[i + 2]) {
+            count++;
+        }
+        return count;
+    }
+
+    int[] toArray() {
+        return table;
+    }
+
+    public void save(Symbolizable symbolizable) {
+        Symbolizable.SymbolTableBuilder builder = symbolizable.newSymbolTableBuilder();
+        int i = 0;
+        while (i < table.length) {
+            Symbol symbol = builder.newSymbol(table[i], table[i + 1]);
+            int references = table[i + 2];
+            for (int j = 0; j < references; j++) {
+                builder.newReference(symbol, table[i + 3 + j]);
+            }
+            i += 3 + references;
+        }
+        symbolizable.setSymbolTable(builder.build());
+    }
+
+    private void addOccurrence(CharSequence content, int start, int end, boolean declaring) {
+        int name = intern(content, start, end);
+        if (2 * occurrenceCount + 2 > occurrences.length) {
+            occurrences = Arrays.copyOf(occurrences, occurrences.length * 2);
+        }
+        occurrences[2 * occurrenceCount] = name;
+        occurrences[2 * occurrenceCount + 1] = start;
+        if (declaring && declaration[name] < 0) {
+            declaration[name] = occurrenceCount;
+        }
+        occurrenceCount++;
+    }
+
+    /** Returns the id of the name in {@code [start, end)}, registering it on first sight. */
+    private int intern(CharSequence content, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + content.charAt(i);
+        }
+        int mask = slots.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (slots[slot] != 0) {
+            int name = slots[slot] - 1;
+            if (regionEquals(content, nameStart[name], nameEnd[name], start, end)) {
+                return name;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int name = nameCount++;
+        if (name == nameStart.length) {
+            nameStart = Arrays.copyOf(nameStart, name * 2);
+            nameEnd = Arrays.copyOf(nameEnd, name * 2);
+            declaration = Arrays.copyOf(declaration, name * 2);
+        }
+        nameStart[name] = start;
+        nameEnd[name] = end;
+        declaration[name] = -1;
+        slots[slot] = name + 1;
+        if (2 * nameCount > slots.length) {
+            rehash(content);
+        }
+        return name;
+    }
+
+    private void rehash(CharSequence content) {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int name = 0; name < nameCount; name++) {
+            int hash = 0;
+            for (int i = nameStart[name]; i < nameEnd[name]; i++) {
+                hash = 31 * hash + content.charAt(i);
+            }
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = name + 1;
+        }
+    }
+
+    private static boolean regionEquals(CharSequence s, int start1, int end1, int start2, int end2) {
+        if (end1 - start1 != end2 - start2) {
+            return false;
+        }
+        for (int i = 0; i < end1 - start1; i++) {
+            if (s.charAt(start1 + i) != s.charAt(start2 + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isOneOf(CharSequence s, int start, int end, String[] words) {
+        for (String word : words) {
+            if (word.length() == end - start && regionEquals(s, start, end, word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionEquals(CharSequence s, int start, int end, String word) {
+        for (int i = 0; i < end - start; i++) {
+            if (s.charAt(start + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
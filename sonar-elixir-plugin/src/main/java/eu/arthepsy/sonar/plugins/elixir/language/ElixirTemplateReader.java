@@ -0,0 +1,237 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * Streams an EEx, HEEx or LEEx template as Elixir for {@link ElixirParser#parse(Reader, int)}.
+ * Elixir embedded in {@code <% ... %>} tags, and in {@code {...}} in HEEx templates, is kept as is.
+ * Other characters are replaced one for one: comments ({@code <%# %>}, {@code <%!-- --%>} and
+ * {@code <!-- -->}) by {@code #} and markup by {@code _}. Whitespace and line terminators are kept,
+ * so lines and offsets are those of the template: lines with markup are code, lines with only
+ * comments are comment lines and blank lines stay blank.
+ * <p>
+ * The template is read once through a small buffer, without a copy of the whole content.
+ */
+public final class ElixirTemplateReader extends Reader {
+    public static final String[] FILE_SUFFIXES = {"eex", "heex", "leex"};
+
+    private static final char MARKUP = '_';
+    private static final char COMMENT = '#';
+    /** Length of the longest delimiter, {@code <%!--}. */
+    private static final int LOOKAHEAD = 5;
+    private static final int BUFFER_SIZE = 8192;
+
+    private enum State { MARKUP, TAG, TAG_COMMENT, HEEX_COMMENT, HTML_COMMENT, BRACES, BRACES_STRING }
+
+    private final Readable source;
+    private final boolean braces;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private boolean eof = false;
+
+    private State state = State.MARKUP;
+    private int depth = 0;
+    /** Replacement of the next {@code run} characters, or 0 to keep them. */
+    private char replacement;
+    private int run = 0;
+
+    /**
+     * @param braces whether {@code {...}} embeds Elixir, as in HEEx templates
+     */
+    public ElixirTemplateReader(Readable source, boolean braces) {
+        this.source = source;
+        this.braces = braces;
+    }
+
+    /** Reads a template of the given file name, with the interpolation syntax of its suffix. */
+    public static ElixirTemplateReader forFile(Readable source, String fileName) {
+        return new ElixirTemplateReader(source, fileName.endsWith(".heex"));
+    }
+
+    public static boolean isTemplate(String fileName) {
+        for (String suffix : FILE_SUFFIXES) {
+            if (fileName.endsWith("." + suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int read(char[] target, int offset, int length) throws IOException {
+        int count = 0;
+        while (count < length) {
+            if (run == 0) {
+                if (!fill()) {
+                    break;
+                }
+                run = scan();
+            }
+            int n = Math.min(run, length - count);
+            if (replacement == 0) {
+                System.arraycopy(buffer, position, target, offset + count, n);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    char c = buffer[position + i];
+                    target[offset + count + i] = isWhitespace(c) ? c : replacement;
+                }
+            }
+            position += n;
+            count += n;
+            run -= n;
+        }
+        return count == 0 && length > 0 ? -1 : count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (source instanceof Closeable) {
+            ((Closeable) source).close();
+        }
+    }
+
+    /** Makes the next delimiter visible in the buffer; returns {@code false} at the end of the source. */
+    private boolean fill() throws IOException {
+        if (limit - position >= LOOKAHEAD || eof) {
+            return position < limit;
+        }
+        System.arraycopy(buffer, position, buffer, 0, limit - position);
+        limit -= position;
+        position = 0;
+        while (limit < LOOKAHEAD && !eof) {
+            int read = source.read(CharBuffer.wrap(buffer, limit, buffer.length - limit));
+            if (read < 0) {
+                eof = true;
+            } else {
+                limit += read;
+            }
+        }
+        return position < limit;
+    }
+
+    /** Moves to the state after the next token and returns its length, setting its replacement. */
+    private int scan() {
+        char c = buffer[position];
+        switch (state) {
+            case MARKUP:
+                replacement = MARKUP;
+                if (c == '<') {
+                    if (startsWith("<%%")) {
+                        return 3;
+                    } else if (startsWith("<%!--")) {
+                        return enter(State.HEEX_COMMENT, COMMENT, 5);
+                    } else if (startsWith("<%#")) {
+                        return enter(State.TAG_COMMENT, COMMENT, 3);
+                    } else if (startsWith("<%")) {
+                        return enter(State.TAG, MARKUP, 2);
+                    } else if (startsWith("<!--")) {
+                        return enter(State.HTML_COMMENT, COMMENT, 4);
+                    }
+                } else if (c == '{' && braces) {
+                    depth = 1;
+                    return enter(State.BRACES, MARKUP, 1);
+                }
+                return runUntil('<', braces ? '{' : '<', '<');
+            case TAG:
+                return startsWith("%>") ? enter(State.MARKUP, MARKUP, 2) : keep(runUntil('%', '%', '%'));
+            case TAG_COMMENT:
+                return startsWith("%>") ? enter(State.MARKUP, COMMENT, 2)
+                        : enter(State.TAG_COMMENT, COMMENT, runUntil('%', '%', '%'));
+            case HEEX_COMMENT:
+                return startsWith("--%>") ? enter(State.MARKUP, COMMENT, 4)
+                        : enter(State.HEEX_COMMENT, COMMENT, runUntil('-', '-', '-'));
+            case HTML_COMMENT:
+                return startsWith("-->") ? enter(State.MARKUP, COMMENT, 3)
+                        : enter(State.HTML_COMMENT, COMMENT, runUntil('-', '-', '-'));
+            case BRACES:
+                if (c == '"') {
+                    state = State.BRACES_STRING;
+                } else if (c == '{') {
+                    depth++;
+                } else if (c == '}' && --depth == 0) {
+                    return enter(State.MARKUP, MARKUP, 1);
+                } else {
+                    return keep(runUntil('"', '{', '}'));
+                }
+                return keep(1);
+            case BRACES_STRING:
+                if (c == '\\') {
+                    return keep(Math.min(2, limit - position));
+                } else if (c == '"') {
+                    state = State.BRACES;
+                    return keep(1);
+                }
+                return keep(runUntil('\\', '"', '"'));
+            default:
+                throw new IllegalStateException("Unexpected state " + state);
+        }
+    }
+
+    /** Length of the run of buffered characters up to the next {@code a}, {@code b} or {@code c}, at least 1. */
+    private int runUntil(char a, char b, char c) {
+        int end = position + 1;
+        while (end < limit) {
+            char next = buffer[end];
+            if (next == a || next == b || next == c) {
+                break;
+            }
+            end++;
+        }
+        return end - position;
+    }
+
+    /** {@link Character#isWhitespace(char)}, skipping the lookup for printable ASCII. */
+    private static boolean isWhitespace(char c) {
+        return (c <= ' ' || c >= 0x80) && Character.isWhitespace(c);
+    }
+
+    private int enter(State next, char nextReplacement, int length) {
+        state = next;
+        replacement = nextReplacement;
+        return length;
+    }
+
+    private int keep(int length) {
+        replacement = 0;
+        return length;
+    }
+
+    private boolean startsWith(String delimiter) {
+        if (limit - position < delimiter.length()) {
+            return false;
+        }
+        for (int i = 0; i < delimiter.length(); i++) {
+            if (buffer[position + i] != delimiter.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+/**
+ * Receives the tokens of a file while {@link ElixirParser} computes its metrics.
+ * Offsets are absolute character offsets in the parsed content; tokens may span lines,
+ * in which case {@code line} is the line where the token starts.
+ */
+public abstract class ElixirTokenVisitor {
+
+    public void visitStart(CharSequence content) {
+    }
+
+    /** Called for each line, before its tokens; {@code [start, end)} excludes the line terminator. */
+    public void visitLine(CharSequence content, int start, int end, int line) {
+    }
+
+    public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+    }
+
+    public void visitEnd(CharSequence content) {
+    }
+}
@@ -23,9 +23,13 @@
  */
 package eu.arthepsy.sonar.plugins.elixir.rule;
 
+import eu.arthepsy.sonar.plugins.elixir.checks.CheckList;
+import eu.arthepsy.sonar.plugins.elixir.checks.UnusedPublicFunctionCheck;
 import eu.arthepsy.sonar.plugins.elixir.language.Elixir;
 import org.sonar.api.profiles.ProfileDefinition;
 import org.sonar.api.profiles.RulesProfile;
+import org.sonar.api.rules.Rule;
+import org.sonar.api.utils.AnnotationUtils;
 import org.sonar.api.utils.ValidationMessages;
 
 public class ElixirQualityProfile extends ProfileDefinition {
@@ -34,8 +38,14 @@ public class ElixirQualityProfile extends ProfileDefinition {
     @Override
     public RulesProfile createProfile(ValidationMessages validationMessages) {
         final RulesProfile profile = RulesProfile.create(DEFAULT_PROFILE, Elixir.KEY);
-        //parser.parse(profile);
-        //parser.log(LoggerFactory.getLogger(ScapegoatQualityProfile.class), ScapegoatConfiguration.LOG_PREFIX);
+        for (Class check : CheckList.getChecks()) {
+            // The public functions of a library have no callers in its own project.
+            if (check == UnusedPublicFunctionCheck.class) {
+                continue;
+            }
+            org.sonar.check.Rule rule = AnnotationUtils.getAnnotation(check, org.sonar.check.Rule.class);
+            profile.activateRule(Rule.create(CheckList.REPOSITORY_KEY, rule.key()), null);
+        }
         return profile;
     }
 }
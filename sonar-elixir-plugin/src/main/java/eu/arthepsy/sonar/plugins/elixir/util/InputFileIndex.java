@@ -0,0 +1,71 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.util;
+
+import org.sonar.api.batch.fs.FilePredicate;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Finds the input files named in external reports. Report file names may be
+ * absolute, or relative to the project base directory with {@code ./} or
+ * Windows separators.
+ */
+public class InputFileIndex {
+    private final Path baseDir;
+    private final Map<String, InputFile> files = new HashMap<>();
+
+    public InputFileIndex(FileSystem fileSystem, FilePredicate predicate) {
+        this.baseDir = fileSystem.baseDir().toPath().toAbsolutePath().normalize();
+        for (InputFile file : fileSystem.inputFiles(predicate)) {
+            files.put(file.relativePath(), file);
+        }
+    }
+
+    /** Returns {@code null} for files outside of the index. */
+    public InputFile get(String fileName) {
+        InputFile file = files.get(fileName);
+        return file != null ? file : files.get(getRelativePath(fileName));
+    }
+
+    String getRelativePath(String fileName) {
+        String path = fileName.replace('\\', '/');
+        if (new File(path).isAbsolute()) {
+            Path absolute = new File(path).toPath().normalize();
+            if (!absolute.startsWith(baseDir)) {
+                return path;
+            }
+            path = baseDir.relativize(absolute).toString().replace('\\', '/');
+        }
+        while (path.startsWith("./")) {
+            path = path.substring(2);
+        }
+        return path;
+    }
+}
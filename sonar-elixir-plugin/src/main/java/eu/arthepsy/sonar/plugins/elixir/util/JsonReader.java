@@ -0,0 +1,381 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Pull parser for JSON documents. Values are read one token at a time from a
+ * fixed-size buffer, so memory use does not depend on the document size.
+ * Malformed documents are reported as an {@link IOException}.
+ */
+public class JsonReader implements Closeable {
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+    private long offset;
+
+    private int[] stack = new int[32];
+    private int depth = 1;
+
+    private Token peeked;
+    /** String values are only read when requested, so skipped ones are never buffered. */
+    private boolean stringPending;
+    private final StringBuilder value = new StringBuilder();
+    private boolean booleanValue;
+
+    public JsonReader(Reader reader) {
+        this.reader = reader;
+        this.stack[0] = EMPTY_DOCUMENT;
+    }
+
+    public Token peek() throws IOException {
+        if (peeked == null) {
+            peeked = next();
+        }
+        return peeked;
+    }
+
+    /** Whether the current array or object has another element. */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return value.toString();
+    }
+
+    /** Returns a string value, or the text of a number value. */
+    public String nextString() throws IOException {
+        Token token = peek();
+        if (token != Token.STRING && token != Token.NUMBER) {
+            throw error("expected STRING but was " + token);
+        }
+        if (stringPending) {
+            readString(true);
+            stringPending = false;
+        }
+        peeked = null;
+        return value.toString();
+    }
+
+    public int nextInt() throws IOException {
+        expect(Token.NUMBER);
+        try {
+            return Integer.parseInt(value.toString());
+        } catch (NumberFormatException e) {
+            throw error("expected an integer but was " + value);
+        }
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        return booleanValue;
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+    }
+
+    /** Skips the next value, including all nested values of an array or object. */
+    public void skipValue() throws IOException {
+        int count = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    count++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    count++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    count--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    count--;
+                    break;
+                case END_DOCUMENT:
+                    throw error("unexpected end of document");
+                default:
+                    peeked = null;
+                    break;
+            }
+        } while (count > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw error("expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = scope;
+    }
+
+    private Token next() throws IOException {
+        if (stringPending) {
+            readString(false);
+            stringPending = false;
+        }
+        int scope = stack[depth - 1];
+        int c;
+        switch (scope) {
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                return nextValue(nextNonSpace());
+            case NONEMPTY_DOCUMENT:
+                c = nextNonSpace();
+                if (c != -1) {
+                    throw error("expected end of document");
+                }
+                return Token.END_DOCUMENT;
+            case EMPTY_ARRAY:
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                c = nextNonSpace();
+                return c == ']' ? Token.END_ARRAY : nextValue(c);
+            case NONEMPTY_ARRAY:
+                c = nextNonSpace();
+                if (c == ']') {
+                    return Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw error("expected ',' or ']'");
+                }
+                return nextValue(nextNonSpace());
+            case DANGLING_NAME:
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                if (nextNonSpace() != ':') {
+                    throw error("expected ':'");
+                }
+                return nextValue(nextNonSpace());
+            default:
+                c = nextNonSpace();
+                if (c == '}') {
+                    return Token.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw error("expected ',' or '}'");
+                    }
+                    c = nextNonSpace();
+                }
+                if (c != '"') {
+                    throw error("expected a name");
+                }
+                stack[depth - 1] = DANGLING_NAME;
+                readString(true);
+                return Token.NAME;
+        }
+    }
+
+    private Token nextValue(int c) throws IOException {
+        switch (c) {
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case '"':
+                stringPending = true;
+                return Token.STRING;
+            case 't':
+                readLiteral("rue");
+                booleanValue = true;
+                return Token.BOOLEAN;
+            case 'f':
+                readLiteral("alse");
+                booleanValue = false;
+                return Token.BOOLEAN;
+            case 'n':
+                readLiteral("ull");
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber(c);
+                    return Token.NUMBER;
+                }
+                throw error(c == -1 ? "unexpected end of document" : "unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private void readString(boolean keep) throws IOException {
+        value.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return;
+            } else if (c == '\\') {
+                char escaped = readEscape();
+                if (keep) {
+                    value.append(escaped);
+                }
+            } else if (c == -1) {
+                throw error("unterminated string");
+            } else if (keep) {
+                value.append((char) c);
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw error("invalid unicode escape");
+                    }
+                    code = code * 16 + digit;
+                }
+                return (char) code;
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            default:
+                throw error("invalid escape sequence");
+        }
+    }
+
+    private void readNumber(int first) throws IOException {
+        value.setLength(0);
+        value.append((char) first);
+        while (true) {
+            if (pos == limit && !fill()) {
+                return;
+            }
+            char c = buffer[pos];
+            if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                value.append(c);
+                pos++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void readLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (read() != rest.charAt(i)) {
+                throw error("invalid literal");
+            }
+        }
+    }
+
+    private int nextNonSpace() throws IOException {
+        while (true) {
+            int c = read();
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return c;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        offset += limit;
+        pos = 0;
+        limit = 0;
+        int count = reader.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            return false;
+        }
+        limit = count;
+        return true;
+    }
+
+    private IOException error(String message) {
+        return new IOException("Malformed JSON at offset " + (offset + pos) + ": " + message);
+    }
+}
@@ -26,6 +26,8 @@ package eu.arthepsy.sonar.plugins.elixir;
 import eu.arthepsy.sonar.plugins.elixir.util.ClassDefinition;
 
 import org.junit.Test;
+import org.sonar.api.config.PropertyDefinitions;
+import org.sonar.api.config.Settings;
 
 import static org.fest.assertions.Assertions.assertThat;
 
@@ -37,6 +39,16 @@ public class ElixirConfigurationTest {
 
     @Test
     public void testPropertyCount() {
-        assertThat(ElixirConfiguration.getPropertyDefinitions().size()).isEqualTo(0);
+        assertThat(ElixirConfiguration.getPropertyDefinitions().size()).isEqualTo(11);
+    }
+
+    @Test
+    public void testThreadCount() {
+        Settings settings = new Settings(new PropertyDefinitions(ElixirConfiguration.getPropertyDefinitions()));
+        assertThat(ElixirConfiguration.getThreadCount(settings)).isEqualTo(1);
+        settings.setProperty(ElixirConfiguration.THREADS_KEY, 3);
+        assertThat(ElixirConfiguration.getThreadCount(settings)).isEqualTo(3);
+        settings.setProperty(ElixirConfiguration.THREADS_KEY, 0);
+        assertThat(ElixirConfiguration.getThreadCount(settings)).isEqualTo(Runtime.getRuntime().availableProcessors());
     }
 }
@@ -0,0 +1,66 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir;
+
+import org.junit.Test;
+import org.sonar.api.measures.FormulaContext;
+import org.sonar.api.measures.FormulaData;
+import org.sonar.api.measures.Measure;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ElixirMetricsTest {
+
+    @Test
+    public void testMetrics() {
+        assertThat(new ElixirMetrics().getMetrics()).containsOnly(ElixirMetrics.FUNCTION_SIZE_DISTRIBUTION,
+                ElixirMetrics.LARGEST_FUNCTIONS, ElixirMetrics.MOST_COMPLEX_FUNCTIONS, ElixirMetrics.MODULE_CYCLES,
+                ElixirMetrics.SPECIFIED_PUBLIC_FUNCTIONS, ElixirMetrics.UNSPECIFIED_PUBLIC_FUNCTIONS,
+                ElixirMetrics.SPEC_DENSITY, ElixirMetrics.TYPES, ElixirMetrics.CALLBACKS);
+    }
+
+    @Test
+    public void testSpecDensityFormula() {
+        ElixirMetrics.SpecDensityFormula formula = new ElixirMetrics.SpecDensityFormula();
+        assertThat(formula.dependsUponMetrics()).containsOnly(ElixirMetrics.SPECIFIED_PUBLIC_FUNCTIONS,
+                ElixirMetrics.UNSPECIFIED_PUBLIC_FUNCTIONS);
+        FormulaContext context = mock(FormulaContext.class);
+        when(context.getTargetMetric()).thenReturn(ElixirMetrics.SPEC_DENSITY);
+
+        assertThat(formula.calculate(data(2.0, 1.0), context).getValue()).isEqualTo(66.7);
+        assertThat(formula.calculate(data(0.0, 0.0), context).getValue()).isEqualTo(100.0);
+        assertThat(formula.calculate(data(null, 1.0), context)).isNull();
+    }
+
+    private static FormulaData data(Double specified, Double unspecified) {
+        FormulaData data = mock(FormulaData.class);
+        when(data.getMeasure(ElixirMetrics.SPECIFIED_PUBLIC_FUNCTIONS))
+                .thenReturn(specified == null ? null : new Measure(ElixirMetrics.SPECIFIED_PUBLIC_FUNCTIONS, specified));
+        when(data.getMeasure(ElixirMetrics.UNSPECIFIED_PUBLIC_FUNCTIONS))
+                .thenReturn(new Measure(ElixirMetrics.UNSPECIFIED_PUBLIC_FUNCTIONS, unspecified));
+        return data;
+    }
+}
@@ -30,6 +30,6 @@ import static org.fest.assertions.Assertions.assertThat;
 public class ElixirPluginTest {
     @Test
     public void testExtensionCount() {
-        assertThat(new ElixirPlugin().getExtensions().size()).isEqualTo(3);
+        assertThat(new ElixirPlugin().getExtensions().size()).isEqualTo(22);
     }
 }
@@ -0,0 +1,63 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static eu.arthepsy.sonar.plugins.elixir.checks.ElixirCheckTester.issueLines;
+import static eu.arthepsy.sonar.plugins.elixir.checks.ElixirCheckTester.issues;
+import static org.fest.assertions.Assertions.assertThat;
+
+public class BannedTextCheckTest {
+
+    @Test
+    public void testDefaultTexts() {
+        assertThat(issueLines(new BannedTextCheck(),
+                "require IEx; IEx.pry", "x = :debugger", "MyIEx.pry()", ":debuggers")).containsExactly(1, 2);
+    }
+
+    @Test
+    public void testConfiguredTexts() {
+        BannedTextCheck check = new BannedTextCheck();
+        check.texts = "IO.inspect, TODO\n String.to_atom ,,TODO";
+        assertThat(issueLines(check,
+                "IO.inspect(x) |> IO.inspect()", "# TODO TODOS", "String.to_atom(s) # TODO", "IEx.pry"))
+                .containsExactly(1, 2, 3, 3);
+        assertThat(issues(check, "x |> IO.inspect").get(0).getMessage()).isEqualTo("Remove this use of \"IO.inspect\".");
+    }
+
+    @Test
+    public void testEmptyTexts() {
+        BannedTextCheck check = new BannedTextCheck();
+        check.texts = " , ";
+        assertThat(issueLines(check, "IEx.pry")).isEmpty();
+    }
+
+    @Test
+    public void testSplit() {
+        assertThat(new ArrayList<>(BannedTextCheck.split("a, b\nc,,a "))).containsExactly("a", "b", "c");
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import org.junit.Test;
+import org.sonar.api.utils.AnnotationUtils;
+import org.sonar.check.Rule;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class CheckListTest {
+
+    @Test
+    public void testChecks() throws Exception {
+        Set<String> keys = new HashSet<>();
+        for (Class check : CheckList.getChecks()) {
+            assertThat(ElixirCheck.class.isAssignableFrom(check)).isTrue();
+            Rule rule = AnnotationUtils.getAnnotation(check, Rule.class);
+            assertThat(rule).isNotNull();
+            assertThat(check.getField("KEY").get(null)).isEqualTo(rule.key());
+            assertThat(rule.description()).isNotEmpty();
+            keys.add(rule.key());
+        }
+        assertThat(keys.size()).isEqualTo(CheckList.getChecks().size());
+    }
+}
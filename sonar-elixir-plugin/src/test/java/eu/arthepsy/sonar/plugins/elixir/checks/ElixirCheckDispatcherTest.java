@@ -0,0 +1,99 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirParser;
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirTokenType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirCheckDispatcherTest {
+
+    private static class RecordingCheck extends ElixirCheck {
+        private final List<String> events = new ArrayList<>();
+        private final Set<ElixirTokenType> types;
+        private final boolean lines;
+
+        RecordingCheck(Set<ElixirTokenType> types, boolean lines) {
+            this.types = types;
+            this.lines = lines;
+        }
+
+        @Override
+        public Set<ElixirTokenType> subscribedTokens() {
+            return types;
+        }
+
+        @Override
+        public boolean subscribesToLines() {
+            return lines;
+        }
+
+        @Override
+        public void visitFile(CharSequence content) {
+            events.add("file");
+        }
+
+        @Override
+        public void visitLine(CharSequence content, int start, int end, int line) {
+            events.add("line " + line);
+        }
+
+        @Override
+        public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+            events.add(type + " " + content.subSequence(start, end));
+            addIssue(line, "token");
+        }
+
+        @Override
+        public void leaveFile(CharSequence content) {
+            events.add("end");
+        }
+    }
+
+    @Test
+    public void testSubscriptions() {
+        RecordingCheck comments = new RecordingCheck(EnumSet.of(ElixirTokenType.COMMENT), false);
+        RecordingCheck lines = new RecordingCheck(EnumSet.noneOf(ElixirTokenType.class), true);
+        ElixirCheckDispatcher dispatcher = new ElixirCheckDispatcher();
+        assertThat(dispatcher.isEmpty()).isTrue();
+        dispatcher.add(comments, "comments");
+        dispatcher.add(lines, "lines");
+        assertThat(dispatcher.isEmpty()).isFalse();
+
+        new ElixirParser().parse("x = 1\n# c\n", dispatcher);
+        assertThat(comments.events).containsExactly("file", "COMMENT # c", "end");
+        assertThat(lines.events).containsExactly("file", "line 1", "line 2", "end");
+        assertThat(dispatcher.getIssues()).containsExactly(new ElixirIssue("comments", 2, "token"));
+
+        new ElixirParser().parse("y = 2\n", dispatcher);
+        assertThat(dispatcher.getIssues()).isEmpty();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import eu.arthepsy.sonar.plugins.elixir.language.ElixirParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class ElixirCheckTester {
+
+    private ElixirCheckTester() {
+    }
+
+    /** Returns the lines of the issues raised by {@code check} on the given source lines. */
+    static List<Integer> issueLines(ElixirCheck check, String... lines) {
+        List<Integer> result = new ArrayList<>();
+        for (ElixirIssue issue : issues(check, lines)) {
+            result.add(issue.getLine());
+        }
+        return result;
+    }
+
+    static List<ElixirIssue> issues(ElixirCheck check, String... lines) {
+        StringBuilder content = new StringBuilder();
+        for (String line : lines) {
+            content.append(line).append('\n');
+        }
+        ElixirCheckDispatcher dispatcher = new ElixirCheckDispatcher();
+        dispatcher.add(check, "key");
+        new ElixirParser().parse(content, dispatcher);
+        return dispatcher.getIssues();
+    }
+}
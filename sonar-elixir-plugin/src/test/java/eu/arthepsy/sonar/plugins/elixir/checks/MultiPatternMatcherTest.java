@@ -0,0 +1,135 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.checks;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class MultiPatternMatcherTest {
+
+    private static List<String> find(MultiPatternMatcher matcher, String content) {
+        final List<String> result = new ArrayList<>();
+        matcher.find(content, 0, content.length(), new MultiPatternMatcher.Listener() {
+            @Override
+            public void match(int pattern, int start, int end) {
+                result.add(pattern + "@" + start + "-" + end);
+            }
+        });
+        return result;
+    }
+
+    @Test
+    public void testOverlappingPatterns() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(Arrays.asList(".-", "-.", ".-.", "-"));
+        assertThat(find(matcher, ".-.-")).containsExactly("0@0-2", "3@1-2", "2@0-3", "1@1-3", "0@2-4", "3@3-4");
+        assertThat(matcher.size()).isEqualTo(4);
+        assertThat(matcher.getPattern(2)).isEqualTo(".-.");
+    }
+
+    @Test
+    public void testWordBoundaries() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(Arrays.asList("TODO", ":debugger", "IO.inspect"));
+        assertThat(find(matcher, "# TODO TODOS XTODO TODO_ TODO")).containsExactly("0@2-6", "0@25-29");
+        assertThat(find(matcher, ":debugger :debuggers x:debugger")).containsExactly("1@0-9", "1@22-31");
+        assertThat(find(matcher, "IO.inspect(x) MyIO.inspect IO.inspects")).containsExactly("2@0-10");
+    }
+
+    @Test
+    public void testRange() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(Arrays.asList("ab"));
+        final List<Integer> starts = new ArrayList<>();
+        matcher.find("ab ab ab", 2, 6, new MultiPatternMatcher.Listener() {
+            @Override
+            public void match(int pattern, int start, int end) {
+                starts.add(start);
+            }
+        });
+        assertThat(starts).containsExactly(3);
+    }
+
+    @Test
+    public void testNonAscii() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(Arrays.asList("ūdens", "→"));
+        assertThat(find(matcher, "a → ūdens ūdensā")).containsExactly("1@2-3", "0@4-9");
+    }
+
+    @Test
+    public void testNoPatterns() {
+        assertThat(find(new MultiPatternMatcher(Collections.<String>emptyList()), "anything")).isEmpty();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyPattern() {
+        new MultiPatternMatcher(Arrays.asList("a", ""));
+    }
+
+    @Test
+    public void testManyPatterns() {
+        Random random = new Random(42L);
+        String alphabet = "ab.:_ ";
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            StringBuilder pattern = new StringBuilder();
+            int length = 1 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                pattern.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            patterns.add(pattern.toString());
+        }
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            content.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        String text = content.toString();
+
+        MultiPatternMatcher matcher = new MultiPatternMatcher(patterns);
+        List<String> expected = new ArrayList<>();
+        for (int end = 1; end <= text.length(); end++) {
+            for (int p = 0; p < patterns.size(); p++) {
+                String pattern = patterns.get(p);
+                int start = end - pattern.length();
+                if (start >= 0 && text.startsWith(pattern, start)
+                        && !(isWord(pattern.charAt(0)) && start > 0 && isWord(text.charAt(start - 1)))
+                        && !(isWord(pattern.charAt(pattern.length() - 1)) && end < text.length() && isWord(text.charAt(end)))) {
+                    expected.add(p + "@" + start + "-" + end);
+                }
+            }
+        }
+        List<String> actual = find(matcher, text);
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    private static boolean isWord(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+}
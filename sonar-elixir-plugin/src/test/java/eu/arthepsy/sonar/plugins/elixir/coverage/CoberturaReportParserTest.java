@@ -0,0 +1,75 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.coverage;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class CoberturaReportParserTest {
+
+    private static class Collector implements CoverageHandler {
+        private final List<String> fileNames = new ArrayList<>();
+        private final List<FileCoverage> coverages = new ArrayList<>();
+
+        @Override
+        public void handle(String fileName, FileCoverage coverage) {
+            fileNames.add(fileName);
+            coverages.add(coverage);
+        }
+    }
+
+    @Test
+    public void testReport() throws IOException {
+        Collector collector = new Collector();
+        CoberturaReportParser.parse(getClass().getResourceAsStream("/cobertura.xml"), collector);
+        String fileName = new File("lib", "test_doc.ex").getPath();
+        assertThat(collector.fileNames).containsExactly(fileName, fileName);
+        assertThat(collector.coverages.get(0).getLineHitsData()).isEqualTo("2=1;3=0");
+        assertThat(collector.coverages.get(1).getLineHitsData()).isEqualTo("3=0;6=" + (Integer.MAX_VALUE - 1));
+    }
+
+    @Test
+    public void testWithoutSources() throws IOException {
+        Collector collector = new Collector();
+        CoberturaReportParser.parse(new ByteArrayInputStream(("<coverage><packages><package><classes>"
+                + "<class filename=\"lib/a.ex\"><lines><line number=\"1\" hits=\"2\"/></lines></class>"
+                + "</classes></package></packages></coverage>").getBytes(StandardCharsets.UTF_8)), collector);
+        assertThat(collector.fileNames).containsExactly("lib/a.ex");
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformedReport() throws IOException {
+        CoberturaReportParser.parse(new ByteArrayInputStream(
+                "<coverage><class filename=\"a.ex\"><line number=\"x\" hits=\"1\"/>".getBytes(StandardCharsets.UTF_8)),
+                new Collector());
+    }
+}
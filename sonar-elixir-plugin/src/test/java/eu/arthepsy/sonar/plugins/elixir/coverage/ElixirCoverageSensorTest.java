@@ -0,0 +1,124 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.coverage;
+
+import eu.arthepsy.sonar.plugins.elixir.ElixirConfiguration;
+import eu.arthepsy.sonar.plugins.elixir.language.Elixir;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.config.PropertyDefinitions;
+import org.sonar.api.config.Settings;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Measure;
+import org.sonar.api.resources.Project;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ElixirCoverageSensorTest {
+
+    private final Project project = new Project("project");
+    private SensorContext context = mock(SensorContext.class);
+    private DefaultFileSystem fileSystem;
+    private Settings settings;
+    private ElixirCoverageSensor sensor;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private File baseDir;
+    private InputFile inputFile;
+
+    @Before
+    public void prepare() throws IOException {
+        baseDir = temp.newFolder();
+        fileSystem = new DefaultFileSystem();
+        fileSystem.setBaseDir(baseDir);
+        settings = new Settings(new PropertyDefinitions(ElixirConfiguration.getPropertyDefinitions()));
+        sensor = new ElixirCoverageSensor(fileSystem, settings);
+        inputFile = new DefaultInputFile("lib/test_doc.ex")
+                .setAbsolutePath(new File(baseDir, "lib/test_doc.ex").getAbsolutePath())
+                .setType(InputFile.Type.MAIN)
+                .setLanguage(Elixir.KEY);
+        fileSystem.add(inputFile);
+        copyResource("excoveralls.json");
+        copyResource("cobertura.xml");
+    }
+
+    private void copyResource(String name) throws IOException {
+        FileUtils.write(new File(baseDir, name), IOUtils.toString(getClass().getResourceAsStream("/" + name)));
+    }
+
+    @Test
+    public void testShouldExecute() {
+        assertThat(sensor.shouldExecuteOnProject(project)).isFalse();
+        settings.setProperty(ElixirConfiguration.COVERAGE_REPORT_PATHS_KEY, "excoveralls.json");
+        assertThat(sensor.shouldExecuteOnProject(project)).isTrue();
+    }
+
+    @Test
+    public void testExcoveralls() {
+        settings.setProperty(ElixirConfiguration.COVERAGE_REPORT_PATHS_KEY, "excoveralls.json");
+
+        sensor.analyse(project, context);
+
+        verify(context).saveMeasure(inputFile, CoreMetrics.LINES_TO_COVER, 2.0);
+        verify(context).saveMeasure(inputFile, CoreMetrics.UNCOVERED_LINES, 1.0);
+        ArgumentCaptor<Measure> measure = ArgumentCaptor.forClass(Measure.class);
+        verify(context).saveMeasure(eq(inputFile), measure.capture());
+        assertThat(measure.getValue().getMetric()).isEqualTo(CoreMetrics.COVERAGE_LINE_HITS_DATA);
+        assertThat(measure.getValue().getData()).isEqualTo("2=3;3=0");
+    }
+
+    @Test
+    public void testMergedReports() {
+        settings.setProperty(ElixirConfiguration.COVERAGE_REPORT_PATHS_KEY, "excoveralls.json, cobertura.xml, missing.xml");
+
+        sensor.analyse(project, context);
+
+        verify(context).saveMeasure(inputFile, CoreMetrics.LINES_TO_COVER, 3.0);
+        verify(context).saveMeasure(inputFile, CoreMetrics.UNCOVERED_LINES, 1.0);
+        ArgumentCaptor<Measure> measure = ArgumentCaptor.forClass(Measure.class);
+        verify(context).saveMeasure(eq(inputFile), measure.capture());
+        assertThat(measure.getValue().getData()).isEqualTo("2=4;3=0;6=" + (Integer.MAX_VALUE - 1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMalformedReport() throws IOException {
+        FileUtils.write(new File(baseDir, "broken.json"), "{\"source_files\": [");
+        settings.setProperty(ElixirConfiguration.COVERAGE_REPORT_PATHS_KEY, "broken.json");
+        sensor.analyse(project, context);
+    }
+}
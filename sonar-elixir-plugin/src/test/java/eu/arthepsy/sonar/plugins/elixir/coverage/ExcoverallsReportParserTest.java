@@ -0,0 +1,87 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.coverage;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ExcoverallsReportParserTest {
+
+    private static class Collector implements CoverageHandler {
+        private final Map<String, FileCoverage> files = new LinkedHashMap<>();
+
+        @Override
+        public void handle(String fileName, FileCoverage coverage) {
+            files.put(fileName, coverage);
+        }
+    }
+
+    @Test
+    public void testReport() throws IOException {
+        Collector collector = new Collector();
+        ExcoverallsReportParser.parse(new InputStreamReader(
+                getClass().getResourceAsStream("/excoveralls.json"), StandardCharsets.UTF_8), collector);
+        assertThat(new ArrayList<>(collector.files.keySet())).containsExactly("lib/test_doc.ex", "lib/missing.ex");
+        assertThat(collector.files.get("lib/test_doc.ex").getLineHitsData()).isEqualTo("2=3;3=0");
+        assertThat(collector.files.get("lib/missing.ex").getLineHitsData()).isEqualTo("1=1");
+    }
+
+    @Test
+    public void testLargeReport() throws IOException {
+        StringBuilder report = new StringBuilder("{\"source_files\": [");
+        for (int i = 0; i < 50000; i++) {
+            report.append(i == 0 ? "" : ",").append("{\"name\": \"lib/f").append(i)
+                    .append(".ex\", \"source\": \"x\", \"coverage\": [null, 1, 0, 2, null]}");
+        }
+        report.append("], \"service_name\": \"local\"}");
+        Collector collector = new Collector();
+        ExcoverallsReportParser.parse(new StringReader(report.toString()), collector);
+        assertThat(collector.files).hasSize(50000);
+        assertThat(collector.files.get("lib/f49999.ex").getLinesToCover()).isEqualTo(3);
+    }
+
+    @Test
+    public void testHitsOverIntRange() throws IOException {
+        Collector collector = new Collector();
+        ExcoverallsReportParser.parse(new StringReader(
+                "{\"source_files\": [{\"name\": \"a.ex\", \"coverage\": [4294967296, 1]}]}"), collector);
+        assertThat(collector.files.get("a.ex").getLineHitsData()).isEqualTo("1=" + (Integer.MAX_VALUE - 1) + ";2=1");
+    }
+
+    @Test
+    public void testMissingCoverage() throws IOException {
+        Collector collector = new Collector();
+        ExcoverallsReportParser.parse(new StringReader("{\"source_files\": [{\"name\": \"a.ex\"}]}"), collector);
+        assertThat(collector.files).isEmpty();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.coverage;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class FileCoverageTest {
+
+    @Test
+    public void testHits() {
+        FileCoverage coverage = new FileCoverage(2);
+        coverage.addHits(1, 2);
+        coverage.addHits(3, 0);
+        coverage.addHits(200, 5);
+        coverage.addHits(0, 1);
+        assertThat(coverage.getHits(1)).isEqualTo(2);
+        assertThat(coverage.getHits(2)).isEqualTo(-1);
+        assertThat(coverage.getHits(3)).isEqualTo(0);
+        assertThat(coverage.getHits(201)).isEqualTo(-1);
+        assertThat(coverage.getLinesToCover()).isEqualTo(3);
+        assertThat(coverage.getUncoveredLines()).isEqualTo(1);
+        assertThat(coverage.getLineHitsData()).isEqualTo("1=2;3=0;200=5");
+    }
+
+    @Test
+    public void testMerge() {
+        FileCoverage coverage = new FileCoverage();
+        coverage.addHits(1, 1);
+        coverage.addHits(2, 0);
+        FileCoverage other = new FileCoverage();
+        other.addHits(2, 4);
+        other.addHits(3, 0);
+        other.addHits(3, Integer.MAX_VALUE);
+        coverage.merge(other);
+        assertThat(coverage.getLineHitsData()).isEqualTo("1=1;2=4;3=" + (Integer.MAX_VALUE - 1));
+        assertThat(coverage.getUncoveredLines()).isEqualTo(0);
+    }
+
+    @Test
+    public void testEmpty() {
+        FileCoverage coverage = new FileCoverage();
+        assertThat(coverage.getLinesToCover()).isEqualTo(0);
+        assertThat(coverage.getLineHitsData()).isEmpty();
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.cpd;
+
+import net.sourceforge.pmd.cpd.SourceCode;
+import net.sourceforge.pmd.cpd.TokenEntry;
+import net.sourceforge.pmd.cpd.Tokens;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirCpdTokenizerTest {
+
+    private static List<String> tokenize(String code) throws IOException {
+        return tokenize(code, "a.ex");
+    }
+
+    private static List<String> tokenize(String code, String fileName) throws IOException {
+        Tokens tokens = new Tokens();
+        new ElixirCpdTokenizer().tokenize(new SourceCode(new SourceCode.StringCodeLoader(code, fileName)), tokens);
+        List<String> images = new ArrayList<>();
+        for (TokenEntry entry : tokens.getTokens()) {
+            if (entry != TokenEntry.getEOF()) {
+                images.add(entry.getValue() + "@" + entry.getBeginLine());
+            }
+        }
+        return images;
+    }
+
+    @Test
+    public void testNormalization() throws IOException {
+        assertThat(tokenize("@doc \"x\"\ndef foo(x), do: Map.get(x, :key, \"v\") # c\n")).containsExactly(
+                "@doc@1",
+                "def@2", "$id@2", "(@2", "$id@2", ")@2", ",@2", "do:@2", "Map@2", ".@2", "$id@2",
+                "(@2", "$id@2", ",@2", ":key@2", ",@2", "$lit@2", ")@2");
+    }
+
+    @Test
+    public void testRenamedCopiesMatch() throws IOException {
+        assertThat(tokenize("def a(x), do: x + 1\n")).isEqualTo(tokenize("def b(y), do: y + 2\n"));
+        assertThat(tokenize("def a(x), do: x + 1\n")).isNotEqualTo(tokenize("def a(x), do: x - 1\n"));
+    }
+
+    @Test
+    public void testTemplatesAreSkipped() throws IOException {
+        assertThat(tokenize("<%= for x <- @xs do %>\n  <%= x %>\n<% end %>\n", "a.html.eex")).isEmpty();
+    }
+}
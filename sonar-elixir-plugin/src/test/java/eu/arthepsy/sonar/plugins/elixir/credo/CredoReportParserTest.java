@@ -0,0 +1,71 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.credo;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class CredoReportParserTest {
+
+    private static List<CredoIssue> parse(java.io.Reader reader) throws IOException {
+        final List<CredoIssue> issues = new ArrayList<>();
+        CredoReportParser.parse(reader, new CredoReportParser.IssueHandler() {
+            @Override
+            public void handle(CredoIssue issue) {
+                issues.add(issue);
+            }
+        });
+        return issues;
+    }
+
+    @Test
+    public void testReport() throws IOException {
+        List<CredoIssue> issues = parse(new InputStreamReader(
+                getClass().getResourceAsStream("/credo_report.json"), StandardCharsets.UTF_8));
+        assertThat(issues).hasSize(4);
+        assertThat(issues.get(0).getCheck()).isEqualTo("Credo.Check.Readability.ModuleDoc");
+        assertThat(issues.get(0).getFileName()).isEqualTo("lib/test_doc.ex");
+        assertThat(issues.get(0).getLine()).isEqualTo(1);
+        assertThat(issues.get(0).getMessage()).isEqualTo("Modules should have a @moduledoc tag.");
+        assertThat(issues.get(1).getMessage()).isEqualTo("There should be no calls to \"IO.inspect/1\".");
+        assertThat(issues.get(3).getLine()).isEqualTo(0);
+    }
+
+    @Test
+    public void testOtherKeys() throws IOException {
+        List<CredoIssue> issues = parse(new StringReader(
+                "{\"config\": {\"checks\": [1, 2]}, \"issues\": [{\"check\": \"A\", \"extra\": [{}]}], \"n\": 1}"));
+        assertThat(issues).hasSize(1);
+        assertThat(issues.get(0).getCheck()).isEqualTo("A");
+        assertThat(issues.get(0).getFileName()).isNull();
+    }
+}
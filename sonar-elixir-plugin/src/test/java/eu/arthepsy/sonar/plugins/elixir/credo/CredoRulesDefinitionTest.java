@@ -0,0 +1,61 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.credo;
+
+import org.junit.Test;
+import org.sonar.api.rule.Severity;
+import org.sonar.api.server.rule.RulesDefinition;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class CredoRulesDefinitionTest {
+
+    @Test
+    public void testRepository() {
+        RulesDefinition.Context context = new RulesDefinition.Context();
+        new CredoRulesDefinition().define(context);
+        RulesDefinition.Repository repository = context.repository(CredoRuleList.REPOSITORY_KEY);
+        assertThat(repository.name()).isEqualTo(CredoRuleList.REPOSITORY_NAME);
+        assertThat(repository.language()).isEqualTo("elixir");
+        assertThat(repository.rules().size()).isEqualTo(CredoRuleList.getChecks().size());
+        RulesDefinition.Rule rule = repository.rule("Credo.Check.Warning.IoInspect");
+        assertThat(rule.name()).isEqualTo("Io inspect");
+        assertThat(rule.severity()).isEqualTo(Severity.CRITICAL);
+        assertThat(rule.tags()).containsOnly("credo", "warning");
+    }
+
+    @Test
+    public void testName() {
+        assertThat(CredoRulesDefinition.getName("Credo.Check.Readability.ParenthesesOnZeroArityDefs"))
+                .isEqualTo("Parentheses on zero arity defs");
+        assertThat(CredoRulesDefinition.getName("Credo.Check.Design.TagTODO")).isEqualTo("Tag TODO");
+        assertThat(CredoRulesDefinition.getName("Credo.Check.Warning.IExPry")).isEqualTo("IEx pry");
+    }
+
+    @Test
+    public void testCategory() {
+        assertThat(CredoRuleList.getCategory("Credo.Check.Refactor.Nesting")).isEqualTo("refactor");
+        assertThat(CredoRuleList.getCategory("MyCheck")).isEqualTo("custom");
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.credo;
+
+import eu.arthepsy.sonar.plugins.elixir.ElixirConfiguration;
+import eu.arthepsy.sonar.plugins.elixir.language.Elixir;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.component.ResourcePerspectives;
+import org.sonar.api.config.PropertyDefinitions;
+import org.sonar.api.config.Settings;
+import org.sonar.api.issue.Issuable;
+import org.sonar.api.issue.Issue;
+import org.sonar.api.resources.Project;
+import org.sonar.api.resources.Resource;
+import org.sonar.api.rule.RuleKey;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.Mockito.*;
+
+public class CredoSensorTest {
+
+    private final Project project = new Project("project");
+    private SensorContext context = mock(SensorContext.class);
+    private ResourcePerspectives perspectives = mock(ResourcePerspectives.class);
+    private DefaultFileSystem fileSystem;
+    private Settings settings;
+    private CredoSensor sensor;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private File baseDir;
+
+    @Before
+    public void prepare() throws IOException {
+        baseDir = temp.newFolder();
+        fileSystem = new DefaultFileSystem();
+        fileSystem.setBaseDir(baseDir);
+        settings = new Settings(new PropertyDefinitions(ElixirConfiguration.getPropertyDefinitions()));
+        sensor = new CredoSensor(fileSystem, settings, perspectives);
+        File source = new File(baseDir, "lib/test_doc.ex");
+        FileUtils.write(source, IOUtils.toString(getClass().getResourceAsStream("/test_doc.ex")));
+        fileSystem.add(new DefaultInputFile("lib/test_doc.ex")
+                .setAbsolutePath(source.getAbsolutePath())
+                .setLanguage(Elixir.KEY));
+    }
+
+    @Test
+    public void testShouldExecute() {
+        assertThat(sensor.shouldExecuteOnProject(project)).isFalse();
+        settings.setProperty(ElixirConfiguration.CREDO_REPORT_PATH_KEY, "credo.json");
+        assertThat(sensor.shouldExecuteOnProject(project)).isTrue();
+    }
+
+    @Test
+    public void testMissingReport() {
+        settings.setProperty(ElixirConfiguration.CREDO_REPORT_PATH_KEY, "credo.json");
+        sensor.analyse(project, context);
+        verifyZeroInteractions(context, perspectives);
+    }
+
+    @Test
+    public void testIssues() throws IOException {
+        FileUtils.write(new File(baseDir, "credo.json"),
+                IOUtils.toString(getClass().getResourceAsStream("/credo_report.json")));
+        settings.setProperty(ElixirConfiguration.CREDO_REPORT_PATH_KEY, "credo.json");
+        Issuable issuable = mock(Issuable.class);
+        Issuable.IssueBuilder builder = mock(Issuable.IssueBuilder.class);
+        when(context.getResource(any(Resource.class))).thenAnswer(returnsFirstArg());
+        when(perspectives.as(eq(Issuable.class), any(Resource.class))).thenReturn(issuable);
+        when(issuable.newIssueBuilder()).thenReturn(builder);
+        when(issuable.addIssue(any(Issue.class))).thenReturn(true, true, false);
+        when(builder.ruleKey(any(RuleKey.class))).thenReturn(builder);
+        when(builder.line(anyInt())).thenReturn(builder);
+        when(builder.message(anyString())).thenReturn(builder);
+        when(builder.build()).thenReturn(mock(Issue.class));
+
+        sensor.analyse(project, context);
+
+        verify(perspectives, times(1)).as(eq(Issuable.class), any(Resource.class));
+        verify(builder).ruleKey(RuleKey.of(CredoRuleList.REPOSITORY_KEY, "Credo.Check.Readability.ModuleDoc"));
+        verify(builder).ruleKey(RuleKey.of(CredoRuleList.REPOSITORY_KEY, "Credo.Check.Warning.IoInspect"));
+        verify(builder).ruleKey(RuleKey.of(CredoRuleList.REPOSITORY_KEY, "MyApp.Check.Custom"));
+        verify(builder).line(1);
+        verify(builder).line(5);
+        verify(builder, times(2)).line(anyInt());
+        verify(builder).message("There should be no calls to \"IO.inspect/1\".");
+        verify(issuable, times(3)).addIssue(any(Issue.class));
+    }
+
+    @Test
+    public void testIssueWithoutCheck() throws IOException {
+        FileUtils.write(new File(baseDir, "credo.json"),
+                "{\"issues\": [{\"filename\": \"lib/test_doc.ex\", \"line_no\": 1, \"message\": \"m\"}]}");
+        settings.setProperty(ElixirConfiguration.CREDO_REPORT_PATH_KEY, "credo.json");
+
+        sensor.analyse(project, context);
+
+        verifyZeroInteractions(context, perspectives);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMalformedReport() throws IOException {
+        File report = temp.newFile();
+        FileUtils.write(report, "{\"issues\": [{\"check\": ");
+        settings.setProperty(ElixirConfiguration.CREDO_REPORT_PATH_KEY, report.getAbsolutePath());
+        sensor.analyse(project, context);
+    }
+}
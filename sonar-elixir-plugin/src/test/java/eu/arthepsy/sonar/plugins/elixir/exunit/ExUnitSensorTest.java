@@ -0,0 +1,148 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.exunit;
+
+import eu.arthepsy.sonar.plugins.elixir.ElixirConfiguration;
+import eu.arthepsy.sonar.plugins.elixir.language.Elixir;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.config.PropertyDefinitions;
+import org.sonar.api.config.Settings;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Metric;
+import org.sonar.api.resources.Project;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ExUnitSensorTest {
+
+    private final Project project = new Project("project");
+    private SensorContext context = mock(SensorContext.class);
+    private DefaultFileSystem fileSystem;
+    private Settings settings;
+    private ExUnitSensor sensor;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private File baseDir;
+    private InputFile fooTest;
+    private InputFile barTest;
+
+    @Before
+    public void prepare() throws IOException {
+        baseDir = temp.newFolder();
+        fileSystem = new DefaultFileSystem();
+        fileSystem.setBaseDir(baseDir);
+        fileSystem.setEncoding(StandardCharsets.UTF_8);
+        settings = new Settings(new PropertyDefinitions(ElixirConfiguration.getPropertyDefinitions()));
+        sensor = new ExUnitSensor(fileSystem, settings);
+        fooTest = addTestFile("test/my_app/foo_test.exs", "defmodule MyApp.FooTest do\nend\n");
+        barTest = addTestFile("test/my_app/bar_test.exs", "defmodule MyApp.BarTest do\nend\n");
+        copyReport("report_a.xml");
+        copyReport("report_b.xml");
+    }
+
+    private InputFile addTestFile(String path, String content) throws IOException {
+        File file = new File(baseDir, path);
+        FileUtils.write(file, content);
+        DefaultInputFile inputFile = new DefaultInputFile(path)
+                .setAbsolutePath(file.getAbsolutePath())
+                .setType(InputFile.Type.TEST)
+                .setLanguage(Elixir.KEY);
+        fileSystem.add(inputFile);
+        return inputFile;
+    }
+
+    private void copyReport(String name) throws IOException {
+        FileUtils.write(new File(baseDir, "_build/test/" + name),
+                IOUtils.toString(getClass().getResourceAsStream("/exunit/" + name)));
+    }
+
+    private void verifyMeasure(InputFile file, Metric metric, double value) {
+        verify(context).saveMeasure(file, metric, value);
+    }
+
+    @Test
+    public void testShouldExecute() {
+        assertThat(sensor.shouldExecuteOnProject(project)).isFalse();
+        settings.setProperty(ElixirConfiguration.TESTS_REPORT_PATH_KEY, "_build/test");
+        assertThat(sensor.shouldExecuteOnProject(project)).isTrue();
+    }
+
+    @Test
+    public void testReportDirectory() {
+        settings.setProperty(ElixirConfiguration.TESTS_REPORT_PATH_KEY, "_build/test");
+        settings.setProperty(ElixirConfiguration.THREADS_KEY, 2);
+
+        sensor.analyse(project, context);
+
+        verifyMeasure(fooTest, CoreMetrics.TESTS, 4.0);
+        verifyMeasure(fooTest, CoreMetrics.SKIPPED_TESTS, 1.0);
+        verifyMeasure(fooTest, CoreMetrics.TEST_FAILURES, 1.0);
+        verifyMeasure(fooTest, CoreMetrics.TEST_ERRORS, 1.0);
+        verifyMeasure(fooTest, CoreMetrics.TEST_EXECUTION_TIME, 500.0);
+        verifyMeasure(fooTest, CoreMetrics.TEST_SUCCESS_DENSITY, 50.0);
+        verifyMeasure(barTest, CoreMetrics.TESTS, 2.0);
+        verifyMeasure(barTest, CoreMetrics.TEST_EXECUTION_TIME, 2.0);
+        verifyMeasure(barTest, CoreMetrics.TEST_SUCCESS_DENSITY, 100.0);
+        verify(context, times(2)).saveMeasure(any(InputFile.class), eq(CoreMetrics.TESTS), anyDouble());
+    }
+
+    @Test
+    public void testReportFile() {
+        settings.setProperty(ElixirConfiguration.TESTS_REPORT_PATH_KEY, "_build/test/report_b.xml");
+
+        sensor.analyse(project, context);
+
+        verifyMeasure(fooTest, CoreMetrics.TESTS, 1.0);
+        verifyMeasure(barTest, CoreMetrics.TESTS, 2.0);
+    }
+
+    @Test
+    public void testMissingReport() {
+        settings.setProperty(ElixirConfiguration.TESTS_REPORT_PATH_KEY, "missing");
+        sensor.analyse(project, context);
+        verifyZeroInteractions(context);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMalformedReport() throws IOException {
+        FileUtils.write(new File(baseDir, "_build/test/broken.xml"), "<testsuite>");
+        settings.setProperty(ElixirConfiguration.TESTS_REPORT_PATH_KEY, "_build/test");
+        sensor.analyse(project, context);
+    }
+}
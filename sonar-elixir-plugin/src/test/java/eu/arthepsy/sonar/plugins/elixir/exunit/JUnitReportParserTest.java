@@ -0,0 +1,75 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.exunit;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class JUnitReportParserTest {
+
+    @Test
+    public void testReport() throws IOException {
+        Map<String, UnitTestResults> modules = JUnitReportParser.parse(
+                getClass().getResourceAsStream("/exunit/report_a.xml"));
+        assertThat(new ArrayList<>(modules.keySet())).containsExactly("MyApp.FooTest");
+        UnitTestResults results = modules.get("MyApp.FooTest");
+        assertThat(results.getTests()).isEqualTo(4);
+        assertThat(results.getFailures()).isEqualTo(1);
+        assertThat(results.getErrors()).isEqualTo(1);
+        assertThat(results.getSkipped()).isEqualTo(1);
+        assertThat(results.getDurationMillis()).isEqualTo(450L);
+        assertThat(results.getFileName()).isNull();
+    }
+
+    @Test
+    public void testFileNames() throws IOException {
+        Map<String, UnitTestResults> modules = JUnitReportParser.parse(
+                getClass().getResourceAsStream("/exunit/report_b.xml"));
+        assertThat(new ArrayList<>(modules.keySet()))
+                .containsExactly("MyApp.BarTest", "MyApp.UnknownTest", "MyApp.FooTest");
+        assertThat(modules.get("MyApp.BarTest").getFileName()).isEqualTo("test/my_app/bar_test.exs");
+        assertThat(modules.get("MyApp.BarTest").getTests()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSuiteName() throws IOException {
+        Map<String, UnitTestResults> modules = JUnitReportParser.parse(new ByteArrayInputStream(
+                "<testsuite name=\"A\"><testcase name=\"t\"/></testsuite>".getBytes(StandardCharsets.UTF_8)));
+        assertThat(modules.get("A").getTests()).isEqualTo(1);
+        assertThat(modules.get("A").getDurationMillis()).isEqualTo(0L);
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformedReport() throws IOException {
+        JUnitReportParser.parse(new ByteArrayInputStream(
+                "<testsuite><testcase time=\"x\"/></testsuite>".getBytes(StandardCharsets.UTF_8)));
+    }
+}
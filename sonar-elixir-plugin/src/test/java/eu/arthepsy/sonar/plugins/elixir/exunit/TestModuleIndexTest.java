@@ -0,0 +1,70 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.exunit;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class TestModuleIndexTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private InputFile file(String content) throws IOException {
+        File file = temp.newFile();
+        FileUtils.write(file, content);
+        return new DefaultInputFile(file.getName()).setAbsolutePath(file.getAbsolutePath());
+    }
+
+    @Test
+    public void testIndex() throws IOException {
+        InputFile a = file("defmodule MyApp.ATest do\n  use ExUnit.Case\n  defmodule Helper do\n  end\nend\n");
+        InputFile b = file("\n  defmodule   MyApp.BTest, do: nil\ndefmodule MyApp.ATest do\nend\n");
+        TestModuleIndex index = new TestModuleIndex(Arrays.asList(a, b), StandardCharsets.UTF_8);
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.get("MyApp.ATest")).isSameAs(a);
+        assertThat(index.get("Helper")).isSameAs(a);
+        assertThat(index.get("MyApp.BTest")).isSameAs(b);
+        assertThat(index.get("MyApp.CTest")).isNull();
+    }
+
+    @Test
+    public void testDeclaredModule() {
+        assertThat(TestModuleIndex.declaredModule("defmodule A.B do", 0, 16)).isEqualTo("A.B");
+        assertThat(TestModuleIndex.declaredModule("defmodule", 0, 9)).isNull();
+        assertThat(TestModuleIndex.declaredModule("defmodules A do", 0, 15)).isNull();
+        assertThat(TestModuleIndex.declaredModule("defmodule unquote(name) do", 0, 26)).isNull();
+        assertThat(TestModuleIndex.declaredModule("# defmodule A do", 0, 16)).isNull();
+    }
+}
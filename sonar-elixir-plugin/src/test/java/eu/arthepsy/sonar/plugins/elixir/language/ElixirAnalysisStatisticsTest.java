@@ -0,0 +1,98 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class ElixirAnalysisStatisticsTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static ElixirAnalysisStatistics create(int files) {
+        ElixirAnalysisStatistics statistics = new ElixirAnalysisStatistics();
+        for (int i = 1; i <= files; i++) {
+            statistics.record("lib/file_" + i + ".ex", 100 * i, 10 * i, 1000, 1000000L * i, 2000);
+        }
+        statistics.finish();
+        return statistics;
+    }
+
+    @Test
+    public void testTotals() {
+        ElixirAnalysisStatistics statistics = create(100);
+        assertThat(statistics.getFileCount()).isEqualTo(100);
+        assertThat(statistics.getTotalBytes()).isEqualTo(505000L);
+        assertThat(statistics.getTotalLines()).isEqualTo(50500L);
+        assertThat(statistics.getLinesPerSecond()).isGreaterThan(0.0);
+    }
+
+    @Test
+    public void testParsePercentiles() {
+        ElixirAnalysisStatistics statistics = create(100);
+        assertThat(statistics.getParsePercentile(50)).isEqualTo(50000000L);
+        assertThat(statistics.getParsePercentile(95)).isEqualTo(95000000L);
+        assertThat(statistics.getParsePercentile(100)).isEqualTo(100000000L);
+        assertThat(new ElixirAnalysisStatistics().getParsePercentile(50)).isEqualTo(0L);
+    }
+
+    @Test
+    public void testSlowestFiles() {
+        assertThat(create(100).getSlowestFiles()).hasSize(ElixirAnalysisStatistics.SLOWEST_FILES);
+        assertThat(create(100).getSlowestFiles().get(0)).isEqualTo("lib/file_100.ex");
+        assertThat(create(3).getSlowestFiles()).containsExactly("lib/file_3.ex", "lib/file_2.ex", "lib/file_1.ex");
+    }
+
+    @Test
+    public void testLog() {
+        Logger log = mock(Logger.class);
+        create(3).log(log);
+        verify(log, atLeast(5)).info(anyString());
+    }
+
+    @Test
+    public void testJson() throws IOException {
+        ElixirAnalysisStatistics statistics = new ElixirAnalysisStatistics();
+        statistics.record("lib/a \"b\"\\c.ex", 10, 2, 0, 0, 0);
+        statistics.finish();
+        File file = temp.newFile();
+        statistics.writeJson(file);
+        String json = FileUtils.readFileToString(file);
+        assertThat(json).startsWith("{").endsWith("}\n");
+        assertThat(json).contains("\"files\": 1,");
+        assertThat(json).contains("\"path\": \"lib/a \\\"b\\\"\\\\c.ex\"");
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirAsciiContentTest {
+
+    private static ByteBuffer bytes(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testIsAscii() {
+        assertThat(ElixirAsciiContent.isAscii(bytes(""))).isTrue();
+        assertThat(ElixirAsciiContent.isAscii(bytes("defmodule A do\n  def a, do: 1\nend\n"))).isTrue();
+        assertThat(ElixirAsciiContent.isAscii(bytes("defmodule A do\n  # Ä\nend\n"))).isFalse();
+        assertThat(ElixirAsciiContent.isAscii(bytes("0123456789abcdeÄ"))).isFalse();
+        ByteBuffer partial = bytes("Ä0123456789");
+        partial.position(2);
+        assertThat(ElixirAsciiContent.isAscii(partial)).isTrue();
+    }
+
+    @Test
+    public void testCharSequence() {
+        ByteBuffer buffer = bytes("xdef a\n");
+        buffer.position(1);
+        CharSequence content = new ElixirAsciiContent(buffer);
+        assertThat(content.length()).isEqualTo(6);
+        assertThat(content.charAt(0)).isEqualTo('d');
+        assertThat(content.toString()).isEqualTo("def a\n");
+        CharSequence sub = content.subSequence(4, 6);
+        assertThat(sub.length()).isEqualTo(2);
+        assertThat(sub.charAt(0)).isEqualTo('a');
+        assertThat(sub.toString()).isEqualTo("a\n");
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(6);
+        direct.put("def a\n".getBytes(StandardCharsets.US_ASCII)).flip();
+        assertThat(new ElixirAsciiContent(direct).subSequence(0, 3).toString()).isEqualTo("def");
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testCharAtOutOfBounds() {
+        new ElixirAsciiContent(bytes("abc")).subSequence(1, 2).charAt(1);
+    }
+
+    @Test
+    public void testSameMetricsAsDecoded() throws Exception {
+        String content = "defmodule A do\r\n  @moduledoc \"\"\"\n  A\n  \"\"\"\n  @doc \"a\"\n  def a, do: 1 # x\nend";
+        ElixirParser parser = new ElixirParser();
+        ElixirHighlighter decoded = new ElixirHighlighter();
+        ElixirHighlighter ascii = new ElixirHighlighter();
+        ElixirFileMetrics expected = parser.parse(ElixirSourceReader.decode(bytes(content), StandardCharsets.UTF_8),
+                decoded);
+        assertThat(parser.parse(new ElixirAsciiContent(bytes(content)), ascii)).isEqualTo(expected);
+        assertThat(ascii.toArray()).isEqualTo(decoded.toArray());
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirComplexityTest {
+
+    private static ElixirComplexity complexity(String... lines) {
+        StringBuilder content = new StringBuilder();
+        for (String line : lines) {
+            content.append(line).append('\n');
+        }
+        ElixirComplexity complexity = new ElixirComplexity();
+        new ElixirParser().parse(content, complexity);
+        return complexity;
+    }
+
+    @Test
+    public void testBranches() {
+        ElixirComplexity complexity = complexity(
+                "defmodule A do",
+                "  def a(x) do",
+                "    if x && ready?(), do: 1, else: 2",
+                "  end",
+                "  defp b(x) when is_integer(x) and x > 0 do",
+                "    case x do",
+                "      1 -> :one",
+                "      2 -> :two",
+                "      _ -> Enum.map([x], fn y -> y end)",
+                "    end",
+                "  end",
+                "  def c(x) do",
+                "    with {:ok, a} <- x, {:ok, b} <- a do",
+                "      for y <- b, do: y",
+                "    end",
+                "  end",
+                "end");
+        assertThat(complexity.getFunctionCount()).isEqualTo(3);
+        assertThat(complexity.getFunctionComplexity(0)).isEqualTo(3);
+        assertThat(complexity.getFunctionComplexity(1)).isEqualTo(5);
+        assertThat(complexity.getFunctionComplexity(2)).isEqualTo(3);
+        assertThat(complexity.getFileComplexity()).isEqualTo(11);
+    }
+
+    @Test
+    public void testMultiClauseFunctions() {
+        ElixirComplexity complexity = complexity(
+                "defmodule A do",
+                "  def fact(0), do: 1",
+                "  def fact(n) when n > 0, do: n * fact(n - 1)",
+                "  def other, do: fact(3)",
+                "  def fact(x), do: x",
+                "end",
+                "if Mix.env() == :test, do: IO.puts(\"test\")");
+        assertThat(complexity.getFunctionCount()).isEqualTo(3);
+        assertThat(complexity.getFunctionComplexity(0)).isEqualTo(3);
+        assertThat(complexity.getFunctionComplexity(1)).isEqualTo(1);
+        assertThat(complexity.getFunctionComplexity(2)).isEqualTo(1);
+        assertThat(complexity.getFileComplexity()).isEqualTo(6);
+    }
+
+    @Test
+    public void testModuleLevelBranches() {
+        ElixirComplexity complexity = complexity(
+                "defmodule A do",
+                "  def a(x), do: x",
+                "  @x if Mix.env() == :prod, do: 1, else: 2",
+                "  if @x > 1, do: import(B)",
+                "  def b(x) do",
+                "    x",
+                "  end",
+                "  unless @x > 1, do: use(C)",
+                "  def c(x) when x > 0, do: x",
+                "end");
+        assertThat(complexity.getFunctionCount()).isEqualTo(3);
+        assertThat(complexity.getFunctionComplexity(0)).isEqualTo(1);
+        assertThat(complexity.getFunctionComplexity(1)).isEqualTo(1);
+        assertThat(complexity.getFunctionComplexity(2)).isEqualTo(2);
+        assertThat(complexity.getFileComplexity()).isEqualTo(7);
+    }
+
+    @Test
+    public void testCachedComplexity() {
+        ElixirComplexity complexity = complexity("def a(x), do: x || 1", "def b, do: 2");
+        ElixirComplexity cached = new ElixirComplexity(complexity.toArray());
+        assertThat(cached.getFileComplexity()).isEqualTo(3);
+        assertThat(cached.getFunctionCount()).isEqualTo(2);
+        assertThat(cached.getFunctionComplexity(0)).isEqualTo(2);
+        assertThat(cached.getFunctionComplexity(1)).isEqualTo(1);
+    }
+
+    @Test
+    public void testFunctionTable() {
+        ElixirFunctionTable functions = complexity(
+                "defmodule A do",
+                "  @doc \"Factorial\"",
+                "  def fact(0), do: 1",
+                "  def fact(n) when n > 0,",
+                "    do: n * fact(n - 1)",
+                "",
+                "  @doc false",
+                "  def run(a, {b, c}, [d | _] \\\\ []) do",
+                "    Enum.each(a, fn x ->",
+                "      x",
+                "    end)",
+                "  end",
+                "  # comment",
+                "  defp helper, do: %{a: 1,",
+                "    b: 2}",
+                "  @spec last() :: :ok",
+                "  def last() do :ok end",
+                "end").getFunctions();
+        assertThat(functions.size()).isEqualTo(4);
+
+        assertThat(functions.getName(0)).isEqualTo("fact");
+        assertThat(functions.getArity(0)).isEqualTo(1);
+        assertThat(functions.getClauseCount(0)).isEqualTo(2);
+        assertThat(functions.getStartLine(0)).isEqualTo(3);
+        assertThat(functions.getEndLine(0)).isEqualTo(5);
+        assertThat(functions.getLineCount(0)).isEqualTo(3);
+        assertThat(functions.isDocumented(0)).isTrue();
+        assertThat(functions.getComplexity(0)).isEqualTo(3);
+
+        assertThat(functions.getName(1)).isEqualTo("run");
+        assertThat(functions.getArity(1)).isEqualTo(3);
+        assertThat(functions.getStartLine(1)).isEqualTo(8);
+        assertThat(functions.getEndLine(1)).isEqualTo(12);
+        assertThat(functions.getLineCount(1)).isEqualTo(5);
+        assertThat(functions.isDocumented(1)).isFalse();
+
+        assertThat(functions.getName(2)).isEqualTo("helper");
+        assertThat(functions.getArity(2)).isEqualTo(0);
+        assertThat(functions.getLineCount(2)).isEqualTo(2);
+
+        assertThat(functions.getName(3)).isEqualTo("last");
+        assertThat(functions.getArity(3)).isEqualTo(0);
+        assertThat(functions.getStartLine(3)).isEqualTo(17);
+        assertThat(functions.getEndLine(3)).isEqualTo(17);
+        assertThat(functions.getClauseCount(3)).isEqualTo(1);
+    }
+
+    @Test
+    public void testCachedFunctionTable() {
+        ElixirComplexity complexity = complexity("defmodule A do", "  def a(x, y), do: x", "  def b, do: 2", "end");
+        ElixirFunctionTable cached = new ElixirComplexity(complexity.toArray()).getFunctions();
+        assertThat(cached.size()).isEqualTo(2);
+        assertThat(cached.getName(0)).isEqualTo("a");
+        assertThat(cached.getArity(0)).isEqualTo(2);
+        assertThat(cached.getName(1)).isEqualTo("b");
+        assertThat(cached.getStartLine(1)).isEqualTo(3);
+        assertThat(cached.getLineCount(1)).isEqualTo(1);
+    }
+}
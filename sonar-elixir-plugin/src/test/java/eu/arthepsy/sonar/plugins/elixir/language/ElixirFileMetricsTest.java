@@ -0,0 +1,78 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirFileMetricsTest {
+    @Test
+    public void testGetters() {
+        ElixirFileMetrics metrics = new ElixirFileMetrics(10, 2, 3, 1, 4, 5, 1, 2, 3, 3, 2, 1);
+        assertThat(metrics.getLineCount()).isEqualTo(10);
+        assertThat(metrics.getEmptyLineCount()).isEqualTo(2);
+        assertThat(metrics.getCommentLineCount()).isEqualTo(3);
+        assertThat(metrics.getLinesOfCode()).isEqualTo(5);
+        assertThat(metrics.getClassCount()).isEqualTo(1);
+        assertThat(metrics.getPublicFunctionCount()).isEqualTo(4);
+        assertThat(metrics.getPrivateFunctionCount()).isEqualTo(5);
+        assertThat(metrics.getDocumentedClassCount()).isEqualTo(1);
+        assertThat(metrics.getDocumentedPublicFunctionCount()).isEqualTo(2);
+        assertThat(metrics.getDocumentedPrivateFunctionCount()).isEqualTo(3);
+        assertThat(metrics.getSpecifiedPublicFunctionCount()).isEqualTo(3);
+        assertThat(metrics.getTypeCount()).isEqualTo(2);
+        assertThat(metrics.getCallbackCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testPlus() {
+        ElixirFileMetrics metrics = new ElixirFileMetrics(10, 2, 3, 1, 4, 5, 1, 2, 3, 3, 2, 1);
+        assertThat(ElixirFileMetrics.EMPTY.plus(metrics)).isEqualTo(metrics);
+        assertThat(metrics.plus(metrics)).isEqualTo(new ElixirFileMetrics(20, 4, 6, 2, 8, 10, 2, 4, 6, 6, 4, 2));
+        assertThat(metrics.getLineCount()).isEqualTo(10);
+    }
+
+    @Test
+    public void testMinus() {
+        ElixirFileMetrics metrics = new ElixirFileMetrics(10, 2, 3, 1, 4, 5, 1, 2, 3, 3, 2, 1);
+        assertThat(metrics.plus(metrics).minus(metrics)).isEqualTo(metrics);
+        assertThat(metrics.minus(metrics)).isEqualTo(ElixirFileMetrics.EMPTY);
+    }
+
+    @Test
+    public void testArray() {
+        ElixirFileMetrics metrics = new ElixirFileMetrics(10, 2, 3, 1, 4, 5, 1, 2, 3, 3, 2, 1);
+        int[] array = metrics.toArray();
+        assertThat(ElixirFileMetrics.fromArray(array)).isEqualTo(metrics);
+        assertThat(ElixirFileMetrics.fromArray(array).hashCode()).isEqualTo(metrics.hashCode());
+        array[0] = 0;
+        assertThat(metrics.getLineCount()).isEqualTo(10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidArray() {
+        ElixirFileMetrics.fromArray(new int[3]);
+    }
+}
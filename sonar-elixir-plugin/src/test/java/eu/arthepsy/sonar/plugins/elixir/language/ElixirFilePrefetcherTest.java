@@ -0,0 +1,128 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class ElixirFilePrefetcherTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private InputFile file(String name, String content) throws IOException {
+        File file = temp.newFile(name);
+        FileUtils.write(file, content, StandardCharsets.UTF_8);
+        return new DefaultInputFile(name).setAbsolutePath(file.getAbsolutePath());
+    }
+
+    private static String string(ByteBuffer bytes) {
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    @Test
+    public void testInOrderWithinBudget() throws IOException {
+        List<InputFile> files = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            files.add(file("f" + i + ".ex", "defmodule F" + i + " do\nend\n"));
+        }
+        ElixirFilePrefetcher prefetcher = new ElixirFilePrefetcher(files, 0, 64, 4);
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                assertThat(string(prefetcher.take(i))).isEqualTo("defmodule F" + i + " do\nend\n");
+                prefetcher.release(i);
+            }
+        } finally {
+            prefetcher.close();
+        }
+        assertThat(prefetcher.getPeakBytesInFlight()).isLessThanOrEqualTo(64);
+        assertThat(prefetcher.getPeakBytesInFlight()).isGreaterThan(0);
+    }
+
+    @Test
+    public void testFileLargerThanBudget() throws IOException {
+        List<InputFile> files = new ArrayList<>();
+        files.add(file("small.ex", "a\n"));
+        files.add(file("large.ex", "defmodule Large do\nend\n"));
+        files.add(file("last.ex", "b\n"));
+        ElixirFilePrefetcher prefetcher = new ElixirFilePrefetcher(files, 0, 4, 2);
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                assertThat(prefetcher.take(i)).isNotNull();
+                prefetcher.release(i);
+            }
+        } finally {
+            prefetcher.close();
+        }
+        assertThat(prefetcher.getPeakBytesInFlight()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    public void testSkippedAndMissingFiles() throws IOException {
+        List<InputFile> files = new ArrayList<>();
+        files.add(file("large.ex", "defmodule Large do\nend\n"));
+        files.add(new DefaultInputFile("missing.ex").setAbsolutePath(new File(temp.getRoot(), "missing.ex").getAbsolutePath()));
+        files.add(file("small.ex", "a\n"));
+        ElixirFilePrefetcher prefetcher = new ElixirFilePrefetcher(files, 10, 1024, 1);
+        try {
+            assertThat(prefetcher.take(0)).isNull();
+            prefetcher.release(0);
+            try {
+                prefetcher.take(1);
+                fail();
+            } catch (IOException e) {
+                // expected
+            }
+            prefetcher.release(1);
+            assertThat(string(prefetcher.take(2))).isEqualTo("a\n");
+            prefetcher.release(2);
+        } finally {
+            prefetcher.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testTakeAfterClose() throws IOException {
+        List<InputFile> files = new ArrayList<>();
+        files.add(file("a.ex", "a\n"));
+        files.add(file("b.ex", "b\n"));
+        ElixirFilePrefetcher prefetcher = new ElixirFilePrefetcher(files, 0, 1, 1);
+        prefetcher.close();
+        prefetcher.take(1);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirFunctionRankingTest {
+
+    @Test
+    public void testKeepsHighestValues() {
+        ElixirFunctionRanking ranking = new ElixirFunctionRanking(3);
+        int[] values = {5, 1, 9, 3, 7, 9, 2, 8};
+        for (int i = 0; i < values.length; i++) {
+            ranking.offer(values[i], "f" + i);
+        }
+        assertThat(ranking.size()).isEqualTo(3);
+        assertThat(ranking.toData()).isEqualTo("f2=9;f5=9;f7=8");
+        assertThat(ranking.accepts(8)).isFalse();
+        assertThat(ranking.accepts(9)).isTrue();
+    }
+
+    @Test
+    public void testLargeInput() {
+        ElixirFunctionRanking ranking = new ElixirFunctionRanking(10);
+        for (int i = 0; i < 100000; i++) {
+            int value = (i * 7919) % 100000;
+            if (ranking.accepts(value)) {
+                ranking.offer(value, "f" + value);
+            }
+        }
+        assertThat(ranking.toData()).startsWith("f99999=99999;f99998=99998;");
+        assertThat(ranking.toData().split(";")).hasSize(10);
+    }
+
+    @Test
+    public void testEmpty() {
+        ElixirFunctionRanking ranking = new ElixirFunctionRanking(0);
+        ranking.offer(1, "a");
+        assertThat(ranking.size()).isEqualTo(0);
+        assertThat(ranking.toData()).isEmpty();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirFunctionTableTest {
+
+    @Test
+    public void testGrowthAndArray() {
+        ElixirFunctionTable table = new ElixirFunctionTable();
+        String names = "function_with_a_rather_long_name_";
+        for (int i = 0; i < 100; i++) {
+            int function = table.add(names, 0, names.length(), i + 1, i % 2 == 0);
+            table.set(function, ElixirFunctionTable.ARITY, i % 4);
+            table.increment(function, ElixirFunctionTable.COMPLEXITY);
+        }
+        ElixirFunctionTable copy = new ElixirFunctionTable(table.toArray(), 0);
+        assertThat(copy.size()).isEqualTo(100);
+        assertThat(copy.getName(99)).isEqualTo(names);
+        assertThat(copy.getStartLine(99)).isEqualTo(100);
+        assertThat(copy.getEndLine(99)).isEqualTo(100);
+        assertThat(copy.getArity(99)).isEqualTo(3);
+        assertThat(copy.getComplexity(99)).isEqualTo(1);
+        assertThat(copy.isDocumented(98)).isTrue();
+        assertThat(copy.isDocumented(99)).isFalse();
+    }
+
+    @Test
+    public void testEmpty() {
+        ElixirFunctionTable table = new ElixirFunctionTable(new ElixirFunctionTable().toArray(), 0);
+        assertThat(table.size()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.sonar.api.source.Highlightable;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ElixirHighlighterTest {
+
+    @Test
+    public void testSave() {
+        ElixirHighlighter highlighter = new ElixirHighlighter();
+        new ElixirParser().parse("@doc \"x\"\ndef a, do: :ok # c\n", highlighter);
+        assertThat(highlighter.getRuleCount()).isEqualTo(6);
+
+        Highlightable highlightable = mock(Highlightable.class);
+        Highlightable.HighlightingBuilder builder = mock(Highlightable.HighlightingBuilder.class);
+        when(highlightable.newHighlighting()).thenReturn(builder);
+        when(builder.highlight(anyInt(), anyInt(), anyString())).thenReturn(builder);
+        highlighter.save(highlightable);
+
+        InOrder order = inOrder(builder);
+        order.verify(builder).highlight(0, 4, "a");
+        order.verify(builder).highlight(5, 8, "j");
+        order.verify(builder).highlight(9, 12, "k");
+        order.verify(builder).highlight(16, 19, "c");
+        order.verify(builder).highlight(20, 23, "c");
+        order.verify(builder).highlight(24, 27, "cd");
+        order.verify(builder).done();
+        verifyNoMoreInteractions(builder);
+    }
+
+    @Test
+    public void testCachedRules() {
+        ElixirHighlighter highlighter = new ElixirHighlighter();
+        new ElixirParser().parse("# a\n'b'\n", highlighter);
+        ElixirHighlighter cached = new ElixirHighlighter(highlighter.toArray());
+        assertThat(cached.getRuleCount()).isEqualTo(2);
+        assertThat(cached.toArray()).isEqualTo(highlighter.toArray());
+    }
+}
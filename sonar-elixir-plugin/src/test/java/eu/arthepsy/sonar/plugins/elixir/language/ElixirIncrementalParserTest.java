@@ -0,0 +1,125 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirIncrementalParserTest {
+    private static final String[] SNIPPETS = {
+            "defmodule A do", "  @moduledoc \"\"\"", "  \"\"\"", "  @doc \"a\"", "  @doc false", "  def a, do: 1",
+            "  defp b, do: 2", "  # comment", "", "  x = \"\"\"", "end", "  defmacro c do", "  @moduledoc \"m\""
+    };
+
+    private static List<String> file(Random random, int size) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            lines.add(SNIPPETS[random.nextInt(SNIPPETS.length)]);
+        }
+        return lines;
+    }
+
+    @Test
+    public void testLocalEditStopsAtNextRegion() {
+        List<String> lines = new ArrayList<>();
+        lines.add("defmodule A do");
+        for (int i = 0; i < 1000; i++) {
+            lines.add("  def a" + i + ", do: " + i);
+        }
+        lines.add("end");
+        ElixirIncrementalParser parser = new ElixirIncrementalParser(50);
+        assertThat(parser.parse(lines)).isEqualTo(new ElixirParser().parse(lines));
+        assertThat(parser.getReparsedLines()).isEqualTo(1002);
+
+        lines.set(500, "  defp changed, do: 0");
+        lines.add(501, "  # added");
+        ElixirFileMetrics metrics = parser.update(lines, 500, 501, 502);
+        assertThat(metrics).isEqualTo(new ElixirParser().parse(lines));
+        assertThat(metrics.getPrivateFunctionCount()).isEqualTo(1);
+        assertThat(parser.getReparsedLines()).isLessThanOrEqualTo(51);
+    }
+
+    @Test
+    public void testHeredocChangePropagates() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lines.add("def a" + i + ", do: " + i);
+        }
+        ElixirIncrementalParser parser = new ElixirIncrementalParser(10);
+        parser.parse(lines);
+
+        lines.set(5, "x = \"\"\"");
+        assertThat(parser.update(lines, 5, 6, 6)).isEqualTo(new ElixirParser().parse(lines));
+        assertThat(parser.getMetrics().getPublicFunctionCount()).isEqualTo(5);
+        assertThat(parser.getReparsedLines()).isEqualTo(100);
+
+        lines.set(50, "\"\"\"");
+        assertThat(parser.update(lines, 50, 51, 51)).isEqualTo(new ElixirParser().parse(lines));
+        assertThat(parser.getMetrics().getPublicFunctionCount()).isEqualTo(54);
+    }
+
+    @Test
+    public void testRandomEdits() {
+        Random random = new Random(42L);
+        List<String> lines = file(random, 300);
+        ElixirIncrementalParser parser = new ElixirIncrementalParser(16);
+        parser.parse(lines);
+        for (int i = 0; i < 500; i++) {
+            int from = random.nextInt(lines.size() + 1);
+            int oldEnd = Math.min(lines.size(), from + random.nextInt(5));
+            List<String> replacement = file(random, random.nextInt(5));
+            lines.subList(from, oldEnd).clear();
+            lines.addAll(from, replacement);
+            ElixirFileMetrics metrics = parser.update(lines, from, oldEnd, from + replacement.size());
+            assertThat(metrics).isEqualTo(new ElixirParser().parse(lines));
+        }
+    }
+
+    @Test
+    public void testDeleteAll() {
+        List<String> lines = new ArrayList<>();
+        lines.add("def a, do: 1");
+        ElixirIncrementalParser parser = new ElixirIncrementalParser(4);
+        parser.parse(lines);
+        lines.clear();
+        assertThat(parser.update(lines, 0, 1, 0)).isEqualTo(ElixirFileMetrics.EMPTY);
+        assertThat(parser.getRegionCount()).isEqualTo(0);
+        lines.add("defp b, do: 1");
+        assertThat(parser.update(lines, 0, 0, 1).getPrivateFunctionCount()).isEqualTo(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidEdit() {
+        ElixirIncrementalParser parser = new ElixirIncrementalParser(4);
+        List<String> lines = new ArrayList<>();
+        lines.add("def a, do: 1");
+        parser.parse(lines);
+        parser.update(lines, 0, 1, 2);
+    }
+}
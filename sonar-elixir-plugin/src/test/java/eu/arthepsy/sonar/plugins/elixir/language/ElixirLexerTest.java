@@ -0,0 +1,103 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirLexerTest {
+
+    private static List<String> tokens(String content) {
+        final List<String> tokens = new ArrayList<>();
+        new ElixirParser().parse(content, new ElixirTokenVisitor() {
+            @Override
+            public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+                tokens.add(type + ":" + content.subSequence(start, end));
+            }
+        });
+        return tokens;
+    }
+
+    @Test
+    public void testCode() {
+        assertThat(tokens("def foo(x), do: x |> Enum.Map.bar(:ok, 1_000) # done")).containsExactly(
+                "KEYWORD:def", "IDENTIFIER:foo", "OPERATOR:(", "IDENTIFIER:x", "OPERATOR:)", "OPERATOR:,",
+                "ATOM:do:", "IDENTIFIER:x", "OPERATOR:|>", "ALIAS:Enum.Map", "OPERATOR:.", "IDENTIFIER:bar",
+                "OPERATOR:(", "ATOM::ok", "OPERATOR:,", "NUMBER:1_000", "OPERATOR:)", "COMMENT:# done");
+    }
+
+    @Test
+    public void testLiterals() {
+        assertThat(tokens("[nil, true, 0x1F, 1.5e-3, ?a, ?\\n, :\"quoted atom\", :+, a::b, valid?]")).containsExactly(
+                "OPERATOR:[", "CONSTANT:nil", "OPERATOR:,", "CONSTANT:true", "OPERATOR:,", "NUMBER:0x1F", "OPERATOR:,",
+                "NUMBER:1.5e-3", "OPERATOR:,", "NUMBER:?a", "OPERATOR:,", "NUMBER:?\\n", "OPERATOR:,",
+                "ATOM::\"quoted atom\"", "OPERATOR:,", "ATOM::+", "OPERATOR:,",
+                "IDENTIFIER:a", "OPERATOR:::", "IDENTIFIER:b", "OPERATOR:,", "IDENTIFIER:valid?", "OPERATOR:]");
+    }
+
+    @Test
+    public void testStrings() {
+        assertThat(tokens("x = \"a \\\" #{\"}\" <> y} b\" <> 'c'")).containsExactly(
+                "IDENTIFIER:x", "OPERATOR:=", "STRING:\"a \\\" #{\"}\" <> y} b\"", "OPERATOR:<>", "STRING:'c'");
+        assertThat(tokens("\"multi\nline\" + 1")).containsExactly("STRING:\"multi\nline\"", "OPERATOR:+", "NUMBER:1");
+    }
+
+    @Test
+    public void testSigils() {
+        assertThat(tokens("~r/a|b/i ~w(a b)a ~S<#{x}> ~ x")).containsExactly(
+                "SIGIL:~r/a|b/i", "SIGIL:~w(a b)a", "SIGIL:~S<#{x}>", "OPERATOR:~", "IDENTIFIER:x");
+        assertThat(tokens("~s\"\"\"\ntext)\n\"\"\"\n")).containsExactly("SIGIL:~s\"\"\"\ntext)\n\"\"\"");
+    }
+
+    @Test
+    public void testHeredocs() {
+        assertThat(tokens("@moduledoc \"\"\"\n  # not a comment\n  \"\"\"\nx = '''\n'''\n")).containsExactly(
+                "MODULE_ATTRIBUTE:@moduledoc", "DOC_STRING:\"\"\"\n  # not a comment\n  \"\"\"",
+                "IDENTIFIER:x", "OPERATOR:=", "STRING:'''\n'''");
+        assertThat(tokens("@doc false\n@doc ~S\"\"\"\nx\n\"\"\"")).containsExactly(
+                "MODULE_ATTRIBUTE:@doc", "CONSTANT:false",
+                "MODULE_ATTRIBUTE:@doc", "DOC_STRING:~S\"\"\"\nx\n\"\"\"");
+    }
+
+    @Test
+    public void testUnterminated() {
+        assertThat(tokens("x = \"\"\"\ntext\n")).containsExactly("IDENTIFIER:x", "OPERATOR:=", "STRING:\"\"\"\ntext\n");
+    }
+
+    @Test
+    public void testLines() {
+        final List<Integer> lines = new ArrayList<>();
+        new ElixirParser().parse("a\r\n\"b\nc\"\rd", new ElixirTokenVisitor() {
+            @Override
+            public void visitToken(ElixirTokenType type, CharSequence content, int start, int end, int line) {
+                lines.add(line);
+            }
+        });
+        assertThat(lines).containsExactly(1, 2, 4);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirMeasureCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static byte[] hash(String content) {
+        return ElixirMeasureCache.hash(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static int[] parse(String content) {
+        return new ElixirParser().parse(content).toArray();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        File file = new File(temp.newFolder(), ElixirMeasureCache.FILE_NAME);
+        String content = "defmodule A do\n  # comment\n  def a, do: 1\nend\n";
+
+        ElixirMeasureCache cache = new ElixirMeasureCache(file, StandardCharsets.UTF_8, "rules");
+        cache.load();
+        assertThat(cache.get("a.ex", hash(content))).isNull();
+        cache.put("a.ex", hash(content), parse(content), new int[0], new int[] { 3, 5, 1, 40 });
+        cache.save();
+        assertThat(cache.getMisses()).isEqualTo(1);
+
+        cache = new ElixirMeasureCache(file, StandardCharsets.UTF_8, "rules");
+        cache.load();
+        int[][] cached = cache.get("a.ex", hash(content));
+        assertThat(cached).isNotNull();
+        assertThat(cached.length).isEqualTo(3);
+        assertThat(cached[0]).isEqualTo(parse(content));
+        assertThat(cached[1]).isEmpty();
+        assertThat(cached[2]).isEqualTo(new int[] { 3, 5, 1, 40 });
+        assertThat(cache.get("a.ex", hash(content + "\n"))).isNull();
+        assertThat(cache.get("b.ex", hash(content))).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    public void testEncodingChangeInvalidates() throws IOException {
+        File file = new File(temp.newFolder(), ElixirMeasureCache.FILE_NAME);
+        String content = "def a, do: 1\n";
+
+        ElixirMeasureCache cache = new ElixirMeasureCache(file, StandardCharsets.UTF_8, "rules");
+        cache.put("a.ex", hash(content), parse(content));
+        cache.save();
+
+        cache = new ElixirMeasureCache(file, StandardCharsets.ISO_8859_1, "rules");
+        cache.load();
+        assertThat(cache.get("a.ex", hash(content))).isNull();
+    }
+
+    @Test
+    public void testRulesChangeInvalidates() throws IOException {
+        File file = new File(temp.newFolder(), ElixirMeasureCache.FILE_NAME);
+        String content = "def a, do: 1\n";
+
+        ElixirMeasureCache cache = new ElixirMeasureCache(file, StandardCharsets.UTF_8, "rules");
+        cache.put("a.ex", hash(content), parse(content));
+        cache.save();
+
+        cache = new ElixirMeasureCache(file, StandardCharsets.UTF_8, "other rules");
+        cache.load();
+        assertThat(cache.get("a.ex", hash(content))).isNull();
+    }
+
+    @Test
+    public void testCorruptFileIgnored() throws IOException {
+        File file = temp.newFile(ElixirMeasureCache.FILE_NAME);
+        ElixirMeasureCache cache = new ElixirMeasureCache(file, StandardCharsets.UTF_8, "rules");
+        cache.load();
+        assertThat(cache.get("a.ex", hash(""))).isNull();
+    }
+}
@@ -23,31 +23,55 @@
  */
 package eu.arthepsy.sonar.plugins.elixir.language;
 
+import eu.arthepsy.sonar.plugins.elixir.ElixirConfiguration;
+import eu.arthepsy.sonar.plugins.elixir.ElixirMetrics;
+import eu.arthepsy.sonar.plugins.elixir.checks.BannedTextCheck;
+import eu.arthepsy.sonar.plugins.elixir.checks.CheckList;
+import eu.arthepsy.sonar.plugins.elixir.checks.UnusedPublicFunctionCheck;
+import eu.arthepsy.sonar.plugins.elixir.checks.ZeroArityParenthesesCheck;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultFileSystem;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
 import org.sonar.api.component.ResourcePerspectives;
+import org.sonar.api.config.PropertyDefinitions;
+import org.sonar.api.config.Settings;
+import org.sonar.api.issue.Issuable;
+import org.sonar.api.issue.Issue;
 import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Measure;
+import org.sonar.api.measures.Metric;
 import org.sonar.api.resources.Project;
+import org.sonar.api.resources.Resource;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.source.Highlightable;
+import org.sonar.api.source.Symbolizable;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.Mockito.*;
 
 public class ElixirMeasureSensorTest {
 
     private final Project project = new Project("project");
     private SensorContext context = mock(SensorContext.class);
+    private ResourcePerspectives perspectives = mock(ResourcePerspectives.class);
     private DefaultFileSystem fileSystem;
+    private Settings settings;
     private ElixirMeasureSensor sensor;
 
     @Rule
@@ -59,17 +83,21 @@ public class ElixirMeasureSensorTest {
         baseDir = temp.newFolder();
         fileSystem = new DefaultFileSystem();
         fileSystem.setBaseDir(baseDir);
-        sensor = new ElixirMeasureSensor(fileSystem);
+        settings = new Settings(new PropertyDefinitions(ElixirConfiguration.getPropertyDefinitions()));
+        sensor = new ElixirMeasureSensor(fileSystem, settings, perspectives, new ActiveRulesBuilder().build());
     }
 
-    @Test
-    public void testDocAnnotation() throws IOException {
-        String fileName = "test_doc.ex";
+    private void addFile(String resourceName, String fileName) throws IOException {
         File source = new File(baseDir, fileName);
-        FileUtils.write(source, IOUtils.toString(getClass().getResourceAsStream("/" + fileName)));
+        FileUtils.write(source, IOUtils.toString(getClass().getResourceAsStream("/" + resourceName)));
         DefaultInputFile inputFile = new DefaultInputFile(fileName).setLanguage(Elixir.KEY);
         inputFile.setAbsolutePath(new File(baseDir, inputFile.relativePath()).getAbsolutePath());
         fileSystem.add(inputFile);
+    }
+
+    @Test
+    public void testDocAnnotation() throws IOException {
+        addFile("test_doc.ex", "test_doc.ex");
 
         assertThat(sensor.shouldExecuteOnProject(project)).isTrue();
 
@@ -82,5 +110,391 @@ public class ElixirMeasureSensorTest {
         verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.FUNCTIONS), eq(6.0));
         verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.PUBLIC_API), eq(5.0));
         verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.PUBLIC_UNDOCUMENTED_API), eq(2.0));
+        verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.COMPLEXITY), eq(6.0));
+        verify(context).saveMeasure(any(InputFile.class), eq(ElixirMetrics.SPECIFIED_PUBLIC_FUNCTIONS), eq(0.0));
+        verify(context).saveMeasure(any(InputFile.class), eq(ElixirMetrics.UNSPECIFIED_PUBLIC_FUNCTIONS), eq(4.0));
+        verify(context).saveMeasure(any(InputFile.class), eq(ElixirMetrics.SPEC_DENSITY), eq(0.0));
+        verify(context).saveMeasure(any(InputFile.class), eq(ElixirMetrics.TYPES), eq(1.0));
+        verify(context).saveMeasure(any(InputFile.class), eq(ElixirMetrics.CALLBACKS), eq(0.0));
+
+        ArgumentCaptor<Measure> measures = ArgumentCaptor.forClass(Measure.class);
+        verify(context, times(2)).saveMeasure(any(InputFile.class), measures.capture());
+        assertThat(measures.getAllValues().get(0).getMetric()).isEqualTo(CoreMetrics.FUNCTION_COMPLEXITY_DISTRIBUTION);
+        assertThat(measures.getAllValues().get(0).getData()).isEqualTo("1=6;2=0;4=0;6=0;8=0;10=0;12=0");
+        assertThat(measures.getAllValues().get(1).getMetric()).isEqualTo(CoreMetrics.FILE_COMPLEXITY_DISTRIBUTION);
+        assertThat(measures.getAllValues().get(1).getData()).isEqualTo("0=0;5=1;10=0;20=0;30=0;60=0;90=0");
+    }
+
+    @Test
+    public void testByteScanDisabled() throws IOException {
+        addFile("test_doc.ex", "test_doc.ex");
+        settings.setProperty(ElixirConfiguration.BYTE_SCAN_KEY, false);
+
+        sensor.analyse(project, context);
+
+        verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.LINES), eq(37.0));
+        verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.NCLOC), eq(15.0));
+        verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.COMMENT_LINES), eq(14.0));
+        verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.COMPLEXITY), eq(6.0));
+    }
+
+    @Test
+    public void testParallelAnalysis() throws IOException {
+        for (int i = 0; i < 12; i++) {
+            StringBuilder content = new StringBuilder("defmodule M" + i + " do\n");
+            for (int j = 0; j <= i; j++) {
+                content.append(j % 3 == 0 ? "  # comment\n" : "").append(j % 2 == 0 ? "  @doc \"f\"\n" : "")
+                        .append("  def f").append(j).append("(x) do\n    if x, do: M").append((i + 1) % 12)
+                        .append(".f0(x)\n  end\n\n");
+            }
+            FileUtils.write(new File(baseDir, "m" + i + ".ex"), content.append("end\n"));
+            fileSystem.add(new DefaultInputFile("m" + i + ".ex").setLanguage(Elixir.KEY)
+                    .setAbsolutePath(new File(baseDir, "m" + i + ".ex").getAbsolutePath()));
+        }
+
+        List<String> sequential = captureFileMeasures();
+        settings.setProperty(ElixirConfiguration.THREADS_KEY, 3);
+        List<String> parallel = captureFileMeasures();
+
+        assertThat(sequential.size()).isGreaterThan(12 * 10);
+        assertThat(sequential).contains("m0.ex lines=8.0", "m11.ex functions=12.0");
+        assertThat(parallel).isEqualTo(sequential);
+    }
+
+    /** Analyses the project with a new context and returns the file measures in the order they were saved. */
+    private List<String> captureFileMeasures() {
+        context = mock(SensorContext.class);
+        sensor.analyse(project, context);
+        ArgumentCaptor<InputFile> files = ArgumentCaptor.forClass(InputFile.class);
+        ArgumentCaptor<Metric> metrics = ArgumentCaptor.forClass(Metric.class);
+        ArgumentCaptor<Double> values = ArgumentCaptor.forClass(Double.class);
+        verify(context, atLeastOnce()).saveMeasure(files.capture(), metrics.capture(), values.capture());
+        List<String> measures = new ArrayList<>();
+        for (int i = 0; i < values.getAllValues().size(); i++) {
+            measures.add(files.getAllValues().get(i).relativePath() + " " + metrics.getAllValues().get(i).getKey()
+                    + "=" + values.getAllValues().get(i));
+        }
+        return measures;
+    }
+
+    @Test
+    public void testPrefetchDisabled() throws IOException {
+        for (int i = 0; i < 4; i++) {
+            addFile("test_doc.ex", "test_doc_" + i + ".ex");
+        }
+        settings.setProperty(ElixirConfiguration.PREFETCH_BUFFER_KEY, 0);
+
+        sensor.analyse(project, context);
+
+        verify(context, times(4)).saveMeasure(any(InputFile.class), eq(CoreMetrics.NCLOC), eq(15.0));
+        verify(context, times(4)).saveMeasure(any(InputFile.class), eq(CoreMetrics.COMPLEXITY), eq(6.0));
+    }
+
+    @Test
+    public void testPrefetchSmallBuffer() throws IOException {
+        for (int i = 0; i < 8; i++) {
+            addFile("test_doc.ex", "test_doc_" + i + ".ex");
+        }
+        settings.setProperty(ElixirConfiguration.PREFETCH_BUFFER_KEY, 1);
+        settings.setProperty(ElixirConfiguration.THREADS_KEY, 2);
+
+        sensor.analyse(project, context);
+
+        verify(context, times(8)).saveMeasure(any(InputFile.class), eq(CoreMetrics.NCLOC), eq(15.0));
+        verify(context, times(8)).saveMeasure(any(InputFile.class), eq(CoreMetrics.COMPLEXITY), eq(6.0));
+    }
+
+    @Test
+    public void testMeasureCache() throws IOException {
+        fileSystem.setWorkDir(temp.newFolder());
+        addFile("test_doc.ex", "test_doc.ex");
+
+        sensor.analyse(project, context);
+        assertThat(new File(fileSystem.workDir(), ElixirMeasureCache.FILE_NAME).isFile()).isTrue();
+        sensor.analyse(project, context);
+        verify(context, times(2)).saveMeasure(any(InputFile.class), eq(CoreMetrics.NCLOC), eq(15.0));
+        verify(context, times(2)).saveMeasure(any(InputFile.class), eq(CoreMetrics.PUBLIC_UNDOCUMENTED_API), eq(2.0));
+        verify(context, times(2)).saveMeasure(any(InputFile.class), eq(CoreMetrics.COMPLEXITY), eq(6.0));
+
+        FileUtils.write(new File(baseDir, "test_doc.ex"), "defmodule A do\nend\n");
+        sensor.analyse(project, context);
+        verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.LINES), eq(2.0));
+    }
+
+    @Test
+    public void testTemplates() throws IOException {
+        addFile("test_template.html.heex", "page.html.heex");
+        addFile("test_template.html.heex", "other.html.heex");
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            large.append("<li><%= i %></li>\n<%# c %>\n");
+        }
+        FileUtils.write(new File(baseDir, "large.eex"), large);
+        fileSystem.add(new DefaultInputFile("large.eex").setLanguage(Elixir.KEY)
+                .setAbsolutePath(new File(baseDir, "large.eex").getAbsolutePath()));
+        settings.setProperty(ElixirConfiguration.MAX_FILE_SIZE_KEY, 1);
+
+        sensor.analyse(project, context);
+
+        verify(context, times(2)).saveMeasure(any(InputFile.class), eq(CoreMetrics.LINES), eq(10.0));
+        verify(context, times(2)).saveMeasure(any(InputFile.class), eq(CoreMetrics.NCLOC), eq(5.0));
+        verify(context, times(2)).saveMeasure(any(InputFile.class), eq(CoreMetrics.COMMENT_LINES), eq(4.0));
+        verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.LINES), eq(400.0));
+        verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.NCLOC), eq(200.0));
+        verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.COMMENT_LINES), eq(200.0));
+        verify(context, never()).saveMeasure(any(InputFile.class), eq(CoreMetrics.COMPLEXITY), anyDouble());
+    }
+
+    @Test
+    public void testTemplateDecoded() throws IOException {
+        fileSystem.setEncoding(StandardCharsets.UTF_8);
+        FileUtils.write(new File(baseDir, "page.eex"), "<p>\u00e4</p>\n<%= a %>\n<%# \u00e4 %>\n", StandardCharsets.UTF_8);
+        fileSystem.add(new DefaultInputFile("page.eex").setLanguage(Elixir.KEY)
+                .setAbsolutePath(new File(baseDir, "page.eex").getAbsolutePath()));
+
+        sensor.analyse(project, context);
+
+        verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.LINES), eq(3.0));
+        verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.NCLOC), eq(2.0));
+        verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.COMMENT_LINES), eq(1.0));
+    }
+
+    @Test
+    public void testLargeTemplateSkipped() throws IOException {
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            large.append("<li><%= i %></li>\n");
+        }
+        FileUtils.write(new File(baseDir, "large.eex"), large);
+        fileSystem.add(new DefaultInputFile("large.eex").setLanguage(Elixir.KEY)
+                .setAbsolutePath(new File(baseDir, "large.eex").getAbsolutePath()));
+        settings.setProperty(ElixirConfiguration.MAX_FILE_SIZE_KEY, 1);
+        settings.setProperty(ElixirConfiguration.STREAMING_KEY, false);
+
+        sensor.analyse(project, context);
+
+        verify(context, never()).saveMeasure(any(InputFile.class), eq(CoreMetrics.LINES), anyDouble());
+    }
+
+    private void addLargeFile() throws IOException {
+        StringBuilder content = new StringBuilder("defmodule A do\n");
+        for (int i = 0; i < 200; i++) {
+            content.append("  def a, do: 1\n");
+        }
+        FileUtils.write(new File(baseDir, "large.ex"), content.append("end\n"));
+        fileSystem.add(new DefaultInputFile("large.ex").setLanguage(Elixir.KEY)
+                .setAbsolutePath(new File(baseDir, "large.ex").getAbsolutePath()));
+        settings.setProperty(ElixirConfiguration.MAX_FILE_SIZE_KEY, 1);
+    }
+
+    @Test
+    public void testLargeFileStreamed() throws IOException {
+        addLargeFile();
+
+        sensor.analyse(project, context);
+
+        verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.LINES), eq(202.0));
+        verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.FUNCTIONS), eq(200.0));
+        verify(context, never()).saveMeasure(any(InputFile.class), eq(CoreMetrics.COMPLEXITY), anyDouble());
+    }
+
+    @Test
+    public void testLargeFileSkipped() throws IOException {
+        addLargeFile();
+        settings.setProperty(ElixirConfiguration.STREAMING_KEY, false);
+
+        sensor.analyse(project, context);
+
+        verify(context, never()).saveMeasure(any(InputFile.class), eq(CoreMetrics.LINES), anyDouble());
+    }
+
+    @Test
+    public void testFunctionMeasures() throws IOException {
+        addFile("test_doc.ex", "test_doc.ex");
+
+        sensor.analyse(project, context);
+
+        ArgumentCaptor<Measure> measures = ArgumentCaptor.forClass(Measure.class);
+        verify(context, times(3)).saveMeasure(measures.capture());
+        assertThat(measures.getAllValues().get(0).getMetric()).isEqualTo(ElixirMetrics.FUNCTION_SIZE_DISTRIBUTION);
+        assertThat(measures.getAllValues().get(0).getData()).isEqualTo("1=6;5=0;10=0;20=0;50=0;100=0;200=0");
+        assertThat(measures.getAllValues().get(1).getMetric()).isEqualTo(ElixirMetrics.LARGEST_FUNCTIONS);
+        assertThat(measures.getAllValues().get(1).getData()).startsWith("test_doc.ex:");
+        assertThat(measures.getAllValues().get(1).getData().split(";")).hasSize(6);
+        assertThat(measures.getAllValues().get(2).getMetric()).isEqualTo(ElixirMetrics.MOST_COMPLEX_FUNCTIONS);
+        verify(context).saveMeasure(ElixirMetrics.MODULE_CYCLES, 0.0);
+    }
+
+    @Test
+    public void testModuleCouplings() throws IOException {
+        fileSystem.setWorkDir(temp.newFolder());
+        FileUtils.write(new File(baseDir, "a.ex"), "defmodule A do\n  alias B.C\n  def a, do: C.c()\nend\n");
+        FileUtils.write(new File(baseDir, "c.ex"), "defmodule B.C do\n  def c, do: Enum.count([])\nend\n");
+        DefaultInputFile a = new DefaultInputFile("a.ex").setLanguage(Elixir.KEY)
+                .setAbsolutePath(new File(baseDir, "a.ex").getAbsolutePath());
+        DefaultInputFile c = new DefaultInputFile("c.ex").setLanguage(Elixir.KEY)
+                .setAbsolutePath(new File(baseDir, "c.ex").getAbsolutePath());
+        fileSystem.add(a);
+        fileSystem.add(c);
+
+        sensor.analyse(project, context);
+        sensor.analyse(project, context);
+
+        verify(context, times(2)).saveMeasure(a, CoreMetrics.EFFERENT_COUPLINGS, 1.0);
+        verify(context, times(2)).saveMeasure(a, CoreMetrics.AFFERENT_COUPLINGS, 0.0);
+        verify(context, times(2)).saveMeasure(c, CoreMetrics.EFFERENT_COUPLINGS, 0.0);
+        verify(context, times(2)).saveMeasure(c, CoreMetrics.AFFERENT_COUPLINGS, 1.0);
+    }
+
+    @Test
+    public void testProfilingReport() throws IOException {
+        fileSystem.setWorkDir(temp.newFolder());
+        addFile("test_doc.ex", "test_doc.ex");
+        settings.setProperty(ElixirConfiguration.PROFILING_KEY, true);
+        settings.setProperty(ElixirConfiguration.PROFILING_REPORT_KEY, true);
+
+        sensor.analyse(project, context);
+
+        String report = FileUtils.readFileToString(new File(fileSystem.workDir(), ElixirAnalysisStatistics.FILE_NAME));
+        assertThat(report).contains("\"files\": 1,");
+        assertThat(report).contains("\"lines\": 37,");
+        assertThat(report).contains("\"path\": \"test_doc.ex\"");
+    }
+
+    @Test
+    public void testProfilingDisabled() throws IOException {
+        fileSystem.setWorkDir(temp.newFolder());
+        addFile("test_doc.ex", "test_doc.ex");
+        settings.setProperty(ElixirConfiguration.PROFILING_REPORT_KEY, true);
+
+        sensor.analyse(project, context);
+
+        assertThat(new File(fileSystem.workDir(), ElixirAnalysisStatistics.FILE_NAME).exists()).isFalse();
+    }
+
+    @Test
+    public void testHighlightingAndSymbols() throws IOException {
+        fileSystem.setWorkDir(temp.newFolder());
+        addFile("test_doc.ex", "test_doc.ex");
+        Highlightable highlightable = mock(Highlightable.class);
+        Highlightable.HighlightingBuilder highlighting = mock(Highlightable.HighlightingBuilder.class);
+        Symbolizable symbolizable = mock(Symbolizable.class);
+        Symbolizable.SymbolTableBuilder symbols = mock(Symbolizable.SymbolTableBuilder.class);
+        when(context.getResource(any(Resource.class))).thenAnswer(returnsFirstArg());
+        when(perspectives.as(eq(Highlightable.class), any(Resource.class))).thenReturn(highlightable);
+        when(perspectives.as(eq(Symbolizable.class), any(Resource.class))).thenReturn(symbolizable);
+        when(highlightable.newHighlighting()).thenReturn(highlighting);
+        when(highlighting.highlight(anyInt(), anyInt(), anyString())).thenReturn(highlighting);
+        when(symbolizable.newSymbolTableBuilder()).thenReturn(symbols);
+
+        sensor.analyse(project, context);
+        sensor.analyse(project, context);
+
+        verify(highlighting, atLeast(2)).highlight(anyInt(), anyInt(), eq("k"));
+        verify(highlighting, atLeast(2)).highlight(anyInt(), anyInt(), eq("j"));
+        verify(highlighting, times(2)).done();
+        verify(symbolizable, times(2)).setSymbolTable(any(Symbolizable.SymbolTable.class));
+    }
+
+    @Test
+    public void testUnknownResource() throws IOException {
+        addFile("test_doc.ex", "test_doc.ex");
+
+        sensor.analyse(project, context);
+
+        verify(context).saveMeasure(any(InputFile.class), eq(CoreMetrics.LINES), eq(37.0));
+        verifyZeroInteractions(perspectives);
+    }
+
+    @Test
+    public void testIssues() throws IOException {
+        fileSystem.setWorkDir(temp.newFolder());
+        addFile("test_doc.ex", "test_doc.ex");
+        RuleKey ruleKey = RuleKey.of(CheckList.REPOSITORY_KEY, ZeroArityParenthesesCheck.KEY);
+        sensor = new ElixirMeasureSensor(fileSystem, settings, perspectives,
+                new ActiveRulesBuilder().create(ruleKey).activate().build());
+        Issuable issuable = mock(Issuable.class);
+        Issuable.IssueBuilder builder = mock(Issuable.IssueBuilder.class);
+        when(context.getResource(any(Resource.class))).thenAnswer(returnsFirstArg());
+        when(perspectives.as(eq(Issuable.class), any(Resource.class))).thenReturn(issuable);
+        when(issuable.newIssueBuilder()).thenReturn(builder);
+        when(builder.ruleKey(any(RuleKey.class))).thenReturn(builder);
+        when(builder.line(anyInt())).thenReturn(builder);
+        when(builder.message(anyString())).thenReturn(builder);
+        when(builder.build()).thenReturn(mock(Issue.class));
+
+        sensor.analyse(project, context);
+        sensor.analyse(project, context);
+
+        verify(builder, times(12)).ruleKey(ruleKey);
+        verify(builder, times(2)).line(9);
+        verify(builder, times(2)).line(31);
+        verify(issuable, times(12)).addIssue(any(Issue.class));
+    }
+
+    @Test
+    public void testBannedTextIssues() throws IOException {
+        addFile("test_doc.ex", "test_doc.ex");
+        RuleKey ruleKey = RuleKey.of(CheckList.REPOSITORY_KEY, BannedTextCheck.KEY);
+        sensor = new ElixirMeasureSensor(fileSystem, settings, perspectives,
+                new ActiveRulesBuilder().create(ruleKey).setParam("texts", "@doc false,private function").activate().build());
+        Issuable issuable = mock(Issuable.class);
+        Issuable.IssueBuilder builder = mock(Issuable.IssueBuilder.class);
+        when(context.getResource(any(Resource.class))).thenAnswer(returnsFirstArg());
+        when(perspectives.as(eq(Issuable.class), any(Resource.class))).thenReturn(issuable);
+        when(issuable.newIssueBuilder()).thenReturn(builder);
+        when(builder.ruleKey(any(RuleKey.class))).thenReturn(builder);
+        when(builder.line(anyInt())).thenReturn(builder);
+        when(builder.message(anyString())).thenReturn(builder);
+        when(builder.build()).thenReturn(mock(Issue.class));
+
+        sensor.analyse(project, context);
+
+        verify(builder, times(3)).ruleKey(ruleKey);
+        verify(builder).line(12);
+        verify(builder).line(20);
+        verify(builder).line(30);
+        verify(builder).message("Remove this use of \"@doc false\".");
+    }
+
+    @Test
+    public void testUnusedFunctionIssues() throws IOException {
+        addFile("test_doc.ex", "test_doc.ex");
+        RuleKey ruleKey = RuleKey.of(CheckList.REPOSITORY_KEY, UnusedPublicFunctionCheck.KEY);
+        sensor = new ElixirMeasureSensor(fileSystem, settings, perspectives,
+                new ActiveRulesBuilder().create(ruleKey).setParam("entryPoints", "Docs.doc3/*").activate().build());
+        Issuable issuable = mock(Issuable.class);
+        Issuable.IssueBuilder builder = mock(Issuable.IssueBuilder.class);
+        when(context.getResource(any(Resource.class))).thenAnswer(returnsFirstArg());
+        when(perspectives.as(eq(Issuable.class), any(Resource.class))).thenReturn(issuable);
+        when(issuable.newIssueBuilder()).thenReturn(builder);
+        when(builder.ruleKey(any(RuleKey.class))).thenReturn(builder);
+        when(builder.line(anyInt())).thenReturn(builder);
+        when(builder.message(anyString())).thenReturn(builder);
+        when(builder.build()).thenReturn(mock(Issue.class));
+
+        sensor.analyse(project, context);
+
+        verify(builder, times(3)).ruleKey(ruleKey);
+        verify(builder).line(9);
+        verify(builder).line(13);
+        verify(builder).line(25);
+        verify(builder).message("Remove this unused public function Docs.doc1/0.");
+    }
+
+    @Test
+    public void testUnusedFunctionsCalledFromTemplate() throws IOException {
+        addFile("test_doc.ex", "test_doc.ex");
+        FileUtils.write(new File(baseDir, "page.html.eex"), "<p><%= Docs.doc1() %></p>\n");
+        fileSystem.add(new DefaultInputFile("page.html.eex").setLanguage(Elixir.KEY)
+                .setAbsolutePath(new File(baseDir, "page.html.eex").getAbsolutePath()));
+        RuleKey ruleKey = RuleKey.of(CheckList.REPOSITORY_KEY, UnusedPublicFunctionCheck.KEY);
+        sensor = new ElixirMeasureSensor(fileSystem, settings, perspectives,
+                new ActiveRulesBuilder().create(ruleKey).activate().build());
+        when(context.getResource(any(Resource.class))).thenAnswer(returnsFirstArg());
+
+        sensor.analyse(project, context);
+
+        verify(perspectives, never()).as(eq(Issuable.class), any(Resource.class));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,159 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirModuleGraphTest {
+
+    private static ElixirModuleGraph graph(String... files) {
+        ElixirModuleGraph graph = new ElixirModuleGraph();
+        for (int i = 0; i < files.length; i++) {
+            ElixirModuleReferences references = new ElixirModuleReferences();
+            new ElixirParser().parse(files[i], references);
+            graph.add(i, references);
+        }
+        graph.build();
+        return graph;
+    }
+
+    private static List<String> names(ElixirModuleGraph graph, int[] modules) {
+        List<String> names = new ArrayList<>();
+        for (int module : modules) {
+            names.add(graph.getName(module));
+        }
+        return names;
+    }
+
+    @Test
+    public void testCouplings() {
+        ElixirModuleGraph graph = graph(
+                "defmodule A do\n  def a, do: {B.b(), B.b(), C.c(), Enum.map([], & &1), A.a()}\nend\n",
+                "defmodule B do\n  def b, do: C.c()\nend\n",
+                "defmodule C do\n  def c, do: 1\nend\n");
+        int a = graph.getId("A");
+        int c = graph.getId("C");
+        assertThat(names(graph, graph.getDependencies(a))).containsOnly("B", "C");
+        assertThat(graph.getEfferentCouplings(a)).isEqualTo(2);
+        assertThat(graph.getAfferentCouplings(a)).isEqualTo(0);
+        assertThat(graph.getAfferentCouplings(c)).isEqualTo(2);
+        assertThat(graph.getEfferentCouplings(c)).isEqualTo(0);
+        assertThat(graph.getFile(graph.getId("Enum"))).isEqualTo(-1);
+        assertThat(graph.getId("Missing")).isEqualTo(-1);
+        assertThat(graph.getCycles()).isEmpty();
+    }
+
+    @Test
+    public void testFileCouplings() {
+        ElixirModuleGraph graph = graph(
+                "defmodule A do\n  def a, do: {B.b(), C.c()}\nend\ndefmodule A2 do\n  def a, do: {A.a(), C.c()}\nend\n",
+                "defmodule B do\n  def b, do: C.c()\nend\ndefmodule C do\n  def c, do: 1\nend\n",
+                "# no module\n");
+        int[][] couplings = graph.getFileCouplings(3);
+        assertThat(couplings[0]).isEqualTo(new int[] { 0, 2 });
+        assertThat(couplings[1]).isEqualTo(new int[] { 2, 0 });
+        assertThat(couplings[2]).isEqualTo(new int[] { 0, 0 });
+    }
+
+    @Test
+    public void testCycles() {
+        ElixirModuleGraph graph = graph(
+                "defmodule A do\n  def a, do: B.b()\nend\n",
+                "defmodule B do\n  def b, do: C.c()\nend\n",
+                "defmodule C do\n  def c, do: {A.a(), D.d()}\nend\n",
+                "defmodule D do\n  def d, do: E.e()\nend\ndefmodule E do\n  def e, do: D.d()\nend\n",
+                "defmodule F do\n  def f, do: A.a()\nend\n");
+        List<int[]> cycles = graph.getCycles();
+        assertThat(cycles).hasSize(2);
+        List<List<String>> named = new ArrayList<>();
+        for (int[] cycle : cycles) {
+            List<String> names = names(graph, cycle);
+            Collections.sort(names);
+            named.add(names);
+        }
+        assertThat(named).containsOnly(Arrays.asList("D", "E"), Arrays.asList("A", "B", "C"));
+    }
+
+    @Test
+    public void testDeepChainDoesNotOverflow() {
+        int n = 200000;
+        ElixirModuleGraph graph = new ElixirModuleGraph();
+        for (int i = 0; i < n; i++) {
+            graph.declare("M" + i, i);
+        }
+        for (int i = 0; i < n; i++) {
+            graph.addDependency(i, (i + 1) % n);
+        }
+        graph.build();
+        List<int[]> cycles = graph.getCycles();
+        assertThat(cycles).hasSize(1);
+        assertThat(cycles.get(0).length).isEqualTo(n);
+    }
+
+    @Test
+    public void testLargeGraph() {
+        int n = 20000;
+        ElixirModuleGraph graph = new ElixirModuleGraph();
+        for (int i = 0; i < n; i++) {
+            int from = graph.declare("App" + (i % 20) + ".Module" + i, i);
+            for (int j = 1; j <= 10; j++) {
+                int to = (i * 31 + j * 7) % n;
+                graph.addDependency(from, graph.intern("App" + (to % 20) + ".Module" + to));
+            }
+            graph.addDependency(from, graph.intern("Enum"));
+        }
+        graph.build();
+        assertThat(graph.getModuleCount()).isEqualTo(n + 1);
+        List<int[]> cycles = graph.getCycles();
+        assertThat(cycles).hasSize(1);
+        assertThat(cycles.get(0).length).isEqualTo(n);
+        int afferent = 0;
+        int efferent = 0;
+        for (int[] coupling : graph.getFileCouplings(n)) {
+            afferent += coupling[0];
+            efferent += coupling[1];
+        }
+        assertThat(afferent).isEqualTo(199990);
+        assertThat(efferent).isEqualTo(199990);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNotBuilt() {
+        new ElixirModuleGraph().getCycles();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddAfterBuild() {
+        ElixirModuleGraph graph = new ElixirModuleGraph();
+        graph.build();
+        graph.declare("A", 0);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirModuleReferencesTest {
+
+    private static ElixirModuleReferences parse(String content) {
+        ElixirModuleReferences references = new ElixirModuleReferences();
+        new ElixirParser().parse(content, references);
+        return references;
+    }
+
+    @Test
+    public void testDirectivesAndCalls() {
+        ElixirModuleReferences references = parse(""
+                + "defmodule MyApp.Web do\n"
+                + "  alias MyApp.Repo\n"
+                + "  import Ecto.Query, only: [from: 2]\n"
+                + "  require Logger\n"
+                + "  use GenServer\n"
+                + "  def a(%MyApp.User{} = user), do: Repo.insert(user)\n"
+                + "  def b, do: MyApp.Web.c()\n"
+                + "end\n");
+        assertThat(references.getModules()).containsExactly("MyApp.Web");
+        assertThat(references.getReferences("MyApp.Web")).containsOnly(
+                "MyApp.Repo", "Ecto.Query", "Logger", "GenServer", "MyApp.User");
+    }
+
+    @Test
+    public void testAliasForms() {
+        ElixirModuleReferences references = parse(""
+                + "defmodule A do\n"
+                + "  alias MyApp.Accounts, as: Acc\n"
+                + "  alias MyApp.{Repo, Mailer.Smtp,\n"
+                + "    Cache}\n"
+                + "  def a, do: {Acc.get(), Repo.all(), Smtp.send(), Cache.Store.get(), Accounts.x()}\n"
+                + "end\n");
+        assertThat(references.getReferences("A")).containsOnly("MyApp.Accounts", "MyApp.Repo",
+                "MyApp.Mailer.Smtp", "MyApp.Cache", "MyApp.Cache.Store", "Accounts");
+    }
+
+    @Test
+    public void testNestedModules() {
+        ElixirModuleReferences references = parse(""
+                + "defmodule Outer do\n"
+                + "  defmodule Inner do\n"
+                + "    def a, do: fn -> Other.b() end\n"
+                + "  end\n"
+                + "  def b, do: Inner.a()\n"
+                + "end\n"
+                + "defmodule Second do\n"
+                + "  def c, do: Outer.b()\n"
+                + "end\n");
+        assertThat(references.getModules()).containsExactly("Outer", "Outer.Inner", "Second");
+        assertThat(references.getReferences("Outer.Inner")).containsOnly("Other");
+        assertThat(references.getReferences("Outer")).containsOnly("Outer.Inner");
+        assertThat(references.getReferences("Second")).containsOnly("Outer");
+        assertThat(references.getReferences("Unknown")).isEmpty();
+    }
+
+    @Test
+    public void testDefinitions() {
+        ElixirModuleReferences references = parse(""
+                + "defmodule A do\n"
+                + "  @behaviour B\n"
+                + "  use GenServer\n"
+                + "  def a, do: 1\n"
+                + "  def b(x, y \\\\ 2, opts \\\\ []), do: x\n"
+                + "  def b(x, y, z) when is_integer(x) do\n"
+                + "    y\n"
+                + "  end\n"
+                + "  defp c(x), do: x\n"
+                + "  defmacro d(ast), do: ast\n"
+                + "  @impl true\n"
+                + "  def init(state), do: {:ok, state}\n"
+                + "  def init(a, b), do: {a, b}\n"
+                + "  defmacro __using__(_) do\n"
+                + "    quote do\n"
+                + "      def injected, do: :ok\n"
+                + "    end\n"
+                + "  end\n"
+                + "  defimpl String.Chars do\n"
+                + "    def to_string(_), do: \"a\"\n"
+                + "  end\n"
+                + "  @callback e(integer, map) :: :ok\n"
+                + "  @macrocallback f() :: Macro.t\n"
+                + "  @spec g(integer) :: :ok\n"
+                + "  def g(%{a: 1, b: [x, y]}), do: :ok\n"
+                + "end\n");
+        assertThat(references.getDefinitions("A").keySet()).containsOnly(
+                "a/0", "b/3", "d/1", "init/1", "init/2", "__using__/1", "to_string/1", "g/1");
+        assertThat(references.getDefinitions("A").get("b/3")).isEqualTo(new int[] { 2, 5, 0 });
+        assertThat(references.getDefinitions("A").get("init/1")[ElixirModuleReferences.CALLBACK]).isEqualTo(1);
+        assertThat(references.getDefinitions("A").get("init/2")[ElixirModuleReferences.CALLBACK]).isEqualTo(0);
+        assertThat(references.getDefinitions("A").get("to_string/1")[ElixirModuleReferences.CALLBACK]).isEqualTo(1);
+        assertThat(references.getCallbacks("A")).containsOnly("e/2", "f/0");
+        assertThat(references.getBehaviours("A")).containsOnly("B", "GenServer");
+        assertThat(references.getCalls("A")).excludes("g/1", "e/2", "integer/-1");
+    }
+
+    @Test
+    public void testCalls() {
+        ElixirModuleReferences references = parse(""
+                + "defmodule A do\n"
+                + "  alias MyApp.Repo\n"
+                + "  import MyApp.Helpers\n"
+                + "  def a(list) do\n"
+                + "    list\n"
+                + "    |> Enum.map(&Repo.get/1)\n"
+                + "    |> b(1, key: 2, other: 3)\n"
+                + "    |> Repo.insert\n"
+                + "    c(fn x, y -> {x, y} end, [1, 2], %{a: d()})\n"
+                + "    Enum.each(list, &e/2)\n"
+                + "    __MODULE__.f(map.field)\n"
+                + "    :ets.lookup(:t, 1)\n"
+                + "  end\n"
+                + "  defdelegate g(x), to: MyApp.Other, as: :h\n"
+                + "end\n");
+        assertThat(references.getCalls("A")).containsOnly(
+                "list/-1", "Enum.map/2", "MyApp.Repo.get/1", "b/3", "MyApp.Repo.insert/-1",
+                "c/3", "x/-1", "y/-1", "d/0", "Enum.each/2", "e/2", "A.f/1", "map/-1", "MyApp.Other.h/1");
+        assertThat(references.getImports("A")).containsOnly("MyApp.Helpers");
+        assertThat(references.getDefinitions("A").keySet()).containsOnly("a/1", "g/1");
+    }
+
+    @Test
+    public void testReferencesOutsideModulesIgnored() {
+        ElixirModuleReferences references = parse("Application.start(:a)\n");
+        assertThat(references.getModules()).isEmpty();
+    }
+
+    @Test
+    public void testArrayRoundTrip() {
+        ElixirModuleReferences references = parse(""
+                + "defmodule A do\n  import D\n  @behaviour E\n  @callback f(t) :: t\n  def a, do: B.c()\nend\n"
+                + "defmodule C do\nend\n");
+        ElixirModuleReferences copy = new ElixirModuleReferences(references.toArray());
+        assertThat(copy.getModules()).containsExactly("A", "C");
+        assertThat(copy.getReferences("A")).containsOnly("D", "E", "B");
+        assertThat(copy.getReferences("C")).isEmpty();
+        assertThat(copy.getImports("A")).containsOnly("D");
+        assertThat(copy.getBehaviours("A")).containsOnly("E");
+        assertThat(copy.getCallbacks("A")).containsOnly("f/1");
+        assertThat(copy.getDefinitions("A").get("a/0")).isEqualTo(new int[] { 0, 5, 0 });
+        assertThat(copy.getCalls("A")).containsOnly("B.c/0");
+        assertThat(copy.getCalls("C")).isEmpty();
+        assertThat(new ElixirModuleReferences(new int[0]).getModules()).isEmpty();
+    }
+}
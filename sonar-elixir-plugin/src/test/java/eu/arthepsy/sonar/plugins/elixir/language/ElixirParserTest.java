@@ -0,0 +1,225 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirParserTest {
+
+    private ElixirFileMetrics parse(String... lines) {
+        return new ElixirParser().parse(Arrays.asList(lines));
+    }
+
+    @Test
+    public void testEmptyAndCommentLines() {
+        ElixirFileMetrics metrics = parse("", " \t", "# comment", "  #comment", "x = 1 # trailing");
+        assertThat(metrics.getLineCount()).isEqualTo(5);
+        assertThat(metrics.getEmptyLineCount()).isEqualTo(2);
+        assertThat(metrics.getCommentLineCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testDocHeredoc() {
+        ElixirFileMetrics metrics = parse(
+                "defmodule A do",
+                "  @moduledoc \"\"\"",
+                "",
+                "  module",
+                "  \"\"\"",
+                "  def a, do: 1",
+                "end");
+        assertThat(metrics.getEmptyLineCount()).isEqualTo(0);
+        assertThat(metrics.getCommentLineCount()).isEqualTo(4);
+        assertThat(metrics.getDocumentedClassCount()).isEqualTo(1);
+        assertThat(metrics.getPublicFunctionCount()).isEqualTo(1);
+        assertThat(metrics.getDocumentedPublicFunctionCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testCodeHeredoc() {
+        ElixirFileMetrics metrics = parse(
+                "def text do",
+                "  \"\"\"",
+                "  def not_a_function",
+                "",
+                "  \"\"\"",
+                "end");
+        assertThat(metrics.getEmptyLineCount()).isEqualTo(0);
+        assertThat(metrics.getCommentLineCount()).isEqualTo(0);
+        assertThat(metrics.getPublicFunctionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testDisabledDoc() {
+        ElixirFileMetrics metrics = parse(
+                "@doc False ",
+                "def a do",
+                "@doc nil",
+                "defp b do",
+                "@doc \"b\"",
+                "defstruct x: 1",
+                "def c do");
+        assertThat(metrics.getCommentLineCount()).isEqualTo(3);
+        assertThat(metrics.getPublicFunctionCount()).isEqualTo(2);
+        assertThat(metrics.getPrivateFunctionCount()).isEqualTo(1);
+        assertThat(metrics.getDocumentedPublicFunctionCount()).isEqualTo(0);
+        assertThat(metrics.getDocumentedPrivateFunctionCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testDefinitionKeywords() {
+        ElixirFileMetrics metrics = parse(
+                "@doc \"a\"",
+                "defp\ta(x)",
+                "defmacro b do",
+                // A Unicode line separator after the keyword is not whitespace, so this is no module.
+                "defmodule\u2028C do",
+                "defmodule C do",
+                "default = 1");
+        assertThat(metrics.getPrivateFunctionCount()).isEqualTo(1);
+        assertThat(metrics.getDocumentedPrivateFunctionCount()).isEqualTo(1);
+        assertThat(metrics.getPublicFunctionCount()).isEqualTo(0);
+        assertThat(metrics.getClassCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testTypespecs() {
+        ElixirFileMetrics metrics = parse(
+                "defmodule A do",
+                "  @type t :: %__MODULE__{}",
+                "  @typep state :: map",
+                "  @opaque id :: integer",
+                "  @typedoc \"not a type\"",
+                "  @types []",
+                "  @callback init(term) :: :ok",
+                "  @macrocallback m(term) :: Macro.t",
+                "  @spec a(t) :: t",
+                "  @doc \"a\"",
+                "  def a(x), do: x",
+                "  def a(y), do: y",
+                "  @spec(b :: t)",
+                "  defp b, do: 1",
+                "  def c, do: 2",
+                "  @spec d :: :ok",
+                "  def d,",
+                "    do: :ok",
+                "  @specs []",
+                "  def e, do: 3",
+                "end");
+        assertThat(metrics.getTypeCount()).isEqualTo(3);
+        assertThat(metrics.getCallbackCount()).isEqualTo(2);
+        assertThat(metrics.getPublicFunctionCount()).isEqualTo(5);
+        assertThat(metrics.getSpecifiedPublicFunctionCount()).isEqualTo(3);
+        assertThat(metrics.getDocumentedPublicFunctionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSpecifiedClauses() {
+        ElixirFileMetrics metrics = parse(
+                "@spec f(integer) :: integer",
+                "def f(0), do: 1",
+                "",
+                "# last clause",
+                "def f(n), do: n * f(n - 1)",
+                "def g(x), do: x",
+                "def f(x), do: x",
+                "@spec h? :: boolean",
+                "def h?, do: true",
+                "def h!, do: true",
+                "@spec i :: :ok",
+                "def i, do: :ok",
+                "defp j, do: :ok",
+                "def i(x), do: x");
+        assertThat(metrics.getPublicFunctionCount()).isEqualTo(8);
+        assertThat(metrics.getSpecifiedPublicFunctionCount()).isEqualTo(4);
+        assertThat(parse("@spec f(integer) :: integer", "def f(0), do: 1", "def f(n), do: n")
+                .getSpecifiedPublicFunctionCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testContentLineTerminators() {
+        ElixirParser parser = new ElixirParser();
+        ElixirFileMetrics metrics = parser.parse("# a\r\n\r\ndef b do\rend\n\n");
+        assertThat(metrics.getLineCount()).isEqualTo(5);
+        assertThat(metrics.getEmptyLineCount()).isEqualTo(2);
+        assertThat(metrics.getCommentLineCount()).isEqualTo(1);
+        assertThat(metrics.getPublicFunctionCount()).isEqualTo(1);
+
+        assertThat(parser.parse("").getLineCount()).isEqualTo(0);
+        assertThat(parser.parse("end").getLineCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testReuse() {
+        ElixirParser parser = new ElixirParser();
+        String content = "defmodule A do\n  @moduledoc \"\"\"\n  A\n  \"\"\"\n  @doc false\n  def a, do: 1\nend\n";
+        ElixirFileMetrics first = parser.parse(content);
+        parser.parse("\"\"\"\nunterminated heredoc\n@doc \"b\"\n");
+        assertThat(parser.parse(content)).isEqualTo(first);
+        assertThat(new ElixirParser().parse(content)).isEqualTo(first);
+        assertThat(first.getDocumentedClassCount()).isEqualTo(1);
+        assertThat(first.getDocumentedPublicFunctionCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testChunkedParse() throws IOException {
+        String content = "defmodule A do\r\n  @moduledoc \"\"\"\r\n  A\r\n  \"\"\"\r\n\r\n"
+                + "  # a comment on a line longer than the chunks\r"
+                + "  @doc \"a\"\n  def a, do: 1\n  defp b, do: 2\nend";
+        ElixirParser parser = new ElixirParser();
+        ElixirFileMetrics expected = parser.parse(content);
+        for (int chunkSize = 1; chunkSize <= 24; chunkSize++) {
+            assertThat(parser.parse(new StringReader(content), chunkSize)).isEqualTo(expected);
+        }
+        assertThat(parser.parse(new StringReader(content + "\r"), 2)).isEqualTo(parser.parse(content + "\r"));
+        assertThat(parser.parse(new StringReader(""), 4).getLineCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testCheckpoints() {
+        List<String> lines = Arrays.asList("defmodule A do", "  @doc \"a\"", "  @spec a :: 1", "  x = \"\"\"",
+                "  def b", "  \"\"\"", "  def a, do: 1", "end");
+        ElixirParser parser = new ElixirParser();
+        ElixirFileMetrics first = parser.parse(lines, 0, 4, ElixirParser.Checkpoint.START);
+        ElixirParser.Checkpoint checkpoint = parser.checkpoint();
+        assertThat(checkpoint).isNotEqualTo(ElixirParser.Checkpoint.START);
+        ElixirFileMetrics second = parser.parse(lines, 4, lines.size(), checkpoint);
+        assertThat(first.plus(second)).isEqualTo(parser.parse(lines));
+        assertThat(second.getDocumentedPublicFunctionCount()).isEqualTo(1);
+        assertThat(second.getSpecifiedPublicFunctionCount()).isEqualTo(1);
+        assertThat(parser.checkpoint()).isEqualTo(parser.checkpoint());
+        assertThat(parser.checkpoint().hashCode()).isEqualTo(parser.checkpoint().hashCode());
+
+        List<String> clauses = Arrays.asList("@spec f(term) :: term", "def f(0), do: 1", "def f(n), do: n");
+        parser.parse(clauses, 0, 2, ElixirParser.Checkpoint.START);
+        assertThat(parser.parse(clauses, 2, 3, parser.checkpoint()).getSpecifiedPublicFunctionCount()).isEqualTo(1);
+    }
+}
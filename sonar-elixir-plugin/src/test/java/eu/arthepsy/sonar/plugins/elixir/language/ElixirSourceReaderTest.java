@@ -0,0 +1,105 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import eu.arthepsy.sonar.plugins.elixir.util.ClassDefinition;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirSourceReaderTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testClassDefinition() {
+        ClassDefinition.testFinalClassDefinition(ElixirSourceReader.class, true);
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        File file = temp.newFile("small.ex");
+        FileUtils.write(file, "defmodule Ä do\nend\n", StandardCharsets.UTF_8);
+        CharSequence content = ElixirSourceReader.read(file.toPath(), StandardCharsets.UTF_8);
+        assertThat(content.toString()).isEqualTo("defmodule Ä do\nend\n");
+    }
+
+    @Test
+    public void testReadMapped() throws IOException {
+        File file = temp.newFile("large.ex");
+        StringBuilder source = new StringBuilder();
+        while (source.length() <= ElixirSourceReader.MAP_THRESHOLD) {
+            source.append("  def fun, do: :ok\n");
+        }
+        FileUtils.write(file, source, StandardCharsets.UTF_8);
+        CharSequence content = ElixirSourceReader.read(file.toPath(), StandardCharsets.UTF_8);
+        assertThat(content.length()).isEqualTo(source.length());
+        assertThat(content.toString()).isEqualTo(source.toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformedInput() throws IOException {
+        File file = temp.newFile("malformed.ex");
+        FileUtils.writeByteArrayToFile(file, new byte[] {'d', 'e', 'f', (byte) 0xff, '\n'});
+        ElixirSourceReader.read(file.toPath(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testNewReader() throws IOException {
+        File file = temp.newFile("streamed.ex");
+        FileUtils.write(file, "defmodule Ä do\nend\n", StandardCharsets.UTF_8);
+        try (Reader reader = ElixirSourceReader.newReader(file.toPath(), StandardCharsets.UTF_8)) {
+            assertThat(new ElixirParser().parse(reader, 4).getClassCount()).isEqualTo(1);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testNewReaderMalformedInput() throws IOException {
+        File file = temp.newFile("malformed.ex");
+        FileUtils.writeByteArrayToFile(file, new byte[] {'d', 'e', 'f', (byte) 0xff, '\n'});
+        try (Reader reader = ElixirSourceReader.newReader(file.toPath(), StandardCharsets.UTF_8)) {
+            new ElixirParser().parse(reader, 4);
+        }
+    }
+
+    @Test
+    public void testAsciiView() {
+        ByteBuffer ascii = ByteBuffer.wrap("def a\n".getBytes(StandardCharsets.UTF_8));
+        assertThat(ElixirSourceReader.asciiView(ascii, StandardCharsets.UTF_8).toString()).isEqualTo("def a\n");
+        assertThat(ElixirSourceReader.asciiView(ascii, StandardCharsets.ISO_8859_1)).isNotNull();
+        assertThat(ElixirSourceReader.asciiView(ascii, StandardCharsets.UTF_16)).isNull();
+        ByteBuffer other = ByteBuffer.wrap("def Ä\n".getBytes(StandardCharsets.UTF_8));
+        assertThat(ElixirSourceReader.asciiView(other, StandardCharsets.UTF_8)).isNull();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirSymbolIndexTest {
+
+    private static ElixirModuleReferences parse(String content) {
+        ElixirModuleReferences references = new ElixirModuleReferences();
+        new ElixirParser().parse(content, references);
+        return references;
+    }
+
+    private static List<String> unused(ElixirSymbolIndex index, String... entryPoints) {
+        List<String> result = new ArrayList<>();
+        for (int definition : index.findUnused(Arrays.asList(entryPoints))) {
+            result.add(index.getLabel(definition));
+        }
+        return result;
+    }
+
+    @Test
+    public void testRemoteAndLocalCalls() {
+        ElixirSymbolIndex index = new ElixirSymbolIndex();
+        index.add(0, parse(""
+                + "defmodule MyApp.Accounts do\n"
+                + "  def get(id), do: fetch(id)\n"
+                + "  def fetch(id), do: id\n"
+                + "  def list(opts \\\\ []), do: opts\n"
+                + "  def delete(id), do: id\n"
+                + "  def dead(a, b), do: {a, b}\n"
+                + "end\n"));
+        index.add(1, parse(""
+                + "defmodule MyApp.Web do\n"
+                + "  alias MyApp.Accounts\n"
+                + "  def show(id), do: Accounts.get(id)\n"
+                + "  def index, do: Accounts.list()\n"
+                + "  def remove(ids), do: Enum.each(ids, &Accounts.delete/1)\n"
+                + "  def dead(a), do: Accounts.dead(a)\n"
+                + "end\n"));
+        assertThat(unused(index)).containsExactly("MyApp.Accounts.dead/2", "MyApp.Web.show/1",
+                "MyApp.Web.index/0", "MyApp.Web.remove/1", "MyApp.Web.dead/1");
+        assertThat(unused(index, "MyApp.Web.*")).containsExactly("MyApp.Accounts.dead/2");
+        assertThat(index.getDefinitionCount()).isEqualTo(9);
+        int dead = index.findUnused(Collections.singletonList("MyApp.Web.*"))[0];
+        assertThat(index.getFile(dead)).isEqualTo(0);
+        assertThat(index.getLine(dead)).isEqualTo(6);
+    }
+
+    @Test
+    public void testUnknownArityAndImports() {
+        ElixirSymbolIndex index = new ElixirSymbolIndex();
+        index.add(0, parse(""
+                + "defmodule Helpers do\n"
+                + "  def format(a), do: a\n"
+                + "  def format(a, b), do: {a, b}\n"
+                + "  def parse(a), do: a\n"
+                + "  def unused(a), do: a\n"
+                + "end\n"));
+        index.add(1, parse(""
+                + "defmodule Main do\n"
+                + "  import Helpers\n"
+                + "  def main(x), do: x |> parse |> Helpers.format\n"
+                + "end\n"));
+        assertThat(unused(index, "*.main/1")).containsExactly("Helpers.unused/1");
+    }
+
+    @Test
+    public void testCallbacks() {
+        ElixirSymbolIndex index = new ElixirSymbolIndex();
+        index.add(0, parse(""
+                + "defmodule Worker do\n"
+                + "  @callback perform(term) :: :ok\n"
+                + "end\n"
+                + "defmodule MyWorker do\n"
+                + "  @behaviour Worker\n"
+                + "  def perform(_), do: :ok\n"
+                + "  def perform(_, _), do: :ok\n"
+                + "  @impl true\n"
+                + "  def handle(_), do: :ok\n"
+                + "end\n"));
+        assertThat(unused(index)).containsExactly("MyWorker.perform/2");
+    }
+
+    @Test
+    public void testManyDefinitions() {
+        ElixirSymbolIndex index = new ElixirSymbolIndex();
+        StringBuilder callee = new StringBuilder("defmodule Callee do\n");
+        StringBuilder caller = new StringBuilder("defmodule Caller do\n  def run do\n");
+        for (int i = 0; i < 5000; i++) {
+            callee.append("  def f").append(i).append("(x), do: x\n");
+            if (i % 2 == 0) {
+                caller.append("    Callee.f").append(i).append("(1)\n");
+            }
+        }
+        index.add(0, parse(callee.append("end\n").toString()));
+        index.add(1, parse(caller.append("  end\nend\n").toString()));
+        assertThat(index.findUnused(Collections.singletonList("Caller.run/0")).length).isEqualTo(2500);
+    }
+}
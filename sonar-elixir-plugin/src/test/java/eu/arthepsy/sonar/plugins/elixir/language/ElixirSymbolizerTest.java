@@ -0,0 +1,78 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.junit.Test;
+import org.sonar.api.source.Symbol;
+import org.sonar.api.source.Symbolizable;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ElixirSymbolizerTest {
+
+    private static final String CONTENT =
+            "@limit 10\n" +
+            "@doc \"x\"\n" +
+            "def run(x), do: helper(x, @limit)\n" +
+            "defp helper(0, _), do: 0\n" +
+            "defp helper(x, limit), do: &helper/2\n";
+
+    @Test
+    public void testSave() {
+        ElixirSymbolizer symbolizer = new ElixirSymbolizer();
+        new ElixirParser().parse(CONTENT, symbolizer);
+        assertThat(symbolizer.getSymbolCount()).isEqualTo(3);
+
+        Symbolizable symbolizable = mock(Symbolizable.class);
+        Symbolizable.SymbolTableBuilder builder = mock(Symbolizable.SymbolTableBuilder.class);
+        Symbolizable.SymbolTable table = mock(Symbolizable.SymbolTable.class);
+        Symbol limit = mock(Symbol.class);
+        Symbol run = mock(Symbol.class);
+        Symbol helper = mock(Symbol.class);
+        when(symbolizable.newSymbolTableBuilder()).thenReturn(builder);
+        when(builder.newSymbol(0, 6)).thenReturn(limit);
+        when(builder.newSymbol(23, 26)).thenReturn(run);
+        when(builder.newSymbol(58, 64)).thenReturn(helper);
+        when(builder.build()).thenReturn(table);
+        symbolizer.save(symbolizable);
+
+        verify(builder).newReference(limit, 45);
+        verify(builder).newReference(helper, 35);
+        verify(builder).newReference(helper, 83);
+        verify(builder).newReference(helper, 106);
+        verify(builder, times(3)).newSymbol(anyInt(), anyInt());
+        verify(builder, times(4)).newReference(any(Symbol.class), anyInt());
+        verify(symbolizable).setSymbolTable(table);
+    }
+
+    @Test
+    public void testCachedTable() {
+        ElixirSymbolizer symbolizer = new ElixirSymbolizer();
+        new ElixirParser().parse(CONTENT, symbolizer);
+        ElixirSymbolizer cached = new ElixirSymbolizer(symbolizer.toArray());
+        assertThat(cached.getSymbolCount()).isEqualTo(3);
+        assertThat(new ElixirSymbolizer().getSymbolCount()).isEqualTo(0);
+    }
+}
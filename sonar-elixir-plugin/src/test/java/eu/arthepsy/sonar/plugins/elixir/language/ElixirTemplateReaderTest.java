@@ -0,0 +1,108 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.language;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirTemplateReaderTest {
+
+    private static String read(Reader reader, int chunkSize) throws IOException {
+        StringBuilder result = new StringBuilder();
+        char[] chunk = new char[chunkSize];
+        int read;
+        while ((read = reader.read(chunk, 0, chunkSize)) >= 0) {
+            result.append(chunk, 0, read);
+        }
+        return result.toString();
+    }
+
+    private static String mask(String template, boolean braces) throws IOException {
+        String masked = read(new ElixirTemplateReader(CharBuffer.wrap(template), braces), 1024);
+        assertThat(read(new ElixirTemplateReader(CharBuffer.wrap(template), braces), 1)).isEqualTo(masked);
+        assertThat(masked.length()).isEqualTo(template.length());
+        return masked;
+    }
+
+    @Test
+    public void testIsTemplate() {
+        assertThat(ElixirTemplateReader.isTemplate("lib/page.html.eex")).isTrue();
+        assertThat(ElixirTemplateReader.isTemplate("lib/page.html.heex")).isTrue();
+        assertThat(ElixirTemplateReader.isTemplate("lib/page.html.leex")).isTrue();
+        assertThat(ElixirTemplateReader.isTemplate("lib/page.ex")).isFalse();
+        assertThat(ElixirTemplateReader.isTemplate("lib/heex")).isFalse();
+    }
+
+    @Test
+    public void testEex() throws IOException {
+        assertThat(mask("<ul>\n  <%= for x <- @xs do %>\n\t<li><%= x %></li>\n  <% end %>\n</ul>\n", false))
+                .isEqualTo("____\n  __= for x <- @xs do __\n\t______= x _______\n  __ end __\n_____\n");
+        assertThat(mask("a <%% b %> {c}", false)).isEqualTo("_ ___ _ __ ___");
+    }
+
+    @Test
+    public void testComments() throws IOException {
+        assertThat(mask("<%# a %>\n<%!-- b\n\n c --%><p>\n<!-- d -->", false))
+                .isEqualTo("### # ##\n##### #\n\n # ####___\n#### # ###");
+        assertThat(mask("<% # a\n  # b %>", false)).isEqualTo("__ # a\n  # b __");
+    }
+
+    @Test
+    public void testBraces() throws IOException {
+        assertThat(mask("<p class={@a}>{f(%{b: \"}\\\"\"})}</p>", true))
+                .isEqualTo("__ _______@a___f(%{b: \"}\\\"\"})_____");
+        assertThat(mask("<p>{x}", false)).isEqualTo("______");
+    }
+
+    @Test
+    public void testDelimitersAcrossBuffers() throws IOException {
+        StringBuilder template = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; template.length() < 20000; i++) {
+            template.append(i % 7 == 0 ? "x" : "").append("<%!-- c --%><%= a %>\n");
+            expected.append(i % 7 == 0 ? "_" : "").append("##### # ####__= a __\n");
+        }
+        assertThat(mask(template.toString(), false)).isEqualTo(expected.toString());
+    }
+
+    @Test
+    public void testMetrics() throws IOException {
+        String template = "<%!--\n  Page\n--%>\n<div>\n\n  <%= if @user do %>\n    <%# greeting %>\n"
+                + "    <%= @user.name %>\n  <% end %>\n</div>";
+        ElixirFileMetrics metrics;
+        try (Reader reader = ElixirTemplateReader.forFile(new StringReader(template), "page.html.heex")) {
+            metrics = new ElixirParser().parse(reader, 16);
+        }
+        assertThat(metrics.getLineCount()).isEqualTo(10);
+        assertThat(metrics.getEmptyLineCount()).isEqualTo(1);
+        assertThat(metrics.getCommentLineCount()).isEqualTo(4);
+        assertThat(metrics.getLinesOfCode()).isEqualTo(5);
+    }
+}
@@ -33,6 +33,6 @@ public class ElixirTest {
         Elixir language = new Elixir();
         assertThat(language.getKey()).isEqualTo("elixir");
         assertThat(language.getName()).isEqualTo("Elixir");
-        assertThat(language.getFileSuffixes()).containsOnly("ex", "exs");
+        assertThat(language.getFileSuffixes()).containsOnly("ex", "exs", "eex", "heex", "leex");
     }
 }
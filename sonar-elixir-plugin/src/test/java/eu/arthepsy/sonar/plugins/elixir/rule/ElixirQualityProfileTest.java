@@ -23,6 +23,8 @@
  */
 package eu.arthepsy.sonar.plugins.elixir.rule;
 
+import eu.arthepsy.sonar.plugins.elixir.checks.CheckList;
+import eu.arthepsy.sonar.plugins.elixir.checks.UnusedPublicFunctionCheck;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -44,6 +46,12 @@ public class ElixirQualityProfileTest {
     @Test
     public void testRulesCount() {
         RulesProfile rulesProfile =  profile.createProfile(validationMessages);
-        assertThat(rulesProfile.getActiveRules().size()).isEqualTo(0);
+        assertThat(rulesProfile.getActiveRules().size()).isEqualTo(CheckList.getChecks().size() - 1);
+    }
+
+    @Test
+    public void testUnusedPublicFunctionInactive() {
+        RulesProfile rulesProfile = profile.createProfile(validationMessages);
+        assertThat(rulesProfile.getActiveRule(CheckList.REPOSITORY_KEY, UnusedPublicFunctionCheck.KEY)).isNull();
     }
 }
@@ -0,0 +1,46 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.rule;
+
+import eu.arthepsy.sonar.plugins.elixir.checks.CheckList;
+import eu.arthepsy.sonar.plugins.elixir.checks.LineLengthCheck;
+import org.junit.Test;
+import org.sonar.api.server.rule.RulesDefinition;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ElixirRulesDefinitionTest {
+
+    @Test
+    public void testRepository() {
+        RulesDefinition.Context context = new RulesDefinition.Context();
+        new ElixirRulesDefinition().define(context);
+        RulesDefinition.Repository repository = context.repository(CheckList.REPOSITORY_KEY);
+        assertThat(repository.name()).isEqualTo(CheckList.REPOSITORY_NAME);
+        assertThat(repository.language()).isEqualTo("elixir");
+        assertThat(repository.rules().size()).isEqualTo(CheckList.getChecks().size());
+        RulesDefinition.Rule rule = repository.rule(LineLengthCheck.KEY);
+        assertThat(rule.param("maximumLineLength").defaultValue()).isEqualTo("120");
+    }
+}
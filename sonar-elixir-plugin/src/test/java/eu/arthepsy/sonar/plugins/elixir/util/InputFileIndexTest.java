@@ -0,0 +1,59 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class InputFileIndexTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testGet() throws IOException {
+        File baseDir = temp.newFolder();
+        DefaultFileSystem fileSystem = new DefaultFileSystem();
+        fileSystem.setBaseDir(baseDir);
+        DefaultInputFile file = new DefaultInputFile("lib/a.ex")
+                .setAbsolutePath(new File(baseDir, "lib/a.ex").getAbsolutePath())
+                .setLanguage("elixir");
+        fileSystem.add(file);
+        InputFileIndex index = new InputFileIndex(fileSystem, fileSystem.predicates().all());
+
+        assertThat(index.get("lib/a.ex")).isSameAs(file);
+        assertThat(index.get("./lib/a.ex")).isSameAs(file);
+        assertThat(index.get("lib\\a.ex")).isSameAs(file);
+        assertThat(index.get(new File(baseDir, "lib/a.ex").getAbsolutePath())).isSameAs(file);
+        assertThat(index.get("lib/b.ex")).isNull();
+        assertThat(index.get(new File(temp.newFolder(), "lib/a.ex").getAbsolutePath())).isNull();
+    }
+}
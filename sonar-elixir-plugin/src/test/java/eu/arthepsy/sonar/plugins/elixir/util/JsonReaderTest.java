@@ -0,0 +1,138 @@
+/*
+ * SonarQube Elixir plugin
+ * Copyright (C) 2015 Andris Raugulis
+ * moo@arthepsy.eu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.arthepsy.sonar.plugins.elixir.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class JsonReaderTest {
+
+    @Test
+    public void testValues() throws IOException {
+        JsonReader json = new JsonReader(new StringReader(
+                " {\"a\": [1, -2.5e3, \"x\\\"\\u00e9\\n\", true, false, null], \"b\" : {}, \"c\": []}\n"));
+        json.beginObject();
+        assertThat(json.nextName()).isEqualTo("a");
+        json.beginArray();
+        assertThat(json.nextInt()).isEqualTo(1);
+        assertThat(json.peek()).isEqualTo(JsonReader.Token.NUMBER);
+        assertThat(json.nextString()).isEqualTo("-2.5e3");
+        assertThat(json.nextString()).isEqualTo("x\"é\n");
+        assertThat(json.nextBoolean()).isTrue();
+        assertThat(json.nextBoolean()).isFalse();
+        json.nextNull();
+        assertThat(json.hasNext()).isFalse();
+        json.endArray();
+        assertThat(json.nextName()).isEqualTo("b");
+        json.beginObject();
+        assertThat(json.hasNext()).isFalse();
+        json.endObject();
+        assertThat(json.nextName()).isEqualTo("c");
+        json.beginArray();
+        json.endArray();
+        json.endObject();
+        assertThat(json.peek()).isEqualTo(JsonReader.Token.END_DOCUMENT);
+    }
+
+    @Test
+    public void testSkipValue() throws IOException {
+        JsonReader json = new JsonReader(new StringReader("[{\"a\": [1, {\"b\": [[]]}], \"c\": \"d\"}, 2]"));
+        json.beginArray();
+        json.skipValue();
+        assertThat(json.nextInt()).isEqualTo(2);
+        json.endArray();
+        assertThat(json.hasNext()).isFalse();
+    }
+
+    @Test
+    public void testLargeDocument() throws IOException {
+        final int count = 100000;
+        Reader reader = new Reader() {
+            private int element = -1;
+            private String pending = "[";
+            private int pos;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                if (pos == pending.length()) {
+                    element++;
+                    if (element > count) {
+                        return -1;
+                    }
+                    pending = element == count ? "]" : (element > 0 ? "," : "") + "{\"n\": " + element + "}";
+                    pos = 0;
+                }
+                int n = Math.min(length, pending.length() - pos);
+                pending.getChars(pos, pos + n, buffer, offset);
+                pos += n;
+                return n;
+            }
+
+            @Override
+            public void close() { }
+        };
+        JsonReader json = new JsonReader(reader);
+        json.beginArray();
+        int i = 0;
+        while (json.hasNext()) {
+            json.beginObject();
+            assertThat(json.nextName()).isEqualTo("n");
+            assertThat(json.nextInt()).isEqualTo(i++);
+            json.endObject();
+        }
+        json.endArray();
+        assertThat(i).isEqualTo(count);
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingComma() throws IOException {
+        JsonReader json = new JsonReader(new StringReader("[1 2]"));
+        json.beginArray();
+        json.nextInt();
+        json.nextInt();
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnterminatedString() throws IOException {
+        new JsonReader(new StringReader("\"abc")).nextString();
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnexpectedToken() throws IOException {
+        new JsonReader(new StringReader("{}")).beginArray();
+    }
+
+    @Test(expected = IOException.class)
+    public void testTrailingContent() throws IOException {
+        JsonReader json = new JsonReader(new StringReader("{} x"));
+        json.beginObject();
+        json.endObject();
+        json.peek();
+    }
+}